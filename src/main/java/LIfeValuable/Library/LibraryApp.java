@@ -16,11 +16,21 @@ public class LibraryApp {
     private static final int PORT = 8888;
 
     public static void main(String[] args) throws LifecycleException {
+        start(PORT).getServer().await();
+    }
+
+    /**
+     * Запускает приложение на порту; 0 — свободный порт, его вернёт {@code getConnector().getLocalPort()}.
+     */
+    public static Tomcat start(int port) throws LifecycleException {
         Tomcat tomcat = new Tomcat();
-        tomcat.getConnector().setPort(PORT);
+        tomcat.getConnector().setPort(port);
 
         AnnotationConfigWebApplicationContext context = new AnnotationConfigWebApplicationContext();
         context.register(WebConfig.class);
+        // классы приложения лежат в classpath запуска; с загрузчиком webapp Tomcat CGLIB-подклассы @Configuration
+        // попадают в кэш под чужим загрузчиком, и следующий контекст в той же JVM не может их создать
+        context.setClassLoader(LibraryApp.class.getClassLoader());
 
         Context tomcatContext = tomcat.addContext("", new File(".").getAbsolutePath());
         context.setServletContext(tomcatContext.getServletContext());
@@ -40,6 +50,6 @@ public class LibraryApp {
         tomcatContext.addServletMappingDecoded("/*", "dispatcher");
 
         tomcat.start();
-        tomcat.getServer().await();
+        return tomcat;
     }
 }
@@ -0,0 +1,15 @@
+package LifeValuable.Library.archive;
+
+import java.time.LocalDate;
+
+/**
+ * Возвращённая выдача, перенесённая из базы в архив. Статус не хранится: в архив попадают только RETURNED.
+ */
+public record ArchivedLending(
+        Long id,
+        Long bookId,
+        Long readerId,
+        LocalDate lendingDate,
+        LocalDate dueDate,
+        LocalDate returnDate) {
+}
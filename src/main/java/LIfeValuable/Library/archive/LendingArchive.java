@@ -0,0 +1,169 @@
+package LifeValuable.Library.archive;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Каталог файлов холодного архива выдач. Файл сначала пишется с расширением {@code .lca.tmp}
+ * и переименовывается в {@code .lca} только после удаления его строк из базы, поэтому после сбоя
+ * незавершённые файлы видны через {@link #pendingFiles()} и дописываются при следующем переносе.
+ */
+@Slf4j
+@Component
+public class LendingArchive {
+    static final String EXTENSION = ".lca";
+    static final String PENDING_EXTENSION = EXTENSION + ".tmp";
+    private static final Comparator<ArchivedLending> NEWEST_FIRST = Comparator
+            .comparing(ArchivedLending::lendingDate).thenComparing(ArchivedLending::id).reversed();
+
+    private final Path directory;
+    private volatile List<LendingArchiveFile> files;
+
+    @Autowired
+    public LendingArchive(@Value("${lending.archive.directory:archive/lendings}") String directory) {
+        this(Path.of(directory));
+    }
+
+    public LendingArchive(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Пишет и сбрасывает на диск незавершённый файл; в запросах он не участвует до {@link #promote(Path)}.
+     */
+    public Path stage(List<ArchivedLending> lendings) {
+        long minId = lendings.stream().mapToLong(ArchivedLending::id).min().orElseThrow();
+        long maxId = lendings.stream().mapToLong(ArchivedLending::id).max().orElseThrow();
+        Path path = directory.resolve("lendings-" + minId + "-" + maxId + PENDING_EXTENSION);
+        try {
+            Files.createDirectories(directory);
+            Files.deleteIfExists(path);
+            LendingArchiveFile.write(path, lendings);
+            return path;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write lending archive file " + path, e);
+        }
+    }
+
+    public List<Path> pendingFiles() {
+        return list(PENDING_EXTENSION);
+    }
+
+    public long[] ids(Path pending) {
+        try {
+            return LendingArchiveFile.open(pending).ids();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read lending archive file " + pending, e);
+        }
+    }
+
+    public List<ArchivedLending> read(Path pending) {
+        try {
+            return LendingArchiveFile.open(pending).readAll();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read lending archive file " + pending, e);
+        }
+    }
+
+    public void promote(Path pending) {
+        String name = pending.getFileName().toString();
+        Path target = pending.resolveSibling(name.substring(0, name.length() - PENDING_EXTENSION.length()) + EXTENSION);
+        try {
+            Files.move(pending, target, StandardCopyOption.ATOMIC_MOVE);
+            synchronized (this) {
+                // до первого запроса каталог ещё не прочитан, и файл подхватится вместе с остальными
+                if (files != null) {
+                    List<LendingArchiveFile> updated = new ArrayList<>(files);
+                    updated.add(LendingArchiveFile.open(target));
+                    files = List.copyOf(updated);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to promote lending archive file " + pending, e);
+        }
+    }
+
+    public List<ArchivedLending> findByReaderId(long readerId) {
+        List<ArchivedLending> found = new ArrayList<>();
+        for (LendingArchiveFile file : files()) {
+            if (!file.containsReader(readerId))
+                continue;
+            try {
+                found.addAll(file.findByReaderId(readerId));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read lending archive file " + file.getPath(), e);
+            }
+        }
+        found.sort(NEWEST_FIRST);
+        return found;
+    }
+
+    public List<ArchivedLending> findByBookId(long bookId) {
+        List<ArchivedLending> found = new ArrayList<>();
+        for (LendingArchiveFile file : files()) {
+            if (!file.containsBook(bookId))
+                continue;
+            try {
+                found.addAll(file.findByBookId(bookId));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to read lending archive file " + file.getPath(), e);
+            }
+        }
+        found.sort(NEWEST_FIRST);
+        return found;
+    }
+
+    public int getFileCount() {
+        return files().size();
+    }
+
+    public long getRowCount() {
+        return files().stream().mapToLong(LendingArchiveFile::getRowCount).sum();
+    }
+
+    private List<LendingArchiveFile> files() {
+        List<LendingArchiveFile> result = files;
+        if (result == null) {
+            synchronized (this) {
+                if (files == null) {
+                    List<LendingArchiveFile> opened = new ArrayList<>();
+                    for (Path path : list(EXTENSION)) {
+                        try {
+                            opened.add(LendingArchiveFile.open(path));
+                        } catch (IOException e) {
+                            log.error("Skipping unreadable lending archive file {}: {}", path, e.getMessage());
+                        }
+                    }
+                    files = List.copyOf(opened);
+                }
+                result = files;
+            }
+        }
+        return result;
+    }
+
+    private List<Path> list(String extension) {
+        if (!Files.isDirectory(directory))
+            return List.of();
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + extension)) {
+            stream.forEach(paths::add);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to list lending archive directory " + directory, e);
+        }
+        paths.sort(Comparator.naturalOrder());
+        return paths;
+    }
+}
@@ -0,0 +1,449 @@
+package LifeValuable.Library.archive;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Неизменяемый файл архива выдач в колоночном формате: магическое число, сжатые LZ4 колонки,
+ * подвал, длина подвала и снова магическое число. Строки упорядочены по id.
+ * <ul>
+ *     <li>id — разности соседних значений, varint;</li>
+ *     <li>book_id и reader_id — коды словаря фиксированной ширины 1, 2 или 4 байта;</li>
+ *     <li>lendingdate — разность с предыдущей строкой, zigzag varint;</li>
+ *     <li>duedate и returndate — дни от lendingdate, zigzag varint.</li>
+ * </ul>
+ * Подвал хранит число строк, диапазоны id и дат выдачи, словари книг и читателей и смещения колонок.
+ * Файл без нужной книги или читателя в словаре пропускается без чтения колонок, а при совпадении
+ * колонки декодируются только до последней подходящей строки.
+ */
+public final class LendingArchiveFile {
+    static final int MAGIC = 0x4C434131;
+    private static final int TRAILER_SIZE = 8;
+
+    private static final int ID = 0;
+    private static final int BOOK = 1;
+    private static final int READER = 2;
+    private static final int LENDING_DATE = 3;
+    private static final int DUE_DATE = 4;
+    private static final int RETURN_DATE = 5;
+    private static final int COLUMNS = 6;
+
+    private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+    private static final LZ4FastDecompressor DECOMPRESSOR = LZ4Factory.fastestInstance().fastDecompressor();
+
+    private record Column(long offset, int compressedLength, int rawLength) {}
+
+    private final Path path;
+    private final int rowCount;
+    private final long minId;
+    private final long maxId;
+    private final LocalDate minLendingDate;
+    private final LocalDate maxLendingDate;
+    private final long[] books;
+    private final long[] readers;
+    private final Column[] columns;
+    private final long size;
+
+    private LendingArchiveFile(Path path, int rowCount, long minId, long maxId, LocalDate minLendingDate,
+                               LocalDate maxLendingDate, long[] books, long[] readers, Column[] columns, long size) {
+        this.path = path;
+        this.rowCount = rowCount;
+        this.minId = minId;
+        this.maxId = maxId;
+        this.minLendingDate = minLendingDate;
+        this.maxLendingDate = maxLendingDate;
+        this.books = books;
+        this.readers = readers;
+        this.columns = columns;
+        this.size = size;
+    }
+
+    /**
+     * Записывает новый файл и сбрасывает его на диск: после возврата строки можно удалять из базы.
+     */
+    public static LendingArchiveFile write(Path path, List<ArchivedLending> lendings) throws IOException {
+        if (lendings.isEmpty())
+            throw new IllegalArgumentException("Archive file must contain at least one lending");
+
+        List<ArchivedLending> rows = new ArrayList<>(lendings);
+        rows.sort(Comparator.comparing(ArchivedLending::id));
+        long[] books = dictionary(rows, ArchivedLending::bookId);
+        long[] readers = dictionary(rows, ArchivedLending::readerId);
+        int bookWidth = codeWidth(books.length);
+        int readerWidth = codeWidth(readers.length);
+
+        Output[] values = new Output[COLUMNS];
+        for (int i = 0; i < COLUMNS; i++)
+            values[i] = new Output(rows.size() * 2);
+        long previousId = 0;
+        long previousDay = 0;
+        long minDay = Long.MAX_VALUE;
+        long maxDay = Long.MIN_VALUE;
+        for (ArchivedLending row : rows) {
+            long day = row.lendingDate().toEpochDay();
+            values[ID].writeVarLong(row.id() - previousId);
+            values[BOOK].writeFixed(Arrays.binarySearch(books, row.bookId()), bookWidth);
+            values[READER].writeFixed(Arrays.binarySearch(readers, row.readerId()), readerWidth);
+            values[LENDING_DATE].writeVarLong(zigZag(day - previousDay));
+            values[DUE_DATE].writeVarLong(zigZag(row.dueDate().toEpochDay() - day));
+            values[RETURN_DATE].writeVarLong(zigZag(row.returnDate().toEpochDay() - day));
+            previousId = row.id();
+            previousDay = day;
+            minDay = Math.min(minDay, day);
+            maxDay = Math.max(maxDay, day);
+        }
+
+        Output file = new Output(rows.size() * 4);
+        file.writeInt(MAGIC);
+        Column[] columns = new Column[COLUMNS];
+        for (int i = 0; i < COLUMNS; i++) {
+            byte[] compressed = COMPRESSOR.compress(values[i].toByteArray());
+            columns[i] = new Column(file.position, compressed.length, values[i].position);
+            file.writeBytes(compressed);
+        }
+
+        int footerStart = file.position;
+        file.writeVarLong(rows.size());
+        file.writeVarLong(rows.get(0).id());
+        file.writeVarLong(previousId);
+        file.writeVarLong(zigZag(minDay));
+        file.writeVarLong(zigZag(maxDay));
+        writeDictionary(file, books);
+        writeDictionary(file, readers);
+        for (Column column : columns) {
+            file.writeVarLong(column.offset());
+            file.writeVarLong(column.compressedLength());
+            file.writeVarLong(column.rawLength());
+        }
+        file.writeInt(file.position - footerStart);
+        file.writeInt(MAGIC);
+
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            ByteBuffer buffer = ByteBuffer.wrap(file.buffer, 0, file.position);
+            while (buffer.hasRemaining())
+                channel.write(buffer);
+            channel.force(true);
+        }
+        return new LendingArchiveFile(path, rows.size(), rows.get(0).id(), previousId, LocalDate.ofEpochDay(minDay),
+                LocalDate.ofEpochDay(maxDay), books, readers, columns, file.position);
+    }
+
+    /**
+     * Открывает файл, читая только подвал.
+     */
+    public static LendingArchiveFile open(Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (size < Integer.BYTES + TRAILER_SIZE)
+                throw new IOException("Lending archive file is truncated: " + path);
+            ByteBuffer trailer = ByteBuffer.wrap(read(channel, size - TRAILER_SIZE, TRAILER_SIZE));
+            int footerLength = trailer.getInt();
+            if (trailer.getInt() != MAGIC || footerLength <= 0 || footerLength > size - TRAILER_SIZE)
+                throw new IOException("Not a lending archive file: " + path);
+
+            Input footer = new Input(read(channel, size - TRAILER_SIZE - footerLength, footerLength));
+            int rowCount = (int) footer.readVarLong();
+            long minId = footer.readVarLong();
+            long maxId = footer.readVarLong();
+            LocalDate minLendingDate = LocalDate.ofEpochDay(unZigZag(footer.readVarLong()));
+            LocalDate maxLendingDate = LocalDate.ofEpochDay(unZigZag(footer.readVarLong()));
+            long[] books = readDictionary(footer);
+            long[] readers = readDictionary(footer);
+            Column[] columns = new Column[COLUMNS];
+            for (int i = 0; i < COLUMNS; i++)
+                columns[i] = new Column(footer.readVarLong(), (int) footer.readVarLong(), (int) footer.readVarLong());
+            return new LendingArchiveFile(path, rowCount, minId, maxId, minLendingDate, maxLendingDate,
+                    books, readers, columns, size);
+        }
+    }
+
+    public List<ArchivedLending> findByReaderId(long readerId) throws IOException {
+        return find(READER, readers, readerId);
+    }
+
+    public List<ArchivedLending> findByBookId(long bookId) throws IOException {
+        return find(BOOK, books, bookId);
+    }
+
+    public List<ArchivedLending> readAll() throws IOException {
+        int[] rows = new int[rowCount];
+        Arrays.setAll(rows, i -> i);
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return read(channel, rows);
+        }
+    }
+
+    public long[] ids() throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return decodeDeltas(column(channel, ID), rowCount, false);
+        }
+    }
+
+    public boolean containsReader(long readerId) {
+        return Arrays.binarySearch(readers, readerId) >= 0;
+    }
+
+    public boolean containsBook(long bookId) {
+        return Arrays.binarySearch(books, bookId) >= 0;
+    }
+
+    public Path getPath() {
+        return path;
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public long getMinId() {
+        return minId;
+    }
+
+    public long getMaxId() {
+        return maxId;
+    }
+
+    public LocalDate getMinLendingDate() {
+        return minLendingDate;
+    }
+
+    public LocalDate getMaxLendingDate() {
+        return maxLendingDate;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    private List<ArchivedLending> find(int keyColumn, long[] dictionary, long key) throws IOException {
+        int code = Arrays.binarySearch(dictionary, key);
+        if (code < 0)
+            return List.of();
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            int[] rows = matches(column(channel, keyColumn), codeWidth(dictionary.length), code);
+            return read(channel, rows);
+        }
+    }
+
+    private List<ArchivedLending> read(FileChannel channel, int[] rows) throws IOException {
+        if (rows.length == 0)
+            return List.of();
+        int count = rows[rows.length - 1] + 1;
+        long[] ids = decodeDeltas(column(channel, ID), count, false);
+        byte[] bookCodes = column(channel, BOOK);
+        byte[] readerCodes = column(channel, READER);
+        long[] days = decodeDeltas(column(channel, LENDING_DATE), count, true);
+        long[] dueOffsets = decodeZigZag(column(channel, DUE_DATE), count);
+        long[] returnOffsets = decodeZigZag(column(channel, RETURN_DATE), count);
+        int bookWidth = codeWidth(books.length);
+        int readerWidth = codeWidth(readers.length);
+
+        List<ArchivedLending> found = new ArrayList<>(rows.length);
+        for (int row : rows) {
+            long day = days[row];
+            found.add(new ArchivedLending(
+                    ids[row],
+                    books[readFixed(bookCodes, row, bookWidth)],
+                    readers[readFixed(readerCodes, row, readerWidth)],
+                    LocalDate.ofEpochDay(day),
+                    LocalDate.ofEpochDay(day + dueOffsets[row]),
+                    LocalDate.ofEpochDay(day + returnOffsets[row])));
+        }
+        return found;
+    }
+
+    private byte[] column(FileChannel channel, int index) throws IOException {
+        Column column = columns[index];
+        byte[] compressed = read(channel, column.offset(), column.compressedLength());
+        return DECOMPRESSOR.decompress(compressed, column.rawLength());
+    }
+
+    private static byte[] read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0)
+                throw new IOException("Unexpected end of lending archive file");
+        }
+        return buffer.array();
+    }
+
+    static int[] matches(byte[] codes, int width, int code) {
+        int[] found = new int[16];
+        int count = 0;
+        int rows = codes.length / width;
+        switch (width) {
+            case 1 -> {
+                byte target = (byte) code;
+                for (int row = 0; row < rows; row++) {
+                    if (codes[row] == target) {
+                        if (count == found.length)
+                            found = Arrays.copyOf(found, count * 2);
+                        found[count++] = row;
+                    }
+                }
+            }
+            case 2 -> {
+                byte high = (byte) (code >>> 8);
+                byte low = (byte) code;
+                for (int row = 0, i = 0; row < rows; row++, i += 2) {
+                    if (codes[i + 1] == low && codes[i] == high) {
+                        if (count == found.length)
+                            found = Arrays.copyOf(found, count * 2);
+                        found[count++] = row;
+                    }
+                }
+            }
+            default -> {
+                for (int row = 0; row < rows; row++) {
+                    if (readFixed(codes, row, 4) == code) {
+                        if (count == found.length)
+                            found = Arrays.copyOf(found, count * 2);
+                        found[count++] = row;
+                    }
+                }
+            }
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    private static long[] decodeDeltas(byte[] bytes, int count, boolean zigZag) {
+        long[] values = new long[count];
+        Input in = new Input(bytes);
+        long previous = 0;
+        for (int i = 0; i < count; i++) {
+            long delta = in.readVarLong();
+            previous += zigZag ? unZigZag(delta) : delta;
+            values[i] = previous;
+        }
+        return values;
+    }
+
+    private static long[] decodeZigZag(byte[] bytes, int count) {
+        long[] values = new long[count];
+        Input in = new Input(bytes);
+        for (int i = 0; i < count; i++)
+            values[i] = unZigZag(in.readVarLong());
+        return values;
+    }
+
+    private static long[] dictionary(List<ArchivedLending> rows, Function<ArchivedLending, Long> key) {
+        return rows.stream().mapToLong(key::apply).distinct().sorted().toArray();
+    }
+
+    private static void writeDictionary(Output out, long[] dictionary) {
+        out.writeVarLong(dictionary.length);
+        long previous = 0;
+        for (long value : dictionary) {
+            out.writeVarLong(value - previous);
+            previous = value;
+        }
+    }
+
+    private static long[] readDictionary(Input in) {
+        long[] dictionary = new long[(int) in.readVarLong()];
+        long previous = 0;
+        for (int i = 0; i < dictionary.length; i++) {
+            previous += in.readVarLong();
+            dictionary[i] = previous;
+        }
+        return dictionary;
+    }
+
+    static int codeWidth(int dictionarySize) {
+        if (dictionarySize <= 1 << 8)
+            return 1;
+        return dictionarySize <= 1 << 16 ? 2 : 4;
+    }
+
+    private static int readFixed(byte[] bytes, int row, int width) {
+        int offset = row * width;
+        int value = 0;
+        for (int i = 0; i < width; i++)
+            value = (value << 8) | (bytes[offset + i] & 0xFF);
+        return value;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static final class Output {
+        private byte[] buffer;
+        private int position;
+
+        Output(int capacity) {
+            buffer = new byte[Math.max(capacity, 16)];
+        }
+
+        void writeBytes(byte[] bytes) {
+            ensure(bytes.length);
+            System.arraycopy(bytes, 0, buffer, position, bytes.length);
+            position += bytes.length;
+        }
+
+        void writeFixed(int value, int width) {
+            ensure(width);
+            for (int shift = (width - 1) * 8; shift >= 0; shift -= 8)
+                buffer[position++] = (byte) (value >>> shift);
+        }
+
+        void writeInt(int value) {
+            writeFixed(value, Integer.BYTES);
+        }
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        byte[] toByteArray() {
+            return Arrays.copyOf(buffer, position);
+        }
+
+        private void ensure(int length) {
+            if (position + length > buffer.length)
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + length));
+        }
+    }
+
+    private static final class Input {
+        private final byte[] buffer;
+        private int position;
+
+        Input(byte[] buffer) {
+            this.buffer = buffer;
+        }
+
+        long readVarLong() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buffer[position++];
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0)
+                    return result;
+            }
+            throw new IllegalStateException("Malformed varint in lending archive");
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package LifeValuable.Library.audit;
+
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.stereotype.Component;
+import org.springframework.util.ReflectionUtils;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Добавляет {@link AuditMethodInterceptor} к бинам, у которых есть методы с {@link Audited}.
+ * Совет ставится первым в цепочке существующего прокси, то есть снаружи транзакции.
+ */
+@Component
+public class AuditBeanPostProcessor implements BeanPostProcessor {
+    private final ObjectProvider<AuditLog> auditLog;
+
+    // 0 — не ждать сброса записи на диск
+    @Value("${audit.commit-timeout-ms:1000}")
+    private long commitTimeoutMs = 1000;
+
+    @Autowired
+    public AuditBeanPostProcessor(ObjectProvider<AuditLog> auditLog) {
+        this.auditLog = auditLog;
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        Class<?> targetClass = AopUtils.getTargetClass(bean);
+        if (!hasAuditedMethods(targetClass))
+            return bean;
+
+        AuditMethodInterceptor interceptor = new AuditMethodInterceptor(auditLog.getObject(), targetClass,
+                commitTimeoutMs);
+        if (bean instanceof Advised advised && !advised.isFrozen()) {
+            advised.addAdvice(0, interceptor);
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.addAdvice(interceptor);
+        return proxyFactory.getProxy(bean.getClass().getClassLoader());
+    }
+
+    private static boolean hasAuditedMethods(Class<?> targetClass) {
+        AtomicBoolean found = new AtomicBoolean();
+        ReflectionUtils.doWithMethods(targetClass, method -> found.set(true),
+                method -> !found.get() && AnnotatedElementUtils.hasAnnotation(method, Audited.class));
+        return found.get();
+    }
+}
@@ -0,0 +1,5 @@
+package LifeValuable.Library.audit;
+
+public enum AuditEntity {
+    BOOK, GENRE, READER, LENDING
+}
@@ -0,0 +1,262 @@
+package LifeValuable.Library.audit;
+
+import LifeValuable.Library.metrics.Counter;
+import LifeValuable.Library.metrics.MetricsRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Журнал аудита изменяющих вызовов в сегментах, отображённых в память.
+ * <p>
+ * Вызывающие потоки кладут записи в неблокирующую очередь и получают future, которое завершается после
+ * сброса записи на диск. Единственный поток записи разбирает очередь, дописывает записи в текущий сегмент
+ * и делает один {@code force} на всю накопленную пачку, так что одновременные вызовы делят один fsync.
+ * Заполненный сегмент закрывается с сохранением индекса, и запись продолжается в новом файле.
+ */
+@Slf4j
+@Component
+public class AuditLog {
+    private final Path directory;
+    private final int segmentSize;
+    private final int indexInterval;
+    private final int maxBatch;
+    private final boolean readOnly;
+    private final Clock clock;
+    private final Counter appended;
+    private final Counter fsyncs;
+
+    private final ConcurrentLinkedQueue<Pending> queue = new ConcurrentLinkedQueue<>();
+    private final List<AuditSegment> segments = new CopyOnWriteArrayList<>();
+    private volatile boolean opened;
+    private volatile boolean closed;
+    private volatile Thread writer;
+
+    // состояние потока записи
+    private AuditSegment active;
+    private long nextSequence = 1;
+    private long lastTimestamp;
+
+    @Autowired
+    public AuditLog(@Value("${audit.directory:audit}") String directory,
+                    @Value("${audit.segment-size-mb:64}") int segmentSizeMb,
+                    @Value("${audit.index-interval:256}") int indexInterval,
+                    @Value("${audit.max-batch:1024}") int maxBatch,
+                    MetricsRegistry registry) {
+        this(Path.of(directory), segmentSizeMb * 1024 * 1024, indexInterval, maxBatch, false, registry,
+                Clock.systemUTC());
+    }
+
+    AuditLog(Path directory, int segmentSize, int indexInterval, int maxBatch, boolean readOnly,
+             MetricsRegistry registry, Clock clock) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.indexInterval = indexInterval;
+        this.maxBatch = maxBatch;
+        this.readOnly = readOnly;
+        this.clock = clock;
+        this.appended = registry.counter("library_audit_records", "Audit records written");
+        this.fsyncs = registry.counter("library_audit_fsyncs", "Audit log flushes to disk, one per group of records");
+    }
+
+    /**
+     * Открывает каталог только для чтения, например для разбора журнала вне приложения.
+     */
+    public static AuditLog openReadOnly(Path directory) {
+        return new AuditLog(directory, 0, 256, 1, true, new MetricsRegistry(), Clock.systemUTC());
+    }
+
+    public CompletableFuture<Void> append(AuditEntity entity, long entityId, String operation, String actor) {
+        if (readOnly || closed)
+            return CompletableFuture.failedFuture(new IllegalStateException("Audit log is not writable"));
+        Pending pending = new Pending(clock.millis(), entity, entityId, operation, actor);
+        queue.offer(pending);
+        LockSupport.unpark(startWriter());
+        return pending.future;
+    }
+
+    /**
+     * Записи по времени в порядке записи; фильтры по сущности и id необязательны.
+     */
+    public List<AuditRecord> find(AuditEntity entity, Long entityId, Instant from, Instant to, int limit) {
+        open();
+        List<AuditRecord> found = new ArrayList<>();
+        long fromMillis = from != null ? from.toEpochMilli() : Long.MIN_VALUE;
+        long toMillis = to != null ? to.toEpochMilli() : Long.MAX_VALUE;
+        for (AuditSegment segment : segments) {
+            if (!segment.scan(entity, entityId, fromMillis, toMillis, limit, found))
+                break;
+        }
+        return found;
+    }
+
+    public int getSegmentCount() {
+        open();
+        return segments.size();
+    }
+
+    @PreDestroy
+    public void close() {
+        closed = true;
+        Thread thread = writer;
+        if (thread == null)
+            return;
+        LockSupport.unpark(thread);
+        try {
+            thread.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private Thread startWriter() {
+        Thread thread = writer;
+        if (thread == null) {
+            synchronized (this) {
+                thread = writer;
+                if (thread == null) {
+                    open();
+                    thread = new Thread(this::writeLoop, "audit-log-writer");
+                    thread.setDaemon(true);
+                    writer = thread;
+                    thread.start();
+                }
+            }
+        }
+        return thread;
+    }
+
+    private void open() {
+        if (opened)
+            return;
+        synchronized (this) {
+            if (opened)
+                return;
+            try {
+                List<Path> paths = list();
+                for (int i = 0; i < paths.size(); i++) {
+                    boolean last = i == paths.size() - 1;
+                    AuditSegment segment = AuditSegment.open(paths.get(i), last && !readOnly, indexInterval);
+                    segments.add(segment);
+                    nextSequence = segment.getLastSequence() + 1;
+                    lastTimestamp = Math.max(lastTimestamp, segment.getLastTimestamp());
+                    if (segment.isWritable())
+                        active = segment;
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException("Failed to open audit log in " + directory, e);
+            }
+            opened = true;
+        }
+    }
+
+    private void writeLoop() {
+        List<Pending> batch = new ArrayList<>();
+        while (true) {
+            Pending pending = queue.poll();
+            if (pending == null) {
+                if (!batch.isEmpty()) {
+                    commit(batch);
+                    continue;
+                }
+                if (closed)
+                    break;
+                // append и close будят поток сами, а ложное пробуждение только повторит проверку очереди
+                LockSupport.park(this);
+                continue;
+            }
+            try {
+                write(pending);
+                batch.add(pending);
+            } catch (IOException | RuntimeException e) {
+                log.error("Failed to write audit record {} {}: {}", pending.entity, pending.entityId, e.getMessage());
+                pending.future.completeExceptionally(e);
+            }
+            if (batch.size() >= maxBatch)
+                commit(batch);
+        }
+    }
+
+    private void write(Pending pending) throws IOException {
+        // время в журнале не убывает, иначе разреженный индекс по времени перестанет работать
+        long timestamp = Math.max(pending.timestamp, lastTimestamp);
+        if (active == null || !active.append(nextSequence, timestamp, pending.entity, pending.entityId,
+                pending.operation, pending.actor)) {
+            roll();
+            if (!active.append(nextSequence, timestamp, pending.entity, pending.entityId,
+                    pending.operation, pending.actor))
+                throw new IllegalStateException("Audit record does not fit into an empty segment");
+        }
+        nextSequence++;
+        lastTimestamp = timestamp;
+    }
+
+    private void roll() throws IOException {
+        if (active != null)
+            active.seal();
+        Files.createDirectories(directory);
+        active = AuditSegment.create(directory, nextSequence, segmentSize, indexInterval);
+        segments.add(active);
+    }
+
+    private void commit(List<Pending> batch) {
+        try {
+            active.force();
+            fsyncs.labels().inc();
+            appended.labels().inc(batch.size());
+            for (Pending pending : batch)
+                pending.future.complete(null);
+        } catch (RuntimeException e) {
+            log.error("Failed to flush audit log: {}", e.getMessage());
+            for (Pending pending : batch)
+                pending.future.completeExceptionally(e);
+        }
+        batch.clear();
+    }
+
+    private List<Path> list() throws IOException {
+        if (!Files.isDirectory(directory))
+            return List.of();
+        List<Path> paths = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, AuditSegment::isSegment)) {
+            stream.forEach(paths::add);
+        }
+        paths.sort(Comparator.naturalOrder());
+        return paths;
+    }
+
+    private static final class Pending {
+        private final long timestamp;
+        private final AuditEntity entity;
+        private final long entityId;
+        private final String operation;
+        private final String actor;
+        private final CompletableFuture<Void> future = new CompletableFuture<>();
+
+        private Pending(long timestamp, AuditEntity entity, long entityId, String operation, String actor) {
+            this.timestamp = timestamp;
+            this.entity = entity;
+            this.entityId = entityId;
+            this.operation = operation;
+            this.actor = actor;
+        }
+    }
+}
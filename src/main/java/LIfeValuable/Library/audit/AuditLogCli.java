@@ -0,0 +1,64 @@
+package LifeValuable.Library.audit;
+
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * Разбор журнала аудита без запуска приложения, в том числе на живом каталоге: сегменты открываются
+ * только для чтения. Записи печатаются по одной в строке через табуляцию, чтобы их было удобно фильтровать
+ * grep и awk:
+ * <pre>
+ * java -cp library.jar LifeValuable.Library.audit.AuditLogCli audit --entity BOOK --id 42 --from 2026-10-01T00:00:00Z
+ * </pre>
+ */
+public final class AuditLogCli {
+    private static final String USAGE = "Usage: AuditLogCli <directory> [--entity BOOK|GENRE|READER|LENDING] "
+            + "[--id <entity id>] [--from <ISO instant>] [--to <ISO instant>] [--limit <records>]";
+
+    private AuditLogCli() {
+    }
+
+    public static void main(String[] args) {
+        System.exit(run(args, System.out, System.err));
+    }
+
+    static int run(String[] args, PrintStream out, PrintStream err) {
+        if (args.length == 0 || args.length % 2 == 0) {
+            err.println(USAGE);
+            return 2;
+        }
+        AuditEntity entity = null;
+        Long entityId = null;
+        Instant from = null;
+        Instant to = null;
+        int limit = Integer.MAX_VALUE;
+        try {
+            for (int i = 1; i < args.length; i += 2) {
+                String value = args[i + 1];
+                switch (args[i]) {
+                    case "--entity" -> entity = AuditEntity.valueOf(value.toUpperCase(Locale.ROOT));
+                    case "--id" -> entityId = Long.parseLong(value);
+                    case "--from" -> from = Instant.parse(value);
+                    case "--to" -> to = Instant.parse(value);
+                    case "--limit" -> limit = Integer.parseInt(value);
+                    default -> throw new IllegalArgumentException("Unknown option " + args[i]);
+                }
+            }
+        } catch (RuntimeException e) {
+            err.println(e.getMessage());
+            err.println(USAGE);
+            return 2;
+        }
+
+        for (AuditRecord record : AuditLog.openReadOnly(Path.of(args[0])).find(entity, entityId, from, to, limit))
+            out.println(format(record));
+        return 0;
+    }
+
+    static String format(AuditRecord record) {
+        return record.timestamp() + "\t" + record.sequence() + "\t" + record.entity() + "\t" + record.entityId()
+                + "\t" + record.operation() + "\t" + record.actor();
+    }
+}
@@ -0,0 +1,89 @@
+package LifeValuable.Library.audit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.RecordComponent;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Пишет в журнал аудита успешные вызовы методов с {@link Audited}. Совет стоит снаружи транзакции,
+ * поэтому откаченные изменения в журнал не попадают.
+ */
+@Slf4j
+class AuditMethodInterceptor implements MethodInterceptor {
+    private static final String SYSTEM_ACTOR = "system";
+
+    private final AuditLog auditLog;
+    private final Class<?> targetClass;
+    private final long commitTimeoutMs;
+    private final Map<Method, Optional<Audited>> annotations = new ConcurrentHashMap<>();
+
+    AuditMethodInterceptor(AuditLog auditLog, Class<?> targetClass, long commitTimeoutMs) {
+        this.auditLog = auditLog;
+        this.targetClass = targetClass;
+        this.commitTimeoutMs = commitTimeoutMs;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Optional<Audited> audited = annotations.computeIfAbsent(invocation.getMethod(), method ->
+                Optional.ofNullable(AnnotatedElementUtils.findMergedAnnotation(
+                        AopUtils.getMostSpecificMethod(method, targetClass),
+                        Audited.class)));
+        if (audited.isEmpty())
+            return invocation.proceed();
+
+        Object result = invocation.proceed();
+        CompletableFuture<Void> written = auditLog.append(audited.get().value(),
+                entityId(result, invocation.getArguments()), invocation.getMethod().getName(), actor());
+        // изменение уже зафиксировано, поэтому сбой аудита вызов не ломает, а только попадает в лог
+        if (commitTimeoutMs > 0) {
+            try {
+                written.get(commitTimeoutMs, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException | TimeoutException e) {
+                log.error("Audit record for {}.{} was not flushed: {}", targetClass.getSimpleName(),
+                        invocation.getMethod().getName(), e.toString());
+            }
+        }
+        return result;
+    }
+
+    static long entityId(Object result, Object[] arguments) {
+        if (result != null && result.getClass().isRecord()) {
+            for (RecordComponent component : result.getClass().getRecordComponents()) {
+                if (component.getName().equals("id")) {
+                    try {
+                        Object id = component.getAccessor().invoke(result);
+                        if (id instanceof Number number)
+                            return number.longValue();
+                    } catch (ReflectiveOperationException e) {
+                        break;
+                    }
+                }
+            }
+        }
+        for (Object argument : arguments) {
+            if (argument instanceof Long id)
+                return id;
+        }
+        return 0;
+    }
+
+    private static String actor() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : SYSTEM_ACTOR;
+    }
+}
@@ -0,0 +1,12 @@
+package LifeValuable.Library.audit;
+
+import java.time.Instant;
+
+public record AuditRecord(
+        long sequence,
+        Instant timestamp,
+        AuditEntity entity,
+        long entityId,
+        String operation,
+        String actor) {
+}
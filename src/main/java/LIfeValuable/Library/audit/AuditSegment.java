@@ -0,0 +1,328 @@
+package LifeValuable.Library.audit;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * Файл журнала аудита фиксированного размера, отображённый в память.
+ * <p>
+ * Запись: длина, CRC32C тела, затем тело — номер, время в миллисекундах, сущность, её id, операция и автор
+ * (строки до 255 байт). Нулевая длина означает конец данных: файл создаётся сразу нужного размера и заполнен нулями.
+ * Времена внутри файла не убывают, поэтому разреженный индекс «время → смещение» каждой N-й записи позволяет
+ * начинать поиск по диапазону времени не с начала файла. Индекс закрытого сегмента сохраняется рядом в {@code .idx}.
+ */
+final class AuditSegment {
+    static final String PREFIX = "audit-";
+    static final String EXTENSION = ".log";
+    static final String INDEX_EXTENSION = ".idx";
+    private static final int HEADER = 8;
+    // номер, время, сущность, id и длины двух строк
+    private static final int FIXED_BODY = 8 + 8 + 1 + 8 + 1 + 1;
+    private static final int MAX_STRING = 255;
+    private static final AuditEntity[] ENTITIES = AuditEntity.values();
+
+    private final Path path;
+    private final long baseSequence;
+    private final int indexInterval;
+    private final MappedByteBuffer buffer;
+    private final boolean writable;
+    private final CRC32C crc = new CRC32C();
+
+    // позиция записи меняется только потоком записи, читатели видят данные до committed
+    private int position;
+    private volatile int committed;
+    private int records;
+    private long lastSequence;
+    private volatile long firstTimestamp = Long.MAX_VALUE;
+    private volatile long lastTimestamp = Long.MIN_VALUE;
+
+    private long[] indexTimes = new long[16];
+    private int[] indexOffsets = new int[16];
+    private int indexSize;
+
+    private AuditSegment(Path path, long baseSequence, int indexInterval, MappedByteBuffer buffer, boolean writable) {
+        this.path = path;
+        this.baseSequence = baseSequence;
+        this.indexInterval = indexInterval;
+        this.buffer = buffer;
+        this.writable = writable;
+        this.lastSequence = baseSequence - 1;
+    }
+
+    static AuditSegment create(Path directory, long baseSequence, int capacity, int indexInterval) throws IOException {
+        Path path = directory.resolve(fileName(baseSequence));
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+            return new AuditSegment(path, baseSequence, indexInterval, buffer, true);
+        }
+    }
+
+    /**
+     * Открывает существующий сегмент. Закрытый сегмент с файлом индекса не сканируется,
+     * иначе конец данных и индекс восстанавливаются проходом по записям с проверкой CRC.
+     */
+    static AuditSegment open(Path path, boolean writable, int indexInterval) throws IOException {
+        long baseSequence = parseBaseSequence(path);
+        MappedByteBuffer buffer;
+        try (FileChannel channel = writable
+                ? FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)
+                : FileChannel.open(path, StandardOpenOption.READ)) {
+            buffer = channel.map(writable ? FileChannel.MapMode.READ_WRITE : FileChannel.MapMode.READ_ONLY,
+                    0, channel.size());
+        }
+        AuditSegment segment = new AuditSegment(path, baseSequence, indexInterval, buffer, writable);
+        Path index = indexPath(path);
+        if (writable || !Files.exists(index) || !segment.loadIndex(index))
+            segment.recover();
+        return segment;
+    }
+
+    static boolean isSegment(Path path) {
+        String name = path.getFileName().toString();
+        return name.startsWith(PREFIX) && name.endsWith(EXTENSION);
+    }
+
+    static String fileName(long baseSequence) {
+        return String.format("%s%020d%s", PREFIX, baseSequence, EXTENSION);
+    }
+
+    /**
+     * Дописывает запись без сброса на диск; false — в сегменте не хватает места.
+     */
+    boolean append(long sequence, long timestamp, AuditEntity entity, long entityId, String operation, String actor) {
+        byte[] operationBytes = truncate(operation);
+        byte[] actorBytes = truncate(actor);
+        int bodyLength = FIXED_BODY + operationBytes.length + actorBytes.length;
+        int recordLength = HEADER + bodyLength;
+        if (position + recordLength > buffer.capacity())
+            return false;
+
+        int bodyStart = position + HEADER;
+        buffer.position(bodyStart);
+        buffer.putLong(sequence);
+        buffer.putLong(timestamp);
+        buffer.put((byte) entity.ordinal());
+        buffer.putLong(entityId);
+        buffer.put((byte) operationBytes.length);
+        buffer.put(operationBytes);
+        buffer.put((byte) actorBytes.length);
+        buffer.put(actorBytes);
+        crc.reset();
+        crc.update(buffer.slice(bodyStart, bodyLength));
+        buffer.putInt(position + 4, (int) crc.getValue());
+        // длина пишется последней: до неё запись для сканирования не существует
+        buffer.putInt(position, bodyLength + 4);
+
+        indexRecord(timestamp, position);
+        position += recordLength;
+        lastSequence = sequence;
+        return true;
+    }
+
+    void force() {
+        if (committed == position)
+            return;
+        buffer.force(committed, position - committed);
+        committed = position;
+    }
+
+    void seal() throws IOException {
+        force();
+        writeIndex();
+    }
+
+    /**
+     * Добавляет в out записи из диапазона времени, подходящие под фильтр; false — набран limit.
+     */
+    boolean scan(AuditEntity entity, Long entityId, long fromMillis, long toMillis, int limit, List<AuditRecord> out) {
+        if (committed == 0 || lastTimestamp < fromMillis || firstTimestamp > toMillis)
+            return true;
+        ByteBuffer view = buffer.duplicate();
+        int end = committed;
+        int offset = startOffset(fromMillis);
+        while (offset + HEADER <= end) {
+            int length = view.getInt(offset);
+            if (length <= 0 || offset + 4 + length > end)
+                break;
+            int body = offset + HEADER;
+            long timestamp = view.getLong(body + 8);
+            if (timestamp > toMillis)
+                break;
+            if (timestamp >= fromMillis
+                    && (entity == null || view.get(body + 16) == entity.ordinal())
+                    && (entityId == null || view.getLong(body + 17) == entityId)) {
+                out.add(decode(view, body));
+                if (out.size() >= limit)
+                    return false;
+            }
+            offset += 4 + length;
+        }
+        return true;
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    long getBaseSequence() {
+        return baseSequence;
+    }
+
+    long getLastSequence() {
+        return lastSequence;
+    }
+
+    long getLastTimestamp() {
+        return lastTimestamp;
+    }
+
+    int getCommittedBytes() {
+        return committed;
+    }
+
+    boolean isWritable() {
+        return writable;
+    }
+
+    private void recover() {
+        ByteBuffer view = buffer.duplicate();
+        int offset = 0;
+        while (offset + HEADER <= view.capacity()) {
+            int length = view.getInt(offset);
+            if (length < FIXED_BODY + 4 || offset + 4 + length > view.capacity())
+                break;
+            int body = offset + HEADER;
+            int bodyLength = length - 4;
+            crc.reset();
+            crc.update(view.slice(body, bodyLength));
+            // хвост, недописанный до сбоя, отбрасывается
+            if ((int) crc.getValue() != view.getInt(offset + 4))
+                break;
+            lastSequence = view.getLong(body);
+            indexRecord(view.getLong(body + 8), offset);
+            offset += 4 + length;
+        }
+        position = offset;
+        committed = offset;
+        if (writable && offset + HEADER <= buffer.capacity())
+            // затираем недописанный хвост, чтобы новая запись не склеилась со старыми байтами
+            buffer.putInt(offset, 0);
+    }
+
+    private void indexRecord(long timestamp, int offset) {
+        if (records == 0)
+            firstTimestamp = timestamp;
+        lastTimestamp = timestamp;
+        if (records % indexInterval == 0) {
+            synchronized (this) {
+                if (indexSize == indexTimes.length) {
+                    indexTimes = Arrays.copyOf(indexTimes, indexSize * 2);
+                    indexOffsets = Arrays.copyOf(indexOffsets, indexSize * 2);
+                }
+                indexTimes[indexSize] = timestamp;
+                indexOffsets[indexSize] = offset;
+                indexSize++;
+            }
+        }
+        records++;
+    }
+
+    // последняя точка индекса строго раньше начала диапазона: записи с равным временем могут идти до неё
+    private synchronized int startOffset(long fromMillis) {
+        int low = 0;
+        int high = indexSize - 1;
+        int found = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            if (indexTimes[middle] < fromMillis) {
+                found = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        return found < 0 ? 0 : indexOffsets[found];
+    }
+
+    private synchronized void writeIndex() throws IOException {
+        ByteBuffer index = ByteBuffer.allocate(4 + 4 + 8 + 8 + 8 + indexSize * 12);
+        index.putInt(records);
+        index.putInt(committed);
+        index.putLong(lastSequence);
+        index.putLong(firstTimestamp);
+        index.putLong(lastTimestamp);
+        for (int i = 0; i < indexSize; i++) {
+            index.putLong(indexTimes[i]);
+            index.putInt(indexOffsets[i]);
+        }
+        Path tmp = indexPath(path).resolveSibling(indexPath(path).getFileName() + ".tmp");
+        Files.write(tmp, index.array());
+        Files.move(tmp, indexPath(path), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private synchronized boolean loadIndex(Path index) throws IOException {
+        ByteBuffer data = ByteBuffer.wrap(Files.readAllBytes(index));
+        if (data.remaining() < 32 || (data.remaining() - 32) % 12 != 0)
+            return false;
+        records = data.getInt();
+        committed = data.getInt();
+        position = committed;
+        lastSequence = data.getLong();
+        firstTimestamp = data.getLong();
+        lastTimestamp = data.getLong();
+        indexSize = data.remaining() / 12;
+        indexTimes = new long[Math.max(indexSize, 1)];
+        indexOffsets = new int[Math.max(indexSize, 1)];
+        for (int i = 0; i < indexSize; i++) {
+            indexTimes[i] = data.getLong();
+            indexOffsets[i] = data.getInt();
+        }
+        return committed <= buffer.capacity();
+    }
+
+    private static AuditRecord decode(ByteBuffer view, int body) {
+        int operationLength = view.get(body + 25) & 0xFF;
+        int actorStart = body + 26 + operationLength;
+        int actorLength = view.get(actorStart) & 0xFF;
+        return new AuditRecord(
+                view.getLong(body),
+                Instant.ofEpochMilli(view.getLong(body + 8)),
+                ENTITIES[view.get(body + 16)],
+                view.getLong(body + 17),
+                string(view, body + 26, operationLength),
+                string(view, actorStart + 1, actorLength));
+    }
+
+    private static String string(ByteBuffer view, int offset, int length) {
+        byte[] bytes = new byte[length];
+        view.get(offset, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static byte[] truncate(String value) {
+        byte[] bytes = (value != null ? value : "").getBytes(StandardCharsets.UTF_8);
+        return bytes.length <= MAX_STRING ? bytes : Arrays.copyOf(bytes, MAX_STRING);
+    }
+
+    private static Path indexPath(Path segment) {
+        String name = segment.getFileName().toString();
+        return segment.resolveSibling(name.substring(0, name.length() - EXTENSION.length()) + INDEX_EXTENSION);
+    }
+
+    private static long parseBaseSequence(Path path) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - EXTENSION.length()));
+    }
+}
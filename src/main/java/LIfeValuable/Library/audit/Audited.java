@@ -0,0 +1,16 @@
+package LifeValuable.Library.audit;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Изменяющий метод сервиса, каждый успешный вызов которого попадает в {@link AuditLog}.
+ * Идентификатор сущности берётся из поля {@code id} результата, а если его нет — из первого аргумента типа {@code Long}.
+ */
+@Target(ElementType.METHOD)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface Audited {
+    AuditEntity value();
+}
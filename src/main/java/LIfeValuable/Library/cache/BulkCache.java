@@ -0,0 +1,42 @@
+package LifeValuable.Library.cache;
+
+import org.springframework.cache.Cache;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Пакетный доступ к кэшу за один сетевой обход. Для кэшей без поддержки
+ * пакетных операций {@link #getAll(Cache, Collection)} и {@link #putAll(Cache, Map)}
+ * сводятся к поштучным вызовам.
+ */
+public interface BulkCache {
+
+    /**
+     * Возвращает найденные значения; ключи-промахи в результат не попадают.
+     */
+    Map<Object, Object> getAll(Collection<?> keys);
+
+    void putAll(Map<?, ?> entries);
+
+    static Map<Object, Object> getAll(Cache cache, Collection<?> keys) {
+        if (cache instanceof BulkCache bulkCache)
+            return bulkCache.getAll(keys);
+
+        Map<Object, Object> found = new LinkedHashMap<>();
+        for (Object key : keys) {
+            Cache.ValueWrapper cached = cache.get(key);
+            if (cached != null)
+                found.put(key, cached.get());
+        }
+        return found;
+    }
+
+    static void putAll(Cache cache, Map<?, ?> entries) {
+        if (cache instanceof BulkCache bulkCache)
+            bulkCache.putAll(entries);
+        else
+            entries.forEach(cache::put);
+    }
+}
@@ -0,0 +1,158 @@
+package LifeValuable.Library.cache;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.function.LongSupplier;
+
+/**
+ * Автомат для слоя кэша: при доле ошибок и медленных вызовов выше порога размыкается
+ * и на время {@code openDuration} отправляет все запросы мимо кэша. Затем пропускает
+ * несколько пробных вызовов и по их результату замыкается или размыкается снова.
+ */
+@Slf4j
+public class CacheCircuitBreaker {
+    private static final int HISTORY_SIZE = 50;
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    public record Settings(int windowSize, int minimumCalls, double failureRateThreshold,
+                           Duration slowCallThreshold, Duration openDuration, int halfOpenProbes) {}
+
+    public record Transition(State from, State to, Instant at, String reason) {}
+
+    private final Settings settings;
+    private final LongSupplier nanoClock;
+    private final Clock clock;
+    private final List<Consumer<Transition>> listeners = new CopyOnWriteArrayList<>();
+    private final Deque<Transition> history = new ArrayDeque<>();
+
+    private final boolean[] outcomes;
+    private int position;
+    private int calls;
+    private int failures;
+
+    private int probesInFlight;
+    private int probeSuccesses;
+
+    private volatile State state = State.CLOSED;
+    private volatile long openUntil;
+
+    public CacheCircuitBreaker(Settings settings) {
+        this(settings, System::nanoTime, Clock.systemUTC());
+    }
+
+    public CacheCircuitBreaker(Settings settings, LongSupplier nanoClock, Clock clock) {
+        this.settings = settings;
+        this.nanoClock = nanoClock;
+        this.clock = clock;
+        this.outcomes = new boolean[settings.windowSize()];
+    }
+
+    public boolean allowRequest() {
+        State current = state;
+        if (current == State.CLOSED)
+            return true;
+        if (current == State.OPEN && nanoClock.getAsLong() - openUntil < 0)
+            return false;
+
+        synchronized (this) {
+            if (state == State.OPEN) {
+                if (nanoClock.getAsLong() - openUntil < 0)
+                    return false;
+                transitionTo(State.HALF_OPEN, "open duration elapsed");
+            }
+            if (state == State.CLOSED)
+                return true;
+            if (probesInFlight + probeSuccesses < settings.halfOpenProbes()) {
+                probesInFlight++;
+                return true;
+            }
+            return false;
+        }
+    }
+
+    public void recordSuccess(long durationNanos) {
+        if (durationNanos > settings.slowCallThreshold().toNanos())
+            onResult(true, "slow call " + Duration.ofNanos(durationNanos).toMillis() + " ms");
+        else
+            onResult(false, null);
+    }
+
+    public void recordFailure(Throwable cause) {
+        onResult(true, cause.toString());
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public synchronized List<Transition> getTransitions() {
+        return List.copyOf(history);
+    }
+
+    public void addListener(Consumer<Transition> listener) {
+        listeners.add(listener);
+    }
+
+    private synchronized void onResult(boolean failed, String reason) {
+        switch (state) {
+            case CLOSED -> {
+                if (calls == outcomes.length) {
+                    if (outcomes[position])
+                        failures--;
+                } else {
+                    calls++;
+                }
+                outcomes[position] = failed;
+                if (failed)
+                    failures++;
+                position = (position + 1) % outcomes.length;
+
+                if (calls >= settings.minimumCalls()
+                        && (double) failures / calls >= settings.failureRateThreshold())
+                    transitionTo(State.OPEN, reason);
+            }
+            case HALF_OPEN -> {
+                probesInFlight = Math.max(0, probesInFlight - 1);
+                if (failed) {
+                    transitionTo(State.OPEN, "probe failed: " + reason);
+                } else if (++probeSuccesses >= settings.halfOpenProbes()) {
+                    transitionTo(State.CLOSED, "probes succeeded");
+                }
+            }
+            case OPEN -> {
+                // результаты вызовов, начатых до размыкания, не учитываем
+            }
+        }
+    }
+
+    private void transitionTo(State target, String reason) {
+        Transition transition = new Transition(state, target, clock.instant(), reason);
+        state = target;
+        if (target == State.OPEN)
+            openUntil = nanoClock.getAsLong() + settings.openDuration().toNanos();
+        calls = 0;
+        failures = 0;
+        position = 0;
+        probesInFlight = 0;
+        probeSuccesses = 0;
+
+        if (history.size() == HISTORY_SIZE)
+            history.removeFirst();
+        history.addLast(transition);
+        if (target == State.OPEN)
+            log.warn("Cache circuit breaker {} -> {}: {}", transition.from(), target, reason);
+        else
+            log.info("Cache circuit breaker {} -> {}: {}", transition.from(), target, reason);
+        for (Consumer<Transition> listener : listeners)
+            listener.accept(transition);
+    }
+}
@@ -0,0 +1,10 @@
+package LifeValuable.Library.cache;
+
+import java.time.Duration;
+
+public interface CacheLease {
+    boolean tryAcquire(String key, Duration ttl);
+    void release(String key);
+    // продлевает ещё не истёкшую аренду этого узла; false, если её уже нет
+    boolean renew(String key, Duration ttl);
+}
@@ -0,0 +1,150 @@
+package LifeValuable.Library.cache;
+
+import LifeValuable.Library.repository.BookLendingProjection;
+import LifeValuable.Library.repository.BookRepository;
+import LifeValuable.Library.repository.LendingRepository;
+import LifeValuable.Library.service.BookService;
+import LifeValuable.Library.service.GenreService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntSupplier;
+
+/**
+ * Прогрев кэшей при старте: каталог жанров, сущности самых популярных книг в кэше второго уровня
+ * и их карточки в кэше {@code books}. Страницы списков не кэшируются и не прогреваются.
+ * Контекст поднимается при инициализации DispatcherServlet, а Tomcat запускает коннектор только
+ * после старта контекста, поэтому трафик начинает приниматься уже после прогрева.
+ */
+@Slf4j
+@Component
+public class CacheWarmer {
+    private final LendingRepository lendingRepository;
+    private final BookRepository bookRepository;
+    private final BookService bookService;
+    private final GenreService genreService;
+
+    @Value("${cache.warmup.enabled:true}")
+    private boolean enabled = true;
+
+    @Value("${cache.warmup.top-books:200}")
+    private int topBooks = 200;
+
+    @Value("${cache.warmup.batch-size:20}")
+    private int batchSize = 20;
+
+    @Value("${cache.warmup.parallelism:4}")
+    private int parallelism = 4;
+
+    @Value("${cache.warmup.budget-ms:10000}")
+    private long budgetMs = 10000;
+
+    private volatile WarmupReport lastReport;
+
+    /**
+     * @param books    карточки книг в кэше {@code books}
+     * @param entities книги с жанрами в кэше второго уровня
+     * @param genres   жанры в каталоге {@link GenreService}
+     */
+    public record WarmupReport(int books, int entities, int genres, int failed, boolean budgetExceeded,
+                               Duration duration) {}
+
+    @Autowired
+    public CacheWarmer(LendingRepository lendingRepository, BookRepository bookRepository, BookService bookService,
+                       GenreService genreService) {
+        this.lendingRepository = lendingRepository;
+        this.bookRepository = bookRepository;
+        this.bookService = bookService;
+        this.genreService = genreService;
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void onContextRefreshed() {
+        if (enabled)
+            warmUp();
+    }
+
+    public WarmupReport warmUp() {
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(budgetMs);
+        AtomicInteger books = new AtomicInteger();
+        AtomicInteger entities = new AtomicInteger();
+        AtomicInteger genres = new AtomicInteger();
+        AtomicInteger failed = new AtomicInteger();
+        boolean budgetExceeded = false;
+
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism, runnable -> {
+            Thread thread = new Thread(runnable, "cache-warmup");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Long> bookIds = lendingRepository.findTopBorrowedBooks(PageRequest.of(0, topBooks)).stream()
+                    .map(BookLendingProjection::getId)
+                    .toList();
+
+            List<Callable<Void>> tasks = new ArrayList<>();
+            tasks.add(() -> {
+                run(() -> {
+                    genreService.reload();
+                    return genreService.findAll().size();
+                }, genres, failed);
+                return null;
+            });
+            for (int from = 0; from < bookIds.size(); from += batchSize) {
+                List<Long> batch = bookIds.subList(from, Math.min(from + batchSize, bookIds.size()));
+                tasks.add(() -> {
+                    // сначала сущности: промахи кэша books дочитываются уже из кэша второго уровня
+                    run(() -> bookRepository.findWithGenresByIdIn(batch).size(), entities, failed);
+                    run(() -> bookService.findAllByIds(batch).size(), books, failed);
+                    return null;
+                });
+            }
+
+            long remaining = deadline - System.nanoTime();
+            List<Future<Void>> futures = executor.invokeAll(tasks, Math.max(remaining, 0), TimeUnit.NANOSECONDS);
+            budgetExceeded = futures.stream().anyMatch(Future::isCancelled);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            budgetExceeded = true;
+        } catch (RuntimeException e) {
+            log.warn("Cache warm-up aborted: {}", e.toString());
+            failed.incrementAndGet();
+        } finally {
+            executor.shutdownNow();
+        }
+
+        WarmupReport report = new WarmupReport(books.get(), entities.get(), genres.get(), failed.get(),
+                budgetExceeded, Duration.ofNanos(System.nanoTime() - start));
+        lastReport = report;
+        log.info("Cache warm-up finished in {} ms: {} books, {} entities, {} genres, {} failed{}",
+                report.duration().toMillis(), report.books(), report.entities(), report.genres(), report.failed(),
+                report.budgetExceeded() ? ", budget of " + budgetMs + " ms exceeded" : "");
+        return report;
+    }
+
+    public WarmupReport getLastReport() {
+        return lastReport;
+    }
+
+    private void run(IntSupplier step, AtomicInteger warmed, AtomicInteger failed) {
+        if (Thread.currentThread().isInterrupted())
+            return;
+        try {
+            warmed.addAndGet(step.getAsInt());
+        } catch (RuntimeException e) {
+            log.debug("Cache warm-up step failed: {}", e.toString());
+            failed.incrementAndGet();
+        }
+    }
+}
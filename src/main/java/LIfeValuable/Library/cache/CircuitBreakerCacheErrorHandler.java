@@ -0,0 +1,39 @@
+package LifeValuable.Library.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.interceptor.CacheErrorHandler;
+
+@Slf4j
+public class CircuitBreakerCacheErrorHandler implements CacheErrorHandler {
+    private final CacheCircuitBreaker circuitBreaker;
+
+    public CircuitBreakerCacheErrorHandler(CacheCircuitBreaker circuitBreaker) {
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public void handleCacheGetError(RuntimeException exception, Cache cache, Object key) {
+        onError("get", exception, cache, key);
+    }
+
+    @Override
+    public void handleCachePutError(RuntimeException exception, Cache cache, Object key, Object value) {
+        onError("put", exception, cache, key);
+    }
+
+    @Override
+    public void handleCacheEvictError(RuntimeException exception, Cache cache, Object key) {
+        onError("evict", exception, cache, key);
+    }
+
+    @Override
+    public void handleCacheClearError(RuntimeException exception, Cache cache) {
+        onError("clear", exception, cache, null);
+    }
+
+    private void onError(String operation, RuntimeException exception, Cache cache, Object key) {
+        circuitBreaker.recordFailure(exception);
+        log.warn("Cache {} failed on {} of key {}: {}", cache.getName(), operation, key, exception.toString());
+    }
+}
@@ -0,0 +1,189 @@
+package LifeValuable.Library.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * Обходит кэш, пока {@link CacheCircuitBreaker} разомкнут: чтения становятся промахами,
+ * а записи и удаления запоминаются как ключи к инвалидации и применяются при восстановлении,
+ * чтобы после возврата Redis не отдавать устаревшие значения.
+ */
+@Slf4j
+public class CircuitBreakingCache implements Cache, BulkCache {
+    private static final int MAX_PENDING_INVALIDATIONS = 10_000;
+
+    private final Cache delegate;
+    private final CacheCircuitBreaker circuitBreaker;
+
+    private final Set<Object> pendingInvalidations = ConcurrentHashMap.newKeySet();
+    private volatile boolean pendingClear;
+
+    public CircuitBreakingCache(Cache delegate, CacheCircuitBreaker circuitBreaker) {
+        this.delegate = delegate;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return call(() -> delegate.get(key), null);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return call(() -> delegate.get(key, type), null);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = get(key);
+        if (cached != null)
+            return (T) cached.get();
+
+        T value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        put(key, value);
+        return value;
+    }
+
+    @Override
+    public Map<Object, Object> getAll(Collection<?> keys) {
+        return call(() -> BulkCache.getAll(delegate, keys), Map.of());
+    }
+
+    @Override
+    public void putAll(Map<?, ?> entries) {
+        Boolean written = call(() -> {
+            BulkCache.putAll(delegate, entries);
+            return true;
+        }, null);
+        if (written == null)
+            entries.keySet().forEach(this::invalidateLater);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        Boolean written = call(() -> {
+            delegate.put(key, value);
+            return true;
+        }, null);
+        if (written == null)
+            invalidateLater(key);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper[] existing = new ValueWrapper[1];
+        Boolean written = call(() -> {
+            existing[0] = delegate.putIfAbsent(key, value);
+            return true;
+        }, null);
+        if (written == null)
+            invalidateLater(key);
+        return existing[0];
+    }
+
+    @Override
+    public void evict(Object key) {
+        Boolean evicted = call(() -> {
+            delegate.evict(key);
+            return true;
+        }, null);
+        if (evicted == null)
+            invalidateLater(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        Boolean evicted = call(() -> delegate.evictIfPresent(key), null);
+        if (evicted == null) {
+            invalidateLater(key);
+            return false;
+        }
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        Boolean cleared = call(() -> {
+            delegate.clear();
+            return true;
+        }, null);
+        if (cleared == null)
+            pendingClear = true;
+    }
+
+    @Override
+    public boolean invalidate() {
+        Boolean invalidated = call(delegate::invalidate, null);
+        if (invalidated == null) {
+            pendingClear = true;
+            return false;
+        }
+        return invalidated;
+    }
+
+    public int getPendingInvalidations() {
+        return pendingClear ? -1 : pendingInvalidations.size();
+    }
+
+    private <T> T call(Supplier<T> operation, T fallback) {
+        if (!circuitBreaker.allowRequest())
+            return fallback;
+
+        long start = System.nanoTime();
+        try {
+            applyPendingInvalidations();
+            T result = operation.get();
+            circuitBreaker.recordSuccess(System.nanoTime() - start);
+            return result;
+        } catch (RuntimeException e) {
+            circuitBreaker.recordFailure(e);
+            log.debug("Cache {} bypassed after failure: {}", getName(), e.toString());
+            return fallback;
+        }
+    }
+
+    private void applyPendingInvalidations() {
+        if (pendingClear) {
+            delegate.clear();
+            pendingClear = false;
+            pendingInvalidations.clear();
+            return;
+        }
+        if (pendingInvalidations.isEmpty())
+            return;
+        for (Object key : pendingInvalidations) {
+            delegate.evict(key);
+            pendingInvalidations.remove(key);
+        }
+    }
+
+    private void invalidateLater(Object key) {
+        if (pendingInvalidations.size() >= MAX_PENDING_INVALIDATIONS)
+            pendingClear = true;
+        else
+            pendingInvalidations.add(key);
+    }
+}
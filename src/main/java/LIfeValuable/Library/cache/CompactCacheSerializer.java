@@ -0,0 +1,367 @@
+package LifeValuable.Library.cache;
+
+import LifeValuable.Library.dto.book.BookDTO;
+import LifeValuable.Library.dto.book.BookDetailDTO;
+import LifeValuable.Library.dto.cache.CacheablePage;
+import LifeValuable.Library.dto.reader.ReaderDetailDTO;
+import lombok.extern.slf4j.Slf4j;
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Компактный бинарный формат значений кэша. Заголовок: магический байт, версия формата и флаги.
+ * Каждая запись DTO начинается с числа полей, поэтому новые поля можно дописывать в конец,
+ * не ломая чтение на узлах со старой версией. Значения без заголовка читаются как JSON,
+ * записанный прежним сериализатором.
+ */
+@Slf4j
+public class CompactCacheSerializer implements RedisSerializer<Object> {
+    static final byte MAGIC = (byte) 0xC5;
+    static final byte VERSION = 1;
+    static final int HEADER_SIZE = 3;
+
+    private static final byte FLAG_LZ4 = 1;
+    private static final int MAX_BODY_SIZE = 64 * 1024 * 1024;
+
+    private static final byte NULL = 0;
+    private static final byte STRING = 1;
+    private static final byte INT = 2;
+    private static final byte LONG = 3;
+    private static final byte TRUE = 4;
+    private static final byte FALSE = 5;
+    private static final byte DOUBLE = 6;
+    private static final byte LOCAL_DATE = 7;
+    private static final byte LIST = 8;
+    private static final byte BOOK_DETAIL = 16;
+    private static final byte BOOK = 17;
+    private static final byte READER_DETAIL = 18;
+    private static final byte PAGE = 19;
+    private static final byte JSON = 127;
+
+    private final RedisSerializer<Object> jsonSerializer;
+    private final int compressionThreshold;
+    private final LZ4Compressor compressor = LZ4Factory.fastestInstance().fastCompressor();
+    private final LZ4FastDecompressor decompressor = LZ4Factory.fastestInstance().fastDecompressor();
+
+    public CompactCacheSerializer(int compressionThreshold) {
+        this(new GenericJackson2JsonRedisSerializer(), compressionThreshold);
+    }
+
+    public CompactCacheSerializer(RedisSerializer<Object> jsonSerializer, int compressionThreshold) {
+        this.jsonSerializer = jsonSerializer;
+        this.compressionThreshold = compressionThreshold;
+    }
+
+    @Override
+    public byte[] serialize(Object value) throws SerializationException {
+        if (value == null)
+            return new byte[0];
+
+        Output body = new Output(64);
+        body.buffer[0] = MAGIC;
+        body.buffer[1] = VERSION;
+        body.position = HEADER_SIZE;
+        writeValue(body, value);
+
+        int bodyLength = body.position - HEADER_SIZE;
+        if (compressionThreshold > 0 && bodyLength >= compressionThreshold) {
+            byte[] compressed = compress(body.buffer, bodyLength);
+            if (compressed != null)
+                return compressed;
+        }
+        return Arrays.copyOf(body.buffer, body.position);
+    }
+
+    @Override
+    public Object deserialize(byte[] bytes) throws SerializationException {
+        if (bytes == null || bytes.length == 0)
+            return null;
+        if (bytes[0] != MAGIC)
+            return jsonSerializer.deserialize(bytes);
+        if (bytes.length < HEADER_SIZE)
+            throw new SerializationException("Truncated cache entry");
+        if (bytes[1] > VERSION) {
+            // запись от более нового узла: считаем промахом, а не падаем
+            log.debug("Skipping cache entry written with format version {}", bytes[1]);
+            return null;
+        }
+
+        // битая или обрезанная запись должна дойти до обработчика ошибок кэша как SerializationException
+        try {
+            Input input;
+            if ((bytes[2] & FLAG_LZ4) != 0) {
+                Input header = new Input(bytes, HEADER_SIZE);
+                int length = header.readVarInt();
+                if (length < 0 || length > MAX_BODY_SIZE)
+                    throw new SerializationException("Invalid cache entry length " + length);
+                byte[] body = new byte[length];
+                decompressor.decompress(bytes, header.position, body, 0, length);
+                input = new Input(body, 0);
+            } else {
+                input = new Input(bytes, HEADER_SIZE);
+            }
+            return readValue(input);
+        } catch (SerializationException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw new SerializationException("Cannot read cache entry", e);
+        }
+    }
+
+    private byte[] compress(byte[] buffer, int bodyLength) {
+        Output header = new Output(HEADER_SIZE + 5);
+        header.writeByte(MAGIC);
+        header.writeByte(VERSION);
+        header.writeByte(FLAG_LZ4);
+        header.writeVarInt(bodyLength);
+
+        byte[] result = new byte[header.position + compressor.maxCompressedLength(bodyLength)];
+        System.arraycopy(header.buffer, 0, result, 0, header.position);
+        int compressedLength = compressor.compress(buffer, HEADER_SIZE, bodyLength,
+                result, header.position, result.length - header.position);
+        if (compressedLength >= bodyLength)
+            return null;
+        return Arrays.copyOf(result, header.position + compressedLength);
+    }
+
+    private void writeValue(Output out, Object value) {
+        if (value == null) {
+            out.writeByte(NULL);
+        } else if (value instanceof String string) {
+            out.writeByte(STRING);
+            out.writeString(string);
+        } else if (value instanceof Integer number) {
+            out.writeByte(INT);
+            out.writeVarLong(zigZag(number));
+        } else if (value instanceof Long number) {
+            out.writeByte(LONG);
+            out.writeVarLong(zigZag(number));
+        } else if (value instanceof Boolean flag) {
+            out.writeByte(flag ? TRUE : FALSE);
+        } else if (value instanceof Double number) {
+            out.writeByte(DOUBLE);
+            out.writeLong(Double.doubleToLongBits(number));
+        } else if (value instanceof LocalDate date) {
+            out.writeByte(LOCAL_DATE);
+            out.writeVarLong(zigZag(date.toEpochDay()));
+        } else if (value instanceof List<?> list) {
+            out.writeByte(LIST);
+            out.writeVarInt(list.size());
+            for (Object element : list)
+                writeValue(out, element);
+        } else if (value instanceof BookDetailDTO book) {
+            writeRecord(out, BOOK_DETAIL, book.id(), book.title(), book.author(), book.isbn(),
+                    book.publicationYear(), book.stock(), book.availableStock(), book.genreNames());
+        } else if (value instanceof BookDTO book) {
+            writeRecord(out, BOOK, book.id(), book.title(), book.author(), book.publicationYear(),
+                    book.stock(), book.genreNames());
+        } else if (value instanceof ReaderDetailDTO reader) {
+            writeRecord(out, READER_DETAIL, reader.id(), reader.firstName(), reader.lastName(), reader.email(),
+                    reader.phoneNumber(), reader.registrationDate(), reader.activeLendingsCount(),
+                    reader.overdueLendingsCount(), reader.totalBorrowed(), reader.role());
+        } else if (value instanceof CacheablePage<?> page) {
+            writeRecord(out, PAGE, page.getContent(), page.getNumber(), page.getSize(), page.getTotalElements(),
+                    page.getTotalPages(), page.isFirst(), page.isLast());
+        } else {
+            byte[] json = jsonSerializer.serialize(value);
+            out.writeByte(JSON);
+            out.writeVarInt(json.length);
+            out.writeBytes(json, json.length);
+        }
+    }
+
+    private void writeRecord(Output out, byte type, Object... fields) {
+        out.writeByte(type);
+        out.writeVarInt(fields.length);
+        for (Object field : fields)
+            writeValue(out, field);
+    }
+
+    private Object readValue(Input in) {
+        byte type = in.readByte();
+        return switch (type) {
+            case NULL -> null;
+            case STRING -> in.readString();
+            case INT -> (int) unZigZag(in.readVarLong());
+            case LONG -> unZigZag(in.readVarLong());
+            case TRUE -> Boolean.TRUE;
+            case FALSE -> Boolean.FALSE;
+            case DOUBLE -> Double.longBitsToDouble(in.readLong());
+            case LOCAL_DATE -> LocalDate.ofEpochDay(unZigZag(in.readVarLong()));
+            case LIST -> {
+                int size = in.readLength();
+                List<Object> list = new ArrayList<>(size);
+                for (int i = 0; i < size; i++)
+                    list.add(readValue(in));
+                yield list;
+            }
+            case BOOK_DETAIL -> {
+                Object[] f = readFields(in, 8);
+                yield new BookDetailDTO((Long) f[0], (String) f[1], (String) f[2], (String) f[3],
+                        (Integer) f[4], (Integer) f[5], (Integer) f[6], strings(f[7]));
+            }
+            case BOOK -> {
+                Object[] f = readFields(in, 6);
+                yield new BookDTO((Long) f[0], (String) f[1], (String) f[2], (Integer) f[3],
+                        (Integer) f[4], strings(f[5]));
+            }
+            case READER_DETAIL -> {
+                Object[] f = readFields(in, 10);
+                yield new ReaderDetailDTO((Long) f[0], (String) f[1], (String) f[2], (String) f[3],
+                        (String) f[4], (LocalDate) f[5], (Integer) f[6], (Integer) f[7], (Integer) f[8],
+                        (String) f[9]);
+            }
+            case PAGE -> {
+                Object[] f = readFields(in, 7);
+                yield new CacheablePage<>((List<?>) f[0], (Integer) f[1], (Integer) f[2], (Long) f[3],
+                        (Integer) f[4], (Boolean) f[5], (Boolean) f[6]);
+            }
+            case JSON -> {
+                int length = in.readLength();
+                yield jsonSerializer.deserialize(in.readBytes(length));
+            }
+            default -> throw new SerializationException("Unknown cache value type " + type);
+        };
+    }
+
+    private Object[] readFields(Input in, int known) {
+        int count = in.readVarInt();
+        Object[] fields = new Object[known];
+        for (int i = 0; i < count; i++) {
+            Object value = readValue(in);
+            if (i < known)
+                fields[i] = value;
+        }
+        return fields;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<String> strings(Object value) {
+        return (List<String>) value;
+    }
+
+    private static long zigZag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static long unZigZag(long value) {
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    private static final class Output {
+        private byte[] buffer;
+        private int position;
+
+        Output(int capacity) {
+            buffer = new byte[capacity];
+        }
+
+        void writeByte(byte value) {
+            ensure(1);
+            buffer[position++] = value;
+        }
+
+        void writeBytes(byte[] bytes, int length) {
+            ensure(length);
+            System.arraycopy(bytes, 0, buffer, position, length);
+            position += length;
+        }
+
+        void writeVarInt(int value) {
+            writeVarLong(value & 0xFFFFFFFFL);
+        }
+
+        void writeVarLong(long value) {
+            ensure(10);
+            while ((value & ~0x7FL) != 0) {
+                buffer[position++] = (byte) ((value & 0x7F) | 0x80);
+                value >>>= 7;
+            }
+            buffer[position++] = (byte) value;
+        }
+
+        void writeLong(long value) {
+            ensure(8);
+            for (int shift = 56; shift >= 0; shift -= 8)
+                buffer[position++] = (byte) (value >>> shift);
+        }
+
+        void writeString(String value) {
+            byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarInt(bytes.length);
+            writeBytes(bytes, bytes.length);
+        }
+
+        private void ensure(int length) {
+            if (position + length > buffer.length)
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, position + length));
+        }
+    }
+
+    private static final class Input {
+        private final byte[] buffer;
+        private int position;
+
+        Input(byte[] buffer, int position) {
+            this.buffer = buffer;
+            this.position = position;
+        }
+
+        byte readByte() {
+            return buffer[position++];
+        }
+
+        byte[] readBytes(int length) {
+            byte[] bytes = Arrays.copyOfRange(buffer, position, position + length);
+            position += length;
+            return bytes;
+        }
+
+        int readVarInt() {
+            return (int) readVarLong();
+        }
+
+        // длина или число элементов: каждый занимает хотя бы байт, поэтому больше остатка буфера быть не может
+        int readLength() {
+            int length = readVarInt();
+            if (length < 0 || length > buffer.length - position)
+                throw new SerializationException("Invalid length " + length + " in cache entry");
+            return length;
+        }
+
+        long readVarLong() {
+            long result = 0;
+            for (int shift = 0; shift < 64; shift += 7) {
+                byte b = buffer[position++];
+                result |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0)
+                    return result;
+            }
+            throw new SerializationException("Malformed varint");
+        }
+
+        long readLong() {
+            long result = 0;
+            for (int i = 0; i < 8; i++)
+                result = (result << 8) | (buffer[position++] & 0xFF);
+            return result;
+        }
+
+        String readString() {
+            int length = readLength();
+            String value = new String(buffer, position, length, StandardCharsets.UTF_8);
+            position += length;
+            return value;
+        }
+    }
+}
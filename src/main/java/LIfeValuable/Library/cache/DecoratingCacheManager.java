@@ -0,0 +1,41 @@
+package LifeValuable.Library.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+public class DecoratingCacheManager implements CacheManager {
+    private final CacheManager delegate;
+    private final Function<Cache, Cache> decorator;
+    private final Map<String, Cache> decoratedCaches = new ConcurrentHashMap<>();
+
+    public DecoratingCacheManager(CacheManager delegate, Function<Cache, Cache> decorator) {
+        this.delegate = delegate;
+        this.decorator = decorator;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        Cache cache = decoratedCaches.get(name);
+        if (cache != null)
+            return cache;
+
+        Cache target = delegate.getCache(name);
+        if (target == null)
+            return null;
+        return decoratedCaches.computeIfAbsent(name, key -> decorator.apply(target));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return delegate.getCacheNames();
+    }
+
+    public CacheManager getDelegate() {
+        return delegate;
+    }
+}
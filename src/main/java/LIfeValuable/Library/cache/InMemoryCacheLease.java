@@ -0,0 +1,41 @@
+package LifeValuable.Library.cache;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class InMemoryCacheLease implements CacheLease {
+    private final Map<String, Long> leases = new ConcurrentHashMap<>();
+
+    @Override
+    public boolean tryAcquire(String key, Duration ttl) {
+        long now = System.nanoTime();
+        long expiresAt = now + ttl.toNanos();
+        boolean[] acquired = new boolean[1];
+        leases.compute(key, (k, current) -> {
+            if (current != null && current - now > 0)
+                return current;
+            acquired[0] = true;
+            return expiresAt;
+        });
+        return acquired[0];
+    }
+
+    @Override
+    public boolean renew(String key, Duration ttl) {
+        long now = System.nanoTime();
+        boolean[] renewed = new boolean[1];
+        leases.computeIfPresent(key, (k, current) -> {
+            if (current - now <= 0)
+                return null;
+            renewed[0] = true;
+            return now + ttl.toNanos();
+        });
+        return renewed[0];
+    }
+
+    @Override
+    public void release(String key) {
+        leases.remove(key);
+    }
+}
@@ -0,0 +1,28 @@
+package LifeValuable.Library.cache;
+
+import org.springframework.data.redis.cache.RedisCacheWriter;
+
+import java.time.Duration;
+import java.util.concurrent.ThreadLocalRandom;
+
+public class JitteredTtlFunction implements RedisCacheWriter.TtlFunction {
+    private final long baseMillis;
+    private final double jitter;
+
+    public JitteredTtlFunction(Duration base, double jitter) {
+        if (jitter < 0 || jitter >= 1)
+            throw new IllegalArgumentException("Jitter must be in [0, 1)");
+        this.baseMillis = base.toMillis();
+        this.jitter = jitter;
+    }
+
+    @Override
+    public Duration getTimeToLive(Object key, Object value) {
+        double factor = 1 + jitter * (2 * ThreadLocalRandom.current().nextDouble() - 1);
+        return Duration.ofMillis(Math.round(baseMillis * factor));
+    }
+
+    public Duration getMinimumTimeToLive() {
+        return Duration.ofMillis(Math.round(baseMillis * (1 - jitter)));
+    }
+}
@@ -0,0 +1,144 @@
+package LifeValuable.Library.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.function.BiFunction;
+
+/**
+ * Кэш в памяти узла на Caffeine вместо Redis. Размер ограничен, срок каждой записи задаёт та же функция TTL,
+ * что и у кэша в Redis, и он заново отсчитывается при перезаписи. Ключи, как и в Redis, сравниваются
+ * по строковому виду. null кэшируется; значения хранятся без сериализации, поэтому должны быть неизменяемыми.
+ */
+public class LocalCache implements Cache, BulkCache {
+    private final String name;
+    private final com.github.benmanes.caffeine.cache.Cache<String, ValueWrapper> entries;
+
+    public LocalCache(String name, long maximumSize, BiFunction<Object, Object, Duration> timeToLive) {
+        this.name = name;
+        this.entries = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new Expiry<String, ValueWrapper>() {
+                    @Override
+                    public long expireAfterCreate(String key, ValueWrapper value, long currentTime) {
+                        return timeToLive.apply(key, value.get()).toNanos();
+                    }
+
+                    @Override
+                    public long expireAfterUpdate(String key, ValueWrapper value, long currentTime,
+                                                  long currentDuration) {
+                        return expireAfterCreate(key, value, currentTime);
+                    }
+
+                    @Override
+                    public long expireAfterRead(String key, ValueWrapper value, long currentTime,
+                                                long currentDuration) {
+                        return currentDuration;
+                    }
+                })
+                .build();
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return entries;
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return entries.getIfPresent(key(key));
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper cached = get(key);
+        Object value = cached != null ? cached.get() : null;
+        if (value != null && type != null && !type.isInstance(value))
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        return (T) value;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return (T) entries.get(key(key), k -> {
+            try {
+                return new SimpleValueWrapper(valueLoader.call());
+            } catch (Exception e) {
+                throw new ValueRetrievalException(key, valueLoader, e);
+            }
+        }).get();
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        entries.put(key(key), new SimpleValueWrapper(value));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return entries.asMap().putIfAbsent(key(key), new SimpleValueWrapper(value));
+    }
+
+    @Override
+    public Map<Object, Object> getAll(Collection<?> keys) {
+        Map<Object, Object> found = new LinkedHashMap<>();
+        for (Object key : keys) {
+            ValueWrapper cached = entries.getIfPresent(key(key));
+            if (cached != null && cached.get() != null)
+                found.put(key, cached.get());
+        }
+        return found;
+    }
+
+    @Override
+    public void putAll(Map<?, ?> entries) {
+        entries.forEach((key, value) -> {
+            if (value != null)
+                put(key, value);
+        });
+    }
+
+    @Override
+    public void evict(Object key) {
+        entries.invalidate(key(key));
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return entries.asMap().remove(key(key)) != null;
+    }
+
+    @Override
+    public void clear() {
+        entries.invalidateAll();
+    }
+
+    @Override
+    public boolean invalidate() {
+        boolean notEmpty = entries.estimatedSize() > 0;
+        entries.invalidateAll();
+        return notEmpty;
+    }
+
+    public long getSize() {
+        return entries.estimatedSize();
+    }
+
+    private static String key(Object key) {
+        return String.valueOf(key);
+    }
+}
@@ -0,0 +1,36 @@
+package LifeValuable.Library.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiFunction;
+
+/**
+ * Создаёт {@link LocalCache} по первому обращению, как {@code RedisCacheManager}; ограничение размера —
+ * на каждый кэш.
+ */
+public class LocalCacheManager implements CacheManager {
+    private final long maximumSize;
+    private final BiFunction<Object, Object, Duration> timeToLive;
+    private final Map<String, Cache> caches = new ConcurrentHashMap<>();
+
+    public LocalCacheManager(long maximumSize, BiFunction<Object, Object, Duration> timeToLive) {
+        this.maximumSize = maximumSize;
+        this.timeToLive = timeToLive;
+    }
+
+    @Override
+    public Cache getCache(String name) {
+        return caches.computeIfAbsent(name, key -> new LocalCache(key, maximumSize, timeToLive));
+    }
+
+    @Override
+    public Collection<String> getCacheNames() {
+        return Set.copyOf(caches.keySet());
+    }
+}
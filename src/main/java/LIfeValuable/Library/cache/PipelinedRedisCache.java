@@ -0,0 +1,158 @@
+package LifeValuable.Library.cache;
+
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.NullValue;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.data.redis.connection.RedisStringCommands;
+import org.springframework.data.redis.core.types.Expiration;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.nio.ByteBuffer;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * {@link RedisCache} с пакетными операциями: чтение одним MGET,
+ * запись одним конвейером SET с тем же TTL, что и у поштучной записи.
+ */
+public class PipelinedRedisCache implements Cache, BulkCache {
+    private static final byte[] BINARY_NULL_VALUE = RedisSerializer.java().serialize(NullValue.INSTANCE);
+
+    private final RedisCache delegate;
+    private final RedisConnectionFactory connectionFactory;
+    private final RedisCacheConfiguration config;
+
+    public PipelinedRedisCache(RedisCache delegate, RedisConnectionFactory connectionFactory) {
+        this.delegate = delegate;
+        this.connectionFactory = connectionFactory;
+        this.config = delegate.getCacheConfiguration();
+    }
+
+    @Override
+    public Map<Object, Object> getAll(Collection<?> keys) {
+        Map<Object, Object> found = new LinkedHashMap<>();
+        if (keys.isEmpty())
+            return found;
+
+        List<Object> orderedKeys = new ArrayList<>(keys);
+        byte[][] redisKeys = orderedKeys.stream().map(this::redisKey).toArray(byte[][]::new);
+        List<byte[]> values;
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            values = connection.stringCommands().mGet(redisKeys);
+        }
+        if (values == null)
+            return found;
+
+        for (int i = 0; i < orderedKeys.size(); i++) {
+            byte[] value = values.get(i);
+            if (value == null || Arrays.equals(value, BINARY_NULL_VALUE))
+                continue;
+            Object deserialized = config.getValueSerializationPair().read(ByteBuffer.wrap(value));
+            if (deserialized != null)
+                found.put(orderedKeys.get(i), deserialized);
+        }
+        return found;
+    }
+
+    @Override
+    public void putAll(Map<?, ?> entries) {
+        if (entries.isEmpty())
+            return;
+
+        try (RedisConnection connection = connectionFactory.getConnection()) {
+            connection.openPipeline();
+            try {
+                entries.forEach((key, value) -> {
+                    if (value == null)
+                        return;
+                    Duration ttl = config.getTtlFunction().getTimeToLive(key, value);
+                    Expiration expiration = ttl.isZero() || ttl.isNegative()
+                            ? Expiration.persistent() : Expiration.from(ttl);
+                    connection.stringCommands().set(redisKey(key), serialize(value), expiration,
+                            RedisStringCommands.SetOption.upsert());
+                });
+            } finally {
+                connection.closePipeline();
+            }
+        }
+    }
+
+    private byte[] redisKey(Object key) {
+        String cacheKey = config.getKeyPrefixFor(getName()) + config.getConversionService().convert(key, String.class);
+        return toBytes(config.getKeySerializationPair().write(cacheKey));
+    }
+
+    private byte[] serialize(Object value) {
+        return toBytes(config.getValueSerializationPair().write(value));
+    }
+
+    private static byte[] toBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.remaining()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(key, type);
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        return delegate.get(key, valueLoader);
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        return delegate.invalidate();
+    }
+}
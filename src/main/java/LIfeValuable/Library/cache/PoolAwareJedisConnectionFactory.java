@@ -0,0 +1,29 @@
+package LifeValuable.Library.cache;
+
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisClientConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import redis.clients.jedis.Jedis;
+import redis.clients.jedis.util.Pool;
+
+/**
+ * Открывает доступ к пулу Jedis для снятия статистики.
+ */
+public class PoolAwareJedisConnectionFactory extends JedisConnectionFactory {
+    private volatile Pool<Jedis> pool;
+
+    public PoolAwareJedisConnectionFactory(RedisStandaloneConfiguration config, JedisClientConfiguration clientConfig) {
+        super(config, clientConfig);
+    }
+
+    @Override
+    protected Pool<Jedis> createRedisPool() {
+        Pool<Jedis> created = super.createRedisPool();
+        pool = created;
+        return created;
+    }
+
+    public Pool<Jedis> getPool() {
+        return pool;
+    }
+}
@@ -0,0 +1,77 @@
+package LifeValuable.Library.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+
+@Slf4j
+public class RedisCacheLease implements CacheLease {
+    private static final String KEY_PREFIX = "lease:";
+    private static final RedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('del', KEYS[1]) else return 0 end",
+            Long.class);
+    private static final RedisScript<Long> RENEW_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('get', KEYS[1]) == ARGV[1] then return redis.call('pexpire', KEYS[1], ARGV[2]) else return 0 end",
+            Long.class);
+
+    private final StringRedisTemplate redisTemplate;
+    private final CacheCircuitBreaker circuitBreaker;
+    private final String owner = UUID.randomUUID().toString();
+
+    public RedisCacheLease(StringRedisTemplate redisTemplate) {
+        this(redisTemplate, null);
+    }
+
+    public RedisCacheLease(StringRedisTemplate redisTemplate, CacheCircuitBreaker circuitBreaker) {
+        this.redisTemplate = redisTemplate;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public boolean tryAcquire(String key, Duration ttl) {
+        if (circuitBreaker != null && circuitBreaker.getState() == CacheCircuitBreaker.State.OPEN)
+            return true;
+        try {
+            return Boolean.TRUE.equals(redisTemplate.opsForValue().setIfAbsent(KEY_PREFIX + key, owner, ttl));
+        } catch (DataAccessException e) {
+            if (circuitBreaker != null)
+                circuitBreaker.recordFailure(e);
+            // без Redis координация между узлами невозможна, грузим локально
+            log.debug("Failed to acquire cache lease {}: {}", key, e.getMessage());
+            return true;
+        }
+    }
+
+    @Override
+    public boolean renew(String key, Duration ttl) {
+        if (circuitBreaker != null && circuitBreaker.getState() == CacheCircuitBreaker.State.OPEN)
+            return true;
+        try {
+            Long renewed = redisTemplate.execute(RENEW_SCRIPT, List.of(KEY_PREFIX + key), owner,
+                    String.valueOf(ttl.toMillis()));
+            return renewed != null && renewed == 1;
+        } catch (DataAccessException e) {
+            if (circuitBreaker != null)
+                circuitBreaker.recordFailure(e);
+            log.debug("Failed to renew cache lease {}: {}", key, e.getMessage());
+            return true;
+        }
+    }
+
+    @Override
+    public void release(String key) {
+        if (circuitBreaker != null && circuitBreaker.getState() == CacheCircuitBreaker.State.OPEN)
+            return;
+        try {
+            redisTemplate.execute(RELEASE_SCRIPT, List.of(KEY_PREFIX + key), owner);
+        } catch (DataAccessException e) {
+            log.debug("Failed to release cache lease {}: {}", key, e.getMessage());
+        }
+    }
+}
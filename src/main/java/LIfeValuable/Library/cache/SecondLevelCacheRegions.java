@@ -0,0 +1,74 @@
+package LifeValuable.Library.cache;
+
+import com.github.benmanes.caffeine.jcache.configuration.CaffeineConfiguration;
+import com.github.benmanes.caffeine.jcache.spi.CaffeineCachingProvider;
+import org.springframework.core.env.PropertyResolver;
+
+import javax.cache.CacheManager;
+import javax.cache.Caching;
+import java.net.URI;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Регионы кэша второго уровня Hibernate. Размер и время жизни региона задаются свойствами
+ * {@code hibernate.cache.regions.<регион>.max-size} и {@code .ttl-seconds} (0 — без истечения).
+ */
+public final class SecondLevelCacheRegions {
+    public static final String GENRE = "genre";
+    public static final String BOOK = "book";
+    public static final String BOOK_GENRES = "book.genres";
+    public static final String READER = "reader";
+    public static final String BOOK_BY_ISBN = "query.book-by-isbn";
+    public static final String READER_BY_EMAIL = "query.reader-by-email";
+
+    // служебные регионы Hibernate для кэша запросов
+    public static final String QUERY_RESULTS = "default-query-results-region";
+    public static final String UPDATE_TIMESTAMPS = "default-update-timestamps-region";
+
+    private static final String PROPERTY_PREFIX = "hibernate.cache.regions.";
+
+    private record Region(String name, long maxSize, long ttlSeconds) {}
+
+    private static final List<Region> REGIONS = List.of(
+            new Region(GENRE, 1_000, 3600),
+            new Region(BOOK, 10_000, 600),
+            new Region(BOOK_GENRES, 10_000, 600),
+            new Region(READER, 10_000, 600),
+            new Region(BOOK_BY_ISBN, 5_000, 300),
+            new Region(READER_BY_EMAIL, 5_000, 300),
+            new Region(QUERY_RESULTS, 1_000, 300),
+            // метки изменения таблиц нельзя терять раньше результатов запросов, иначе кэш вернёт устаревшие данные
+            new Region(UPDATE_TIMESTAMPS, 1_000, 0));
+
+    private SecondLevelCacheRegions() {
+    }
+
+    public static List<String> names() {
+        return REGIONS.stream().map(Region::name).toList();
+    }
+
+    /**
+     * Создаёт отдельный менеджер JCache со всеми регионами: у каждого контекста Spring свой набор кэшей.
+     */
+    public static CacheManager createCacheManager(PropertyResolver properties) {
+        CacheManager cacheManager = Caching.getCachingProvider(CaffeineCachingProvider.class.getName())
+                .getCacheManager(URI.create("library-l2-" + UUID.randomUUID()), SecondLevelCacheRegions.class.getClassLoader());
+        for (Region region : REGIONS) {
+            long maxSize = properties.getProperty(PROPERTY_PREFIX + region.name() + ".max-size", Long.class,
+                    region.maxSize());
+            long ttlSeconds = properties.getProperty(PROPERTY_PREFIX + region.name() + ".ttl-seconds", Long.class,
+                    region.ttlSeconds());
+
+            CaffeineConfiguration<Object, Object> configuration = new CaffeineConfiguration<>();
+            configuration.setStoreByValue(false);
+            configuration.setMaximumSize(OptionalLong.of(maxSize));
+            if (ttlSeconds > 0)
+                configuration.setExpireAfterWrite(OptionalLong.of(TimeUnit.SECONDS.toNanos(ttlSeconds)));
+            cacheManager.createCache(region.name(), configuration);
+        }
+        return cacheManager;
+    }
+}
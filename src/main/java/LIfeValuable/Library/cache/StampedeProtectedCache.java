@@ -0,0 +1,237 @@
+package LifeValuable.Library.cache;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Защита от "лавины" промахов: на каждый ключ значение загружается одним потоком узла,
+ * а между узлами — держателем короткой аренды в Redis. Горячие записи обновляются в фоне
+ * заранее с вероятностью, растущей к концу TTL (XFetch).
+ * Работает только для {@code @Cacheable(sync = true)}, так как использует {@link #get(Object, Callable)}.
+ */
+@Slf4j
+public class StampedeProtectedCache implements Cache, BulkCache {
+    private static final int MAX_TRACKED_ENTRIES = 10_000;
+
+    private final Cache delegate;
+    private final CacheLease lease;
+    private final Executor refreshExecutor;
+    private final Settings settings;
+    private final DoubleSupplier random;
+
+    private final ConcurrentMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Object, LoadStats> loadStats = new ConcurrentHashMap<>();
+
+    public record Settings(Duration leaseTtl, Duration leasePollInterval, Duration entryLifetime, double refreshBeta) {}
+
+    private record LoadStats(long loadedAt, long loadTime) {}
+
+    public StampedeProtectedCache(Cache delegate, CacheLease lease, Executor refreshExecutor, Settings settings) {
+        this(delegate, lease, refreshExecutor, settings, () -> ThreadLocalRandom.current().nextDouble());
+    }
+
+    public StampedeProtectedCache(Cache delegate, CacheLease lease, Executor refreshExecutor, Settings settings,
+                                  DoubleSupplier random) {
+        this.delegate = delegate;
+        this.lease = lease;
+        this.refreshExecutor = refreshExecutor;
+        this.settings = settings;
+        this.random = random;
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        return delegate.get(key, type);
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        ValueWrapper cached = delegate.get(key);
+        if (cached != null) {
+            if (shouldRefreshEarly(key))
+                refreshAsync(key, valueLoader);
+            return (T) cached.get();
+        }
+
+        CompletableFuture<Object> own = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, own);
+        if (running != null)
+            return (T) await(key, valueLoader, running);
+
+        try {
+            Object value = loadUnderLease(key, valueLoader, false);
+            own.complete(value);
+            return (T) value;
+        } catch (RuntimeException | Error e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        delegate.put(key, value);
+        loadStats.computeIfPresent(key, (k, stats) -> new LoadStats(System.nanoTime(), stats.loadTime()));
+    }
+
+    @Override
+    public Map<Object, Object> getAll(Collection<?> keys) {
+        return BulkCache.getAll(delegate, keys);
+    }
+
+    @Override
+    public void putAll(Map<?, ?> entries) {
+        BulkCache.putAll(delegate, entries);
+        long now = System.nanoTime();
+        entries.keySet().forEach(key ->
+                loadStats.computeIfPresent(key, (k, stats) -> new LoadStats(now, stats.loadTime())));
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        return delegate.putIfAbsent(key, value);
+    }
+
+    @Override
+    public void evict(Object key) {
+        loadStats.remove(key);
+        delegate.evict(key);
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        loadStats.remove(key);
+        return delegate.evictIfPresent(key);
+    }
+
+    @Override
+    public void clear() {
+        loadStats.clear();
+        delegate.clear();
+    }
+
+    @Override
+    public boolean invalidate() {
+        loadStats.clear();
+        return delegate.invalidate();
+    }
+
+    private Object loadUnderLease(Object key, Callable<?> valueLoader, boolean refresh) {
+        String leaseKey = getName() + "::" + key;
+        if (!lease.tryAcquire(leaseKey, settings.leaseTtl())) {
+            ValueWrapper loadedElsewhere = refresh ? delegate.get(key) : awaitOtherNode(key);
+            if (loadedElsewhere != null)
+                return loadedElsewhere.get();
+            return loadAndPut(key, valueLoader);
+        }
+
+        try {
+            if (!refresh) {
+                ValueWrapper cached = delegate.get(key);
+                if (cached != null)
+                    return cached.get();
+            }
+            return loadAndPut(key, valueLoader);
+        } finally {
+            lease.release(leaseKey);
+        }
+    }
+
+    private ValueWrapper awaitOtherNode(Object key) {
+        long deadline = System.nanoTime() + settings.leaseTtl().toNanos();
+        long pollMillis = Math.max(1, settings.leasePollInterval().toMillis());
+        while (System.nanoTime() - deadline < 0) {
+            try {
+                Thread.sleep(pollMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            ValueWrapper cached = delegate.get(key);
+            if (cached != null)
+                return cached;
+        }
+        return null;
+    }
+
+    private Object loadAndPut(Object key, Callable<?> valueLoader) {
+        long start = System.nanoTime();
+        Object value;
+        try {
+            value = valueLoader.call();
+        } catch (Exception e) {
+            throw new ValueRetrievalException(key, valueLoader, e);
+        }
+        long loadedAt = System.nanoTime();
+        delegate.put(key, value);
+        if (loadStats.size() < MAX_TRACKED_ENTRIES || loadStats.containsKey(key))
+            loadStats.put(key, new LoadStats(loadedAt, loadedAt - start));
+        return value;
+    }
+
+    private Object await(Object key, Callable<?> valueLoader, CompletableFuture<Object> running) {
+        try {
+            return running.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException)
+                throw runtimeException;
+            throw new ValueRetrievalException(key, valueLoader, e.getCause());
+        }
+    }
+
+    private boolean shouldRefreshEarly(Object key) {
+        LoadStats stats = loadStats.get(key);
+        if (stats == null || inFlight.containsKey(key))
+            return false;
+
+        long expiresAt = stats.loadedAt() + settings.entryLifetime().toNanos();
+        double gap = -stats.loadTime() * settings.refreshBeta() * Math.log(random.getAsDouble());
+        return System.nanoTime() + (long) gap - expiresAt >= 0;
+    }
+
+    private void refreshAsync(Object key, Callable<?> valueLoader) {
+        CompletableFuture<Object> own = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(key, own) != null)
+            return;
+
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    own.complete(loadUnderLease(key, valueLoader, true));
+                } catch (RuntimeException | Error e) {
+                    log.debug("Early refresh of {}::{} failed: {}", getName(), key, e.toString());
+                    own.completeExceptionally(e);
+                } finally {
+                    inFlight.remove(key, own);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            inFlight.remove(key, own);
+            own.cancel(false);
+        }
+    }
+}
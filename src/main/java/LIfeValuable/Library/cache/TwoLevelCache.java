@@ -0,0 +1,188 @@
+package LifeValuable.Library.cache;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.support.SimpleValueWrapper;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+
+/**
+ * Локальный кэш узла перед общим кэшем в Redis. Попадание в локальный уровень не делает сетевых вызовов.
+ * Запись и удаление идут сначала в Redis, затем в локальный уровень, после чего остальным узлам
+ * рассылается сообщение об инвалидации ключа. Потерянное сообщение ограничено локальным TTL.
+ * Пакетные операции идут в Redis одним вызовом только за ключами, которых нет в локальном уровне.
+ */
+@Slf4j
+public class TwoLevelCache implements Cache, BulkCache {
+    private static final char SEPARATOR = '\n';
+
+    private final Cache remote;
+    private final com.github.benmanes.caffeine.cache.Cache<String, ValueWrapper> local;
+    private final Consumer<String> invalidationPublisher;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    public record Settings(long maximumSize, Duration timeToLive) {}
+
+    public TwoLevelCache(Cache remote, Settings settings, Consumer<String> invalidationPublisher) {
+        this.remote = remote;
+        this.local = Caffeine.newBuilder()
+                .maximumSize(settings.maximumSize())
+                .expireAfterWrite(settings.timeToLive())
+                .build();
+        this.invalidationPublisher = invalidationPublisher;
+    }
+
+    public static String channel(String cacheName) {
+        return "cache:invalidate:" + cacheName;
+    }
+
+    @Override
+    public String getName() {
+        return remote.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return remote.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        String localKey = localKey(key);
+        ValueWrapper cached = local.getIfPresent(localKey);
+        if (cached != null)
+            return cached;
+
+        cached = remote.get(key);
+        if (cached != null)
+            local.put(localKey, new SimpleValueWrapper(cached.get()));
+        return cached;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        ValueWrapper cached = get(key);
+        Object value = cached != null ? cached.get() : null;
+        if (value != null && type != null && !type.isInstance(value))
+            throw new IllegalStateException("Cached value is not of required type [" + type.getName() + "]: " + value);
+        return (T) value;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        String localKey = localKey(key);
+        ValueWrapper cached = local.getIfPresent(localKey);
+        if (cached != null)
+            return (T) cached.get();
+
+        T value = remote.get(key, valueLoader);
+        local.put(localKey, new SimpleValueWrapper(value));
+        return value;
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        remote.put(key, value);
+        local.put(localKey(key), new SimpleValueWrapper(value));
+        publish(localKey(key));
+    }
+
+    @Override
+    public Map<Object, Object> getAll(Collection<?> keys) {
+        Map<Object, Object> found = new LinkedHashMap<>();
+        List<Object> misses = new ArrayList<>();
+        for (Object key : keys) {
+            ValueWrapper cached = local.getIfPresent(localKey(key));
+            if (cached == null)
+                misses.add(key);
+            else if (cached.get() != null)
+                found.put(key, cached.get());
+        }
+        if (misses.isEmpty())
+            return found;
+
+        Map<Object, Object> loaded = BulkCache.getAll(remote, misses);
+        loaded.forEach((key, value) -> {
+            if (value != null)
+                local.put(localKey(key), new SimpleValueWrapper(value));
+        });
+        Map<Object, Object> ordered = new LinkedHashMap<>();
+        for (Object key : keys) {
+            Object value = found.containsKey(key) ? found.get(key) : loaded.get(key);
+            if (value != null)
+                ordered.put(key, value);
+        }
+        return ordered;
+    }
+
+    @Override
+    public void putAll(Map<?, ?> entries) {
+        Map<Object, Object> values = new LinkedHashMap<>();
+        entries.forEach((key, value) -> {
+            if (value != null)
+                values.put(key, value);
+        });
+        BulkCache.putAll(remote, values);
+        values.forEach((key, value) -> {
+            local.put(localKey(key), new SimpleValueWrapper(value));
+            publish(localKey(key));
+        });
+    }
+
+    @Override
+    public void evict(Object key) {
+        remote.evict(key);
+        local.invalidate(localKey(key));
+        publish(localKey(key));
+    }
+
+    @Override
+    public void clear() {
+        remote.clear();
+        local.invalidateAll();
+        publish(null);
+    }
+
+    /**
+     * Обрабатывает сообщение другого узла: {@code nodeId} и ключ через перевод строки,
+     * либо только {@code nodeId} при очистке всего кэша.
+     */
+    public void onInvalidation(String message) {
+        int separator = message.indexOf(SEPARATOR);
+        String origin = separator < 0 ? message : message.substring(0, separator);
+        if (nodeId.equals(origin))
+            return;
+        if (separator < 0)
+            local.invalidateAll();
+        else
+            local.invalidate(message.substring(separator + 1));
+    }
+
+    public long getLocalSize() {
+        return local.estimatedSize();
+    }
+
+    private void publish(String key) {
+        try {
+            invalidationPublisher.accept(key == null ? nodeId : nodeId + SEPARATOR + key);
+        } catch (RuntimeException e) {
+            log.warn("Failed to publish invalidation for cache {}: {}", getName(), e.getMessage());
+        }
+    }
+
+    // ключи в Redis тоже строковые, поэтому инвалидация по сети совпадает с локальным ключом
+    private static String localKey(Object key) {
+        return String.valueOf(key);
+    }
+}
@@ -0,0 +1,183 @@
+package LifeValuable.Library.coalescing;
+
+import LifeValuable.Library.metrics.Counter;
+import LifeValuable.Library.metrics.Gauge;
+import LifeValuable.Library.metrics.MetricsRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Склеивает одинаковые одновременные GET-запросы к маршрутам из {@code coalescing.paths}: первый запрос
+ * выполняется, остальные с тем же путём, параметрами, {@code Accept} и набором ролей ждут его и получают
+ * копию уже сериализованного ответа. Ответ переиспользуется только пока запрос в работе — это не кэш.
+ * Если первый запрос упал или не уложился в {@code coalescing.wait-ms}, ожидающие выполняются сами.
+ * Маршруты, ответ которых зависит от конкретного пользователя, а не от его ролей, включать нельзя.
+ */
+@Component
+public class RequestCoalescingFilter extends OncePerRequestFilter {
+    static final String COALESCED_HEADER = "X-Coalesced";
+    private static final String ANONYMOUS = "anonymous";
+
+    private final Counter requests;
+    private final Gauge collapseRatio;
+    private final Map<String, CompletableFuture<SharedResponse>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, RouteStatistics> statistics = new ConcurrentHashMap<>();
+    private List<Route> routes = List.of();
+
+    @Value("${coalescing.wait-ms:2000}")
+    private long waitMs = 2000;
+
+    @Autowired
+    public RequestCoalescingFilter(MetricsRegistry registry) {
+        this.requests = registry.counter("library_coalescing_requests",
+                "Coalescible GET requests by route and role in the group", "route", "role");
+        this.collapseRatio = registry.gauge("library_coalescing_collapse_ratio",
+                "Share of coalescible requests served from another request's execution", "route");
+    }
+
+    @Value("${coalescing.paths:}")
+    void setPaths(String paths) {
+        routes = Arrays.stream(paths.split(","))
+                .map(String::trim)
+                .filter(path -> !path.isEmpty())
+                .map(path -> new Route(path, PathPatternParser.defaultInstance.parse(path)))
+                .toList();
+        for (Route route : routes) {
+            RouteStatistics routeStatistics = statistics.computeIfAbsent(route.name(), name -> new RouteStatistics());
+            collapseRatio.labels(route.name()).set(routeStatistics::collapseRatio);
+        }
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.GET.matches(request.getMethod()) || route(request) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Route route = route(request);
+        String key = key(request);
+        RouteStatistics routeStatistics = statistics.get(route.name());
+
+        CompletableFuture<SharedResponse> mine = new CompletableFuture<>();
+        CompletableFuture<SharedResponse> running = inFlight.putIfAbsent(key, mine);
+        if (running == null) {
+            requests.labels(route.name(), "leader").inc();
+            routeStatistics.leaders.increment();
+            lead(request, response, chain, key, mine);
+            return;
+        }
+
+        SharedResponse shared = await(running);
+        if (shared == null) {
+            requests.labels(route.name(), "fallback").inc();
+            routeStatistics.fallbacks.increment();
+            chain.doFilter(request, response);
+            return;
+        }
+        requests.labels(route.name(), "follower").inc();
+        routeStatistics.followers.increment();
+        shared.writeTo(response);
+    }
+
+    private void lead(HttpServletRequest request, HttpServletResponse response, FilterChain chain, String key,
+                      CompletableFuture<SharedResponse> mine) throws ServletException, IOException {
+        SharedResponse shared = null;
+        try {
+            ContentCachingResponseWrapper buffered = new ContentCachingResponseWrapper(response);
+            chain.doFilter(request, buffered);
+            shared = SharedResponse.capture(buffered);
+            buffered.copyBodyToResponse();
+        } finally {
+            // сначала убираем ключ: запрос, пришедший после завершения, выполнится заново и увидит свежие данные
+            inFlight.remove(key, mine);
+            mine.complete(shared);
+        }
+    }
+
+    private SharedResponse await(CompletableFuture<SharedResponse> running) {
+        try {
+            return running.get(waitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException e) {
+            return null;
+        }
+    }
+
+    private Route route(HttpServletRequest request) {
+        if (routes.isEmpty())
+            return null;
+        PathContainer path = PathContainer.parsePath(request.getRequestURI());
+        for (Route route : routes)
+            if (route.pattern().matches(path))
+                return route;
+        return null;
+    }
+
+    static String key(HttpServletRequest request) {
+        StringBuilder key = new StringBuilder(request.getRequestURI());
+        String query = request.getQueryString();
+        if (query != null)
+            key.append('?').append(query);
+        String accept = request.getHeader(HttpHeaders.ACCEPT);
+        key.append('\n').append(accept != null ? accept : "");
+        key.append('\n').append(authorizationClass());
+        return key.toString();
+    }
+
+    private static String authorizationClass() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !authentication.isAuthenticated())
+            return ANONYMOUS;
+        List<String> authorities = new ArrayList<>();
+        for (GrantedAuthority authority : authentication.getAuthorities())
+            authorities.add(authority.getAuthority());
+        authorities.sort(null);
+        return String.join(",", authorities);
+    }
+
+    private record Route(String name, PathPattern pattern) {
+    }
+
+    private static final class RouteStatistics {
+        private final LongAdder leaders = new LongAdder();
+        private final LongAdder followers = new LongAdder();
+        private final LongAdder fallbacks = new LongAdder();
+
+        private double collapseRatio() {
+            long collapsed = followers.sum();
+            long total = collapsed + leaders.sum() + fallbacks.sum();
+            return total == 0 ? 0 : (double) collapsed / total;
+        }
+    }
+}
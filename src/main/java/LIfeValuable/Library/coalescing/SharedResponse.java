@@ -0,0 +1,43 @@
+package LifeValuable.Library.coalescing;
+
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpHeaders;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Снимок ответа ведущего запроса: статус, заголовки без cookie и сериализованное тело.
+ */
+record SharedResponse(int status, String contentType, Map<String, List<String>> headers, byte[] body) {
+
+    static SharedResponse capture(ContentCachingResponseWrapper response) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (String name : response.getHeaderNames()) {
+            if (name.equalsIgnoreCase(HttpHeaders.SET_COOKIE) || name.equalsIgnoreCase(HttpHeaders.CONTENT_TYPE)
+                    || name.equalsIgnoreCase(HttpHeaders.CONTENT_LENGTH))
+                continue;
+            headers.put(name, List.copyOf(response.getHeaders(name)));
+        }
+        return new SharedResponse(response.getStatus(), response.getContentType(), headers,
+                response.getContentAsByteArray());
+    }
+
+    void writeTo(HttpServletResponse response) throws IOException {
+        response.setStatus(status);
+        if (contentType != null)
+            response.setContentType(contentType);
+        // заголовки, которые внешние фильтры уже поставили этому запросу, заменяются, а не дублируются
+        headers.forEach((name, values) -> {
+            response.setHeader(name, values.get(0));
+            for (int i = 1; i < values.size(); i++)
+                response.addHeader(name, values.get(i));
+        });
+        response.setHeader(RequestCoalescingFilter.COALESCED_HEADER, "true");
+        response.setContentLength(body.length);
+        response.getOutputStream().write(body);
+    }
+}
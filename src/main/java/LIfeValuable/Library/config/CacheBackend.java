@@ -0,0 +1,36 @@
+package LifeValuable.Library.config;
+
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * Хранилище кэшей приложения, свойство {@code cache.backend}.
+ */
+public enum CacheBackend {
+    /** Общий кэш в Redis; ближний уровень в памяти только у кэшей из {@code cache.local.names}. */
+    REDIS("redis"),
+    /** Ограниченный кэш в памяти узла, Redis не нужен: для локальных замеров и одиночных узлов. */
+    LOCAL("local"),
+    /** Redis с ближним уровнем в памяти у всех кэшей. */
+    TWO_LEVEL("two-level");
+
+    public static final String PROPERTY = "cache.backend";
+
+    private final String value;
+
+    CacheBackend(String value) {
+        this.value = value;
+    }
+
+    public String getValue() {
+        return value;
+    }
+
+    public static CacheBackend of(String value) {
+        String normalized = value.trim().toLowerCase(Locale.ROOT);
+        return Arrays.stream(values())
+                .filter(backend -> backend.value.equals(normalized))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Unknown cache backend: " + value));
+    }
+}
@@ -0,0 +1,99 @@
+package LifeValuable.Library.config;
+
+import LifeValuable.Library.cache.CacheCircuitBreaker;
+import LifeValuable.Library.cache.CircuitBreakerCacheErrorHandler;
+import LifeValuable.Library.cache.JitteredTtlFunction;
+import LifeValuable.Library.cache.StampedeProtectedCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.annotation.CachingConfigurer;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.interceptor.CacheErrorHandler;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Duration;
+
+/**
+ * Общая для всех {@link CacheBackend} часть кэширования: TTL, защита от наплыва и предохранитель.
+ * Сам {@code cacheManager} объявляют {@link RedisConfig} и {@link LocalCacheConfig}.
+ */
+// кэш проверяется до открытия транзакции: попадание не берёт соединение из пула
+@EnableCaching(order = Ordered.LOWEST_PRECEDENCE - 1)
+@Configuration
+public class CacheConfig implements CachingConfigurer {
+
+    @Value("${cache.ttl-minutes:30}")
+    private long ttlMinutes;
+
+    @Value("${cache.ttl-jitter:0.1}")
+    private double ttlJitter;
+
+    @Value("${cache.lease-ttl-ms:2000}")
+    private long leaseTtlMs;
+
+    @Value("${cache.lease-poll-ms:20}")
+    private long leasePollMs;
+
+    @Value("${cache.refresh-ahead-beta:1.0}")
+    private double refreshAheadBeta;
+
+    @Value("${cache.breaker.window-size:20}")
+    private int breakerWindowSize;
+
+    @Value("${cache.breaker.minimum-calls:10}")
+    private int breakerMinimumCalls;
+
+    @Value("${cache.breaker.failure-rate:0.5}")
+    private double breakerFailureRate;
+
+    @Value("${cache.breaker.slow-call-ms:100}")
+    private long breakerSlowCallMs;
+
+    @Value("${cache.breaker.open-ms:5000}")
+    private long breakerOpenMs;
+
+    @Value("${cache.breaker.half-open-probes:3}")
+    private int breakerHalfOpenProbes;
+
+    @Bean
+    public CacheCircuitBreaker cacheCircuitBreaker() {
+        return new CacheCircuitBreaker(new CacheCircuitBreaker.Settings(
+                breakerWindowSize,
+                breakerMinimumCalls,
+                breakerFailureRate,
+                Duration.ofMillis(breakerSlowCallMs),
+                Duration.ofMillis(breakerOpenMs),
+                breakerHalfOpenProbes));
+    }
+
+    @Override
+    public CacheErrorHandler errorHandler() {
+        return new CircuitBreakerCacheErrorHandler(cacheCircuitBreaker());
+    }
+
+    @Bean
+    public JitteredTtlFunction cacheTtlFunction() {
+        return new JitteredTtlFunction(Duration.ofMinutes(ttlMinutes), ttlJitter);
+    }
+
+    @Bean
+    public StampedeProtectedCache.Settings stampedeProtectionSettings(JitteredTtlFunction cacheTtlFunction) {
+        return new StampedeProtectedCache.Settings(
+                Duration.ofMillis(leaseTtlMs),
+                Duration.ofMillis(leasePollMs),
+                cacheTtlFunction.getMinimumTimeToLive(),
+                refreshAheadBeta);
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor cacheRefreshExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setThreadNamePrefix("cache-refresh-");
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(1000);
+        return executor;
+    }
+}
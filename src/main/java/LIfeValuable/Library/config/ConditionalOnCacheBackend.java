@@ -0,0 +1,20 @@
+package LifeValuable.Library.config;
+
+import org.springframework.context.annotation.Conditional;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Регистрирует конфигурацию или бин, только если {@code cache.backend} — один из перечисленных.
+ */
+@Target({ElementType.TYPE, ElementType.METHOD})
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+@Conditional(OnCacheBackendCondition.class)
+public @interface ConditionalOnCacheBackend {
+    CacheBackend[] value();
+}
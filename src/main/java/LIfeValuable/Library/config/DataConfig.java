@@ -1,12 +1,19 @@
 package LifeValuable.Library.config;
 
+import LifeValuable.Library.cache.SecondLevelCacheRegions;
 import jakarta.persistence.EntityManagerFactory;
+import org.flywaydb.core.Flyway;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.DependsOn;
 import org.springframework.context.annotation.PropertySource;
+import org.springframework.context.support.PropertySourcesPlaceholderConfigurer;
+import org.springframework.core.env.Environment;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
 import org.springframework.orm.jpa.JpaTransactionManager;
 import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
 import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
@@ -14,6 +21,8 @@ import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 
 import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.Locale;
 
 @Configuration
 @EnableTransactionManagement
@@ -39,6 +48,23 @@ public class DataConfig {
     @Value("${spring.jpa.hibernate.ddl-auto}")
     private String hbm2ddlAuto;
 
+    @Value("${spring.jpa.properties.hibernate.generate_statistics:true}")
+    private boolean generateStatistics;
+
+    @Value("${spring.jpa.properties.hibernate.cache.use_second_level_cache:true}")
+    private boolean secondLevelCache;
+
+    @Value("${spring.jpa.properties.hibernate.cache.use_query_cache:true}")
+    private boolean queryCache;
+
+    // без него @Value у постпроцессоров и бинов, которые они тянут, создаются до разрешения плейсхолдеров
+    @Bean
+    public static PropertySourcesPlaceholderConfigurer propertySourcesPlaceholderConfigurer() {
+        PropertySourcesPlaceholderConfigurer configurer = new PropertySourcesPlaceholderConfigurer();
+        configurer.setIgnoreUnresolvablePlaceholders(true);
+        return configurer;
+    }
+
     @Bean
     public DataSource dataSource() {
         DriverManagerDataSource dataSource = new DriverManagerDataSource();
@@ -49,14 +75,46 @@ public class DataConfig {
         return dataSource;
     }
 
+    @Value("${spring.flyway.locations:classpath:db/migration/{vendor}}")
+    private String migrationLocations;
+
+    @Bean(initMethod = "migrate")
+    public Flyway flyway(DataSource dataSource) throws MetaDataAccessException {
+        // скрипты лежат по каталогам СУБД: db/migration/postgresql, db/migration/h2
+        String productName = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        String vendor = JdbcUtils.commonDatabaseName(productName).toLowerCase(Locale.ROOT);
+
+        // существующая база, созданная hbm2ddl, считается версией 1 и получает только новые миграции
+        return Flyway.configure()
+                .dataSource(dataSource)
+                .locations(migrationLocations.replace("{vendor}", vendor))
+                .baselineOnMigrate(true)
+                .baselineVersion("1")
+                .load();
+    }
+
+    @Bean(destroyMethod = "close")
+    public javax.cache.CacheManager secondLevelCacheManager(Environment environment) {
+        return SecondLevelCacheRegions.createCacheManager(environment);
+    }
+
     @Bean
-    public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource) {
+    @DependsOn("flyway")
+    public LocalContainerEntityManagerFactoryBean entityManagerFactory(DataSource dataSource,
+                                                                       javax.cache.CacheManager secondLevelCacheManager) {
         LocalContainerEntityManagerFactoryBean emf = new LocalContainerEntityManagerFactoryBean();
         emf.setDataSource(dataSource);
         emf.setPackagesToScan("LifeValuable.Library.model");
         emf.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
         emf.getJpaPropertyMap().put("hibernate.dialect", dialect);
         emf.getJpaPropertyMap().put("hibernate.hbm2ddl.auto", hbm2ddlAuto);
+        emf.getJpaPropertyMap().put("hibernate.generate_statistics", generateStatistics);
+        emf.getJpaPropertyMap().put("hibernate.cache.use_second_level_cache", secondLevelCache);
+        emf.getJpaPropertyMap().put("hibernate.cache.use_query_cache", secondLevelCache && queryCache);
+        emf.getJpaPropertyMap().put("hibernate.cache.region.factory_class", "jcache");
+        emf.getJpaPropertyMap().put("hibernate.javax.cache.cache_manager", secondLevelCacheManager);
+        // все регионы создаются заранее, опечатка в имени региона должна ронять старт
+        emf.getJpaPropertyMap().put("hibernate.javax.cache.missing_cache_strategy", "fail");
         return emf;
     }
 
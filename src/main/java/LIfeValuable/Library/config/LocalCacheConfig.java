@@ -0,0 +1,58 @@
+package LifeValuable.Library.config;
+
+import LifeValuable.Library.cache.CacheLease;
+import LifeValuable.Library.cache.DecoratingCacheManager;
+import LifeValuable.Library.cache.InMemoryCacheLease;
+import LifeValuable.Library.cache.JitteredTtlFunction;
+import LifeValuable.Library.cache.LocalCacheManager;
+import LifeValuable.Library.cache.StampedeProtectedCache;
+import LifeValuable.Library.metrics.InstrumentedCache;
+import LifeValuable.Library.metrics.MetricsRegistry;
+import LifeValuable.Library.service.TrendingService;
+import LifeValuable.Library.service.impl.InMemoryTrendingService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+/**
+ * {@code cache.backend=local}: кэши, аренды и рейтинг популярности в памяти узла, без Redis.
+ * Подходит для одного узла — другие узлы не узнают об инвалидации.
+ */
+@Configuration
+@ConditionalOnCacheBackend(CacheBackend.LOCAL)
+public class LocalCacheConfig {
+
+    @Value("${cache.memory.max-size:100000}")
+    private long maxSize = 100000;
+
+    @Value("${trending.epoch:2025-01-01}")
+    private String trendingEpoch = "2025-01-01";
+
+    @Bean
+    public CacheLease cacheLease() {
+        return new InMemoryCacheLease();
+    }
+
+    @Bean
+    public CacheManager cacheManager(CacheLease cacheLease, ThreadPoolTaskExecutor cacheRefreshExecutor,
+                                     JitteredTtlFunction cacheTtlFunction,
+                                     StampedeProtectedCache.Settings stampedeProtectionSettings,
+                                     MetricsRegistry metricsRegistry) {
+        return new DecoratingCacheManager(new LocalCacheManager(maxSize, cacheTtlFunction::getTimeToLive),
+                cache -> new InstrumentedCache(
+                        new StampedeProtectedCache(cache, cacheLease, cacheRefreshExecutor, stampedeProtectionSettings),
+                        metricsRegistry));
+    }
+
+    @Bean
+    public TrendingService trendingService() {
+        return new InMemoryTrendingService(
+                LocalDate.parse(trendingEpoch).atStartOfDay(ZoneOffset.UTC).toInstant(), Clock.systemUTC());
+    }
+}
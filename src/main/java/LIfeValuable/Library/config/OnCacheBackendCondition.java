@@ -0,0 +1,31 @@
+package LifeValuable.Library.config;
+
+import org.springframework.context.annotation.ConditionContext;
+import org.springframework.context.annotation.ConfigurationCondition;
+import org.springframework.core.type.AnnotatedTypeMetadata;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Условие {@link ConditionalOnCacheBackend}. Проверяется при регистрации бинов, а не при сканировании:
+ * к этому моменту {@code application.properties} уже добавлен в {@code Environment} через
+ * {@code @PropertySource} в {@link DataConfig}.
+ */
+class OnCacheBackendCondition implements ConfigurationCondition {
+
+    @Override
+    public ConfigurationPhase getConfigurationPhase() {
+        return ConfigurationPhase.REGISTER_BEAN;
+    }
+
+    @Override
+    public boolean matches(ConditionContext context, AnnotatedTypeMetadata metadata) {
+        Map<String, Object> attributes = metadata.getAnnotationAttributes(ConditionalOnCacheBackend.class.getName());
+        if (attributes == null)
+            return true;
+        CacheBackend backend = CacheBackend.of(context.getEnvironment()
+                .getProperty(CacheBackend.PROPERTY, CacheBackend.REDIS.getValue()));
+        return Arrays.asList((CacheBackend[]) attributes.get("value")).contains(backend);
+    }
+}
@@ -1,54 +1,171 @@
 package LifeValuable.Library.config;
 
+import LifeValuable.Library.cache.CacheCircuitBreaker;
+import LifeValuable.Library.cache.CacheLease;
+import LifeValuable.Library.cache.CircuitBreakingCache;
+import LifeValuable.Library.cache.CompactCacheSerializer;
+import LifeValuable.Library.cache.DecoratingCacheManager;
+import LifeValuable.Library.cache.JitteredTtlFunction;
+import LifeValuable.Library.cache.PipelinedRedisCache;
+import LifeValuable.Library.cache.PoolAwareJedisConnectionFactory;
+import LifeValuable.Library.cache.RedisCacheLease;
+import LifeValuable.Library.cache.StampedeProtectedCache;
+import LifeValuable.Library.cache.TwoLevelCache;
+import LifeValuable.Library.metrics.InstrumentedCache;
+import LifeValuable.Library.metrics.MetricsRegistry;
 import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
-import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.RedisCache;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
 import org.springframework.data.redis.cache.RedisCacheManager;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.jedis.JedisClientConfiguration;
-import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.RedisSerializationContext;
 import org.springframework.data.redis.serializer.RedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Duration;
+import java.util.Arrays;
 
-@EnableCaching
+/**
+ * Redis и кэши в нём для {@code cache.backend=redis} и {@code two-level}. При {@code two-level} ближний
+ * уровень в памяти есть у всех кэшей, при {@code redis} — только у перечисленных в {@code cache.local.names}.
+ */
 @Configuration
+@ConditionalOnCacheBackend({CacheBackend.REDIS, CacheBackend.TWO_LEVEL})
 public class RedisConfig {
 
+    @Value("${redis.host:localhost}")
+    private String redisHost;
+
+    @Value("${redis.port:6379}")
+    private int redisPort;
+
+    @Value("${redis.connect-timeout-ms:500}")
+    private long connectTimeoutMs;
+
+    @Value("${redis.read-timeout-ms:250}")
+    private long readTimeoutMs;
+
+    @Value("${redis.pool.max-wait-ms:100}")
+    private long poolMaxWaitMs;
+
+    @Value("${cache.serializer:compact}")
+    private String serializer;
+
+    @Value("${cache.serializer.compression-threshold:1024}")
+    private int compressionThreshold;
+
+    @Value("${cache.backend:redis}")
+    private String backend = CacheBackend.REDIS.getValue();
+
+    @Value("${cache.local.names:readerProfiles}")
+    private String[] localCacheNames = {"readerProfiles"};
+
+    @Value("${cache.local.max-size:10000}")
+    private long localMaxSize = 10000;
+
+    @Value("${cache.local.ttl-seconds:60}")
+    private long localTtlSeconds = 60;
+
     @Bean
     public RedisConnectionFactory redisConnectionFactory() {
-        RedisStandaloneConfiguration config = new RedisStandaloneConfiguration("localhost", 6379);
+        RedisStandaloneConfiguration config = new RedisStandaloneConfiguration(redisHost, redisPort);
         config.setDatabase(0);
 
+        GenericObjectPoolConfig<?> poolConfig = new GenericObjectPoolConfig<>();
+        poolConfig.setMaxWait(Duration.ofMillis(poolMaxWaitMs));
+
         JedisClientConfiguration clientConfig = JedisClientConfiguration.builder()
-                .connectTimeout(Duration.ofSeconds(5))
-                .readTimeout(Duration.ofSeconds(3))
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .readTimeout(Duration.ofMillis(readTimeoutMs))
                 .usePooling()
-                .poolConfig(new GenericObjectPoolConfig<>())
+                .poolConfig(poolConfig)
                 .build();
 
-        return new JedisConnectionFactory(config, clientConfig);
+        return new PoolAwareJedisConnectionFactory(config, clientConfig);
     }
 
     @Bean
-    public RedisCacheManager cacheManager(RedisConnectionFactory redisConnectionFactory) {
-        RedisSerializer<Object> serializer = new GenericJackson2JsonRedisSerializer();
+    public StringRedisTemplate stringRedisTemplate(RedisConnectionFactory redisConnectionFactory) {
+        return new StringRedisTemplate(redisConnectionFactory);
+    }
 
+    @Bean
+    public RedisMessageListenerContainer redisMessageListenerContainer(RedisConnectionFactory redisConnectionFactory) {
+        RedisMessageListenerContainer container = new RedisMessageListenerContainer();
+        container.setConnectionFactory(redisConnectionFactory);
+        return container;
+    }
+
+    @Bean
+    public CacheLease cacheLease(StringRedisTemplate stringRedisTemplate, CacheCircuitBreaker cacheCircuitBreaker) {
+        return new RedisCacheLease(stringRedisTemplate, cacheCircuitBreaker);
+    }
+
+    @Bean
+    public CacheManager cacheManager(RedisConnectionFactory redisConnectionFactory, CacheLease cacheLease,
+                                     ThreadPoolTaskExecutor cacheRefreshExecutor,
+                                     CacheCircuitBreaker cacheCircuitBreaker,
+                                     JitteredTtlFunction cacheTtlFunction,
+                                     StampedeProtectedCache.Settings stampedeProtectionSettings,
+                                     MetricsRegistry metricsRegistry,
+                                     StringRedisTemplate stringRedisTemplate,
+                                     RedisMessageListenerContainer redisMessageListenerContainer) {
         RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig()
                 .serializeKeysWith(RedisSerializationContext.SerializationPair
                         .fromSerializer(new StringRedisSerializer()))
                 .serializeValuesWith(RedisSerializationContext.SerializationPair
-                        .fromSerializer(serializer))
-                .entryTtl(Duration.ofMinutes(30));
+                        .fromSerializer(cacheValueSerializer()))
+                .entryTtl(cacheTtlFunction);
 
-        return RedisCacheManager.builder(redisConnectionFactory)
+        RedisCacheManager redisCacheManager = RedisCacheManager.builder(redisConnectionFactory)
                 .cacheDefaults(config)
                 .build();
+        redisCacheManager.initializeCaches();
+
+        TwoLevelCache.Settings localSettings = new TwoLevelCache.Settings(
+                localMaxSize, Duration.ofSeconds(localTtlSeconds));
+        boolean allTwoLevel = CacheBackend.of(backend) == CacheBackend.TWO_LEVEL;
+        return new DecoratingCacheManager(redisCacheManager, cache -> {
+            Cache decorated = new StampedeProtectedCache(
+                    new CircuitBreakingCache(
+                            new PipelinedRedisCache((RedisCache) cache, redisConnectionFactory),
+                            cacheCircuitBreaker),
+                    cacheLease, cacheRefreshExecutor, stampedeProtectionSettings);
+            if (allTwoLevel || Arrays.asList(localCacheNames).contains(cache.getName()))
+                decorated = twoLevel(decorated, localSettings, stringRedisTemplate, redisMessageListenerContainer);
+            return new InstrumentedCache(decorated, metricsRegistry);
+        });
+    }
+
+    private static Cache twoLevel(Cache remote, TwoLevelCache.Settings settings, StringRedisTemplate redisTemplate,
+                                  RedisMessageListenerContainer listenerContainer) {
+        String channel = TwoLevelCache.channel(remote.getName());
+        TwoLevelCache cache = new TwoLevelCache(remote, settings,
+                message -> redisTemplate.convertAndSend(channel, message));
+        listenerContainer.addMessageListener(
+                (message, pattern) -> cache.onInvalidation(new String(message.getBody(), StandardCharsets.UTF_8)),
+                new ChannelTopic(channel));
+        return cache;
+    }
+
+    private RedisSerializer<Object> cacheValueSerializer() {
+        return switch (serializer) {
+            case "compact" -> new CompactCacheSerializer(compressionThreshold);
+            case "json" -> new GenericJackson2JsonRedisSerializer();
+            default -> throw new IllegalStateException("Unknown cache serializer: " + serializer);
+        };
     }
 }
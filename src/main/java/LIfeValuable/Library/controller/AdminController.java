@@ -0,0 +1,142 @@
+package LifeValuable.Library.controller;
+
+import LifeValuable.Library.audit.AuditEntity;
+import LifeValuable.Library.dto.admin.AuditRecordDTO;
+import LifeValuable.Library.dto.admin.RecordingDTO;
+import LifeValuable.Library.dto.admin.RequestTraceDTO;
+import LifeValuable.Library.dto.admin.StatisticsDTO;
+import LifeValuable.Library.service.AuditService;
+import LifeValuable.Library.service.ProfilingService;
+import LifeValuable.Library.service.StatisticsService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.validation.annotation.Validated;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+
+@Tag(name = "Администрирование", description = "Диагностика работы приложения")
+@Validated
+@RestController
+@RequestMapping("/api/admin")
+public class AdminController {
+    private final StatisticsService statisticsService;
+    private final ProfilingService profilingService;
+    private final AuditService auditService;
+
+    @Autowired
+    AdminController(StatisticsService statisticsService, ProfilingService profilingService,
+                    AuditService auditService) {
+        this.statisticsService = statisticsService;
+        this.profilingService = profilingService;
+        this.auditService = auditService;
+    }
+
+    @Operation(summary = "Статистика запросов", description = "Возвращает статистику Hibernate и самые затратные по суммарному времени формы SQL-запросов")
+    @ApiResponse(responseCode = "200", description = "Статистика успешно получена")
+    @GetMapping("/statistics")
+    public ResponseEntity<StatisticsDTO> getStatistics(
+            @Parameter(description = "Количество форм запросов в ответе", example = "20")
+            @RequestParam(defaultValue = "20") @Min(1) @Max(500) int limit) {
+        return ResponseEntity.ok(statisticsService.getStatistics(limit));
+    }
+
+    @Operation(summary = "Последние медленные запросы", description = "Возвращает недавние медленные HTTP-запросы с разбивкой времени по слоям: безопасность, сервис, БД, кэш, маппинг, валидация и JSON")
+    @ApiResponse(responseCode = "200", description = "Список запросов успешно получен")
+    @GetMapping("/slow-requests")
+    public ResponseEntity<List<RequestTraceDTO>> getSlowRequests(
+            @Parameter(description = "Количество запросов в ответе", example = "20")
+            @RequestParam(defaultValue = "20") @Min(1) @Max(500) int limit) {
+        return ResponseEntity.ok(statisticsService.getSlowRequests(limit));
+    }
+
+    @Operation(summary = "Сбросить статистику", description = "Обнуляет статистику Hibernate, счётчики SQL-запросов и журнал медленных запросов")
+    @ApiResponse(responseCode = "204", description = "Статистика сброшена")
+    @DeleteMapping("/statistics")
+    public ResponseEntity<Void> resetStatistics() {
+        statisticsService.reset();
+        return ResponseEntity.noContent().build();
+    }
+
+    @Operation(summary = "Запустить запись JFR", description = "Запускает запись Flight Recorder с событиями библиотеки, ограниченную по длительности и размеру")
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Запись запущена"),
+            @ApiResponse(responseCode = "409", description = "Запись уже идёт")
+    })
+    @PostMapping("/recordings")
+    public ResponseEntity<RecordingDTO> startRecording(
+            @Parameter(description = "Длительность записи в секундах", example = "300")
+            @RequestParam(defaultValue = "300") @Min(1) @Max(3600) long durationSeconds,
+            @Parameter(description = "Максимальный размер записи в мегабайтах", example = "64")
+            @RequestParam(defaultValue = "64") @Min(1) @Max(1024) long maxSizeMb) {
+        RecordingDTO recording = profilingService.start(durationSeconds, maxSizeMb);
+        return ResponseEntity.created(URI.create("/api/admin/recordings/current")).body(recording);
+    }
+
+    @Operation(summary = "Текущая запись JFR", description = "Возвращает состояние последней запущенной записи")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Состояние записи получено"),
+            @ApiResponse(responseCode = "404", description = "Запись не запускалась")
+    })
+    @GetMapping("/recordings/current")
+    public ResponseEntity<RecordingDTO> getRecording() {
+        return ResponseEntity.ok(profilingService.getCurrent());
+    }
+
+    @Operation(summary = "Остановить запись JFR", description = "Останавливает запись и сохраняет её в файл")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Запись остановлена"),
+            @ApiResponse(responseCode = "404", description = "Запись не запускалась")
+    })
+    @PostMapping("/recordings/current/stop")
+    public ResponseEntity<RecordingDTO> stopRecording() {
+        return ResponseEntity.ok(profilingService.stop());
+    }
+
+    @Operation(summary = "Скачать запись JFR", description = "Отдаёт файл записи; для идущей записи — снимок накопленных данных")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Файл записи"),
+            @ApiResponse(responseCode = "404", description = "Запись не запускалась")
+    })
+    @GetMapping("/recordings/current/file")
+    public ResponseEntity<Resource> downloadRecording() {
+        Path file = profilingService.getRecordingFile();
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename(file.getFileName().toString()).build().toString())
+                .body(new FileSystemResource(file));
+    }
+
+    @Operation(summary = "Журнал аудита", description = "Возвращает изменяющие вызовы в порядке записи, с фильтром по сущности, её идентификатору и интервалу времени")
+    @ApiResponse(responseCode = "200", description = "Записи журнала получены")
+    @GetMapping("/audit")
+    public ResponseEntity<List<AuditRecordDTO>> getAuditRecords(
+            @Parameter(description = "Тип сущности", example = "BOOK")
+            @RequestParam(required = false) AuditEntity entity,
+            @Parameter(description = "Идентификатор сущности", example = "42")
+            @RequestParam(required = false) Long entityId,
+            @Parameter(description = "Начало интервала, ISO-8601", example = "2026-10-01T00:00:00Z")
+            @RequestParam(required = false) Instant from,
+            @Parameter(description = "Конец интервала, ISO-8601", example = "2026-10-02T00:00:00Z")
+            @RequestParam(required = false) Instant to,
+            @Parameter(description = "Количество записей в ответе", example = "100")
+            @RequestParam(defaultValue = "100") @Min(1) @Max(1000) int limit) {
+        return ResponseEntity.ok(auditService.find(entity, entityId, from, to, limit));
+    }
+}
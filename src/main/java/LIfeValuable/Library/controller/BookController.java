@@ -2,7 +2,9 @@ package LifeValuable.Library.controller;
 
 import LifeValuable.Library.dto.book.BookDTO;
 import LifeValuable.Library.dto.book.BookDetailDTO;
+import LifeValuable.Library.dto.book.BookTrendingDTO;
 import LifeValuable.Library.dto.book.CreateBookDTO;
+import LifeValuable.Library.model.TrendingWindow;
 import LifeValuable.Library.service.BookService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -10,9 +12,12 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -50,6 +55,32 @@ public class BookController {
         return ResponseEntity.ok(bookService.findAll(pageable));
     }
 
+    @Operation(summary = "Получить все книги с выбранными полями", description = "Возвращает только перечисленные поля; жанры читаются, только если запрошено поле genreNames")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Список книг успешно получен"),
+            @ApiResponse(responseCode = "400", description = "Запрошено неизвестное поле")
+    })
+    @GetMapping(params = {"fields", "!ids"})
+    public ResponseEntity<Page<Map<String, Object>>> getAllBooks(
+            @Parameter(description = "Поля ответа через запятую", example = "id,title")
+            @RequestParam String fields,
+            @Parameter(description = "Параметры пагинации и сортировки")
+            @PageableDefault(sort = "title", direction = Sort.Direction.ASC) Pageable pageable) {
+        return ResponseEntity.ok(bookService.findAll(fields, pageable));
+    }
+
+    @Operation(summary = "Получить книги по списку ID", description = "Возвращает подробную информацию о нескольких книгах в порядке запроса; отсутствующие книги пропускаются")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Книги найдены"),
+            @ApiResponse(responseCode = "400", description = "Слишком много идентификаторов")
+    })
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<BookDetailDTO>> getByIds(
+            @Parameter(description = "Идентификаторы книг через запятую", example = "1,2,3")
+            @RequestParam @NotEmpty @Size(max = 100) List<Long> ids) {
+        return ResponseEntity.ok(bookService.findAllByIds(ids));
+    }
+
     @Operation(summary = "Получить книгу по ID", description = "Возвращает подробную информацию о книге по её идентификатору")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Книга найдена"),
@@ -62,6 +93,21 @@ public class BookController {
         return ResponseEntity.ok(bookService.findById(id));
     }
 
+    @Operation(summary = "Получить книгу по ID с выбранными полями", description = "Возвращает только перечисленные поля книги")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Книга найдена"),
+            @ApiResponse(responseCode = "400", description = "Запрошено неизвестное поле"),
+            @ApiResponse(responseCode = "404", description = "Книга не найдена")
+    })
+    @GetMapping(value = "/{id}", params = "fields")
+    public ResponseEntity<Map<String, Object>> getById(
+            @Parameter(description = "Уникальный идентификатор книги", example = "1")
+            @PathVariable Long id,
+            @Parameter(description = "Поля ответа через запятую", example = "id,title,availableStock")
+            @RequestParam String fields) {
+        return ResponseEntity.ok(bookService.findById(id, fields));
+    }
+
     @Operation(summary = "Создать новую книгу", description = "Добавляет новую книгу в библиотеку")
     @ApiResponses({
             @ApiResponse(responseCode = "201", description = "Книга успешно создана"),
@@ -208,6 +254,19 @@ public class BookController {
         return ResponseEntity.ok(bookService.findAll(pageable));
     }
 
+    @Operation(summary = "Набирающие популярность книги", description = "Возвращает книги с наибольшим числом выдач за окно с экспоненциальным затуханием, в том числе по жанру")
+    @ApiResponse(responseCode = "200", description = "Список популярных книг")
+    @GetMapping("/trending")
+    public ResponseEntity<List<BookTrendingDTO>> getTrending(
+            @Parameter(description = "Окно популярности", example = "WEEK")
+            @RequestParam(defaultValue = "WEEK") TrendingWindow window,
+            @Parameter(description = "Название жанра", example = "Фантастика")
+            @RequestParam(required = false) String genre,
+            @Parameter(description = "Количество книг", example = "10")
+            @RequestParam(defaultValue = "10") @Min(1) @Max(100) Integer limit) {
+        return ResponseEntity.ok(bookService.findTrending(window, genre, limit));
+    }
+
     @Operation(summary = "Обновить количество на складе", description = "Изменяет количество доступных экземпляров книги")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Количество успешно обновлено"),
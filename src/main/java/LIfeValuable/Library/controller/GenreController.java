@@ -0,0 +1,107 @@
+package LifeValuable.Library.controller;
+
+import LifeValuable.Library.dto.genre.CreateGenreDTO;
+import LifeValuable.Library.dto.genre.GenreDTO;
+import LifeValuable.Library.service.GenreService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.net.URI;
+import java.util.List;
+
+@Tag(name = "Жанры", description = "Управление справочником жанров")
+@RestController
+@RequestMapping("/api/genres")
+public class GenreController {
+
+    private final GenreService genreService;
+
+    @Autowired
+    public GenreController(GenreService genreService) {
+        this.genreService = genreService;
+    }
+
+    @Operation(summary = "Получить все жанры", description = "Возвращает все жанры, отсортированные по названию")
+    @ApiResponse(responseCode = "200", description = "Список жанров успешно получен")
+    @GetMapping
+    public ResponseEntity<List<GenreDTO>> getAll() {
+        return ResponseEntity.ok(genreService.findAll());
+    }
+
+    @Operation(summary = "Получить жанр по ID", description = "Возвращает жанр по его идентификатору")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Жанр найден"),
+            @ApiResponse(responseCode = "404", description = "Жанр не найден")
+    })
+    @GetMapping("/{id}")
+    public ResponseEntity<GenreDTO> getById(
+            @Parameter(description = "Уникальный идентификатор жанра", example = "1")
+            @PathVariable Long id) {
+        return ResponseEntity.ok(genreService.findById(id));
+    }
+
+    @Operation(summary = "Поиск по названию", description = "Находит жанр по точному совпадению названия")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Жанр найден"),
+            @ApiResponse(responseCode = "404", description = "Жанр не найден")
+    })
+    @GetMapping(value = "/search", params = "name")
+    public ResponseEntity<GenreDTO> searchByName(
+            @Parameter(description = "Название жанра", example = "Роман")
+            @RequestParam String name) {
+        return ResponseEntity.ok(genreService.findByName(name));
+    }
+
+    @Operation(summary = "Создать жанр", description = "Добавляет новый жанр в справочник")
+    @ApiResponses({
+            @ApiResponse(responseCode = "201", description = "Жанр успешно создан"),
+            @ApiResponse(responseCode = "400", description = "Некорректные данные жанра"),
+            @ApiResponse(responseCode = "409", description = "Жанр с таким названием уже существует")
+    })
+    @PostMapping
+    public ResponseEntity<GenreDTO> create(
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Данные нового жанра", required = true)
+            @Valid @RequestBody CreateGenreDTO genreDTO) {
+        GenreDTO created = genreService.create(genreDTO);
+        URI location = URI.create("/api/genres/" + created.id());
+        return ResponseEntity.created(location).body(created);
+    }
+
+    @Operation(summary = "Обновить жанр", description = "Обновляет название и описание жанра")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Жанр успешно обновлён"),
+            @ApiResponse(responseCode = "400", description = "Некорректные данные"),
+            @ApiResponse(responseCode = "404", description = "Жанр не найден"),
+            @ApiResponse(responseCode = "409", description = "Жанр с таким названием уже существует")
+    })
+    @PutMapping("/{id}")
+    public ResponseEntity<GenreDTO> update(
+            @Parameter(description = "Идентификатор жанра") @PathVariable Long id,
+            @io.swagger.v3.oas.annotations.parameters.RequestBody(
+                    description = "Обновленные данные жанра", required = true)
+            @Valid @RequestBody CreateGenreDTO genreDTO) {
+        return ResponseEntity.ok(genreService.update(genreDTO, id));
+    }
+
+    @Operation(summary = "Удалить жанр", description = "Удаляет жанр, если он не назначен ни одной книге")
+    @ApiResponses({
+            @ApiResponse(responseCode = "204", description = "Жанр успешно удалён"),
+            @ApiResponse(responseCode = "404", description = "Жанр не найден"),
+            @ApiResponse(responseCode = "409", description = "Жанр назначен книгам")
+    })
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(
+            @Parameter(description = "Идентификатор жанра для удаления")
+            @PathVariable Long id) {
+        genreService.deleteById(id);
+        return ResponseEntity.noContent().build();
+    }
+}
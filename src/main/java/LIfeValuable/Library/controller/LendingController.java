@@ -24,6 +24,7 @@ import org.springframework.web.bind.annotation.*;
 
 import java.net.URI;
 import java.time.LocalDate;
+import java.util.Map;
 
 @Tag(name = "Выдачи книг", description = "Управление выдачами и возвратами книг")
 @RestController
@@ -49,6 +50,20 @@ public class LendingController {
         return ResponseEntity.ok(lendingService.findAllLendings(pageable));
     }
 
+    @Operation(summary = "Получить все выдачи с выбранными полями", description = "Возвращает только перечисленные поля; книга и читатель присоединяются, только если запрошены их поля")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Список выдач успешно получен"),
+            @ApiResponse(responseCode = "400", description = "Запрошено неизвестное поле")
+    })
+    @GetMapping(params = "fields")
+    public ResponseEntity<Page<Map<String, Object>>> getAllLendings(
+            @Parameter(description = "Поля ответа через запятую", example = "id,dueDate,status")
+            @RequestParam String fields,
+            @Parameter(description = "Параметры пагинации и сортировки")
+            @PageableDefault(sort = "lendingDate", direction = Sort.Direction.DESC) Pageable pageable) {
+        return ResponseEntity.ok(lendingService.findAllLendings(fields, pageable));
+    }
+
     @Operation(summary = "Получить выдачу по ID", description = "Возвращает подробную информацию о выдаче по её идентификатору")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Выдача найдена"),
@@ -61,6 +76,21 @@ public class LendingController {
         return ResponseEntity.ok(lendingService.findById(id));
     }
 
+    @Operation(summary = "Получить выдачу по ID с выбранными полями", description = "Возвращает только перечисленные поля выдачи")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Выдача найдена"),
+            @ApiResponse(responseCode = "400", description = "Запрошено неизвестное поле"),
+            @ApiResponse(responseCode = "404", description = "Выдача не найдена")
+    })
+    @GetMapping(value = "/{id}", params = "fields")
+    public ResponseEntity<Map<String, Object>> findById(
+            @Parameter(description = "Уникальный идентификатор выдачи", example = "1")
+            @PathVariable Long id,
+            @Parameter(description = "Поля ответа через запятую", example = "id,dueDate,status")
+            @RequestParam String fields) {
+        return ResponseEntity.ok(lendingService.findById(id, fields));
+    }
+
     @Operation(summary = "Создать новую выдачу", description = "Оформляет выдачу книги читателю")
     @ApiResponses({
             @ApiResponse(responseCode = "201", description = "Выдача успешно создана"),
@@ -158,6 +188,8 @@ public class LendingController {
     @Operation(summary = "Поиск выдач по читателю", description = "Возвращает все выдачи указанного читателя")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Список выдач читателя"),
+            @ApiResponse(responseCode = "400",
+                    description = "Сортировка не по id, lendingDate, dueDate, returnDate или status при наличии архивных выдач"),
             @ApiResponse(responseCode = "404", description = "Читатель не найден")
     })
     @GetMapping("/by-reader/{id}")
@@ -186,6 +218,8 @@ public class LendingController {
     @Operation(summary = "Поиск выдач по книге", description = "Возвращает все выдачи указанной книги")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Список выдач книги"),
+            @ApiResponse(responseCode = "400",
+                    description = "Сортировка не по id, lendingDate, dueDate, returnDate или status при наличии архивных выдач"),
             @ApiResponse(responseCode = "404", description = "Книга не найдена")
     })
     @GetMapping("/by-book/{id}")
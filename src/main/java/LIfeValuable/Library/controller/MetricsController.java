@@ -0,0 +1,62 @@
+package LifeValuable.Library.controller;
+
+import LifeValuable.Library.metrics.MetricsRegistry;
+import LifeValuable.Library.metrics.PrometheusTextFormat;
+import io.swagger.v3.oas.annotations.Hidden;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Выгрузка метрик для Prometheus. Эндпоинт вне {@code /api/**}, поэтому не требует аутентификации;
+ * доступ ограничивается флагом {@code metrics.endpoint.enabled} и списком адресов.
+ */
+@Hidden
+@RestController
+public class MetricsController {
+    private final MetricsRegistry metricsRegistry;
+
+    @Value("${metrics.endpoint.enabled:true}")
+    private boolean enabled = true;
+
+    private Set<String> allowedAddresses = Set.of();
+
+    @Autowired
+    public MetricsController(MetricsRegistry metricsRegistry) {
+        this.metricsRegistry = metricsRegistry;
+    }
+
+    @Value("${metrics.endpoint.allowed-addresses:}")
+    void setAllowedAddresses(String addresses) {
+        allowedAddresses = Arrays.stream(addresses.split(","))
+                .map(String::trim)
+                .filter(address -> !address.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @GetMapping("${metrics.endpoint.path:/internal/metrics}")
+    public void scrape(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (!enabled) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+        if (!allowedAddresses.isEmpty() && !allowedAddresses.contains(request.getRemoteAddr())) {
+            response.sendError(HttpServletResponse.SC_FORBIDDEN);
+            return;
+        }
+
+        response.setContentType(PrometheusTextFormat.CONTENT_TYPE);
+        Writer writer = response.getWriter();
+        metricsRegistry.writeTo(writer);
+        writer.flush();
+    }
+}
@@ -22,6 +22,7 @@ import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
 import java.net.URI;
+import java.util.Map;
 
 @Tag(name = "Читатели", description = "Управление читателями библиотеки")
 @RestController
@@ -43,6 +44,20 @@ public class ReaderController {
         return ResponseEntity.ok(readerService.findAll(pageable));
     }
 
+    @Operation(summary = "Получить всех читателей с выбранными полями", description = "Возвращает только перечисленные поля; выдачи считаются, только если запрошен их счётчик")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Список читателей успешно получен"),
+            @ApiResponse(responseCode = "400", description = "Запрошено неизвестное поле")
+    })
+    @GetMapping(params = "fields")
+    public ResponseEntity<Page<Map<String, Object>>> getAllReaders(
+            @Parameter(description = "Поля ответа через запятую", example = "id,fullName")
+            @RequestParam String fields,
+            @Parameter(description = "Параметры пагинации и сортировки")
+            @PageableDefault(sort = "firstName", direction = Sort.Direction.ASC) Pageable pageable) {
+        return ResponseEntity.ok(readerService.findAll(fields, pageable));
+    }
+
     @Operation(summary = "Получить читателя по ID", description = "Возвращает подробную информацию о читателе по его идентификатору")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Читатель найден"),
@@ -55,6 +70,21 @@ public class ReaderController {
         return ResponseEntity.ok(readerService.findById(id));
     }
 
+    @Operation(summary = "Получить читателя по ID с выбранными полями", description = "Возвращает только перечисленные поля читателя")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Читатель найден"),
+            @ApiResponse(responseCode = "400", description = "Запрошено неизвестное поле"),
+            @ApiResponse(responseCode = "404", description = "Читатель не найден")
+    })
+    @GetMapping(value = "/{id}", params = "fields")
+    public ResponseEntity<Map<String, Object>> findById(
+            @Parameter(description = "Уникальный идентификатор читателя", example = "1")
+            @PathVariable Long id,
+            @Parameter(description = "Поля ответа через запятую", example = "id,email,activeLendingsCount")
+            @RequestParam String fields) {
+        return ResponseEntity.ok(readerService.findById(id, fields));
+    }
+
     @Operation(summary = "Зарегистрировать нового читателя", description = "Создает новую учетную запись читателя в библиотеке")
     @ApiResponses({
             @ApiResponse(responseCode = "201", description = "Читатель успешно зарегистрирован"),
@@ -0,0 +1,12 @@
+package LifeValuable.Library.dto.admin;
+
+import java.time.Instant;
+
+public record AuditRecordDTO(
+    long sequence,
+    Instant timestamp,
+    String entity,
+    long entityId,
+    String operation,
+    String actor) {
+}
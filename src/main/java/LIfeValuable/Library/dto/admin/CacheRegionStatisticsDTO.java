@@ -0,0 +1,10 @@
+package LifeValuable.Library.dto.admin;
+
+public record CacheRegionStatisticsDTO(
+    String region,
+    long hitCount,
+    long missCount,
+    long putCount,
+    double hitRate,
+    long elementCount) {
+}
@@ -0,0 +1,27 @@
+package LifeValuable.Library.dto.admin;
+
+import java.util.List;
+
+public record HibernateStatisticsDTO(
+    boolean enabled,
+    long sessionOpenCount,
+    long transactionCount,
+    long flushCount,
+    long prepareStatementCount,
+    long entityLoadCount,
+    long entityFetchCount,
+    long entityInsertCount,
+    long entityUpdateCount,
+    long entityDeleteCount,
+    long collectionLoadCount,
+    long collectionFetchCount,
+    long queryExecutionCount,
+    long queryExecutionMaxTimeMs,
+    String queryExecutionMaxTimeQuery,
+    long secondLevelCacheHitCount,
+    long secondLevelCacheMissCount,
+    long secondLevelCachePutCount,
+    long queryCacheHitCount,
+    long queryCacheMissCount,
+    List<CacheRegionStatisticsDTO> cacheRegions) {
+}
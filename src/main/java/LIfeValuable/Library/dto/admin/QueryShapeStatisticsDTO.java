@@ -0,0 +1,11 @@
+package LifeValuable.Library.dto.admin;
+
+public record QueryShapeStatisticsDTO(
+    String sql,
+    long count,
+    double totalMs,
+    double maxMs,
+    double meanMs,
+    long rows,
+    long slowCount) {
+}
@@ -0,0 +1,14 @@
+package LifeValuable.Library.dto.admin;
+
+import java.time.Instant;
+
+public record RecordingDTO(
+    long id,
+    String name,
+    String state,
+    Instant startTime,
+    Instant stopTime,
+    long durationSeconds,
+    long maxSizeBytes,
+    long sizeBytes) {
+}
@@ -0,0 +1,13 @@
+package LifeValuable.Library.dto.admin;
+
+import java.time.Instant;
+import java.util.Map;
+
+public record RequestTraceDTO(
+    Instant startedAt,
+    String method,
+    String path,
+    int status,
+    double totalMs,
+    Map<String, Double> breakdownMs) {
+}
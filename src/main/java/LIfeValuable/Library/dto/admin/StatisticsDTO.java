@@ -0,0 +1,10 @@
+package LifeValuable.Library.dto.admin;
+
+import java.time.Instant;
+import java.util.List;
+
+public record StatisticsDTO(
+    Instant since,
+    HibernateStatisticsDTO hibernate,
+    List<QueryShapeStatisticsDTO> queries) {
+}
@@ -0,0 +1,8 @@
+package LifeValuable.Library.dto.book;
+
+public record BookTrendingDTO(
+        Long id,
+        String title,
+        String author,
+        Double score) {
+}
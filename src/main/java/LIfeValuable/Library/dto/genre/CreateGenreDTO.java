@@ -0,0 +1,8 @@
+package LifeValuable.Library.dto.genre;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record CreateGenreDTO(
+    @NotBlank String name,
+    @NotBlank String description) {
+}
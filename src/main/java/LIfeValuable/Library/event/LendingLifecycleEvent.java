@@ -0,0 +1,45 @@
+package LifeValuable.Library.event;
+
+import LifeValuable.Library.model.Lending;
+import LifeValuable.Library.model.LendingStatus;
+import LifeValuable.Library.outbox.OutboxMessage;
+
+import java.util.Locale;
+
+/**
+ * Изменение выдачи, которое публикуется через outbox. Всё производное от выдачи — счётчики популярности,
+ * профили читателей в кэше — обновляется обработчиками этого события, а не внутри транзакции выдачи.
+ */
+public record LendingLifecycleEvent(
+        Type type,
+        Long lendingId,
+        Long bookId,
+        Long readerId,
+        String readerEmail,
+        LendingStatus status) implements OutboxMessage {
+    public static final String AGGREGATE_TYPE = "lending";
+
+    public enum Type {
+        CREATED, RETURNED, OVERDUE, STATUS_CHANGED
+    }
+
+    public static LendingLifecycleEvent of(Type type, Lending lending) {
+        return new LendingLifecycleEvent(type, lending.getId(), lending.getBook().getId(),
+                lending.getReader().getId(), lending.getReader().getEmail(), lending.getStatus());
+    }
+
+    @Override
+    public String aggregateType() {
+        return AGGREGATE_TYPE;
+    }
+
+    @Override
+    public Long aggregateId() {
+        return lendingId;
+    }
+
+    @Override
+    public String eventType() {
+        return "lending." + type.name().toLowerCase(Locale.ROOT);
+    }
+}
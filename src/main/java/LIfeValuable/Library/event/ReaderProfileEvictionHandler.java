@@ -0,0 +1,33 @@
+package LifeValuable.Library.event;
+
+import LifeValuable.Library.outbox.OutboxEventHandler;
+import LifeValuable.Library.service.ReaderService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+// в профиле читателя лежат счётчики выдач, и любое изменение выдачи делает его устаревшим
+@Component
+public class ReaderProfileEvictionHandler implements OutboxEventHandler<LendingLifecycleEvent> {
+    private final ReaderService readerService;
+
+    @Autowired
+    public ReaderProfileEvictionHandler(ReaderService readerService) {
+        this.readerService = readerService;
+    }
+
+    @Override
+    public String aggregateType() {
+        return LendingLifecycleEvent.AGGREGATE_TYPE;
+    }
+
+    @Override
+    public Class<LendingLifecycleEvent> messageType() {
+        return LendingLifecycleEvent.class;
+    }
+
+    @Override
+    public void handle(LendingLifecycleEvent event) {
+        if (event.readerEmail() != null)
+            readerService.evictProfile(event.readerEmail());
+    }
+}
@@ -0,0 +1,37 @@
+package LifeValuable.Library.event;
+
+import LifeValuable.Library.outbox.OutboxEventHandler;
+import LifeValuable.Library.repository.BookRepository;
+import LifeValuable.Library.service.TrendingService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+@Component
+public class TrendingLendingHandler implements OutboxEventHandler<LendingLifecycleEvent> {
+    private final BookRepository bookRepository;
+    private final TrendingService trendingService;
+
+    @Autowired
+    public TrendingLendingHandler(BookRepository bookRepository, TrendingService trendingService) {
+        this.bookRepository = bookRepository;
+        this.trendingService = trendingService;
+    }
+
+    @Override
+    public String aggregateType() {
+        return LendingLifecycleEvent.AGGREGATE_TYPE;
+    }
+
+    @Override
+    public Class<LendingLifecycleEvent> messageType() {
+        return LendingLifecycleEvent.class;
+    }
+
+    @Override
+    public void handle(LendingLifecycleEvent event) {
+        if (event.type() != LendingLifecycleEvent.Type.CREATED)
+            return;
+        // книга могла быть удалена, пока событие ждало доставки
+        bookRepository.findById(event.bookId()).ifPresent(trendingService::recordLending);
+    }
+}
@@ -1,11 +1,23 @@
 package LifeValuable.Library.exception;
 
+import java.util.Collection;
+
+@lombok.Getter
 public class GenreNotFoundException extends RuntimeException {
+    private final String apiMessage;
+
     public GenreNotFoundException(Long id) {
         super(String.format("Genre not found with id: %d", id));
+        apiMessage = "Не найден жанр с id: " + id;
     }
 
     public GenreNotFoundException(String name) {
         super(String.format("Genre not found with name: %s", name));
+        apiMessage = "Не найден жанр: " + name;
+    }
+
+    public GenreNotFoundException(Collection<String> names) {
+        super(String.format("Genres not found: %s", names));
+        apiMessage = "Не найдены жанры: " + names;
     }
 }
@@ -0,0 +1,11 @@
+package LifeValuable.Library.exception;
+
+@lombok.Getter
+public class RecordingInProgressException extends RuntimeException {
+    private final String apiMessage;
+
+    public RecordingInProgressException(long id) {
+        super("Flight recording is already running with id: " + id);
+        apiMessage = "Запись JFR уже идёт, id: " + id;
+    }
+}
@@ -0,0 +1,11 @@
+package LifeValuable.Library.exception;
+
+@lombok.Getter
+public class RecordingNotFoundException extends RuntimeException {
+    private final String apiMessage;
+
+    public RecordingNotFoundException() {
+        super("No flight recording has been started");
+        apiMessage = "Запись JFR не запускалась";
+    }
+}
@@ -0,0 +1,13 @@
+package LifeValuable.Library.exception;
+
+import java.util.Collection;
+
+@lombok.Getter
+public class UnknownFieldException extends RuntimeException {
+    private final String apiMessage;
+
+    public UnknownFieldException(Collection<String> unknown, Collection<String> supported) {
+        super(String.format("Unknown fields %s, supported: %s", unknown, supported));
+        apiMessage = "Неизвестные поля: " + String.join(", ", unknown) + ". Доступны: " + String.join(", ", supported);
+    }
+}
@@ -0,0 +1,320 @@
+package LifeValuable.Library.idempotency;
+
+import LifeValuable.Library.cache.CacheLease;
+import LifeValuable.Library.dto.exception.ErrorResponse;
+import LifeValuable.Library.metrics.Counter;
+import LifeValuable.Library.metrics.MetricsRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Поддержка заголовка {@code Idempotency-Key} для POST-запросов. Первый запрос с ключом выполняется,
+ * и его ответ сохраняется в ограниченном локальном кэше и в общем {@link IdempotencyStore} с TTL;
+ * повтор отдаёт сохранённый ответ без вызова контроллера. Одновременные дубликаты на узле ждут
+ * результата уже идущего запроса, между узлами выполнение закрывается арендой в Redis. Пока запрос
+ * выполняется, аренда продлевается каждую треть её TTL, так что медленный запрос не отдаёт ключ другому
+ * узлу; если узел завис или потерял связь с Redis, аренда истекает через {@code idempotency.lease-ttl-ms}.
+ * Ключ с другим телом или адресом отклоняется с 422, ответы 5xx не сохраняются, чтобы запрос можно было повторить.
+ */
+@Slf4j
+@Component
+public class IdempotencyFilter extends OncePerRequestFilter {
+    static final String HEADER = "Idempotency-Key";
+    static final String REPLAYED_HEADER = "Idempotent-Replayed";
+    private static final int MAX_KEY_LENGTH = 255;
+    private static final String LEASE_PREFIX = "idempotency:";
+    private static final String ANONYMOUS = "anonymous";
+    private static final ObjectMapper OBJECT_MAPPER = Jackson2ObjectMapperBuilder.json().build();
+
+    private final IdempotencyStore store;
+    private final CacheLease lease;
+    private final Counter requests;
+    private final Map<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService leaseRenewals = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "idempotency-lease-renewal");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private Cache<String, IdempotentResponse> local;
+
+    @Value("${idempotency.ttl-hours:24}")
+    private long ttlHours = 24;
+
+    @Value("${idempotency.local.max-size:10000}")
+    private long localMaxSize = 10000;
+
+    @Value("${idempotency.wait-ms:5000}")
+    private long waitMs = 5000;
+
+    @Value("${idempotency.poll-ms:50}")
+    private long pollMs = 50;
+
+    @Value("${idempotency.lease-ttl-ms:30000}")
+    private long leaseTtlMs = 30000;
+
+    @Autowired
+    public IdempotencyFilter(IdempotencyStore store, CacheLease lease, MetricsRegistry registry) {
+        this.store = store;
+        this.lease = lease;
+        this.requests = registry.counter("library_idempotency_requests",
+                "Requests with an Idempotency-Key by outcome", "outcome");
+    }
+
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return !HttpMethod.POST.matches(request.getMethod()) || request.getHeader(HEADER) == null;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        String key = request.getHeader(HEADER);
+        if (key.isBlank() || key.length() > MAX_KEY_LENGTH) {
+            reject(request, response, HttpStatus.BAD_REQUEST, "Заголовок " + HEADER + " должен содержать от 1 до "
+                    + MAX_KEY_LENGTH + " символов", "invalid");
+            return;
+        }
+        CachedBodyRequest cached = new CachedBodyRequest(request);
+        String fingerprint = fingerprint(request, cached.getBody());
+        String scopedKey = principal() + ":" + key;
+
+        while (true) {
+            IdempotentResponse stored = local().getIfPresent(scopedKey);
+            if (stored != null) {
+                replay(request, response, stored, fingerprint);
+                return;
+            }
+
+            InFlight mine = new InFlight(fingerprint);
+            InFlight running = inFlight.putIfAbsent(scopedKey, mine);
+            if (running == null) {
+                IdempotentResponse result = null;
+                try {
+                    result = execute(cached, response, chain, scopedKey, fingerprint);
+                } finally {
+                    inFlight.remove(scopedKey, mine);
+                    mine.result.complete(result);
+                }
+                return;
+            }
+
+            if (!running.fingerprint.equals(fingerprint)) {
+                mismatch(request, response);
+                return;
+            }
+            try {
+                stored = running.result.get(waitMs, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                inProgress(request, response);
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                inProgress(request, response);
+                return;
+            } catch (ExecutionException e) {
+                stored = null;
+            }
+            if (stored != null) {
+                replay(request, response, stored, fingerprint);
+                return;
+            }
+            // первый запрос завершился ошибкой и ничего не сохранил: дубликат выполняется сам
+        }
+    }
+
+    private IdempotentResponse execute(CachedBodyRequest request, HttpServletResponse response, FilterChain chain,
+                                       String scopedKey, String fingerprint) throws ServletException, IOException {
+        IdempotentResponse stored = store.find(scopedKey);
+        if (stored != null) {
+            local().put(scopedKey, stored);
+            replay(request, response, stored, fingerprint);
+            return stored;
+        }
+
+        String leaseKey = LEASE_PREFIX + scopedKey;
+        if (!lease.tryAcquire(leaseKey, Duration.ofMillis(leaseTtlMs))) {
+            // тот же ключ выполняется на другом узле
+            stored = awaitStored(scopedKey);
+            if (stored == null) {
+                inProgress(request, response);
+                return null;
+            }
+            local().put(scopedKey, stored);
+            replay(request, response, stored, fingerprint);
+            return stored;
+        }
+
+        long renewEveryMs = Math.max(1, leaseTtlMs / 3);
+        ScheduledFuture<?> renewal = leaseRenewals.scheduleAtFixedRate(() -> renew(leaseKey),
+                renewEveryMs, renewEveryMs, TimeUnit.MILLISECONDS);
+        try {
+            ContentCachingResponseWrapper buffered = new ContentCachingResponseWrapper(response);
+            chain.doFilter(request, buffered);
+            IdempotentResponse result = null;
+            if (buffered.getStatus() < HttpStatus.INTERNAL_SERVER_ERROR.value()) {
+                result = new IdempotentResponse(fingerprint, buffered.getStatus(), buffered.getContentType(),
+                        buffered.getHeader(HttpHeaders.LOCATION), buffered.getContentAsByteArray());
+                local().put(scopedKey, result);
+                store.save(scopedKey, result, Duration.ofHours(ttlHours));
+            }
+            buffered.copyBodyToResponse();
+            requests.labels("executed").inc();
+            return result;
+        } finally {
+            renewal.cancel(false);
+            lease.release(leaseKey);
+        }
+    }
+
+    private void renew(String leaseKey) {
+        try {
+            if (!lease.renew(leaseKey, Duration.ofMillis(leaseTtlMs)))
+                log.warn("Idempotency lease {} expired before the request finished", leaseKey);
+        } catch (RuntimeException e) {
+            // исключение отменило бы все следующие продления этой аренды
+            log.warn("Failed to renew idempotency lease {}: {}", leaseKey, e.toString());
+        }
+    }
+
+    @Override
+    public void destroy() {
+        leaseRenewals.shutdownNow();
+    }
+
+    private IdempotentResponse awaitStored(String scopedKey) {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(waitMs);
+        while (System.nanoTime() - deadline < 0) {
+            try {
+                Thread.sleep(pollMs);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return null;
+            }
+            IdempotentResponse stored = store.find(scopedKey);
+            if (stored != null)
+                return stored;
+        }
+        return null;
+    }
+
+    private void replay(HttpServletRequest request, HttpServletResponse response, IdempotentResponse stored,
+                        String fingerprint) throws IOException {
+        if (!stored.fingerprint().equals(fingerprint)) {
+            mismatch(request, response);
+            return;
+        }
+        response.setStatus(stored.status());
+        if (stored.contentType() != null)
+            response.setContentType(stored.contentType());
+        if (stored.location() != null)
+            response.setHeader(HttpHeaders.LOCATION, stored.location());
+        response.setHeader(REPLAYED_HEADER, "true");
+        response.setContentLength(stored.body().length);
+        response.getOutputStream().write(stored.body());
+        requests.labels("replayed").inc();
+    }
+
+    private void mismatch(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        reject(request, response, HttpStatus.UNPROCESSABLE_ENTITY,
+                "Ключ " + HEADER + " уже использован для другого запроса", "mismatch");
+    }
+
+    private void inProgress(HttpServletRequest request, HttpServletResponse response) throws IOException {
+        response.setHeader(HttpHeaders.RETRY_AFTER, String.valueOf(Math.max(1, TimeUnit.MILLISECONDS.toSeconds(waitMs))));
+        reject(request, response, HttpStatus.CONFLICT,
+                "Запрос с этим ключом " + HEADER + " ещё выполняется", "in_progress");
+    }
+
+    private void reject(HttpServletRequest request, HttpServletResponse response, HttpStatus status, String message,
+                        String outcome) throws IOException {
+        ErrorResponse error = new ErrorResponse(LocalDateTime.now(), status.value(), status.getReasonPhrase(),
+                message, request.getRequestURI());
+        response.setStatus(status.value());
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        OBJECT_MAPPER.writeValue(response.getOutputStream(), error);
+        requests.labels(outcome).inc();
+    }
+
+    private Cache<String, IdempotentResponse> local() {
+        Cache<String, IdempotentResponse> cache = local;
+        if (cache == null) {
+            synchronized (this) {
+                if (local == null)
+                    local = Caffeine.newBuilder()
+                            .maximumSize(localMaxSize)
+                            .expireAfterWrite(Duration.ofHours(ttlHours))
+                            .build();
+                cache = local;
+            }
+        }
+        return cache;
+    }
+
+    private static String principal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        return authentication != null && authentication.isAuthenticated() ? authentication.getName() : ANONYMOUS;
+    }
+
+    static String fingerprint(HttpServletRequest request, byte[] body) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(request.getMethod().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) ' ');
+            digest.update(request.getRequestURI().getBytes(StandardCharsets.UTF_8));
+            if (request.getQueryString() != null) {
+                digest.update((byte) '?');
+                digest.update(request.getQueryString().getBytes(StandardCharsets.UTF_8));
+            }
+            digest.update((byte) '\n');
+            digest.update(body);
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    }
+
+    private static final class InFlight {
+        private final String fingerprint;
+        private final CompletableFuture<IdempotentResponse> result = new CompletableFuture<>();
+
+        private InFlight(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package LifeValuable.Library.idempotency;
+
+import java.time.Duration;
+
+/**
+ * Общее для всех узлов хранилище ответов по ключам идемпотентности.
+ */
+public interface IdempotencyStore {
+    IdempotentResponse find(String key);
+    void save(String key, IdempotentResponse response, Duration ttl);
+}
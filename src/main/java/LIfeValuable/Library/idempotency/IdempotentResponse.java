@@ -0,0 +1,8 @@
+package LifeValuable.Library.idempotency;
+
+/**
+ * Сохранённый ответ на запрос с ключом идемпотентности. Отпечаток запроса позволяет отличить
+ * повтор того же запроса от повторного использования ключа с другим телом.
+ */
+public record IdempotentResponse(String fingerprint, int status, String contentType, String location, byte[] body) {
+}
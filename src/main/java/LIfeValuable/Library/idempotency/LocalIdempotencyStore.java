@@ -0,0 +1,25 @@
+package LifeValuable.Library.idempotency;
+
+import LifeValuable.Library.config.CacheBackend;
+import LifeValuable.Library.config.ConditionalOnCacheBackend;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Хранилище для {@code cache.backend=local}: общего хранилища нет, а на единственном узле ответы
+ * с тем же TTL уже держит локальный уровень {@link IdempotencyFilter}.
+ */
+@Component
+@ConditionalOnCacheBackend(CacheBackend.LOCAL)
+public class LocalIdempotencyStore implements IdempotencyStore {
+
+    @Override
+    public IdempotentResponse find(String key) {
+        return null;
+    }
+
+    @Override
+    public void save(String key, IdempotentResponse response, Duration ttl) {
+    }
+}
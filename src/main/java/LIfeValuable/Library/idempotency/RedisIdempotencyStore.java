@@ -0,0 +1,68 @@
+package LifeValuable.Library.idempotency;
+
+import LifeValuable.Library.cache.CacheCircuitBreaker;
+import LifeValuable.Library.config.CacheBackend;
+import LifeValuable.Library.config.ConditionalOnCacheBackend;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Ответы хранятся в Redis в JSON с TTL. При недоступном Redis хранилище ведёт себя как пустое:
+ * повторы на том же узле всё равно отвечает локальный уровень фильтра.
+ */
+@Slf4j
+@Component
+@ConditionalOnCacheBackend({CacheBackend.REDIS, CacheBackend.TWO_LEVEL})
+public class RedisIdempotencyStore implements IdempotencyStore {
+    private static final String KEY_PREFIX = "idempotency:";
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+
+    private final StringRedisTemplate redisTemplate;
+    private final CacheCircuitBreaker circuitBreaker;
+
+    @Autowired
+    public RedisIdempotencyStore(StringRedisTemplate redisTemplate, CacheCircuitBreaker circuitBreaker) {
+        this.redisTemplate = redisTemplate;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    @Override
+    public IdempotentResponse find(String key) {
+        if (circuitBreaker != null && circuitBreaker.getState() == CacheCircuitBreaker.State.OPEN)
+            return null;
+        try {
+            String json = redisTemplate.opsForValue().get(KEY_PREFIX + key);
+            return json != null ? OBJECT_MAPPER.readValue(json, IdempotentResponse.class) : null;
+        } catch (DataAccessException e) {
+            if (circuitBreaker != null)
+                circuitBreaker.recordFailure(e);
+            log.debug("Failed to read idempotent response {}: {}", key, e.getMessage());
+            return null;
+        } catch (JsonProcessingException e) {
+            log.warn("Discarding unreadable idempotent response {}: {}", key, e.getMessage());
+            return null;
+        }
+    }
+
+    @Override
+    public void save(String key, IdempotentResponse response, Duration ttl) {
+        if (circuitBreaker != null && circuitBreaker.getState() == CacheCircuitBreaker.State.OPEN)
+            return;
+        try {
+            redisTemplate.opsForValue().set(KEY_PREFIX + key, OBJECT_MAPPER.writeValueAsString(response), ttl);
+        } catch (DataAccessException e) {
+            if (circuitBreaker != null)
+                circuitBreaker.recordFailure(e);
+            log.debug("Failed to store idempotent response {}: {}", key, e.getMessage());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Failed to serialize idempotent response " + key, e);
+        }
+    }
+}
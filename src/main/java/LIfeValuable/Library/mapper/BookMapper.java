@@ -7,6 +7,7 @@ import LifeValuable.Library.dto.book.CreateBookDTO;
 import LifeValuable.Library.model.Book;
 import LifeValuable.Library.model.Genre;
 import LifeValuable.Library.model.LendingStatus;
+import LifeValuable.Library.profiling.BookAvailabilityEvent;
 import org.mapstruct.Mapper;
 import org.mapstruct.Mapping;
 import org.mapstruct.Named;
@@ -31,6 +32,7 @@ public interface BookMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "genres", ignore = true)
     @Mapping(target = "lendings", ignore = true)
+    @Mapping(target = "archivedLendings", ignore = true)
     Book toEntity(CreateBookDTO createBookDTO);
 
     @Named("getGenreNames")
@@ -46,6 +48,8 @@ public interface BookMapper {
     default long getAvailableStock(Book book) {
         if (book == null)
             return 0;
+        BookAvailabilityEvent event = new BookAvailabilityEvent();
+        event.begin();
         long activeLendingsCount = 0;
         if (book.getLendings() != null) {
             activeLendingsCount = book.getLendings().stream()
@@ -54,16 +58,23 @@ public interface BookMapper {
                         lending.getStatus() == LendingStatus.OVERDUE)
                 .count();
         }
-        return book.getStock() - activeLendingsCount;
+        long available = book.getStock() - activeLendingsCount;
+        if (event.shouldCommit()) {
+            event.bookId = book.getId() != null ? book.getId() : 0;
+            event.lendingsScanned = book.getLendings() != null ? book.getLendings().size() : 0;
+            event.availableStock = available;
+            event.commit();
+        }
+        return available;
     }
 
     @Named("getLendingsCount")
     default long getLendingsCount(Book book) {
         if (book == null)
             return 0;
-        long lendingsCount = 0;
+        long lendingsCount = book.getArchivedLendings();
         if (book.getLendings() != null)
-            lendingsCount = book.getLendings().size();
+            lendingsCount += book.getLendings().size();
         return lendingsCount;
     }
 
@@ -1,11 +1,18 @@
 package LifeValuable.Library.mapper;
 
+import LifeValuable.Library.dto.genre.CreateGenreDTO;
 import LifeValuable.Library.model.Genre;
 import LifeValuable.Library.dto.genre.GenreDTO;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 
 @Mapper(componentModel = "spring")
 public interface GenreMapper {
 
     GenreDTO toDto(Genre genre);
+
+    @Mapping(target = "id", ignore = true)
+    Genre toEntity(CreateGenreDTO createGenreDTO);
+
+    Genre copy(Genre genre);
 }
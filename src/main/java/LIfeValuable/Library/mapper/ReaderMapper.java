@@ -25,6 +25,7 @@ public interface ReaderMapper {
     @Mapping(target = "id", ignore = true)
     @Mapping(target = "registrationDate", source = "createReaderDTO", qualifiedByName = "getCurrentDate")
     @Mapping(target = "lendings", ignore = true)
+    @Mapping(target = "archivedLendings", ignore = true)
     @Mapping(target = "role", ignore = true)
     Reader toEntity(CreateReaderDTO createReaderDTO);
 
@@ -58,9 +59,11 @@ public interface ReaderMapper {
 
     @Named("countTotalLendings")
     default int countTotalLendings(Reader reader) {
-        if (reader == null || reader.getLendings() == null)
+        if (reader == null)
             return 0;
-        return reader.getLendings().size();
+        // вместе с выдачами, перенесёнными в архив
+        long archived = reader.getArchivedLendings();
+        return (int) (reader.getLendings() != null ? reader.getLendings().size() + archived : archived);
     }
 
     @Named("getCurrentDate")
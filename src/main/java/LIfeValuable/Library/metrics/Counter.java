@@ -0,0 +1,39 @@
+package LifeValuable.Library.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+public class Counter extends MetricFamily<Counter.Child> {
+
+    public static class Child {
+        private final LongAdder value = new LongAdder();
+
+        public void inc() {
+            value.increment();
+        }
+
+        public void inc(long amount) {
+            value.add(amount);
+        }
+
+        public long get() {
+            return value.sum();
+        }
+    }
+
+    Counter(String name, String help, String... labelNames) {
+        super(name, help, Type.COUNTER, labelNames);
+    }
+
+    @Override
+    protected Child newChild() {
+        return new Child();
+    }
+
+    @Override
+    protected void writeSamples(Writer out, List<String> labelValues, Child child) throws IOException {
+        PrometheusTextFormat.writeSample(out, getName() + "_total", getLabelNames(), labelValues, child.get());
+    }
+}
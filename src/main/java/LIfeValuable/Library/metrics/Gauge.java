@@ -0,0 +1,46 @@
+package LifeValuable.Library.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Значение, которое вычисляется в момент выгрузки. Тип {@code COUNTER} используется
+ * для монотонных счётчиков, которые ведёт сама JVM или пул соединений.
+ */
+public class Gauge extends MetricFamily<Gauge.Child> {
+
+    public static class Child {
+        private volatile DoubleSupplier supplier = () -> Double.NaN;
+
+        public void set(DoubleSupplier supplier) {
+            this.supplier = supplier;
+        }
+
+        public double get() {
+            return supplier.getAsDouble();
+        }
+    }
+
+    Gauge(String name, String help, Type type, String... labelNames) {
+        super(name, help, type, labelNames);
+    }
+
+    @Override
+    protected Child newChild() {
+        return new Child();
+    }
+
+    @Override
+    protected void writeSamples(Writer out, List<String> labelValues, Child child) throws IOException {
+        String sampleName = getType() == Type.COUNTER ? getName() + "_total" : getName();
+        double value;
+        try {
+            value = child.get();
+        } catch (RuntimeException e) {
+            value = Double.NaN;
+        }
+        PrometheusTextFormat.writeSample(out, sampleName, getLabelNames(), labelValues, value);
+    }
+}
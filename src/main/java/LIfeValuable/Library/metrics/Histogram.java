@@ -0,0 +1,74 @@
+package LifeValuable.Library.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Гистограмма длительностей с фиксированными границами корзин в секундах.
+ * Запись — поиск корзины и два {@link LongAdder#increment()}, без блокировок.
+ */
+public class Histogram extends MetricFamily<Histogram.Child> {
+    static final double[] DEFAULT_BUCKETS = {
+            0.0005, 0.001, 0.0025, 0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10};
+
+    private final double[] bounds;
+    private final long[] boundsNanos;
+
+    public class Child {
+        private final LongAdder[] buckets = new LongAdder[bounds.length + 1];
+        private final LongAdder sumNanos = new LongAdder();
+
+        Child() {
+            for (int i = 0; i < buckets.length; i++)
+                buckets[i] = new LongAdder();
+        }
+
+        public void observeNanos(long nanos) {
+            int index = 0;
+            while (index < boundsNanos.length && nanos > boundsNanos[index])
+                index++;
+            buckets[index].increment();
+            sumNanos.add(nanos);
+        }
+
+        public long getCount() {
+            long count = 0;
+            for (LongAdder bucket : buckets)
+                count += bucket.sum();
+            return count;
+        }
+
+        public double getSumSeconds() {
+            return sumNanos.sum() / 1e9;
+        }
+    }
+
+    Histogram(String name, String help, double[] bounds, String... labelNames) {
+        super(name, help, Type.HISTOGRAM, labelNames);
+        this.bounds = bounds.clone();
+        this.boundsNanos = new long[bounds.length];
+        for (int i = 0; i < bounds.length; i++)
+            boundsNanos[i] = Math.round(bounds[i] * 1e9);
+    }
+
+    @Override
+    protected Child newChild() {
+        return new Child();
+    }
+
+    @Override
+    protected void writeSamples(Writer out, List<String> labelValues, Child child) throws IOException {
+        long cumulative = 0;
+        for (int i = 0; i < child.buckets.length; i++) {
+            cumulative += child.buckets[i].sum();
+            String le = i < bounds.length ? PrometheusTextFormat.formatValue(bounds[i]) : "+Inf";
+            PrometheusTextFormat.writeSample(out, getName() + "_bucket", getLabelNames(), labelValues,
+                    "le", le, cumulative);
+        }
+        PrometheusTextFormat.writeSample(out, getName() + "_sum", getLabelNames(), labelValues,
+                child.getSumSeconds());
+        PrometheusTextFormat.writeSample(out, getName() + "_count", getLabelNames(), labelValues, cumulative);
+    }
+}
@@ -0,0 +1,186 @@
+package LifeValuable.Library.metrics;
+
+import LifeValuable.Library.cache.BulkCache;
+import LifeValuable.Library.profiling.CacheOperationEvent;
+import org.springframework.cache.Cache;
+
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Внешний декоратор кэша: считает попадания и промахи так, как их видит {@code @Cacheable},
+ * относит время обращений к слою {@code cache} в {@link RequestTimings} и пишет события JFR.
+ */
+public class InstrumentedCache implements Cache, BulkCache {
+    private final Cache delegate;
+    private final Counter.Child hits;
+    private final Counter.Child misses;
+    private final Counter.Child puts;
+    private final Counter.Child evictions;
+    private final Histogram.Child loads;
+
+    public InstrumentedCache(Cache delegate, MetricsRegistry registry) {
+        this.delegate = delegate;
+        Counter requests = registry.counter("library_cache_requests", "Cache lookups by result", "cache", "result");
+        this.hits = requests.labels(delegate.getName(), "hit");
+        this.misses = requests.labels(delegate.getName(), "miss");
+        this.puts = registry.counter("library_cache_puts", "Cache writes", "cache").labels(delegate.getName());
+        this.evictions = registry.counter("library_cache_evictions", "Cache evictions", "cache")
+                .labels(delegate.getName());
+        this.loads = registry.histogram("library_cache_load_seconds", "Time to load a missing cache value", "cache")
+                .labels(delegate.getName());
+    }
+
+    @Override
+    public String getName() {
+        return delegate.getName();
+    }
+
+    @Override
+    public Object getNativeCache() {
+        return delegate.getNativeCache();
+    }
+
+    @Override
+    public ValueWrapper get(Object key) {
+        CacheOperationEvent event = beginEvent();
+        try (RequestTimings.Span span = RequestTimings.span(RequestTimings.Category.CACHE)) {
+            ValueWrapper value = record(delegate.get(key));
+            commitEvent(event, "get", key, value != null);
+            return value;
+        }
+    }
+
+    @Override
+    public <T> T get(Object key, Class<T> type) {
+        try (RequestTimings.Span span = RequestTimings.span(RequestTimings.Category.CACHE)) {
+            CacheOperationEvent event = beginEvent();
+            T value = delegate.get(key, type);
+            (value != null ? hits : misses).inc();
+            commitEvent(event, "get", key, value != null);
+            return value;
+        }
+    }
+
+    @Override
+    public <T> T get(Object key, Callable<T> valueLoader) {
+        // загрузчик может вызываться и фоновым обновлением, промахом считаем только загрузку в этом потоке
+        Thread caller = Thread.currentThread();
+        boolean[] loaded = new boolean[1];
+        CacheOperationEvent event = beginEvent();
+        try (RequestTimings.Span span = RequestTimings.span(RequestTimings.Category.CACHE)) {
+            T value = delegate.get(key, () -> {
+                if (Thread.currentThread() == caller)
+                    loaded[0] = true;
+                long start = System.nanoTime();
+                // сам метод под @Cacheable — работа сервиса, а не кэша
+                try (RequestTimings.Span load = RequestTimings.span(RequestTimings.Category.SERVICE)) {
+                    return valueLoader.call();
+                } finally {
+                    loads.observeNanos(System.nanoTime() - start);
+                }
+            });
+            (loaded[0] ? misses : hits).inc();
+            commitEvent(event, "get", key, !loaded[0]);
+            return value;
+        }
+    }
+
+    @Override
+    public Map<Object, Object> getAll(Collection<?> keys) {
+        try (RequestTimings.Span span = RequestTimings.span(RequestTimings.Category.CACHE)) {
+            Map<Object, Object> found = BulkCache.getAll(delegate, keys);
+            hits.inc(found.size());
+            misses.inc(keys.size() - found.size());
+            return found;
+        }
+    }
+
+    @Override
+    public void putAll(Map<?, ?> entries) {
+        try (RequestTimings.Span span = RequestTimings.span(RequestTimings.Category.CACHE)) {
+            BulkCache.putAll(delegate, entries);
+        }
+        puts.inc(entries.size());
+    }
+
+    @Override
+    public void put(Object key, Object value) {
+        CacheOperationEvent event = beginEvent();
+        try (RequestTimings.Span span = RequestTimings.span(RequestTimings.Category.CACHE)) {
+            delegate.put(key, value);
+        }
+        commitEvent(event, "put", key, false);
+        puts.inc();
+    }
+
+    @Override
+    public ValueWrapper putIfAbsent(Object key, Object value) {
+        ValueWrapper existing;
+        try (RequestTimings.Span span = RequestTimings.span(RequestTimings.Category.CACHE)) {
+            existing = delegate.putIfAbsent(key, value);
+        }
+        if (existing == null)
+            puts.inc();
+        return existing;
+    }
+
+    @Override
+    public void evict(Object key) {
+        CacheOperationEvent event = beginEvent();
+        try (RequestTimings.Span span = RequestTimings.span(RequestTimings.Category.CACHE)) {
+            delegate.evict(key);
+        }
+        commitEvent(event, "evict", key, false);
+        evictions.inc();
+    }
+
+    @Override
+    public boolean evictIfPresent(Object key) {
+        boolean evicted;
+        try (RequestTimings.Span span = RequestTimings.span(RequestTimings.Category.CACHE)) {
+            evicted = delegate.evictIfPresent(key);
+        }
+        if (evicted)
+            evictions.inc();
+        return evicted;
+    }
+
+    @Override
+    public void clear() {
+        try (RequestTimings.Span span = RequestTimings.span(RequestTimings.Category.CACHE)) {
+            delegate.clear();
+        }
+        evictions.inc();
+    }
+
+    @Override
+    public boolean invalidate() {
+        evictions.inc();
+        try (RequestTimings.Span span = RequestTimings.span(RequestTimings.Category.CACHE)) {
+            return delegate.invalidate();
+        }
+    }
+
+    private static CacheOperationEvent beginEvent() {
+        CacheOperationEvent event = new CacheOperationEvent();
+        event.begin();
+        return event;
+    }
+
+    private void commitEvent(CacheOperationEvent event, String operation, Object key, boolean hit) {
+        if (!event.shouldCommit())
+            return;
+        event.cache = delegate.getName();
+        event.operation = operation;
+        event.key = String.valueOf(key);
+        event.hit = hit;
+        event.commit();
+    }
+
+    private ValueWrapper record(ValueWrapper value) {
+        (value != null ? hits : misses).inc();
+        return value;
+    }
+}
@@ -0,0 +1,73 @@
+package LifeValuable.Library.metrics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Считает получение соединений и число открытых соединений. Пула в приложении нет
+ * ({@code DriverManagerDataSource}), поэтому время получения — это время открытия соединения с БД.
+ */
+public class InstrumentedDataSource extends DelegatingDataSource {
+    private final Histogram.Child acquireTime;
+    private final Counter.Child acquireErrors;
+    private final AtomicLong active = new AtomicLong();
+
+    public InstrumentedDataSource(DataSource target, MetricsRegistry registry) {
+        super(target);
+        this.acquireTime = registry.histogram("library_jdbc_connection_acquire_seconds",
+                "Time to obtain a JDBC connection").labels();
+        this.acquireErrors = registry.counter("library_jdbc_connection_acquire_errors",
+                "Failed attempts to obtain a JDBC connection").labels();
+        registry.gauge("library_jdbc_connections_active", "JDBC connections currently open", active::get);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return track(() -> super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return track(() -> super.getConnection(username, password));
+    }
+
+    private interface ConnectionSupplier {
+        Connection get() throws SQLException;
+    }
+
+    private Connection track(ConnectionSupplier supplier) throws SQLException {
+        long start = System.nanoTime();
+        Connection connection;
+        try {
+            connection = supplier.get();
+        } catch (SQLException | RuntimeException e) {
+            acquireErrors.inc();
+            throw e;
+        } finally {
+            acquireTime.observeNanos(System.nanoTime() - start);
+        }
+        active.incrementAndGet();
+        return trackClose(connection);
+    }
+
+    private Connection trackClose(Connection connection) {
+        AtomicBoolean closed = new AtomicBoolean();
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    if (method.getName().equals("close") && closed.compareAndSet(false, true))
+                        active.decrementAndGet();
+                    try {
+                        return method.invoke(connection, args);
+                    } catch (InvocationTargetException e) {
+                        throw e.getTargetException();
+                    }
+                });
+    }
+}
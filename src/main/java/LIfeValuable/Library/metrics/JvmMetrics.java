@@ -0,0 +1,57 @@
+package LifeValuable.Library.metrics;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ClassLoadingMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.OperatingSystemMXBean;
+import java.lang.management.RuntimeMXBean;
+import java.lang.management.ThreadMXBean;
+
+@Component
+public class JvmMetrics {
+
+    @Autowired
+    public JvmMetrics(MetricsRegistry registry) {
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        Gauge used = registry.gauge("jvm_memory_used_bytes", "Used JVM memory", "area");
+        used.labels("heap").set(() -> memory.getHeapMemoryUsage().getUsed());
+        used.labels("nonheap").set(() -> memory.getNonHeapMemoryUsage().getUsed());
+        Gauge committed = registry.gauge("jvm_memory_committed_bytes", "Committed JVM memory", "area");
+        committed.labels("heap").set(() -> memory.getHeapMemoryUsage().getCommitted());
+        committed.labels("nonheap").set(() -> memory.getNonHeapMemoryUsage().getCommitted());
+        registry.gauge("jvm_memory_max_bytes", "Maximum heap size", () -> memory.getHeapMemoryUsage().getMax());
+
+        Gauge poolUsed = registry.gauge("jvm_memory_pool_used_bytes", "Used memory by pool", "pool");
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans())
+            poolUsed.labels(pool.getName()).set(() -> pool.getUsage().getUsed());
+
+        Gauge collections = registry.functionCounter("jvm_gc_collections", "Garbage collections", "gc");
+        Gauge collectionTime = registry.functionCounter("jvm_gc_collection_seconds",
+                "Time spent in garbage collection", "gc");
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            collections.labels(gc.getName()).set(gc::getCollectionCount);
+            collectionTime.labels(gc.getName()).set(() -> gc.getCollectionTime() / 1000.0);
+        }
+
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        registry.gauge("jvm_threads_live", "Live threads", threads::getThreadCount);
+        registry.gauge("jvm_threads_daemon", "Daemon threads", threads::getDaemonThreadCount);
+        registry.gauge("jvm_threads_peak", "Peak live threads", threads::getPeakThreadCount);
+
+        ClassLoadingMXBean classes = ManagementFactory.getClassLoadingMXBean();
+        registry.gauge("jvm_classes_loaded", "Currently loaded classes", classes::getLoadedClassCount);
+
+        RuntimeMXBean runtime = ManagementFactory.getRuntimeMXBean();
+        registry.gauge("process_uptime_seconds", "JVM uptime", () -> runtime.getUptime() / 1000.0);
+
+        OperatingSystemMXBean os = ManagementFactory.getOperatingSystemMXBean();
+        registry.gauge("system_load_average_1m", "System load average", os::getSystemLoadAverage);
+        if (os instanceof com.sun.management.OperatingSystemMXBean sunOs)
+            registry.gauge("process_cpu_usage", "Recent CPU usage of the JVM process", sunOs::getProcessCpuLoad);
+    }
+}
@@ -0,0 +1,53 @@
+package LifeValuable.Library.metrics;
+
+import lombok.Getter;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Метрика с набором меток: для каждого сочетания значений меток создаётся отдельный дочерний ряд.
+ */
+@Getter
+public abstract class MetricFamily<C> {
+    public enum Type { COUNTER, GAUGE, HISTOGRAM }
+
+    private final String name;
+    private final String help;
+    private final Type type;
+    private final List<String> labelNames;
+    private final Map<List<String>, C> children = new ConcurrentHashMap<>();
+
+    protected MetricFamily(String name, String help, Type type, String... labelNames) {
+        this.name = name;
+        this.help = help;
+        this.type = type;
+        this.labelNames = List.of(labelNames);
+    }
+
+    public C labels(String... values) {
+        if (values.length != labelNames.size())
+            throw new IllegalArgumentException("Metric " + name + " expects labels " + labelNames);
+        List<String> key = Arrays.asList(values);
+        C child = children.get(key);
+        if (child != null)
+            return child;
+        return children.computeIfAbsent(List.copyOf(key), k -> newChild());
+    }
+
+    protected abstract C newChild();
+
+    protected abstract void writeSamples(Writer out, List<String> labelValues, C child) throws IOException;
+
+    void write(Writer out) throws IOException {
+        if (children.isEmpty())
+            return;
+        PrometheusTextFormat.writeHeader(out, name, help, type);
+        for (Map.Entry<List<String>, C> entry : children.entrySet())
+            writeSamples(out, entry.getKey(), entry.getValue());
+    }
+}
@@ -0,0 +1,99 @@
+package LifeValuable.Library.metrics;
+
+import LifeValuable.Library.profiling.MapperEventInterceptor;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.springframework.aop.framework.Advised;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.data.repository.Repository;
+import org.springframework.stereotype.Component;
+import org.springframework.stereotype.Service;
+import org.springframework.validation.Validator;
+
+import javax.sql.DataSource;
+
+/**
+ * Добавляет замер времени ко всем {@code @Service} и репозиториям Spring Data, а источник данных
+ * оборачивает в {@link InstrumentedDataSource} и {@link StatementTrackingDataSource}. Совет ставится первым
+ * в цепочке уже существующего прокси, чтобы время сервиса включало кэш и транзакцию, которые видит вызывающий код.
+ * Мапперы и валидатор MVC отмечаются только в {@link RequestTimings}, мапперы — ещё и событиями JFR.
+ */
+@Component
+public class MetricsBeanPostProcessor implements BeanPostProcessor {
+    private static final String APPLICATION_PACKAGE = "LifeValuable.Library";
+    private static final String MAPPER_PACKAGE = APPLICATION_PACKAGE + ".mapper.";
+
+    private final MetricsRegistry registry;
+    private final ObjectProvider<SqlStatistics> sqlStatistics;
+    private final Histogram serviceDurations;
+    private final Counter serviceErrors;
+    private final Histogram repositoryDurations;
+    private final Counter repositoryErrors;
+
+    @Autowired
+    public MetricsBeanPostProcessor(MetricsRegistry registry, ObjectProvider<SqlStatistics> sqlStatistics) {
+        this.registry = registry;
+        this.sqlStatistics = sqlStatistics;
+        this.serviceDurations = registry.histogram("library_service_method_seconds",
+                "Duration of service method calls", "service", "method");
+        this.serviceErrors = registry.counter("library_service_method_errors",
+                "Service method calls that threw an exception", "service", "method");
+        this.repositoryDurations = registry.histogram("library_repository_query_seconds",
+                "Duration of repository calls", "repository", "method");
+        this.repositoryErrors = registry.counter("library_repository_query_errors",
+                "Repository calls that threw an exception", "repository", "method");
+    }
+
+    @Override
+    public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof DataSource dataSource && !(bean instanceof InstrumentedDataSource))
+            return new InstrumentedDataSource(new StatementTrackingDataSource(dataSource, sqlStatistics.getObject()), registry);
+
+        if (bean instanceof Repository<?, ?>)
+            return advise(bean, new TimingMethodInterceptor(repositoryDurations, repositoryErrors,
+                    repositoryName(bean, beanName), RequestTimings.Category.DB));
+
+        Class<?> targetClass = AopUtils.getTargetClass(bean);
+        if (AnnotatedElementUtils.hasAnnotation(targetClass, Service.class))
+            return advise(bean, new TimingMethodInterceptor(serviceDurations, serviceErrors,
+                    targetClass.getSimpleName(), RequestTimings.Category.SERVICE));
+
+        if (targetClass.getName().startsWith(MAPPER_PACKAGE))
+            return advise(advise(bean, new RequestTimingInterceptor(RequestTimings.Category.MAPPING)),
+                    new MapperEventInterceptor(mapperName(targetClass)));
+
+        if (bean instanceof Validator && beanName.equals("mvcValidator"))
+            return advise(bean, new RequestTimingInterceptor(RequestTimings.Category.VALIDATION));
+
+        return bean;
+    }
+
+    private Object advise(Object bean, MethodInterceptor interceptor) {
+        if (bean instanceof Advised advised && !advised.isFrozen()) {
+            advised.addAdvice(0, interceptor);
+            return bean;
+        }
+        ProxyFactory proxyFactory = new ProxyFactory(bean);
+        proxyFactory.addAdvice(interceptor);
+        return proxyFactory.getProxy(bean.getClass().getClassLoader());
+    }
+
+    private static String mapperName(Class<?> targetClass) {
+        for (Class<?> mapper : targetClass.getInterfaces())
+            if (mapper.getName().startsWith(MAPPER_PACKAGE))
+                return mapper.getSimpleName();
+        return targetClass.getSimpleName();
+    }
+
+    private static String repositoryName(Object bean, String beanName) {
+        if (bean instanceof Advised advised)
+            for (Class<?> proxied : advised.getProxiedInterfaces())
+                if (Repository.class.isAssignableFrom(proxied) && proxied.getName().startsWith(APPLICATION_PACKAGE))
+                    return proxied.getSimpleName();
+        return beanName;
+    }
+}
@@ -0,0 +1,52 @@
+package LifeValuable.Library.metrics;
+
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleSupplier;
+
+@Component
+public class MetricsRegistry {
+    private final Map<String, MetricFamily<?>> families = new ConcurrentHashMap<>();
+
+    public Counter counter(String name, String help, String... labelNames) {
+        return register(new Counter(name, help, labelNames));
+    }
+
+    public Histogram histogram(String name, String help, String... labelNames) {
+        return register(new Histogram(name, help, Histogram.DEFAULT_BUCKETS, labelNames));
+    }
+
+    public Gauge gauge(String name, String help, String... labelNames) {
+        return register(new Gauge(name, help, MetricFamily.Type.GAUGE, labelNames));
+    }
+
+    public void gauge(String name, String help, DoubleSupplier supplier) {
+        gauge(name, help).labels().set(supplier);
+    }
+
+    public Gauge functionCounter(String name, String help, String... labelNames) {
+        return register(new Gauge(name, help, MetricFamily.Type.COUNTER, labelNames));
+    }
+
+    public void writeTo(Writer out) throws IOException {
+        for (MetricFamily<?> family : new TreeMap<>(families).values())
+            family.write(out);
+    }
+
+    @SuppressWarnings("unchecked")
+    private <M extends MetricFamily<?>> M register(M family) {
+        MetricFamily<?> existing = families.putIfAbsent(family.getName(), family);
+        if (existing == null)
+            return family;
+        if (existing.getClass() != family.getClass() || existing.getType() != family.getType()
+                || !existing.getLabelNames().equals(family.getLabelNames()))
+            throw new IllegalArgumentException("Metric " + family.getName() + " is already registered as "
+                    + existing.getType() + existing.getLabelNames());
+        return (M) existing;
+    }
+}
@@ -0,0 +1,84 @@
+package LifeValuable.Library.metrics;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Текстовый формат выгрузки Prometheus 0.0.4.
+ */
+public final class PrometheusTextFormat {
+    public static final String CONTENT_TYPE = "text/plain; version=0.0.4; charset=utf-8";
+
+    private PrometheusTextFormat() {
+    }
+
+    static void writeHeader(Writer out, String name, String help, MetricFamily.Type type) throws IOException {
+        out.write("# HELP ");
+        out.write(name);
+        out.write(' ');
+        out.write(help.replace("\\", "\\\\").replace("\n", "\\n"));
+        out.write("\n# TYPE ");
+        out.write(name);
+        out.write(' ');
+        out.write(type.name().toLowerCase(Locale.ROOT));
+        out.write('\n');
+    }
+
+    static void writeSample(Writer out, String name, List<String> labelNames, List<String> labelValues,
+                            double value) throws IOException {
+        writeSample(out, name, labelNames, labelValues, null, null, value);
+    }
+
+    static void writeSample(Writer out, String name, List<String> labelNames, List<String> labelValues,
+                            String extraLabel, String extraValue, double value) throws IOException {
+        out.write(name);
+        if (!labelNames.isEmpty() || extraLabel != null) {
+            out.write('{');
+            boolean first = true;
+            for (int i = 0; i < labelNames.size(); i++) {
+                if (!first)
+                    out.write(',');
+                writeLabel(out, labelNames.get(i), labelValues.get(i));
+                first = false;
+            }
+            if (extraLabel != null) {
+                if (!first)
+                    out.write(',');
+                writeLabel(out, extraLabel, extraValue);
+            }
+            out.write('}');
+        }
+        out.write(' ');
+        out.write(formatValue(value));
+        out.write('\n');
+    }
+
+    static String formatValue(double value) {
+        if (Double.isNaN(value))
+            return "NaN";
+        if (Double.isInfinite(value))
+            return value > 0 ? "+Inf" : "-Inf";
+        if (value == Math.rint(value) && Math.abs(value) < 1e15)
+            return Long.toString((long) value);
+        return BigDecimal.valueOf(value).stripTrailingZeros().toPlainString();
+    }
+
+    private static void writeLabel(Writer out, String name, String value) throws IOException {
+        out.write(name);
+        out.write("=\"");
+        String safe = value == null ? "" : value;
+        for (int i = 0; i < safe.length(); i++) {
+            char c = safe.charAt(i);
+            switch (c) {
+                case '\\' -> out.write("\\\\");
+                case '"' -> out.write("\\\"");
+                case '\n' -> out.write("\\n");
+                default -> out.write(c);
+            }
+        }
+        out.write('"');
+    }
+}
@@ -0,0 +1,51 @@
+package LifeValuable.Library.metrics;
+
+import LifeValuable.Library.cache.CacheCircuitBreaker;
+import LifeValuable.Library.cache.PoolAwareJedisConnectionFactory;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.connection.RedisConnectionFactory;
+import org.springframework.stereotype.Component;
+import redis.clients.jedis.util.Pool;
+
+import java.util.Locale;
+import java.util.function.ToDoubleFunction;
+
+@Component
+public class RedisMetrics {
+
+    @Autowired
+    public RedisMetrics(MetricsRegistry registry, ObjectProvider<RedisConnectionFactory> connectionFactory,
+                        CacheCircuitBreaker circuitBreaker) {
+        if (connectionFactory.getIfAvailable() instanceof PoolAwareJedisConnectionFactory jedis) {
+            poolGauge(registry, jedis, "library_redis_pool_active", "Borrowed Jedis connections", Pool::getNumActive);
+            poolGauge(registry, jedis, "library_redis_pool_idle", "Idle Jedis connections", Pool::getNumIdle);
+            poolGauge(registry, jedis, "library_redis_pool_waiters", "Threads waiting for a Jedis connection",
+                    Pool::getNumWaiters);
+            poolGauge(registry, jedis, "library_redis_pool_borrow_wait_max_seconds",
+                    "Longest wait for a Jedis connection", pool -> pool.getMaxBorrowWaitTimeMillis() / 1000.0);
+            poolGauge(registry, jedis, "library_redis_pool_borrow_wait_mean_seconds",
+                    "Mean wait for a Jedis connection", pool -> pool.getMeanBorrowWaitTimeMillis() / 1000.0);
+        }
+
+        registry.gauge("library_cache_circuit_breaker_state",
+                "Cache circuit breaker state: 0 closed, 1 half-open, 2 open",
+                () -> switch (circuitBreaker.getState()) {
+                    case CLOSED -> 0;
+                    case HALF_OPEN -> 1;
+                    case OPEN -> 2;
+                });
+        Counter transitions = registry.counter("library_cache_circuit_breaker_transitions",
+                "Cache circuit breaker state changes", "state");
+        circuitBreaker.addListener(transition ->
+                transitions.labels(transition.to().name().toLowerCase(Locale.ROOT)).inc());
+    }
+
+    private static void poolGauge(MetricsRegistry registry, PoolAwareJedisConnectionFactory connectionFactory,
+                                  String name, String help, ToDoubleFunction<Pool<?>> value) {
+        registry.gauge(name, help, () -> {
+            Pool<?> pool = connectionFactory.getPool();
+            return pool != null ? value.applyAsDouble(pool) : Double.NaN;
+        });
+    }
+}
@@ -0,0 +1,48 @@
+package LifeValuable.Library.metrics;
+
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+@Component
+public class RequestMetricsInterceptor implements HandlerInterceptor {
+    private static final String START_ATTRIBUTE = RequestMetricsInterceptor.class.getName() + ".start";
+
+    private final Histogram requests;
+    private final AtomicLong active = new AtomicLong();
+
+    @Autowired
+    public RequestMetricsInterceptor(MetricsRegistry registry) {
+        this.requests = registry.histogram("library_http_server_requests_seconds",
+                "Duration of HTTP requests by controller method and status", "controller", "method", "status");
+        registry.gauge("library_http_server_requests_active", "HTTP requests currently being handled", active::get);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (handler instanceof HandlerMethod) {
+            request.setAttribute(START_ATTRIBUTE, System.nanoTime());
+            active.incrementAndGet();
+        }
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler,
+                                Exception ex) {
+        if (!(handler instanceof HandlerMethod handlerMethod)
+                || !(request.getAttribute(START_ATTRIBUTE) instanceof Long start))
+            return;
+
+        active.decrementAndGet();
+        int status = ex != null && response.getStatus() < 400 ? 500 : response.getStatus();
+        requests.labels(handlerMethod.getBeanType().getSimpleName(), handlerMethod.getMethod().getName(),
+                        Integer.toString(status))
+                .observeNanos(System.nanoTime() - start);
+    }
+}
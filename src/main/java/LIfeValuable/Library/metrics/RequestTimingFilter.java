@@ -0,0 +1,39 @@
+package LifeValuable.Library.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Первый фильтр цепочки безопасности: начинает сбор {@link RequestTimings} и открывает интервал
+ * {@code security}, который закрывает {@link ServerTimingFilter} после авторизации.
+ */
+@Component
+public class RequestTimingFilter extends OncePerRequestFilter {
+    private final SlowRequestLog slowRequestLog;
+
+    @Autowired
+    public RequestTimingFilter(SlowRequestLog slowRequestLog) {
+        this.slowRequestLog = slowRequestLog;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestTimings timings = RequestTimings.begin();
+        timings.open(RequestTimings.Category.SECURITY);
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            timings.closeAll();
+            RequestTimings.end();
+            slowRequestLog.offer(request.getMethod(), request.getRequestURI(), response.getStatus(), timings);
+        }
+    }
+}
@@ -0,0 +1,19 @@
+package LifeValuable.Library.metrics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+class RequestTimingInterceptor implements MethodInterceptor {
+    private final RequestTimings.Category category;
+
+    RequestTimingInterceptor(RequestTimings.Category category) {
+        this.category = category;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        try (RequestTimings.Span span = RequestTimings.span(category)) {
+            return invocation.proceed();
+        }
+    }
+}
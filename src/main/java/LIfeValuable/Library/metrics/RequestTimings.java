@@ -0,0 +1,137 @@
+package LifeValuable.Library.metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Разбивка времени запроса по слоям. Живёт в потоке запроса между {@link RequestTimingFilter}
+ * и окончанием обработки; вне запроса {@link #span(Category)} ничего не делает.
+ * <p>
+ * Каждый слой получает только собственное время: вложенные интервалы вычитаются из внешнего,
+ * поэтому загрузка из БД внутри {@code @Cacheable} попадает в {@code db}, а не в {@code cache}.
+ */
+public final class RequestTimings {
+    public enum Category {
+        SECURITY, VALIDATION, SERVICE, DB, CACHE, MAPPING, JSON;
+
+        final String metricName = name().toLowerCase(Locale.ROOT);
+    }
+
+    public interface Span extends AutoCloseable {
+        @Override
+        void close();
+    }
+
+    private static final ThreadLocal<RequestTimings> CURRENT = new ThreadLocal<>();
+    private static final Span NOOP = () -> {};
+    private static final Category[] CATEGORIES = Category.values();
+
+    private final long startNanos = System.nanoTime();
+    private final long[] selfNanos = new long[CATEGORIES.length];
+    private final int[] counts = new int[CATEGORIES.length];
+    private Frame top;
+
+    private final class Frame implements Span {
+        private final Category category;
+        private final Frame parent;
+        private final long start = System.nanoTime();
+        private long childNanos;
+        private boolean closed;
+
+        Frame(Category category, Frame parent) {
+            this.category = category;
+            this.parent = parent;
+        }
+
+        @Override
+        public void close() {
+            if (closed)
+                return;
+            while (top != this && top != null)
+                top.close();
+            closed = true;
+            long elapsed = System.nanoTime() - start;
+            selfNanos[category.ordinal()] += elapsed - childNanos;
+            if (parent == null || parent.category != category)
+                counts[category.ordinal()]++;
+            if (parent != null)
+                parent.childNanos += elapsed;
+            top = parent;
+        }
+    }
+
+    public static RequestTimings begin() {
+        RequestTimings timings = new RequestTimings();
+        CURRENT.set(timings);
+        return timings;
+    }
+
+    public static RequestTimings current() {
+        return CURRENT.get();
+    }
+
+    public static void end() {
+        CURRENT.remove();
+    }
+
+    public static Span span(Category category) {
+        RequestTimings timings = CURRENT.get();
+        return timings == null ? NOOP : timings.open(category);
+    }
+
+    public Span open(Category category) {
+        Frame frame = new Frame(category, top);
+        top = frame;
+        return frame;
+    }
+
+    public void closeAll() {
+        while (top != null)
+            top.close();
+    }
+
+    public long getElapsedNanos() {
+        return System.nanoTime() - startNanos;
+    }
+
+    public long getSelfNanos(Category category) {
+        return selfNanos[category.ordinal()];
+    }
+
+    public int getCount(Category category) {
+        return counts[category.ordinal()];
+    }
+
+    /**
+     * Собственное время слоёв в миллисекундах; {@code app} — остаток, не попавший ни в один слой.
+     */
+    public Map<String, Double> toMillis() {
+        Map<String, Double> millis = new LinkedHashMap<>();
+        long total = getElapsedNanos();
+        long accounted = 0;
+        for (Category category : CATEGORIES) {
+            long nanos = selfNanos[category.ordinal()];
+            if (counts[category.ordinal()] == 0)
+                continue;
+            accounted += nanos;
+            millis.put(category.metricName, nanos / 1e6);
+        }
+        millis.put("app", Math.max(total - accounted, 0) / 1e6);
+        millis.put("total", total / 1e6);
+        return millis;
+    }
+
+    public String toServerTiming() {
+        StringBuilder header = new StringBuilder();
+        for (Map.Entry<String, Double> entry : toMillis().entrySet()) {
+            if (!header.isEmpty())
+                header.append(", ");
+            header.append(entry.getKey()).append(";dur=").append(String.format(Locale.ROOT, "%.1f", entry.getValue()));
+            for (Category category : CATEGORIES)
+                if (category.metricName.equals(entry.getKey()) && counts[category.ordinal()] > 1)
+                    header.append(";desc=\"").append(counts[category.ordinal()]).append(" calls\"");
+        }
+        return header.toString();
+    }
+}
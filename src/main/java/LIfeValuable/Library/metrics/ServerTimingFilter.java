@@ -0,0 +1,96 @@
+package LifeValuable.Library.metrics;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.server.PathContainer;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+import org.springframework.web.util.ContentCachingResponseWrapper;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Последний фильтр цепочки безопасности: закрывает интервал {@code security} и, если роль
+ * пользователя указана в {@code timing.server-timing.roles}, добавляет заголовок {@code Server-Timing}.
+ * Тело ответа для таких запросов буферизуется, чтобы в заголовок вошло время сериализации JSON;
+ * крупные выгрузки из {@code timing.server-timing.excluded-paths} не буферизуются и идут без заголовка.
+ */
+@Component
+public class ServerTimingFilter extends OncePerRequestFilter {
+    static final String HEADER = "Server-Timing";
+
+    private Set<String> authorities = Set.of();
+    private List<PathPattern> excludedPaths = List.of();
+
+    @Value("${timing.server-timing.roles:ADMIN}")
+    void setRoles(String roles) {
+        authorities = Arrays.stream(roles.split(","))
+                .map(String::trim)
+                .filter(role -> !role.isEmpty())
+                .map(role -> "ROLE_" + role)
+                .collect(Collectors.toUnmodifiableSet());
+    }
+
+    @Value("${timing.server-timing.excluded-paths:/api/admin/recordings/**}")
+    void setExcludedPaths(String paths) {
+        excludedPaths = Arrays.stream(paths.split(","))
+                .map(String::trim)
+                .filter(path -> !path.isEmpty())
+                .map(PathPatternParser.defaultInstance::parse)
+                .toList();
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        RequestTimings timings = RequestTimings.current();
+        if (timings == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        timings.closeAll();
+
+        if (isExcluded(request) || !isExposed(SecurityContextHolder.getContext().getAuthentication())) {
+            chain.doFilter(request, response);
+            return;
+        }
+
+        ContentCachingResponseWrapper buffered = new ContentCachingResponseWrapper(response);
+        try {
+            chain.doFilter(request, buffered);
+        } finally {
+            if (!response.isCommitted())
+                response.setHeader(HEADER, timings.toServerTiming());
+            buffered.copyBodyToResponse();
+        }
+    }
+
+    private boolean isExcluded(HttpServletRequest request) {
+        PathContainer path = PathContainer.parsePath(request.getRequestURI());
+        for (PathPattern pattern : excludedPaths)
+            if (pattern.matches(path))
+                return true;
+        return false;
+    }
+
+    private boolean isExposed(Authentication authentication) {
+        if (authentication == null || authorities.isEmpty())
+            return false;
+        for (GrantedAuthority authority : authentication.getAuthorities())
+            if (authorities.contains(authority.getAuthority()))
+                return true;
+        return false;
+    }
+}
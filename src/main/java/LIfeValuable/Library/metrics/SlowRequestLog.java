@@ -0,0 +1,66 @@
+package LifeValuable.Library.metrics;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Кольцевой буфер последних медленных запросов с разбивкой времени по слоям.
+ * Старые записи перезаписываются, блокировок на пути запроса нет.
+ */
+@Component
+public class SlowRequestLog {
+    public record Entry(Instant startedAt, String method, String path, int status, double totalMs,
+                        Map<String, Double> breakdownMs) {}
+
+    @Value("${timing.slow-requests.threshold-ms:500}")
+    private long thresholdMs = 500;
+
+    @Value("${timing.slow-requests.sample-rate:1.0}")
+    private double sampleRate = 1.0;
+
+    private final AtomicReferenceArray<Entry> entries;
+    private final AtomicLong written = new AtomicLong();
+
+    public SlowRequestLog(@Value("${timing.slow-requests.capacity:100}") int capacity) {
+        this.entries = new AtomicReferenceArray<>(capacity);
+    }
+
+    public void offer(String method, String path, int status, RequestTimings timings) {
+        long elapsed = timings.getElapsedNanos();
+        if (TimeUnit.NANOSECONDS.toMillis(elapsed) < thresholdMs)
+            return;
+        if (sampleRate < 1.0 && ThreadLocalRandom.current().nextDouble() >= sampleRate)
+            return;
+
+        Instant startedAt = Instant.now().minusNanos(elapsed);
+        Entry entry = new Entry(startedAt, method, path, status, elapsed / 1e6, timings.toMillis());
+        long index = written.getAndIncrement();
+        entries.set((int) (index % entries.length()), entry);
+    }
+
+    public List<Entry> getRecent(int limit) {
+        List<Entry> recent = new ArrayList<>();
+        long last = written.get();
+        for (long index = last - 1; index >= 0 && index >= last - entries.length() && recent.size() < limit; index--) {
+            Entry entry = entries.get((int) (index % entries.length()));
+            if (entry != null)
+                recent.add(entry);
+        }
+        return recent;
+    }
+
+    public void clear() {
+        for (int i = 0; i < entries.length(); i++)
+            entries.set(i, null);
+        written.set(0);
+    }
+}
@@ -0,0 +1,124 @@
+package LifeValuable.Library.metrics;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * Статистика SQL по "форме" запроса: литералы и списки IN сведены к {@code ?}, поэтому
+ * один производный метод репозитория даёт одну строку независимо от аргументов.
+ * Медленные запросы пишутся в лог с типами параметров, но без значений. Форма вычисляется регулярными
+ * выражениями один раз на текст запроса и хранится в ограниченном кэше, чтобы не разбирать SQL
+ * при каждой подготовке statement.
+ */
+@Slf4j
+@Component
+public class SqlStatistics {
+    static final String OTHER_SHAPE = "<other>";
+    static final int MAX_NORMALIZED_STATEMENTS = 2000;
+
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("(?<![\\w.])-?\\d+(?:\\.\\d+)?(?![\\w.])");
+    private static final Pattern IN_LIST = Pattern.compile("\\(\\s*\\?(?:\\s*,\\s*\\?)+\\s*\\)");
+
+    @Value("${sql.slow-query-threshold-ms:200}")
+    private long slowQueryThresholdMs = 200;
+
+    @Value("${sql.max-shapes:500}")
+    private int maxShapes = 500;
+
+    private final Map<String, ShapeStats> shapes = new ConcurrentHashMap<>();
+    private final Cache<String, String> normalized = Caffeine.newBuilder()
+            .maximumSize(MAX_NORMALIZED_STATEMENTS)
+            .executor(Runnable::run)
+            .build();
+    private volatile Instant since = Instant.now();
+
+    public record Snapshot(String sql, long count, double totalMs, double maxMs, double meanMs, long rows,
+                           long slowCount) {}
+
+    static final class ShapeStats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0);
+        private final LongAdder rows = new LongAdder();
+        private final LongAdder slowCount = new LongAdder();
+
+        void addRows(long added) {
+            rows.add(added);
+        }
+    }
+
+    ShapeStats shape(String sql) {
+        String shape = normalized.get(sql, SqlStatistics::normalize);
+        ShapeStats stats = shapes.get(shape);
+        if (stats != null)
+            return stats;
+        if (shapes.size() >= maxShapes)
+            shape = OTHER_SHAPE;
+        return shapes.computeIfAbsent(shape, key -> new ShapeStats());
+    }
+
+    void recordExecution(ShapeStats stats, String sql, long nanos, long rows, List<String> parameterTypes) {
+        stats.count.increment();
+        stats.totalNanos.add(nanos);
+        stats.maxNanos.accumulate(nanos);
+        if (rows > 0)
+            stats.rows.add(rows);
+
+        long millis = TimeUnit.NANOSECONDS.toMillis(nanos);
+        if (millis >= slowQueryThresholdMs) {
+            stats.slowCount.increment();
+            log.warn("Slow query {} ms, params {}: {}", millis, parameterTypes, normalized.get(sql, SqlStatistics::normalize));
+        }
+    }
+
+    public List<Snapshot> getTopByTotalTime(int limit) {
+        return shapes.entrySet().stream()
+                .map(entry -> snapshot(entry.getKey(), entry.getValue()))
+                .sorted(Comparator.comparingDouble(Snapshot::totalMs).reversed())
+                .limit(limit)
+                .toList();
+    }
+
+    long getNormalizedCount() {
+        normalized.cleanUp();
+        return normalized.estimatedSize();
+    }
+
+    public Instant getSince() {
+        return since;
+    }
+
+    public void reset() {
+        shapes.clear();
+        since = Instant.now();
+    }
+
+    static String normalize(String sql) {
+        String shape = WHITESPACE.matcher(sql.trim()).replaceAll(" ");
+        shape = STRING_LITERAL.matcher(shape).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        return IN_LIST.matcher(shape).replaceAll("(?...)");
+    }
+
+    private static Snapshot snapshot(String sql, ShapeStats stats) {
+        long count = stats.count.sum();
+        double totalMs = stats.totalNanos.sum() / 1e6;
+        return new Snapshot(sql, count, totalMs, stats.maxNanos.get() / 1e6, count == 0 ? 0 : totalMs / count,
+                stats.rows.sum(), stats.slowCount.sum());
+    }
+}
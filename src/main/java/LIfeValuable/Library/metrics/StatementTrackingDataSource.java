@@ -0,0 +1,155 @@
+package LifeValuable.Library.metrics;
+
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Оборачивает соединения и выражения JDBC, чтобы замерять каждое выполнение, считать строки
+ * и запоминать типы параметров для {@link SqlStatistics}.
+ */
+public class StatementTrackingDataSource extends DelegatingDataSource {
+    private final SqlStatistics statistics;
+
+    public StatementTrackingDataSource(DataSource target, SqlStatistics statistics) {
+        super(target);
+        this.statistics = statistics;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return wrapConnection(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return wrapConnection(super.getConnection(username, password));
+    }
+
+    private Connection wrapConnection(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof Statement statement) {
+                        String sql = method.getName().startsWith("prepare") ? (String) args[0] : null;
+                        return wrapStatement(statement, sql);
+                    }
+                    return result;
+                });
+    }
+
+    private Statement wrapStatement(Statement statement, String sql) {
+        Class<?> type = statement instanceof CallableStatement ? CallableStatement.class
+                : statement instanceof PreparedStatement ? PreparedStatement.class : Statement.class;
+        return (Statement) Proxy.newProxyInstance(Statement.class.getClassLoader(), new Class<?>[]{type},
+                new StatementHandler(statement, sql));
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+
+    private final class StatementHandler implements InvocationHandler {
+        private final Statement target;
+        private final String preparedSql;
+        private final SqlStatistics.ShapeStats preparedShape;
+        private final Map<Integer, String> parameterTypes = new TreeMap<>();
+
+        StatementHandler(Statement target, String preparedSql) {
+            this.target = target;
+            this.preparedSql = preparedSql;
+            this.preparedShape = preparedSql != null ? statistics.shape(preparedSql) : null;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                parameterTypes.put(index, parameterType(name, args));
+            } else if (name.equals("clearParameters")) {
+                parameterTypes.clear();
+            } else if (name.startsWith("execute")) {
+                return execute(method, args);
+            }
+            Object result = StatementTrackingDataSource.invoke(target, method, args);
+            if (result instanceof ResultSet resultSet && name.equals("getResultSet") && preparedShape != null)
+                return countRows(resultSet, preparedShape);
+            return result;
+        }
+
+        private Object execute(Method method, Object[] args) throws Throwable {
+            String sql = args != null && args.length > 0 && args[0] instanceof String text ? text : preparedSql;
+            if (sql == null)
+                return StatementTrackingDataSource.invoke(target, method, args);
+
+            SqlStatistics.ShapeStats shape = sql == preparedSql ? preparedShape : statistics.shape(sql);
+            long start = System.nanoTime();
+            Object result;
+            try (RequestTimings.Span span = RequestTimings.span(RequestTimings.Category.DB)) {
+                result = StatementTrackingDataSource.invoke(target, method, args);
+            }
+            long elapsed = System.nanoTime() - start;
+
+            statistics.recordExecution(shape, sql, elapsed, affectedRows(result), List.copyOf(parameterTypes.values()));
+            if (result instanceof ResultSet resultSet)
+                return countRows(resultSet, shape);
+            return result;
+        }
+
+        private long affectedRows(Object result) {
+            if (result instanceof Integer count)
+                return count;
+            if (result instanceof Long count)
+                return count;
+            if (result instanceof int[] counts) {
+                long total = 0;
+                for (int count : counts)
+                    total += Math.max(count, 0);
+                return total;
+            }
+            if (result instanceof long[] counts) {
+                long total = 0;
+                for (long count : counts)
+                    total += Math.max(count, 0);
+                return total;
+            }
+            return 0;
+        }
+
+        private String parameterType(String setter, Object[] args) {
+            if (setter.equals("setNull"))
+                return "null";
+            if (setter.equals("setObject"))
+                return args[1] == null ? "null" : args[1].getClass().getSimpleName();
+            return setter.substring(3);
+        }
+    }
+
+    private static ResultSet countRows(ResultSet resultSet, SqlStatistics.ShapeStats shape) {
+        return (ResultSet) Proxy.newProxyInstance(ResultSet.class.getClassLoader(), new Class<?>[]{ResultSet.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(resultSet, method, args);
+                    if (method.getName().equals("next") && Boolean.TRUE.equals(result))
+                        shape.addRows(1);
+                    return result;
+                });
+    }
+}
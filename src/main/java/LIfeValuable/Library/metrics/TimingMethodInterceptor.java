@@ -0,0 +1,45 @@
+package LifeValuable.Library.metrics;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.util.ReflectionUtils;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+class TimingMethodInterceptor implements MethodInterceptor {
+    private final Histogram durations;
+    private final Counter errors;
+    private final String component;
+    private final RequestTimings.Category category;
+    private final Map<Method, Histogram.Child> timers = new ConcurrentHashMap<>();
+
+    TimingMethodInterceptor(Histogram durations, Counter errors, String component, RequestTimings.Category category) {
+        this.durations = durations;
+        this.errors = errors;
+        this.component = component;
+        this.category = category;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        Method method = invocation.getMethod();
+        if (ReflectionUtils.isObjectMethod(method))
+            return invocation.proceed();
+
+        Histogram.Child timer = timers.get(method);
+        if (timer == null)
+            timer = timers.computeIfAbsent(method, m -> durations.labels(component, m.getName()));
+
+        long start = System.nanoTime();
+        try (RequestTimings.Span span = RequestTimings.span(category)) {
+            return invocation.proceed();
+        } catch (Throwable e) {
+            errors.labels(component, method.getName()).inc();
+            throw e;
+        } finally {
+            timer.observeNanos(System.nanoTime() - start);
+        }
+    }
+}
@@ -1,14 +1,19 @@
 package LifeValuable.Library.model;
 
+import LifeValuable.Library.cache.SecondLevelCacheRegions;
 import jakarta.persistence.*;
 import lombok.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.BatchSize;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.validator.constraints.ISBN;
 
 import java.time.LocalDate;
 import java.util.List;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheRegions.BOOK)
 @Data
 @NoArgsConstructor
 public class Book {
@@ -20,6 +25,8 @@ public class Book {
     @ISBN private String isbn;
     private Integer publicationYear;
 
+    @BatchSize(size = 100)
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheRegions.BOOK_GENRES)
     @ManyToMany(fetch = FetchType.EAGER)
     @JoinTable(
         name = "book_genre",
@@ -29,9 +36,14 @@ public class Book {
     @NotEmpty private List<Genre> genres;
     @Min(0) private Integer stock;
 
+    @BatchSize(size = 100)
     @OneToMany(mappedBy = "book", fetch = FetchType.LAZY)
     private List<Lending> lendings;
 
+    // выдачи, перенесённые в архив; меняется только переносом в архив, сохранение книги его не трогает
+    @Column(insertable = false, updatable = false)
+    private long archivedLendings;
+
     public void setPublicationYear(Integer year) {
         if (year > LocalDate.now().getYear())
             throw new IllegalArgumentException("Publication year can't be in future");
@@ -1,10 +1,14 @@
 package LifeValuable.Library.model;
 
+import LifeValuable.Library.cache.SecondLevelCacheRegions;
 import jakarta.persistence.*;
 import lombok.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.NONSTRICT_READ_WRITE, region = SecondLevelCacheRegions.GENRE)
 @Data
 @NoArgsConstructor
 public class Genre {
@@ -0,0 +1,40 @@
+package LifeValuable.Library.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+@Entity
+@Table(name = "outbox_event")
+@Data
+@NoArgsConstructor
+public class OutboxEvent {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String aggregateType;
+
+    @Column(nullable = false)
+    private Long aggregateId;
+
+    @Column(nullable = false)
+    private String eventType;
+
+    @Column(nullable = false, length = 4000)
+    private String payload;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    // раньше этого момента событие не выбирается: так откладываются повторы после ошибки
+    @Column(nullable = false)
+    private Instant availableAt;
+
+    private int attempts;
+
+    @Column(length = 1000)
+    private String lastError;
+}
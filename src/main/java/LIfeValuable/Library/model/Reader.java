@@ -1,13 +1,17 @@
 package LifeValuable.Library.model;
 
+import LifeValuable.Library.cache.SecondLevelCacheRegions;
 import jakarta.persistence.*;
 import lombok.*;
 import jakarta.validation.constraints.*;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 import java.time.LocalDate;
 import java.util.List;
 
 @Entity
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = SecondLevelCacheRegions.READER)
 @Data
 @NoArgsConstructor
 public class Reader {
@@ -28,6 +32,10 @@ public class Reader {
     @OneToMany(mappedBy = "reader", fetch = FetchType.LAZY)
     private List<Lending> lendings;
 
+    // выдачи, перенесённые в архив; меняется только переносом в архив, сохранение читателя его не трогает
+    @Column(insertable = false, updatable = false)
+    private long archivedLendings;
+
     @AssertTrue
     private boolean isRegistrationDateValid() {
         return registrationDate != null && !registrationDate.isAfter(LocalDate.now());
@@ -0,0 +1,24 @@
+package LifeValuable.Library.model;
+
+import lombok.Getter;
+
+import java.time.Duration;
+
+@Getter
+public enum TrendingWindow {
+    WEEK("Неделя", 7),
+    MONTH("Месяц", 30),
+    YEAR("Год", 365);
+
+    private final String displayName;
+    private final int days;
+
+    TrendingWindow(String displayName, int days) {
+        this.displayName = displayName;
+        this.days = days;
+    }
+
+    public Duration getDecayTime() {
+        return Duration.ofDays(days);
+    }
+}
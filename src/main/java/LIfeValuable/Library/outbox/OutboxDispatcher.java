@@ -0,0 +1,153 @@
+package LifeValuable.Library.outbox;
+
+import LifeValuable.Library.metrics.Counter;
+import LifeValuable.Library.metrics.Histogram;
+import LifeValuable.Library.metrics.MetricsRegistry;
+import LifeValuable.Library.model.OutboxEvent;
+import LifeValuable.Library.repository.OutboxEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Фоновая доставка событий outbox обработчикам внутри приложения.
+ * <p>
+ * Пачка выбирается с {@code FOR UPDATE SKIP LOCKED}, поэтому несколько экземпляров приложения делят очередь
+ * без двойной доставки в штатном режиме. Каждое событие обрабатывается в собственной транзакции
+ * ({@code REQUIRES_NEW}): ошибка обработчика откатывает только его изменения и не делает rollback-only
+ * транзакцию захвата. После успешной обработки событие удаляется в транзакции захвата, а при ошибке
+ * остаётся в таблице и повторяется с экспоненциальной задержкой. Если захват не зафиксируется после
+ * успешной обработки, событие будет доставлено повторно. Пока первое событие агрегата
+ * не доставлено, следующие события того же агрегата не выбираются.
+ */
+@Slf4j
+@Component
+public class OutboxDispatcher {
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxEventHandler<?>> handlers;
+    private final TransactionTemplate transactionTemplate;
+    private final TransactionTemplate deliveryTemplate;
+    private final Clock clock;
+    private final Counter dispatched;
+    private final Counter failures;
+    private final Histogram deliveryDelay;
+    private volatile long pending;
+    private volatile Instant oldestPending;
+
+    @Value("${outbox.batch-size:100}")
+    private int batchSize = 100;
+
+    @Value("${outbox.retry-delay-ms:1000}")
+    private long retryDelayMs = 1000;
+
+    @Value("${outbox.max-retry-delay-ms:300000}")
+    private long maxRetryDelayMs = 300000;
+
+    @Autowired
+    public OutboxDispatcher(OutboxEventRepository outboxEventRepository, List<OutboxEventHandler<?>> handlers,
+                            PlatformTransactionManager transactionManager, MetricsRegistry registry) {
+        this(outboxEventRepository, handlers, new TransactionTemplate(transactionManager), registry,
+                Clock.systemUTC());
+    }
+
+    OutboxDispatcher(OutboxEventRepository outboxEventRepository, List<OutboxEventHandler<?>> handlers,
+                     TransactionTemplate transactionTemplate, MetricsRegistry registry, Clock clock) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.handlers = handlers;
+        this.transactionTemplate = transactionTemplate;
+        this.deliveryTemplate = new TransactionTemplate(transactionTemplate.getTransactionManager());
+        this.deliveryTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.clock = clock;
+        this.dispatched = registry.counter("library_outbox_events_dispatched",
+                "Outbox events delivered to all handlers", "event_type");
+        this.failures = registry.counter("library_outbox_delivery_failures",
+                "Outbox deliveries that failed and were rescheduled", "event_type");
+        this.deliveryDelay = registry.histogram("library_outbox_delivery_delay_seconds",
+                "Time from publishing an outbox event to its delivery");
+        registry.gauge("library_outbox_pending_events", "Outbox events not yet delivered", () -> pending);
+        registry.gauge("library_outbox_lag_seconds", "Age of the oldest undelivered outbox event", () -> {
+            Instant oldest = oldestPending;
+            return oldest == null ? 0 : Math.max(0, Duration.between(oldest, clock.instant()).toMillis() / 1000.0);
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${outbox.poll-interval-ms:500}")
+    public void poll() {
+        // следующее событие агрегата выбирается только после доставки предыдущего, поэтому очередь
+        // разбирается до пустой пачки; отложенные после ошибки события в неё не попадают
+        int claimed;
+        do {
+            claimed = dispatchBatch();
+        } while (claimed > 0);
+        refreshLag();
+    }
+
+    /**
+     * Доставляет одну пачку событий и возвращает её размер.
+     */
+    public int dispatchBatch() {
+        Integer claimed = transactionTemplate.execute(status -> {
+            Instant now = clock.instant();
+            List<OutboxEvent> events = outboxEventRepository.claim(now, batchSize);
+            for (OutboxEvent event : events) {
+                try {
+                    deliveryTemplate.executeWithoutResult(delivery -> deliver(event));
+                    outboxEventRepository.delete(event);
+                    dispatched.labels(event.getEventType()).inc();
+                    deliveryDelay.labels().observeNanos(Duration.between(event.getCreatedAt(), now).toNanos());
+                } catch (RuntimeException e) {
+                    reschedule(event, now, e);
+                }
+            }
+            return events.size();
+        });
+        return claimed != null ? claimed : 0;
+    }
+
+    private void deliver(OutboxEvent event) {
+        for (OutboxEventHandler<?> handler : handlers) {
+            if (handler.aggregateType().equals(event.getAggregateType()))
+                deliver(handler, event);
+        }
+    }
+
+    private static <T extends OutboxMessage> void deliver(OutboxEventHandler<T> handler, OutboxEvent event) {
+        T message;
+        try {
+            message = OutboxPublisher.OBJECT_MAPPER.readValue(event.getPayload(), handler.messageType());
+        } catch (IOException e) {
+            throw new IllegalStateException("Malformed payload of outbox event " + event.getId(), e);
+        }
+        handler.handle(message);
+    }
+
+    private void reschedule(OutboxEvent event, Instant now, RuntimeException e) {
+        int attempts = event.getAttempts() + 1;
+        long delay = Math.min(maxRetryDelayMs, retryDelayMs << Math.min(attempts - 1, 20));
+        event.setAttempts(attempts);
+        event.setAvailableAt(now.plusMillis(delay));
+        String error = String.valueOf(e);
+        event.setLastError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+        failures.labels(event.getEventType()).inc();
+        log.warn("Outbox event {} ({} {}) failed on attempt {}, retrying in {} ms: {}", event.getId(),
+                event.getEventType(), event.getAggregateId(), attempts, delay, e.toString());
+    }
+
+    private void refreshLag() {
+        pending = outboxEventRepository.count();
+        oldestPending = outboxEventRepository.findFirstByOrderByIdAsc().map(OutboxEvent::getCreatedAt).orElse(null);
+    }
+}
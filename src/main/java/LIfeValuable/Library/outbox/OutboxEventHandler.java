@@ -0,0 +1,13 @@
+package LifeValuable.Library.outbox;
+
+/**
+ * Обработчик событий одного типа агрегата. Доставка «хотя бы один раз»: после ошибки любого обработчика
+ * событие повторяется для всех, поэтому обработка должна быть идемпотентной или терпеть повторы.
+ */
+public interface OutboxEventHandler<T extends OutboxMessage> {
+    String aggregateType();
+
+    Class<T> messageType();
+
+    void handle(T message);
+}
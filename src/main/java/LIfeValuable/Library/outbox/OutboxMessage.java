@@ -0,0 +1,12 @@
+package LifeValuable.Library.outbox;
+
+/**
+ * Событие, которое публикуется через outbox. Сериализуется в JSON целиком; методы ниже в тело не попадают.
+ */
+public interface OutboxMessage {
+    String aggregateType();
+
+    Long aggregateId();
+
+    String eventType();
+}
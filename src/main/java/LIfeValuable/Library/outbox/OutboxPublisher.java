@@ -0,0 +1,56 @@
+package LifeValuable.Library.outbox;
+
+import LifeValuable.Library.model.OutboxEvent;
+import LifeValuable.Library.repository.OutboxEventRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Instant;
+
+@Component
+public class OutboxPublisher {
+    static final ObjectMapper OBJECT_MAPPER = new ObjectMapper().findAndRegisterModules();
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final Clock clock;
+
+    @Autowired
+    public OutboxPublisher(OutboxEventRepository outboxEventRepository) {
+        this(outboxEventRepository, Clock.systemUTC());
+    }
+
+    OutboxPublisher(OutboxEventRepository outboxEventRepository, Clock clock) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.clock = clock;
+    }
+
+    /**
+     * Сохраняет событие в текущей транзакции: оно станет видно диспетчеру только вместе с изменением,
+     * которое его породило.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(OutboxMessage message) {
+        OutboxEvent event = new OutboxEvent();
+        event.setAggregateType(message.aggregateType());
+        event.setAggregateId(message.aggregateId());
+        event.setEventType(message.eventType());
+        event.setPayload(toJson(message));
+        Instant now = clock.instant();
+        event.setCreatedAt(now);
+        event.setAvailableAt(now);
+        outboxEventRepository.save(event);
+    }
+
+    private static String toJson(OutboxMessage message) {
+        try {
+            return OBJECT_MAPPER.writeValueAsString(message);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Failed to serialize outbox message " + message, e);
+        }
+    }
+}
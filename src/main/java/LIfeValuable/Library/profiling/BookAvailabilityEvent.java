@@ -0,0 +1,24 @@
+package LifeValuable.Library.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("library.BookAvailability")
+@Label("Book Availability")
+@Category({"Library", "Book"})
+@Description("Подсчёт доступных экземпляров книги по активным выдачам")
+@StackTrace(false)
+public class BookAvailabilityEvent extends Event {
+    @Label("Book Id")
+    public long bookId;
+
+    @Label("Lendings Scanned")
+    public int lendingsScanned;
+
+    @Label("Available Stock")
+    public long availableStock;
+}
@@ -0,0 +1,27 @@
+package LifeValuable.Library.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("library.CacheOperation")
+@Label("Cache Operation")
+@Category({"Library", "Cache"})
+@Description("Обращение к кэшу приложения")
+@StackTrace(false)
+public class CacheOperationEvent extends Event {
+    @Label("Cache")
+    public String cache;
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Key")
+    public String key;
+
+    @Label("Hit")
+    public boolean hit;
+}
@@ -0,0 +1,28 @@
+package LifeValuable.Library.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("library.Lending")
+@Label("Lending")
+@Category({"Library", "Lending"})
+@Description("Выдача или возврат книги")
+public class LendingEvent extends Event {
+    public static final String CHECKOUT = "checkout";
+    public static final String RETURN = "return";
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Lending Id")
+    public long lendingId;
+
+    @Label("Book Id")
+    public long bookId;
+
+    @Label("Reader Id")
+    public long readerId;
+}
@@ -0,0 +1,21 @@
+package LifeValuable.Library.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+@Name("library.Mapper")
+@Label("Mapper Invocation")
+@Category({"Library", "Mapping"})
+@Description("Вызов маппера MapStruct")
+@StackTrace(false)
+public class MapperEvent extends Event {
+    @Label("Mapper")
+    public String mapper;
+
+    @Label("Method")
+    public String method;
+}
@@ -0,0 +1,25 @@
+package LifeValuable.Library.profiling;
+
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+
+public class MapperEventInterceptor implements MethodInterceptor {
+    private final String mapper;
+
+    public MapperEventInterceptor(String mapper) {
+        this.mapper = mapper;
+    }
+
+    @Override
+    public Object invoke(MethodInvocation invocation) throws Throwable {
+        MapperEvent event = new MapperEvent();
+        event.begin();
+        Object result = invocation.proceed();
+        if (event.shouldCommit()) {
+            event.mapper = mapper;
+            event.method = invocation.getMethod().getName();
+            event.commit();
+        }
+        return result;
+    }
+}
@@ -0,0 +1,22 @@
+package LifeValuable.Library.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+@Name("library.PasswordHash")
+@Label("Password Hash")
+@Category({"Library", "Security"})
+@Description("Хеширование или проверка пароля")
+public class PasswordHashEvent extends Event {
+    public static final String ENCODE = "encode";
+    public static final String MATCHES = "matches";
+
+    @Label("Operation")
+    public String operation;
+
+    @Label("Matched")
+    public boolean matched;
+}
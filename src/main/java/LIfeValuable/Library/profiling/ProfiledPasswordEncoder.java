@@ -0,0 +1,44 @@
+package LifeValuable.Library.profiling;
+
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+/**
+ * Отмечает в JFR каждое хеширование и проверку пароля — на входе в систему это самая дорогая операция.
+ */
+public class ProfiledPasswordEncoder implements PasswordEncoder {
+    private final PasswordEncoder delegate;
+
+    public ProfiledPasswordEncoder(PasswordEncoder delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        PasswordHashEvent event = new PasswordHashEvent();
+        event.begin();
+        String encoded = delegate.encode(rawPassword);
+        if (event.shouldCommit()) {
+            event.operation = PasswordHashEvent.ENCODE;
+            event.commit();
+        }
+        return encoded;
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        PasswordHashEvent event = new PasswordHashEvent();
+        event.begin();
+        boolean matched = delegate.matches(rawPassword, encodedPassword);
+        if (event.shouldCommit()) {
+            event.operation = PasswordHashEvent.MATCHES;
+            event.matched = matched;
+            event.commit();
+        }
+        return matched;
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+}
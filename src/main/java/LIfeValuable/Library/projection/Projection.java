@@ -0,0 +1,143 @@
+package LifeValuable.Library.projection;
+
+import LifeValuable.Library.exception.UnknownFieldException;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Expression;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Root;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Описание полей DTO для {@code ?fields=}: для каждого поля — какие выражения выбрать из сущности
+ * и как собрать из них значение. Скалярные поля попадают в один SELECT только если их запросили,
+ * коллекции догружаются вторым запросом по id найденных строк.
+ */
+public final class Projection<E> {
+
+    @FunctionalInterface
+    public interface Selector<E> {
+        Expression<?> select(Root<E> root, CriteriaQuery<?> query, CriteriaBuilder builder);
+    }
+
+    public record Field<E>(String name, List<Selector<E>> selectors, Function<Object[], Object> value) {
+    }
+
+    public record CollectionField(String name, String association, String attribute) {
+    }
+
+    private final Class<E> entityType;
+    private final Map<String, Field<E>> fields;
+    private final Map<String, CollectionField> collections;
+    private final List<String> names;
+
+    private Projection(Class<E> entityType, Map<String, Field<E>> fields, Map<String, CollectionField> collections,
+                       List<String> names) {
+        this.entityType = entityType;
+        this.fields = fields;
+        this.collections = collections;
+        this.names = names;
+    }
+
+    public static <E> Builder<E> of(Class<E> entityType) {
+        return new Builder<>(entityType);
+    }
+
+    /**
+     * Разбирает значение {@code fields}: имена через запятую, порядок в ответе — как в DTO.
+     */
+    public List<String> resolve(String requested) {
+        Set<String> wanted = new LinkedHashSet<>();
+        for (String name : requested.split(",")) {
+            String trimmed = name.trim();
+            if (!trimmed.isEmpty())
+                wanted.add(trimmed);
+        }
+        if (wanted.isEmpty())
+            return names;
+        List<String> unknown = wanted.stream().filter(name -> !names.contains(name)).toList();
+        if (!unknown.isEmpty())
+            throw new UnknownFieldException(unknown, names);
+        return names.stream().filter(wanted::contains).toList();
+    }
+
+    public Class<E> getEntityType() {
+        return entityType;
+    }
+
+    public List<String> getNames() {
+        return names;
+    }
+
+    public Field<E> field(String name) {
+        return fields.get(name);
+    }
+
+    public CollectionField collection(String name) {
+        return collections.get(name);
+    }
+
+    static Path<?> path(Root<?> root, String attributePath) {
+        Path<?> path = root;
+        for (String attribute : attributePath.split("\\."))
+            path = path.get(attribute);
+        return path;
+    }
+
+    public static final class Builder<E> {
+        private final Class<E> entityType;
+        private final Map<String, Field<E>> fields = new LinkedHashMap<>();
+        private final Map<String, CollectionField> collections = new LinkedHashMap<>();
+        private final List<String> names = new ArrayList<>();
+
+        private Builder(Class<E> entityType) {
+            this.entityType = entityType;
+        }
+
+        public Builder<E> attribute(String name) {
+            return attribute(name, name);
+        }
+
+        public Builder<E> attribute(String name, String attributePath) {
+            return derived(name, values -> values[0], attributePath);
+        }
+
+        public Builder<E> derived(String name, Function<Object[], Object> value, String... attributePaths) {
+            List<Selector<E>> selectors = Arrays.stream(attributePaths)
+                    .<Selector<E>>map(attributePath -> (root, query, builder) -> path(root, attributePath))
+                    .toList();
+            return add(new Field<>(name, selectors, value));
+        }
+
+        @SafeVarargs
+        public final Builder<E> expression(String name, Function<Object[], Object> value, Selector<E>... selectors) {
+            return add(new Field<>(name, List.of(selectors), value));
+        }
+
+        public Builder<E> collection(String name, String association, String attribute) {
+            collections.put(name, new CollectionField(name, association, attribute));
+            names.add(name);
+            return this;
+        }
+
+        public Projection<E> build() {
+            return new Projection<>(entityType, Collections.unmodifiableMap(fields),
+                    Collections.unmodifiableMap(collections), List.copyOf(names));
+        }
+
+        private Builder<E> add(Field<E> field) {
+            fields.put(field.name(), field);
+            names.add(field.name());
+            return this;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package LifeValuable.Library.projection;
+
+import LifeValuable.Library.mapper.LendingMapper;
+import LifeValuable.Library.model.Book;
+import LifeValuable.Library.model.Lending;
+import LifeValuable.Library.model.LendingStatus;
+import LifeValuable.Library.model.Reader;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Subquery;
+import org.mapstruct.factory.Mappers;
+
+import java.time.LocalDate;
+
+/**
+ * Поля ответов книг, выдач и читателей для {@code ?fields=}, в том же порядке и с теми же значениями,
+ * что и у DTO из мапперов. Счётчики выдач считаются подзапросом вместо загрузки коллекции.
+ */
+public final class Projections {
+    private static final LendingMapper LENDING_MAPPER = Mappers.getMapper(LendingMapper.class);
+
+    public static final Projection<Book> BOOK = Projection.of(Book.class)
+            .attribute("id")
+            .attribute("title")
+            .attribute("author")
+            .attribute("publicationYear")
+            .attribute("stock")
+            .collection("genreNames", "genres", "name")
+            .build();
+
+    public static final Projection<Book> BOOK_DETAIL = Projection.of(Book.class)
+            .attribute("id")
+            .attribute("title")
+            .attribute("author")
+            .attribute("isbn")
+            .attribute("publicationYear")
+            .attribute("stock")
+            .expression("availableStock", values -> (Integer) values[0] - ((Number) values[1]).intValue(),
+                    (root, query, builder) -> root.get("stock"),
+                    (root, query, builder) -> countLendings(root, query, builder, "book",
+                            LendingStatus.ACTIVE, LendingStatus.OVERDUE))
+            .collection("genreNames", "genres", "name")
+            .build();
+
+    public static final Projection<Lending> LENDING = Projection.of(Lending.class)
+            .attribute("id")
+            .attribute("bookTitle", "book.title")
+            .derived("readerFullName", Projections::fullName, "reader.firstName", "reader.lastName")
+            .attribute("lendingDate")
+            .attribute("dueDate")
+            .attribute("status")
+            .derived("isOverdue", values -> LENDING_MAPPER.isOverdue(lending(values)), "dueDate", "status")
+            .derived("daysLeft", values -> LENDING_MAPPER.getDaysLeft(lending(values)), "dueDate", "status")
+            .build();
+
+    public static final Projection<Lending> LENDING_DETAIL = Projection.of(Lending.class)
+            .attribute("id")
+            .attribute("bookId", "book.id")
+            .attribute("bookTitle", "book.title")
+            .attribute("bookIsbn", "book.isbn")
+            .attribute("readerId", "reader.id")
+            .derived("readerFullName", Projections::fullName, "reader.firstName", "reader.lastName")
+            .attribute("readerEmail", "reader.email")
+            .attribute("lendingDate")
+            .attribute("dueDate")
+            .attribute("returnDate")
+            .attribute("status")
+            .build();
+
+    public static final Projection<Reader> READER = Projection.of(Reader.class)
+            .attribute("id")
+            .derived("fullName", Projections::fullName, "firstName", "lastName")
+            .attribute("email")
+            .attribute("phoneNumber")
+            .attribute("registrationDate")
+            .expression("activeLendingsCount", Projections::intValue,
+                    (root, query, builder) -> countLendings(root, query, builder, "reader", LendingStatus.ACTIVE))
+            .build();
+
+    public static final Projection<Reader> READER_DETAIL = Projection.of(Reader.class)
+            .attribute("id")
+            .attribute("firstName")
+            .attribute("lastName")
+            .attribute("email")
+            .attribute("phoneNumber")
+            .attribute("registrationDate")
+            .expression("activeLendingsCount", Projections::intValue,
+                    (root, query, builder) -> countLendings(root, query, builder, "reader", LendingStatus.ACTIVE))
+            .expression("overdueLendingsCount", Projections::intValue,
+                    (root, query, builder) -> countLendings(root, query, builder, "reader", LendingStatus.OVERDUE))
+            .expression("totalBorrowed", Projections::intValue,
+                    (root, query, builder) -> builder.sum(countLendings(root, query, builder, "reader"),
+                            root.<Long>get("archivedLendings")))
+            .derived("role", values -> values[0] != null ? values[0].toString() : null, "role")
+            .build();
+
+    private Projections() {
+    }
+
+    private static Subquery<Long> countLendings(Root<?> root, CriteriaQuery<?> query, CriteriaBuilder builder,
+                                                String owner, LendingStatus... statuses) {
+        Subquery<Long> count = query.subquery(Long.class);
+        Root<Lending> lending = count.from(Lending.class);
+        Predicate ownedBy = builder.equal(lending.get(owner), root);
+        count.select(builder.count(lending))
+                .where(statuses.length == 0 ? ownedBy : builder.and(ownedBy, lending.get("status").in((Object[]) statuses)));
+        return count;
+    }
+
+    private static Object fullName(Object[] values) {
+        return values[0] + " " + values[1];
+    }
+
+    private static Object intValue(Object[] values) {
+        return ((Number) values[0]).intValue();
+    }
+
+    private static Lending lending(Object[] values) {
+        Lending lending = new Lending();
+        lending.setDueDate((LocalDate) values[0]);
+        lending.setStatus((LendingStatus) values[1]);
+        return lending;
+    }
+}
@@ -1,16 +1,23 @@
 package LifeValuable.Library.repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import LifeValuable.Library.cache.SecondLevelCacheRegions;
 import LifeValuable.Library.model.Book;
 import LifeValuable.Library.model.Genre;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.stereotype.Repository;
 
 @Repository
@@ -18,6 +25,10 @@ public interface BookRepository extends JpaRepository<Book, Long> {
     Optional<Book> findByTitle(String title);
     Page<Book> findByTitleContaining(String titleFragment, Pageable pageable);
     Page<Book> findByAuthor(String author, Pageable pageable);
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = SecondLevelCacheRegions.BOOK_BY_ISBN)
+    })
     Optional<Book> findByIsbn(String isbn);
     Page<Book> findByPublicationYear(Integer year, Pageable pageable);
     @Query("SELECT b FROM Book b JOIN b.genres g WHERE g IN :genres GROUP BY b HAVING COUNT(DISTINCT g) = :#{#genres.size()}")
@@ -30,4 +41,16 @@ public interface BookRepository extends JpaRepository<Book, Long> {
 
     @Query("SELECT b FROM Book b JOIN b.genres g WHERE g.name = :name")
     Page<Book> findByGenreName(@Param("name") String genreName, Pageable pageable);
+
+    // скаляр идёт в базу мимо кэша второго уровня: регион book у каждого узла свой и не видит правок соседей
+    @Query("SELECT b.stock FROM Book b WHERE b.id = :id")
+    Optional<Integer> findStockById(@Param("id") Long id);
+
+    // книги вместе с жанрами одним запросом: так при прогреве заполняются оба региона кэша второго уровня
+    @EntityGraph(attributePaths = "genres")
+    List<Book> findWithGenresByIdIn(Collection<Long> ids);
+
+    @Modifying
+    @Query("UPDATE Book b SET b.archivedLendings = b.archivedLendings + :count WHERE b.id IN :ids")
+    int addArchivedLendings(@Param("ids") Collection<Long> ids, @Param("count") long count);
 }
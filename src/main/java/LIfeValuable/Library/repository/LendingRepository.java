@@ -1,25 +1,46 @@
 package LifeValuable.Library.repository;
 
+import LifeValuable.Library.archive.ArchivedLending;
 import LifeValuable.Library.model.Lending;
 import LifeValuable.Library.model.LendingStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
 
 @Repository
 public interface LendingRepository extends JpaRepository<Lending, Long> {
     Page<Lending> findByStatus(LendingStatus status, Pageable pageable);
     Page<Lending> findByStatusAndReturnDateIsNull(LendingStatus status, Pageable pageable);
-    Page<Lending> findByDueDateBeforeAndReturnDateIsNull(LocalDate date, Pageable pageable);
+    // срок возврата не раньше даты выдачи, так что условие на lendingDate результат не меняет,
+    // но позволяет PostgreSQL не читать секции месяцев после date
+    @Query("SELECT l FROM Lending l WHERE l.dueDate < :date AND l.returnDate IS NULL AND l.lendingDate < :date")
+    Page<Lending> findByDueDateBeforeAndReturnDateIsNull(@Param("date") LocalDate date, Pageable pageable);
     Page<Lending> findByLendingDateBetween(LocalDate start, LocalDate end, Pageable pageable);
     Page<Lending> findByReaderId(Long readerId, Pageable pageable);
     Page<Lending> findByReaderIdAndStatus(Long readerId, LendingStatus status, Pageable pageable);
     Page<Lending> findByBookId(Long bookId, Pageable pageable);
-    @Query("SELECT b.id as id, b.title as title, b.author as author, COUNT(l) as lendingCount " +
-            "FROM Book b JOIN b.lendings l GROUP BY b.id, b.title, b.author ORDER BY COUNT(l) DESC")
+    long countByBookIdAndStatusIn(Long bookId, Collection<LendingStatus> statuses);
+    // вместе с выдачами, перенесёнными в архив: иначе включение архива меняет рейтинг
+    @Query(value = "SELECT b.id as id, b.title as title, b.author as author, " +
+            "COUNT(l) + b.archivedLendings as lendingCount " +
+            "FROM Book b LEFT JOIN b.lendings l GROUP BY b.id, b.title, b.author, b.archivedLendings " +
+            "HAVING COUNT(l) + b.archivedLendings > 0 ORDER BY COUNT(l) + b.archivedLendings DESC",
+            countQuery = "SELECT COUNT(b) FROM Book b " +
+                    "WHERE b.archivedLendings > 0 OR EXISTS (SELECT l.id FROM Lending l WHERE l.book = b)")
     Page<BookLendingProjection> findTopBorrowedBooks(Pageable pageable);
+    @Query("SELECT l.id FROM Lending l WHERE l.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+    // постранично по id, без загрузки сущностей: строки идут прямо в файл архива
+    @Query("SELECT new LifeValuable.Library.archive.ArchivedLending(" +
+            "l.id, l.book.id, l.reader.id, l.lendingDate, l.dueDate, l.returnDate) " +
+            "FROM Lending l WHERE l.status = :status AND l.returnDate < :before AND l.id > :afterId ORDER BY l.id")
+    List<ArchivedLending> findArchivable(@Param("status") LendingStatus status, @Param("before") LocalDate before,
+                                         @Param("afterId") Long afterId, Pageable pageable);
 }
@@ -0,0 +1,24 @@
+package LifeValuable.Library.repository;
+
+import LifeValuable.Library.model.OutboxEvent;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+    // только первое необработанное событие каждого агрегата, чтобы события одной выдачи не обгоняли друг друга;
+    // строки, захваченные другим диспетчером, пропускаются, а не ждут снятия блокировки
+    @Query(value = "select * from outbox_event e where e.availableat <= :now " +
+            "and not exists (select 1 from outbox_event p where p.aggregatetype = e.aggregatetype " +
+            "and p.aggregateid = e.aggregateid and p.id < e.id) " +
+            "order by e.id limit :limit for update skip locked", nativeQuery = true)
+    List<OutboxEvent> claim(@Param("now") Instant now, @Param("limit") int limit);
+
+    Optional<OutboxEvent> findFirstByOrderByIdAsc();
+}
@@ -0,0 +1,131 @@
+package LifeValuable.Library.repository;
+
+import LifeValuable.Library.projection.Projection;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.Root;
+import jakarta.persistence.criteria.Selection;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Выполняет запросы по {@link Projection}: в SELECT попадают только выражения запрошенных полей,
+ * без загрузки сущностей и их EAGER-связей. Id выбирается всегда — по нему догружаются коллекции.
+ */
+@Repository
+public class ProjectionRepository {
+    private static final String ID = "id";
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public <E> Page<Map<String, Object>> findAll(Projection<E> projection, List<String> fields,
+                                                 Specification<E> where, Pageable pageable) {
+        List<Map<String, Object>> content = select(projection, fields, where, pageable);
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(projection, where));
+    }
+
+    public <E> Optional<Map<String, Object>> findById(Projection<E> projection, List<String> fields, Object id) {
+        Specification<E> byId = (root, query, builder) -> builder.equal(root.get(ID), id);
+        List<Map<String, Object>> found = select(projection, fields, byId, Pageable.ofSize(1));
+        return found.stream().findFirst();
+    }
+
+    private <E> List<Map<String, Object>> select(Projection<E> projection, List<String> fields,
+                                                 Specification<E> where, Pageable pageable) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<E> root = query.from(projection.getEntityType());
+
+        List<Selection<?>> selections = new ArrayList<>();
+        selections.add(root.get(ID));
+        for (String name : fields) {
+            Projection.Field<E> field = projection.field(name);
+            if (field == null)
+                continue;
+            for (Projection.Selector<E> selector : field.selectors())
+                selections.add(selector.select(root, query, builder));
+        }
+        query.multiselect(selections);
+        if (where != null)
+            query.where(where.toPredicate(root, query, builder));
+        if (pageable.getSort().isSorted())
+            query.orderBy(QueryUtils.toOrders(pageable.getSort(), root, builder));
+
+        TypedQuery<Tuple> typed = entityManager.createQuery(query);
+        if (pageable.isPaged()) {
+            typed.setFirstResult((int) pageable.getOffset());
+            typed.setMaxResults(pageable.getPageSize());
+        }
+        List<Tuple> rows = typed.getResultList();
+
+        Map<String, Map<Object, List<Object>>> collections = new HashMap<>();
+        List<Object> ids = rows.stream().map(row -> row.get(0)).toList();
+        for (String name : fields) {
+            Projection.CollectionField collection = projection.collection(name);
+            if (collection != null)
+                collections.put(name, loadCollection(projection, collection, ids));
+        }
+
+        List<Map<String, Object>> result = new ArrayList<>(rows.size());
+        for (Tuple row : rows) {
+            Map<String, Object> values = new LinkedHashMap<>();
+            int column = 1;
+            for (String name : fields) {
+                Projection.Field<E> field = projection.field(name);
+                if (field != null) {
+                    Object[] arguments = new Object[field.selectors().size()];
+                    for (int i = 0; i < arguments.length; i++)
+                        arguments[i] = row.get(column++);
+                    values.put(name, field.value().apply(arguments));
+                } else {
+                    values.put(name, collections.get(name).getOrDefault(row.get(0), List.of()));
+                }
+            }
+            result.add(values);
+        }
+        return result;
+    }
+
+    private <E> Map<Object, List<Object>> loadCollection(Projection<E> projection,
+                                                         Projection.CollectionField collection, List<Object> ids) {
+        if (ids.isEmpty())
+            return Map.of();
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<E> root = query.from(projection.getEntityType());
+        Join<E, ?> join = root.join(collection.association());
+        query.multiselect(root.get(ID), join.get(collection.attribute())).where(root.get(ID).in(ids));
+
+        Map<Object, List<Object>> values = new HashMap<>();
+        for (Tuple row : entityManager.createQuery(query).getResultList())
+            values.computeIfAbsent(row.get(0), id -> new ArrayList<>()).add(row.get(1));
+        return values;
+    }
+
+    private <E> long count(Projection<E> projection, Specification<E> where) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<E> root = query.from(projection.getEntityType());
+        query.select(builder.count(root));
+        if (where != null)
+            query.where(where.toPredicate(root, query, builder));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+}
@@ -0,0 +1,9 @@
+package LifeValuable.Library.repository;
+
+import LifeValuable.Library.model.Role;
+
+public interface ReaderCredentialsProjection {
+    String getEmail();
+    String getPassword();
+    Role getRole();
+}
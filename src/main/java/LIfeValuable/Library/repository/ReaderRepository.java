@@ -1,13 +1,33 @@
 package LifeValuable.Library.repository;
 
+import LifeValuable.Library.cache.SecondLevelCacheRegions;
 import LifeValuable.Library.model.Reader;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.AvailableHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.Optional;
 
 @Repository
 public interface ReaderRepository extends JpaRepository<Reader, Long> {
+    @QueryHints({
+            @QueryHint(name = AvailableHints.HINT_CACHEABLE, value = "true"),
+            @QueryHint(name = AvailableHints.HINT_CACHE_REGION, value = SecondLevelCacheRegions.READER_BY_EMAIL)
+    })
     Optional<Reader> findByEmail(String email);
     Optional<Reader> findByPhoneNumber(String number);
+    // для входа: скалярный запрос идёт мимо кэша запросов и локального кэша сущностей узла,
+    // поэтому смена пароля или роли на другом узле видна сразу
+    @Query("SELECT r.email as email, r.password as password, r.role as role FROM Reader r WHERE r.email = :email")
+    Optional<ReaderCredentialsProjection> findCredentialsByEmail(@Param("email") String email);
+
+    @Modifying
+    @Query("UPDATE Reader r SET r.archivedLendings = r.archivedLendings + :count WHERE r.id IN :ids")
+    int addArchivedLendings(@Param("ids") Collection<Long> ids, @Param("count") long count);
 }
@@ -1,5 +1,6 @@
 package LifeValuable.Library.security;
 
+import LifeValuable.Library.profiling.ProfiledPasswordEncoder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
@@ -11,6 +12,6 @@ public class PasswordConfig {
     @Bean
     public PasswordEncoder passwordEncoder() {
         final int strength = 12;
-        return new BCryptPasswordEncoder(strength);
+        return new ProfiledPasswordEncoder(new BCryptPasswordEncoder(strength));
     }
 }
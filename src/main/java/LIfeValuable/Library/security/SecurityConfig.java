@@ -1,5 +1,9 @@
 package LifeValuable.Library.security;
 
+import LifeValuable.Library.coalescing.RequestCoalescingFilter;
+import LifeValuable.Library.idempotency.IdempotencyFilter;
+import LifeValuable.Library.metrics.RequestTimingFilter;
+import LifeValuable.Library.metrics.ServerTimingFilter;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpMethod;
@@ -7,6 +11,8 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.web.SecurityFilterChain;
+import org.springframework.security.web.access.intercept.AuthorizationFilter;
+import org.springframework.security.web.session.DisableEncodeUrlFilter;
 
 @Configuration
 @EnableWebSecurity
@@ -14,9 +20,18 @@ import org.springframework.security.web.SecurityFilterChain;
 public class SecurityConfig {
 
     @Bean
-    public SecurityFilterChain securityFilterChain(HttpSecurity httpSecurity) throws Exception {
+    public SecurityFilterChain securityFilterChain(HttpSecurity httpSecurity, RequestTimingFilter requestTimingFilter,
+                                                   ServerTimingFilter serverTimingFilter,
+                                                   IdempotencyFilter idempotencyFilter,
+                                                   RequestCoalescingFilter requestCoalescingFilter) throws Exception {
         return httpSecurity
                 .securityMatcher("/api/**")
+                .addFilterBefore(requestTimingFilter, DisableEncodeUrlFilter.class)
+                .addFilterAfter(serverTimingFilter, AuthorizationFilter.class)
+                // после авторизации: ключи идемпотентности разделены по пользователям
+                .addFilterAfter(idempotencyFilter, ServerTimingFilter.class)
+                // склейка одинаковых GET тоже после авторизации: ключ включает набор ролей
+                .addFilterAfter(requestCoalescingFilter, IdempotencyFilter.class)
                 .authorizeHttpRequests(
                     auth -> auth
                             // открытые эндпоинты
@@ -32,7 +47,11 @@ public class SecurityConfig {
                             .requestMatchers(HttpMethod.POST, "/api/books/**").hasRole("ADMIN")
                             .requestMatchers(HttpMethod.PUT, "/api/books/**").hasRole("ADMIN")
                             .requestMatchers(HttpMethod.DELETE, "/api/books/**").hasRole("ADMIN")
+                            .requestMatchers(HttpMethod.POST, "/api/genres/**").hasRole("ADMIN")
+                            .requestMatchers(HttpMethod.PUT, "/api/genres/**").hasRole("ADMIN")
+                            .requestMatchers(HttpMethod.DELETE, "/api/genres/**").hasRole("ADMIN")
 
+                            .requestMatchers("/api/admin/**").hasRole("ADMIN")
                             .requestMatchers("/api/lendings/**").hasAnyRole("LIBRARIAN", "ADMIN")
                             .requestMatchers(HttpMethod.PATCH, "/api/books/*/stock").hasAnyRole("LIBRARIAN", "ADMIN")
                             .requestMatchers(HttpMethod.GET, "/api/readers").hasAnyRole("LIBRARIAN", "ADMIN")
@@ -42,6 +61,7 @@ public class SecurityConfig {
 
 
                             .requestMatchers(HttpMethod.GET, "/api/books/**").hasAnyRole("READER", "LIBRARIAN", "ADMIN")
+                            .requestMatchers(HttpMethod.GET, "/api/genres/**").hasAnyRole("READER", "LIBRARIAN", "ADMIN")
 
 
                             .anyRequest().authenticated()
@@ -1,6 +1,6 @@
 package LifeValuable.Library.security;
 
-import LifeValuable.Library.model.Reader;
+import LifeValuable.Library.repository.ReaderCredentialsProjection;
 import LifeValuable.Library.repository.ReaderRepository;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.User;
@@ -22,7 +22,7 @@ public class UserDetailsServiceImpl implements UserDetailsService {
     @Transactional
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
-        Reader reader = readerRepository.findByEmail(email)
+        ReaderCredentialsProjection reader = readerRepository.findCredentialsByEmail(email)
                 .orElseThrow(() -> new UsernameNotFoundException("Не найден пользователь с email: " + email));
 
         return User.builder()
@@ -0,0 +1,11 @@
+package LifeValuable.Library.service;
+
+import LifeValuable.Library.audit.AuditEntity;
+import LifeValuable.Library.dto.admin.AuditRecordDTO;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface AuditService {
+    List<AuditRecordDTO> find(AuditEntity entity, Long entityId, Instant from, Instant to, int limit);
+}
@@ -2,12 +2,15 @@ package LifeValuable.Library.service;
 
 import LifeValuable.Library.dto.book.BookDTO;
 import LifeValuable.Library.dto.book.BookDetailDTO;
+import LifeValuable.Library.dto.book.BookTrendingDTO;
 import LifeValuable.Library.dto.book.CreateBookDTO;
 import LifeValuable.Library.model.Book;
+import LifeValuable.Library.model.TrendingWindow;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 
@@ -16,8 +19,11 @@ public interface BookService {
     BookDetailDTO update(CreateBookDTO createBookDTO, Long id);
     void deleteById(Long id);
     BookDetailDTO findById(Long id);
+    List<BookDetailDTO> findAllByIds(List<Long> ids);
     Book findModelById(Long id);
     Page<BookDTO> findAll(Pageable pageable);
+    Page<Map<String, Object>> findAll(String fields, Pageable pageable);
+    Map<String, Object> findById(Long id, String fields);
 
     Optional<BookDetailDTO> findByTitle(String title);
     Page<BookDTO> findByTitleContaining(String titleFragment, Pageable pageable);
@@ -38,4 +44,6 @@ public interface BookService {
 
     boolean isAvailableForLending(Long bookId);
     int getAvailableStockCount(Long bookId);
+
+    List<BookTrendingDTO> findTrending(TrendingWindow window, String genreName, int limit);
 }
@@ -0,0 +1,22 @@
+package LifeValuable.Library.service;
+
+import LifeValuable.Library.dto.genre.CreateGenreDTO;
+import LifeValuable.Library.dto.genre.GenreDTO;
+import LifeValuable.Library.model.Genre;
+
+import java.util.Collection;
+import java.util.List;
+
+
+public interface GenreService {
+    GenreDTO create(CreateGenreDTO createGenreDTO);
+    GenreDTO update(CreateGenreDTO createGenreDTO, Long id);
+    void deleteById(Long id);
+    GenreDTO findById(Long id);
+    GenreDTO findByName(String name);
+    List<GenreDTO> findAll();
+
+    Genre findModelByName(String name);
+    List<Genre> findModelsByNames(Collection<String> names);
+    void reload();
+}
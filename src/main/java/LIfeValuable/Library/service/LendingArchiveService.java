@@ -0,0 +1,15 @@
+package LifeValuable.Library.service;
+
+import java.time.LocalDate;
+
+/**
+ * Перенос давно возвращённых выдач из таблицы {@code lending} в колоночные файлы холодного архива.
+ * История читателя и книги после переноса по-прежнему доступна через {@link LendingService}.
+ */
+public interface LendingArchiveService {
+    ArchiveReport archive();
+
+    ArchiveReport archiveReturnedBefore(LocalDate cutoff);
+
+    record ArchiveReport(int files, long lendings) {}
+}
@@ -0,0 +1,18 @@
+package LifeValuable.Library.service;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Обслуживание помесячных секций таблицы {@code lending}: заранее создаёт секции будущих месяцев
+ * и отсоединяет месяцы старше срока хранения. На базе без секционирования (H2) ничего не делает.
+ */
+public interface LendingPartitionService {
+    MaintenanceReport maintain();
+
+    List<String> createFuturePartitions(LocalDate today);
+
+    List<String> detachExpiredPartitions(LocalDate today);
+
+    record MaintenanceReport(List<String> created, List<String> detached) {}
+}
@@ -10,11 +10,13 @@ import org.springframework.data.domain.Pageable;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 public interface LendingService {
     LendingDetailDTO create(CreateLendingDTO createLendingDTO);
     LendingDetailDTO returnBook(Long lendingId);
     LendingDetailDTO findById(Long lendingId);
+    Map<String, Object> findById(Long lendingId, String fields);
     Page<LendingDTO> findByStatus(LendingStatus status, Pageable pageable);
 
     Page<LendingDTO> findByDueDateBeforeAndReturnDateIsNull(LocalDate date, Pageable pageable);
@@ -28,6 +30,7 @@ public interface LendingService {
     void updateStatuses(); 
 
     Page<LendingDTO> findAllLendings(Pageable pageable); 
+    Page<Map<String, Object>> findAllLendings(String fields, Pageable pageable);
     
     LendingDetailDTO updateLendingStatus(Long lendingId, LendingStatus newStatus);
 
@@ -0,0 +1,12 @@
+package LifeValuable.Library.service;
+
+import LifeValuable.Library.dto.admin.RecordingDTO;
+
+import java.nio.file.Path;
+
+public interface ProfilingService {
+    RecordingDTO start(long durationSeconds, long maxSizeMb);
+    RecordingDTO stop();
+    RecordingDTO getCurrent();
+    Path getRecordingFile();
+}
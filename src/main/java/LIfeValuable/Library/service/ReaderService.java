@@ -7,16 +7,22 @@ import LifeValuable.Library.model.Reader;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 
+import java.util.Map;
+
 public interface ReaderService {
     ReaderDetailDTO create(CreateReaderDTO createReaderDTO);
     ReaderDetailDTO update(CreateReaderDTO createReaderDTO, Long id);
     void deleteById(Long id);
     ReaderDetailDTO findById(Long id);
+    Map<String, Object> findById(Long id, String fields);
     Reader findModelById(Long id);
     Page<ReaderDTO> findAll(Pageable pageable);
+    Page<Map<String, Object>> findAll(String fields, Pageable pageable);
 
     ReaderDetailDTO findByPhoneNumber(String number);
     ReaderDetailDTO findByEmail(String email);
 
     ReaderDetailDTO updateCurrentUser(CreateReaderDTO dto, String currentEmail);
+
+    void evictProfile(String email);
 }
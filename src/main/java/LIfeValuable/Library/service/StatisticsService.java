@@ -0,0 +1,12 @@
+package LifeValuable.Library.service;
+
+import LifeValuable.Library.dto.admin.RequestTraceDTO;
+import LifeValuable.Library.dto.admin.StatisticsDTO;
+
+import java.util.List;
+
+public interface StatisticsService {
+    StatisticsDTO getStatistics(int limit);
+    List<RequestTraceDTO> getSlowRequests(int limit);
+    void reset();
+}
@@ -0,0 +1,58 @@
+package LifeValuable.Library.service;
+
+import LifeValuable.Library.model.Book;
+import LifeValuable.Library.model.TrendingWindow;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Рейтинг популярности книг с экспоненциальным затуханием.
+ * <p>
+ * Каждая выдача добавляет к счёту книги вес {@code exp((t - start) / τ)}, где τ — длина окна.
+ * Порядок книг от нормировки не зависит, поэтому хранимые счёты можно сортировать напрямую,
+ * а к текущему значению они приводятся умножением на {@code exp(-(now - start) / τ)}.
+ * <p>
+ * Чтобы вес не переполнил double (для недели — через 13 лет), отсчёт {@code start} сдвигается
+ * каждые {@link #GENERATION_WINDOWS} окон: счёты нового поколения копятся отдельно, а первые
+ * {@link #OVERLAP_WINDOWS} окон к ним прибавляются счёты прошлого, умноженные на {@link #carryWeight()}.
+ */
+public interface TrendingService {
+    int GENERATION_WINDOWS = 100;
+    int OVERLAP_WINDOWS = 50;
+
+    void recordLending(Book book);
+    List<Score> findTop(TrendingWindow window, String genreName, int limit);
+
+    record Score(Long bookId, double score) {}
+
+    static long generation(TrendingWindow window, Instant epoch, Instant at) {
+        return Math.floorDiv(Duration.between(epoch, at).toMillis(), generationMillis(window));
+    }
+
+    static Instant generationStart(TrendingWindow window, Instant epoch, long generation) {
+        return epoch.plusMillis(generation * generationMillis(window));
+    }
+
+    /**
+     * Нужны ли ещё счёты прошлого поколения: после {@link #OVERLAP_WINDOWS} окон их вклад меньше 1e-21.
+     */
+    static boolean overlapsPrevious(TrendingWindow window, Instant epoch, Instant at) {
+        Instant start = generationStart(window, epoch, generation(window, epoch, at));
+        return Duration.between(start, at).toMillis() < OVERLAP_WINDOWS * window.getDecayTime().toMillis();
+    }
+
+    static double carryWeight() {
+        return Math.exp(-GENERATION_WINDOWS);
+    }
+
+    static double growthFactor(TrendingWindow window, Instant start, Instant at) {
+        double elapsed = Duration.between(start, at).toMillis();
+        return Math.exp(elapsed / window.getDecayTime().toMillis());
+    }
+
+    private static long generationMillis(TrendingWindow window) {
+        return GENERATION_WINDOWS * window.getDecayTime().toMillis();
+    }
+}
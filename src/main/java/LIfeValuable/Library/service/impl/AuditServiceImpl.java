@@ -0,0 +1,29 @@
+package LifeValuable.Library.service.impl;
+
+import LifeValuable.Library.audit.AuditEntity;
+import LifeValuable.Library.audit.AuditLog;
+import LifeValuable.Library.dto.admin.AuditRecordDTO;
+import LifeValuable.Library.service.AuditService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.time.Instant;
+import java.util.List;
+
+@Service
+public class AuditServiceImpl implements AuditService {
+    private final AuditLog auditLog;
+
+    @Autowired
+    public AuditServiceImpl(AuditLog auditLog) {
+        this.auditLog = auditLog;
+    }
+
+    @Override
+    public List<AuditRecordDTO> find(AuditEntity entity, Long entityId, Instant from, Instant to, int limit) {
+        return auditLog.find(entity, entityId, from, to, limit).stream()
+                .map(record -> new AuditRecordDTO(record.sequence(), record.timestamp(), record.entity().name(),
+                        record.entityId(), record.operation(), record.actor()))
+                .toList();
+    }
+}
@@ -1,7 +1,11 @@
 package LifeValuable.Library.service.impl;
 
+import LifeValuable.Library.audit.AuditEntity;
+import LifeValuable.Library.audit.Audited;
+import LifeValuable.Library.cache.BulkCache;
 import LifeValuable.Library.dto.book.BookDTO;
 import LifeValuable.Library.dto.book.BookDetailDTO;
+import LifeValuable.Library.dto.book.BookTrendingDTO;
 import LifeValuable.Library.dto.book.CreateBookDTO;
 import LifeValuable.Library.dto.cache.CacheablePage;
 import LifeValuable.Library.exception.BookNotFoundException;
@@ -9,11 +13,18 @@ import LifeValuable.Library.exception.GenreNotFoundException;
 import LifeValuable.Library.mapper.BookMapper;
 import LifeValuable.Library.model.Book;
 import LifeValuable.Library.model.Genre;
+import LifeValuable.Library.model.TrendingWindow;
+import LifeValuable.Library.profiling.BookAvailabilityEvent;
+import LifeValuable.Library.projection.Projections;
 import LifeValuable.Library.repository.BookRepository;
-import LifeValuable.Library.repository.GenreRepository;
+import LifeValuable.Library.repository.ProjectionRepository;
 import LifeValuable.Library.service.BookService;
+import LifeValuable.Library.service.GenreService;
+import LifeValuable.Library.service.TrendingService;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.CacheConfig;
 import org.springframework.cache.annotation.CacheEvict;
 import org.springframework.cache.annotation.CachePut;
@@ -23,49 +34,62 @@ import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 @CacheConfig(cacheNames = "books")
 @Service
 public class BookServiceImpl implements BookService {
+    private static final String CACHE_NAME = "books";
 
     private final BookRepository bookRepository;
     private final BookMapper bookMapper;
-    private final GenreRepository genreRepository;
+    private final GenreService genreService;
+    private final TrendingService trendingService;
+    private final CacheManager cacheManager;
+    private final ProjectionRepository projectionRepository;
 
     @Autowired
-    public BookServiceImpl(BookRepository bookRepository, BookMapper bookMapper, GenreRepository genreRepository) {
+    public BookServiceImpl(BookRepository bookRepository, BookMapper bookMapper, GenreService genreService,
+                           TrendingService trendingService, CacheManager cacheManager,
+                           ProjectionRepository projectionRepository) {
         this.bookRepository = bookRepository;
         this.bookMapper = bookMapper;
-        this.genreRepository = genreRepository;
+        this.genreService = genreService;
+        this.trendingService = trendingService;
+        this.cacheManager = cacheManager;
+        this.projectionRepository = projectionRepository;
     }
 
     @CachePut(key = "#result.id")
     @Override
+    @Audited(AuditEntity.BOOK)
     public BookDetailDTO create(CreateBookDTO createBookDTO) {
-        if (bookRepository.findByIsbn(createBookDTO.isbn()).isPresent())
-            throw new RuntimeException("A book with ISBN " + createBookDTO.isbn() + " already exists");
-
         if (createBookDTO.genreNames() == null || createBookDTO.genreNames().isEmpty())
             throw new RuntimeException("Book must have at least one genre");
 
         List<String> requestedGenreNames = createBookDTO.genreNames();
-        List<Genre> foundGenres = genreRepository.findByNameIn(requestedGenreNames);
+        List<Genre> foundGenres = genreService.findModelsByNames(requestedGenreNames);
 
         if (foundGenres.size() != requestedGenreNames.size()) {
             Set<String> foundNames = foundGenres.stream().map(Genre::getName).collect(Collectors.toSet());
             Set<String> missingNames = new HashSet<>(requestedGenreNames);
             missingNames.removeAll(foundNames);
-            throw new GenreNotFoundException("Genres not found: " + missingNames);
+            throw new GenreNotFoundException(missingNames);
         }
 
         Book bookToSave = bookMapper.toEntity(createBookDTO);
         bookToSave.setGenres(foundGenres);
-        Book savedBook = bookRepository.save(bookToSave);
+        Book savedBook = bookRepository.saveAndFlush(bookToSave);
 
         return bookMapper.toDetailDto(savedBook);
     }
@@ -73,12 +97,10 @@ public class BookServiceImpl implements BookService {
     @CachePut(key = "#result.id")
     @Transactional
     @Override
+    @Audited(AuditEntity.BOOK)
     public BookDetailDTO update(CreateBookDTO createBookDTO, Long id) {
         Book bookToUpdate = bookRepository.findById(id).orElseThrow(() -> new BookNotFoundException(id));
 
-        if (bookRepository.findByIsbn(createBookDTO.isbn()).isPresent())
-            throw new RuntimeException("A book with ISBN " + createBookDTO.isbn() + " already exists");
-
         bookToUpdate.setAuthor(createBookDTO.author());
         bookToUpdate.setTitle(createBookDTO.title());
         bookToUpdate.setIsbn(createBookDTO.isbn());
@@ -86,22 +108,25 @@ public class BookServiceImpl implements BookService {
         bookToUpdate.setPublicationYear(createBookDTO.publicationYear());
 
         List<String> requestedGenreNames = createBookDTO.genreNames();
-        List<Genre> foundGenres = genreRepository.findByNameIn(requestedGenreNames);
+        List<Genre> foundGenres = genreService.findModelsByNames(requestedGenreNames);
 
         if (foundGenres.size() != requestedGenreNames.size()) {
             Set<String> foundNames = foundGenres.stream().map(Genre::getName).collect(Collectors.toSet());
             Set<String> missingNames = new HashSet<>(requestedGenreNames);
             missingNames.removeAll(foundNames);
-            throw new GenreNotFoundException("Genres not found: " + missingNames);
+            throw new GenreNotFoundException(missingNames);
         }
 
         bookToUpdate.setGenres(foundGenres);
+        // уникальность ISBN проверяет ограничение uk_book_isbn, нарушение должно всплыть здесь, а не при коммите
+        bookRepository.flush();
 
         return bookMapper.toDetailDto(bookToUpdate);
     }
 
     @CacheEvict
     @Override
+    @Audited(AuditEntity.BOOK)
     public void deleteById(Long id) {
         if (!bookRepository.existsById(id))
             throw new BookNotFoundException(id);
@@ -109,7 +134,7 @@ public class BookServiceImpl implements BookService {
         bookRepository.deleteById(id);
     }
 
-    @Cacheable
+    @Cacheable(sync = true)
     @Transactional
     @Override
     public BookDetailDTO findById(Long id) {
@@ -117,39 +142,113 @@ public class BookServiceImpl implements BookService {
         return bookMapper.toDetailDto(book);
     }
 
+    // выборочные поля идут мимо кэша: запрос читает только нужные колонки и не трогает жанры и выдачи без нужды
+    @Transactional
+    @Override
+    public Map<String, Object> findById(Long id, String fields) {
+        return projectionRepository.findById(Projections.BOOK_DETAIL, Projections.BOOK_DETAIL.resolve(fields), id)
+                .orElseThrow(() -> new BookNotFoundException(id));
+    }
+
     @Override
     public Book findModelById(Long id) {
         return bookRepository.findById(id).orElseThrow(() -> new BookNotFoundException(id));
     }
 
-    @Cacheable
+    @Cacheable(sync = true)
     @Transactional
     @Override
     public Optional<BookDetailDTO> findByTitle(String title) {
         return bookRepository.findByTitle(title).map(bookMapper::toDetailDto);
     }
 
-    @Cacheable
+    @Cacheable(sync = true)
     @Transactional
     @Override
     public Optional<BookDetailDTO> findByIsbn(String isbn) {
         return bookRepository.findByIsbn(isbn).map(bookMapper::toDetailDto);
     }
 
-    @Cacheable
+    @Cacheable(sync = true)
     @Override
     public boolean isAvailableForLending(Long bookId) {
         return getAvailableStockCount(bookId) > 0;
     }
 
-    @Cacheable
+    @Cacheable(sync = true)
     @Override
     public int getAvailableStockCount(Long bookId) {
+        BookAvailabilityEvent event = new BookAvailabilityEvent();
+        event.begin();
         Book book = bookRepository.findById(bookId).orElseThrow(() -> new BookNotFoundException(bookId));
         long activeLendingsCount = book.getLendings().stream()
                 .filter(lending -> lending.getStatus().isActive())
                 .count();
-        return (int)(book.getStock() - activeLendingsCount);
+        int available = (int)(book.getStock() - activeLendingsCount);
+        if (event.shouldCommit()) {
+            event.bookId = bookId;
+            event.lendingsScanned = book.getLendings().size();
+            event.availableStock = available;
+            event.commit();
+        }
+        return available;
+    }
+
+    @Transactional
+    @Override
+    public List<BookDetailDTO> findAllByIds(List<Long> ids) {
+        Set<Long> distinctIds = new LinkedHashSet<>(ids);
+        Map<Long, BookDetailDTO> found = new HashMap<>();
+
+        Cache cache = cacheManager.getCache(CACHE_NAME);
+        if (cache != null) {
+            // в кэше "books" по тому же id лежат и счётчики наличия, их считаем промахами
+            BulkCache.getAll(cache, distinctIds).forEach((id, value) -> {
+                if (value instanceof BookDetailDTO book)
+                    found.put((Long) id, book);
+            });
+        }
+
+        List<Long> misses = distinctIds.stream().filter(id -> !found.containsKey(id)).toList();
+        if (!misses.isEmpty()) {
+            Map<Object, Object> loaded = new HashMap<>();
+            for (Book book : bookRepository.findAllById(misses)) {
+                BookDetailDTO dto = bookMapper.toDetailDto(book);
+                found.put(dto.id(), dto);
+                loaded.put(dto.id(), dto);
+            }
+            if (cache != null)
+                BulkCache.putAll(cache, loaded);
+        }
+
+        List<BookDetailDTO> result = new ArrayList<>(distinctIds.size());
+        for (Long id : distinctIds) {
+            BookDetailDTO book = found.get(id);
+            if (book != null)
+                result.add(book);
+        }
+        return result;
+    }
+
+    @Override
+    public List<BookTrendingDTO> findTrending(TrendingWindow window, String genreName, int limit) {
+        List<TrendingService.Score> scores = trendingService.findTop(window, genreName, limit);
+        if (scores.isEmpty())
+            return List.of();
+
+        List<Long> ids = scores.stream().map(TrendingService.Score::bookId).toList();
+        Map<Long, Book> books = bookRepository.findAllById(ids).stream()
+                .collect(Collectors.toMap(Book::getId, Function.identity()));
+
+        return scores.stream()
+                .map(score -> {
+                    Book book = books.get(score.bookId());
+                    if (book == null)
+                        return null;
+                    return new BookTrendingDTO(book.getId(), book.getTitle(), book.getAuthor(), score.score());
+                })
+                .filter(Objects::nonNull)
+                .toList();
     }
 
     @Override
@@ -157,6 +256,12 @@ public class BookServiceImpl implements BookService {
         return bookRepository.findAll(pageable).map(bookMapper::toDto);
     }
 
+    @Transactional
+    @Override
+    public Page<Map<String, Object>> findAll(String fields, Pageable pageable) {
+        return projectionRepository.findAll(Projections.BOOK, Projections.BOOK.resolve(fields), null, pageable);
+    }
+
     @Override
     public Page<BookDTO> findByTitleContaining(String titleFragment, Pageable pageable) {
         return bookRepository.findByTitleContaining(titleFragment, pageable).map(bookMapper::toDto);
@@ -190,7 +295,7 @@ public class BookServiceImpl implements BookService {
         if (genreNames.isEmpty())
             throw new RuntimeException("Genre names list cannot be empty");
 
-        List<Genre> genres = genreRepository.findByNameIn(genreNames);
+        List<Genre> genres = genreService.findModelsByNames(genreNames);
         return bookRepository.findByAllGenres(genres, pageable).map(bookMapper::toDto);
     }
 
@@ -212,11 +317,12 @@ public class BookServiceImpl implements BookService {
     @CachePut(key = "#result.id")
     @Transactional
     @Override
+    @Audited(AuditEntity.BOOK)
     public BookDetailDTO addGenreToBook(Long bookId, String genreName) {
         Book bookToUpdate = bookRepository.findById(bookId).orElseThrow(() -> new BookNotFoundException(bookId));
         List<Genre> genres = bookToUpdate.getGenres();
         if (genres.stream().noneMatch(genre -> genre.getName().equals(genreName))) {
-            Genre genreToAdd = genreRepository.findByName(genreName).orElseThrow(() -> new GenreNotFoundException(genreName));
+            Genre genreToAdd = genreService.findModelByName(genreName);
             genres.add(genreToAdd);
             bookToUpdate.setGenres(genres);
         }
@@ -227,6 +333,7 @@ public class BookServiceImpl implements BookService {
     @CachePut(key = "#result.id")
     @Transactional
     @Override
+    @Audited(AuditEntity.BOOK)
     public BookDetailDTO removeGenreFromBook(Long bookId, String genreName) {
         Book bookToUpdate = bookRepository.findById(bookId).orElseThrow(() -> new BookNotFoundException(bookId));
 
@@ -245,6 +352,7 @@ public class BookServiceImpl implements BookService {
     @CachePut(key = "#result.id")
     @Transactional
     @Override
+    @Audited(AuditEntity.BOOK)
     public BookDetailDTO updateBookStock(Long bookId, Integer newStock) {
         Book bookToUpdate = bookRepository.findById(bookId).orElseThrow(() -> new BookNotFoundException(bookId));
 
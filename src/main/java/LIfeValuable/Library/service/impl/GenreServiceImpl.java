@@ -0,0 +1,233 @@
+package LifeValuable.Library.service.impl;
+
+import LifeValuable.Library.audit.AuditEntity;
+import LifeValuable.Library.audit.Audited;
+import LifeValuable.Library.dto.genre.CreateGenreDTO;
+import LifeValuable.Library.dto.genre.GenreDTO;
+import LifeValuable.Library.exception.GenreNotFoundException;
+import LifeValuable.Library.mapper.GenreMapper;
+import LifeValuable.Library.model.Genre;
+import LifeValuable.Library.repository.GenreRepository;
+import LifeValuable.Library.service.GenreService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Жанры читаются из неизменяемого снимка в памяти: поиск по имени при записи книги не ходит в базу.
+ * Изменения жанров сериализованы на узле, снимок после записи подменяется новой копией,
+ * а остальные узлы перечитывают его по сообщению в Redis.
+ */
+@Slf4j
+@Service
+public class GenreServiceImpl implements GenreService {
+    public static final String INVALIDATION_CHANNEL = "genres:invalidate";
+    private static final String BOOKS_CACHE_NAME = "books";
+
+    private final GenreRepository genreRepository;
+    private final GenreMapper genreMapper;
+    private final StringRedisTemplate redisTemplate;
+    private final CacheManager cacheManager;
+    private final String nodeId = UUID.randomUUID().toString();
+
+    // страховка на случай потерянного сообщения об инвалидации
+    @Value("${genres.max-age-ms:300000}")
+    private long maxAgeMs = 300000;
+
+    private volatile Catalog catalog;
+
+    record Catalog(Map<Long, Genre> byId, Map<String, Genre> byName, long loadedAt) {
+        static Catalog of(Collection<Genre> genres) {
+            Map<Long, Genre> byId = new HashMap<>();
+            for (Genre genre : genres)
+                byId.put(genre.getId(), genre);
+            return new Catalog(Map.copyOf(byId), indexByName(byId), System.currentTimeMillis());
+        }
+
+        Catalog with(Genre genre) {
+            Map<Long, Genre> byId = new HashMap<>(this.byId);
+            byId.put(genre.getId(), genre);
+            return new Catalog(Map.copyOf(byId), indexByName(byId), loadedAt);
+        }
+
+        Catalog without(Long id) {
+            Map<Long, Genre> byId = new HashMap<>(this.byId);
+            byId.remove(id);
+            return new Catalog(Map.copyOf(byId), indexByName(byId), loadedAt);
+        }
+
+        private static Map<String, Genre> indexByName(Map<Long, Genre> byId) {
+            return byId.values().stream().collect(Collectors.toUnmodifiableMap(Genre::getName, Function.identity()));
+        }
+    }
+
+    // без Redis (cache.backend=local) узел один, и рассылать инвалидацию некому
+    @Autowired
+    public GenreServiceImpl(GenreRepository genreRepository, GenreMapper genreMapper,
+                            ObjectProvider<StringRedisTemplate> redisTemplate, CacheManager cacheManager,
+                            ObjectProvider<RedisMessageListenerContainer> listenerContainer) {
+        this(genreRepository, genreMapper, redisTemplate.getIfAvailable(), cacheManager,
+                listenerContainer.getIfAvailable());
+    }
+
+    public GenreServiceImpl(GenreRepository genreRepository, GenreMapper genreMapper,
+                            StringRedisTemplate redisTemplate, CacheManager cacheManager,
+                            RedisMessageListenerContainer listenerContainer) {
+        this.genreRepository = genreRepository;
+        this.genreMapper = genreMapper;
+        this.redisTemplate = redisTemplate;
+        this.cacheManager = cacheManager;
+        if (listenerContainer != null)
+            listenerContainer.addMessageListener(
+                    (message, pattern) -> onInvalidation(new String(message.getBody(), StandardCharsets.UTF_8)),
+                    new ChannelTopic(INVALIDATION_CHANNEL));
+    }
+
+    @Override
+    @Audited(AuditEntity.GENRE)
+    public synchronized GenreDTO create(CreateGenreDTO createGenreDTO) {
+        Genre savedGenre = genreRepository.saveAndFlush(genreMapper.toEntity(createGenreDTO));
+
+        catalog = current().with(genreMapper.copy(savedGenre));
+        publishInvalidation();
+        return genreMapper.toDto(savedGenre);
+    }
+
+    @Override
+    @Audited(AuditEntity.GENRE)
+    public synchronized GenreDTO update(CreateGenreDTO createGenreDTO, Long id) {
+        Genre genreToUpdate = genreRepository.findById(id).orElseThrow(() -> new GenreNotFoundException(id));
+        boolean renamed = !genreToUpdate.getName().equals(createGenreDTO.name());
+
+        genreToUpdate.setName(createGenreDTO.name());
+        genreToUpdate.setDescription(createGenreDTO.description());
+        Genre savedGenre = genreRepository.saveAndFlush(genreToUpdate);
+
+        catalog = current().with(genreMapper.copy(savedGenre));
+        publishInvalidation();
+        // имена жанров лежат внутри закэшированных книг
+        if (renamed)
+            clearBooksCache();
+        return genreMapper.toDto(savedGenre);
+    }
+
+    @Override
+    @Audited(AuditEntity.GENRE)
+    public synchronized void deleteById(Long id) {
+        if (!genreRepository.existsById(id))
+            throw new GenreNotFoundException(id);
+
+        genreRepository.deleteById(id);
+
+        catalog = current().without(id);
+        publishInvalidation();
+    }
+
+    @Override
+    public GenreDTO findById(Long id) {
+        Genre genre = current().byId().get(id);
+        if (genre == null)
+            throw new GenreNotFoundException(id);
+        return genreMapper.toDto(genre);
+    }
+
+    @Override
+    public GenreDTO findByName(String name) {
+        Genre genre = current().byName().get(name);
+        if (genre == null)
+            throw new GenreNotFoundException(name);
+        return genreMapper.toDto(genre);
+    }
+
+    @Override
+    public List<GenreDTO> findAll() {
+        return current().byId().values().stream()
+                .sorted(Comparator.comparing(Genre::getName))
+                .map(genreMapper::toDto)
+                .toList();
+    }
+
+    @Override
+    public Genre findModelByName(String name) {
+        Genre genre = current().byName().get(name);
+        if (genre == null)
+            throw new GenreNotFoundException(name);
+        return genreMapper.copy(genre);
+    }
+
+    @Override
+    public List<Genre> findModelsByNames(Collection<String> names) {
+        Map<String, Genre> byName = current().byName();
+        return names.stream()
+                .distinct()
+                .map(byName::get)
+                .filter(Objects::nonNull)
+                .map(genreMapper::copy)
+                .toList();
+    }
+
+    @Override
+    public synchronized void reload() {
+        catalog = Catalog.of(genreRepository.findAll().stream().map(genreMapper::copy).toList());
+    }
+
+    void onInvalidation(String origin) {
+        if (nodeId.equals(origin))
+            return;
+        log.debug("Genre catalog changed on node {}, reloading", origin);
+        reload();
+    }
+
+    private Catalog current() {
+        Catalog snapshot = catalog;
+        if (snapshot != null && System.currentTimeMillis() - snapshot.loadedAt() <= maxAgeMs)
+            return snapshot;
+        synchronized (this) {
+            snapshot = catalog;
+            if (snapshot == null || System.currentTimeMillis() - snapshot.loadedAt() > maxAgeMs) {
+                reload();
+                snapshot = catalog;
+            }
+            return snapshot;
+        }
+    }
+
+    private void publishInvalidation() {
+        if (redisTemplate == null)
+            return;
+        try {
+            redisTemplate.convertAndSend(INVALIDATION_CHANNEL, nodeId);
+        } catch (DataAccessException e) {
+            log.warn("Failed to publish genre catalog invalidation: {}", e.getMessage());
+        }
+    }
+
+    private void clearBooksCache() {
+        Cache cache = cacheManager.getCache(BOOKS_CACHE_NAME);
+        if (cache != null)
+            cache.clear();
+    }
+
+    void setMaxAgeMs(long maxAgeMs) {
+        this.maxAgeMs = maxAgeMs;
+    }
+}
@@ -0,0 +1,107 @@
+package LifeValuable.Library.service.impl;
+
+import LifeValuable.Library.model.Book;
+import LifeValuable.Library.model.Genre;
+import LifeValuable.Library.model.TrendingWindow;
+import LifeValuable.Library.service.TrendingService;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class InMemoryTrendingService implements TrendingService {
+    private static final Comparator<Score> BY_SCORE_DESC = Comparator
+            .comparingDouble(Score::score).reversed()
+            .thenComparing(Score::bookId);
+
+    private final Map<String, Leaderboard> leaderboards = new ConcurrentHashMap<>();
+    private final Instant epoch;
+    private final Clock clock;
+
+    public InMemoryTrendingService(Instant epoch, Clock clock) {
+        this.epoch = epoch;
+        this.clock = clock;
+    }
+
+    @Override
+    public void recordLending(Book book) {
+        Instant now = clock.instant();
+        for (TrendingWindow window : TrendingWindow.values()) {
+            long generation = TrendingService.generation(window, epoch, now);
+            double increment = TrendingService.growthFactor(window,
+                    TrendingService.generationStart(window, epoch, generation), now);
+            leaderboard(window, null, generation).increment(book.getId(), increment);
+            if (book.getGenres() != null) {
+                for (Genre genre : book.getGenres())
+                    leaderboard(window, genre.getName(), generation).increment(book.getId(), increment);
+            }
+        }
+    }
+
+    @Override
+    public List<Score> findTop(TrendingWindow window, String genreName, int limit) {
+        Instant now = clock.instant();
+        long generation = TrendingService.generation(window, epoch, now);
+        Leaderboard current = leaderboards.get(RedisTrendingService.key(window, genreName, generation));
+        Leaderboard previous = TrendingService.overlapsPrevious(window, epoch, now)
+                ? leaderboards.get(RedisTrendingService.key(window, genreName, generation - 1))
+                : null;
+        List<Score> top;
+        if (previous == null)
+            top = current != null ? current.top(limit) : Collections.emptyList();
+        else
+            top = Leaderboard.merge(current, previous, TrendingService.carryWeight(), limit);
+
+        double norm = TrendingService.growthFactor(window,
+                TrendingService.generationStart(window, epoch, generation), now);
+        return top.stream()
+                .map(score -> new Score(score.bookId(), score.score() / norm))
+                .toList();
+    }
+
+    private Leaderboard leaderboard(TrendingWindow window, String genreName, long generation) {
+        return leaderboards.computeIfAbsent(RedisTrendingService.key(window, genreName, generation),
+                key -> new Leaderboard());
+    }
+
+    private static class Leaderboard {
+        private final Map<Long, Double> scores = new HashMap<>();
+        private final TreeSet<Score> ranking = new TreeSet<>(BY_SCORE_DESC);
+
+        synchronized void increment(Long bookId, double increment) {
+            Double previous = scores.get(bookId);
+            double updated = increment;
+            if (previous != null) {
+                ranking.remove(new Score(bookId, previous));
+                updated += previous;
+            }
+            scores.put(bookId, updated);
+            ranking.add(new Score(bookId, updated));
+        }
+
+        static List<Score> merge(Leaderboard current, Leaderboard previous, double previousWeight, int limit) {
+            Map<Long, Double> merged = new HashMap<>();
+            previous.scores().forEach((bookId, score) -> merged.merge(bookId, score * previousWeight, Double::sum));
+            if (current != null)
+                current.scores().forEach((bookId, score) -> merged.merge(bookId, score, Double::sum));
+            return merged.entrySet().stream()
+                    .map(entry -> new Score(entry.getKey(), entry.getValue()))
+                    .sorted(BY_SCORE_DESC)
+                    .limit(limit)
+                    .toList();
+        }
+
+        synchronized Map<Long, Double> scores() {
+            return new HashMap<>(scores);
+        }
+
+        synchronized List<Score> top(int limit) {
+            List<Score> result = new ArrayList<>(Math.min(limit, ranking.size()));
+            Iterator<Score> iterator = ranking.iterator();
+            while (iterator.hasNext() && result.size() < limit)
+                result.add(iterator.next());
+            return result;
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package LifeValuable.Library.service.impl;
+
+import LifeValuable.Library.archive.ArchivedLending;
+import LifeValuable.Library.archive.LendingArchive;
+import LifeValuable.Library.model.LendingStatus;
+import LifeValuable.Library.repository.BookRepository;
+import LifeValuable.Library.repository.LendingRepository;
+import LifeValuable.Library.repository.ReaderRepository;
+import LifeValuable.Library.service.LendingArchiveService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Slf4j
+@Service
+public class LendingArchiveServiceImpl implements LendingArchiveService {
+    private static final String READER_PROFILES_CACHE_NAME = "readerProfiles";
+
+    private final LendingRepository lendingRepository;
+    private final BookRepository bookRepository;
+    private final ReaderRepository readerRepository;
+    private final LendingArchive archive;
+    private final CacheManager cacheManager;
+    private final TransactionTemplate transactionTemplate;
+
+    // 0 — выдачи не архивируются
+    @Value("${lending.archive.retention-months:0}")
+    private int retentionMonths = 0;
+
+    @Value("${lending.archive.rows-per-file:200000}")
+    private int rowsPerFile = 200000;
+
+    @Value("${lending.archive.batch-size:5000}")
+    private int batchSize = 5000;
+
+    @Autowired
+    public LendingArchiveServiceImpl(LendingRepository lendingRepository, BookRepository bookRepository,
+                                     ReaderRepository readerRepository, LendingArchive archive,
+                                     CacheManager cacheManager, PlatformTransactionManager transactionManager) {
+        this(lendingRepository, bookRepository, readerRepository, archive, cacheManager,
+                new TransactionTemplate(transactionManager));
+    }
+
+    LendingArchiveServiceImpl(LendingRepository lendingRepository, BookRepository bookRepository,
+                              ReaderRepository readerRepository, LendingArchive archive, CacheManager cacheManager,
+                              TransactionTemplate transactionTemplate) {
+        this.lendingRepository = lendingRepository;
+        this.bookRepository = bookRepository;
+        this.readerRepository = readerRepository;
+        this.archive = archive;
+        this.cacheManager = cacheManager;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    @Scheduled(cron = "${lending.archive.cron:0 45 3 * * *}")
+    @Override
+    public ArchiveReport archive() {
+        if (retentionMonths <= 0)
+            return new ArchiveReport(0, 0);
+        return archiveReturnedBefore(LocalDate.now().minusMonths(retentionMonths));
+    }
+
+    @Override
+    public synchronized ArchiveReport archiveReturnedBefore(LocalDate cutoff) {
+        int files = 0;
+        long lendings = 0;
+        // файл записан на диск раньше удаления строк, так что незавершённый перенос безопасно довести до конца
+        for (Path pending : archive.pendingFiles()) {
+            lendings += moveToArchive(pending);
+            files++;
+        }
+
+        long afterId = 0;
+        List<ArchivedLending> rows;
+        do {
+            rows = new ArrayList<>();
+            while (rows.size() < rowsPerFile) {
+                int limit = Math.min(batchSize, rowsPerFile - rows.size());
+                List<ArchivedLending> batch = lendingRepository.findArchivable(
+                        LendingStatus.RETURNED, cutoff, afterId, PageRequest.of(0, limit));
+                rows.addAll(batch);
+                if (batch.size() < limit)
+                    break;
+                afterId = batch.get(batch.size() - 1).id();
+            }
+            if (!rows.isEmpty()) {
+                afterId = rows.get(rows.size() - 1).id();
+                lendings += moveToArchive(archive.stage(rows));
+                files++;
+            }
+        } while (rows.size() == rowsPerFile);
+
+        if (lendings > 0) {
+            // в профилях читателей лежат счётчики выдач
+            Cache profiles = cacheManager.getCache(READER_PROFILES_CACHE_NAME);
+            if (profiles != null)
+                profiles.clear();
+            log.info("Archived {} lendings returned before {} into {} files", lendings, cutoff, files);
+        }
+        return new ArchiveReport(files, lendings);
+    }
+
+    void setRetentionMonths(int retentionMonths) {
+        this.retentionMonths = retentionMonths;
+    }
+
+    void setRowsPerFile(int rowsPerFile) {
+        this.rowsPerFile = rowsPerFile;
+    }
+
+    void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+
+    private long moveToArchive(Path pending) {
+        List<ArchivedLending> rows = archive.read(pending);
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            List<ArchivedLending> batch = rows.subList(from, Math.min(from + batchSize, rows.size()));
+            transactionTemplate.executeWithoutResult(status -> deleteAndCount(batch));
+        }
+        archive.promote(pending);
+        return rows.size();
+    }
+
+    // счётчики архивных выдач у книг и читателей растут в той же транзакции, что удаляет строки, и только
+    // на удалённые сейчас: при доводке незавершённого файла уже удалённые пачки второй раз не считаются
+    private void deleteAndCount(List<ArchivedLending> batch) {
+        List<Long> existing = lendingRepository.findExistingIds(batch.stream().map(ArchivedLending::id).toList());
+        if (existing.isEmpty())
+            return;
+        lendingRepository.deleteAllByIdInBatch(existing);
+        Set<Long> deletedIds = new HashSet<>(existing);
+        List<ArchivedLending> deleted = existing.size() == batch.size() ? batch
+                : batch.stream().filter(row -> deletedIds.contains(row.id())).toList();
+        addCounts(deleted, ArchivedLending::bookId, bookRepository::addArchivedLendings);
+        addCounts(deleted, ArchivedLending::readerId, readerRepository::addArchivedLendings);
+    }
+
+    // одна команда UPDATE на каждое встретившееся число выдач, а не на каждую книгу или читателя
+    private static void addCounts(List<ArchivedLending> rows, Function<ArchivedLending, Long> owner,
+                                  BiFunction<Collection<Long>, Long, Integer> add) {
+        Map<Long, Long> counts = rows.stream().collect(Collectors.groupingBy(owner, Collectors.counting()));
+        Map<Long, List<Long>> ownersByCount = counts.entrySet().stream().collect(Collectors.groupingBy(
+                Map.Entry::getValue, TreeMap::new, Collectors.mapping(Map.Entry::getKey, Collectors.toList())));
+        ownersByCount.forEach((count, owners) -> add.apply(owners, count));
+    }
+}
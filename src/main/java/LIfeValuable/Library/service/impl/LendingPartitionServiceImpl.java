@@ -0,0 +1,157 @@
+package LifeValuable.Library.service.impl;
+
+import LifeValuable.Library.service.LendingPartitionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+@Slf4j
+@Service
+public class LendingPartitionServiceImpl implements LendingPartitionService {
+    private static final String PARENT_TABLE = "lending";
+    private static final Pattern PARTITION_NAME = Pattern.compile("lending_(\\d{4})_(\\d{2})");
+    private static final DateTimeFormatter NAME_FORMAT = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final JdbcTemplate jdbcTemplate;
+    private volatile Boolean partitioned;
+
+    @Value("${lending.partitions.months-ahead:3}")
+    private int monthsAhead = 3;
+
+    // 0 — месяцы не отсоединяются
+    @Value("${lending.partitions.retention-months:0}")
+    private int retentionMonths = 0;
+
+    @Autowired
+    public LendingPartitionServiceImpl(DataSource dataSource) {
+        this(new JdbcTemplate(dataSource));
+    }
+
+    LendingPartitionServiceImpl(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @EventListener(ContextRefreshedEvent.class)
+    public void onContextRefreshed() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${lending.partitions.cron:0 15 3 * * *}")
+    @Override
+    public MaintenanceReport maintain() {
+        LocalDate today = LocalDate.now();
+        MaintenanceReport report = new MaintenanceReport(createFuturePartitions(today), detachExpiredPartitions(today));
+        if (!report.created().isEmpty() || !report.detached().isEmpty())
+            log.info("Lending partitions maintained: created {}, detached {}", report.created(), report.detached());
+        return report;
+    }
+
+    @Override
+    public List<String> createFuturePartitions(LocalDate today) {
+        if (!isPartitioned())
+            return List.of();
+
+        List<String> created = new ArrayList<>();
+        YearMonth current = YearMonth.from(today);
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            String name = partitionName(month);
+            if (exists(name))
+                continue;
+            try {
+                jdbcTemplate.execute(String.format("create table %s partition of %s for values from ('%s') to ('%s')",
+                        name, PARENT_TABLE, month.atDay(1), month.plusMonths(1).atDay(1)));
+                created.add(name);
+            } catch (DataAccessException e) {
+                // например, строки этого месяца уже попали в секцию по умолчанию
+                log.warn("Failed to create lending partition {}: {}", name, e.getMessage());
+            }
+        }
+        return created;
+    }
+
+    @Override
+    public List<String> detachExpiredPartitions(LocalDate today) {
+        if (retentionMonths <= 0 || !isPartitioned())
+            return List.of();
+
+        YearMonth oldestKept = YearMonth.from(today).minusMonths(retentionMonths);
+        List<String> detached = new ArrayList<>();
+        for (String name : partitions()) {
+            Matcher matcher = PARTITION_NAME.matcher(name);
+            if (!matcher.matches())
+                continue;
+            YearMonth month = YearMonth.of(Integer.parseInt(matcher.group(1)), Integer.parseInt(matcher.group(2)));
+            if (!month.isBefore(oldestKept))
+                continue;
+            // невозвращённые книги должны оставаться видны запросам о просрочках
+            if (hasOpenLendings(name)) {
+                log.warn("Lending partition {} is past retention but still has open lendings, keeping it", name);
+                continue;
+            }
+            jdbcTemplate.execute(String.format("alter table %s detach partition %s", PARENT_TABLE, name));
+            detached.add(name);
+        }
+        return detached;
+    }
+
+    static String partitionName(YearMonth month) {
+        return PARENT_TABLE + "_" + month.format(NAME_FORMAT);
+    }
+
+    void setMonthsAhead(int monthsAhead) {
+        this.monthsAhead = monthsAhead;
+    }
+
+    void setRetentionMonths(int retentionMonths) {
+        this.retentionMonths = retentionMonths;
+    }
+
+    private boolean isPartitioned() {
+        Boolean result = partitioned;
+        if (result == null) {
+            try {
+                result = Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                        "select exists(select 1 from pg_partitioned_table where partrelid = to_regclass(?))",
+                        Boolean.class, PARENT_TABLE));
+            } catch (DataAccessException e) {
+                // каталога pg_partitioned_table нет вне PostgreSQL
+                result = false;
+            }
+            partitioned = result;
+        }
+        return result;
+    }
+
+    private boolean exists(String table) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "select to_regclass(?) is not null", Boolean.class, table));
+    }
+
+    private List<String> partitions() {
+        return jdbcTemplate.queryForList(
+                "select c.relname from pg_inherits i join pg_class c on c.oid = i.inhrelid "
+                        + "where i.inhparent = to_regclass(?) order by c.relname",
+                String.class, PARENT_TABLE);
+    }
+
+    private boolean hasOpenLendings(String partition) {
+        return Boolean.TRUE.equals(jdbcTemplate.queryForObject(
+                "select exists(select 1 from " + partition + " where returndate is null)", Boolean.class));
+    }
+}
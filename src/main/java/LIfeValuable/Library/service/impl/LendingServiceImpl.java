@@ -1,62 +1,119 @@
 package LifeValuable.Library.service.impl;
 
-import LifeValuable.Library.dto.book.BookDetailDTO;
+import LifeValuable.Library.audit.AuditEntity;
+import LifeValuable.Library.audit.Audited;
+import LifeValuable.Library.archive.ArchivedLending;
+import LifeValuable.Library.archive.LendingArchive;
 import LifeValuable.Library.dto.book.BookPopularityDTO;
 import LifeValuable.Library.dto.lending.CreateLendingDTO;
 import LifeValuable.Library.dto.lending.LendingDTO;
 import LifeValuable.Library.dto.lending.LendingDetailDTO;
+import LifeValuable.Library.event.LendingLifecycleEvent;
+import LifeValuable.Library.exception.BookNotFoundException;
 import LifeValuable.Library.exception.LendingNotFoundException;
+import LifeValuable.Library.exception.ReaderNotFoundException;
+import LifeValuable.Library.exception.UnknownFieldException;
 import LifeValuable.Library.mapper.LendingMapper;
+import LifeValuable.Library.model.Book;
 import LifeValuable.Library.model.Lending;
 import LifeValuable.Library.model.LendingStatus;
+import LifeValuable.Library.model.Reader;
+import LifeValuable.Library.outbox.OutboxPublisher;
+import LifeValuable.Library.profiling.LendingEvent;
+import LifeValuable.Library.projection.Projections;
+import LifeValuable.Library.repository.BookRepository;
 import LifeValuable.Library.repository.LendingRepository;
+import LifeValuable.Library.repository.ProjectionRepository;
 import LifeValuable.Library.service.BookService;
 import LifeValuable.Library.service.LendingService;
 import LifeValuable.Library.service.ReaderService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
 
 @Service
 public class LendingServiceImpl implements LendingService {
+    private static final List<LendingStatus> ACTIVE_STATUSES =
+            Arrays.stream(LendingStatus.values()).filter(LendingStatus::isActive).toList();
+    // статус хранится строкой, поэтому и сравнивается по имени, как в базе
+    private static final Map<String, Function<Lending, Comparable<Object>>> MERGE_SORT_KEYS = Map.of(
+            "id", sortKey(Lending::getId),
+            "lendingDate", sortKey(Lending::getLendingDate),
+            "dueDate", sortKey(Lending::getDueDate),
+            "returnDate", sortKey(Lending::getReturnDate),
+            "status", sortKey(lending -> lending.getStatus().name()));
+
     private final LendingMapper lendingMapper;
     private final LendingRepository lendingRepository;
+    private final BookRepository bookRepository;
     private final BookService bookService;
     private final ReaderService readerService;
+    private final OutboxPublisher outboxPublisher;
+    private final LendingArchive lendingArchive;
+    private final ProjectionRepository projectionRepository;
 
     @Autowired
-    public LendingServiceImpl(LendingRepository lendingRepository, BookService bookService, ReaderService readerService, LendingMapper lendingMapper) {
+    public LendingServiceImpl(LendingRepository lendingRepository, BookRepository bookRepository,
+                              BookService bookService, ReaderService readerService,
+                              LendingMapper lendingMapper, OutboxPublisher outboxPublisher,
+                              LendingArchive lendingArchive, ProjectionRepository projectionRepository) {
         this.lendingRepository = lendingRepository;
+        this.bookRepository = bookRepository;
         this.lendingMapper = lendingMapper;
         this.bookService = bookService;
         this.readerService = readerService;
+        this.outboxPublisher = outboxPublisher;
+        this.lendingArchive = lendingArchive;
+        this.projectionRepository = projectionRepository;
     }
 
     @Transactional
     @Override
+    @Audited(AuditEntity.LENDING)
     public LendingDetailDTO create(CreateLendingDTO createLendingDTO) {
-        readerService.findById(createLendingDTO.readerId());
-        BookDetailDTO bookDTO = bookService.findById(createLendingDTO.bookId());
-        if (bookDTO.availableStock() == 0)
-            throw new RuntimeException(String.format("Book with id %d isn't available for lending", bookDTO.id()));
+        LendingEvent event = new LendingEvent();
+        event.begin();
+        Reader reader = readerService.findModelById(createLendingDTO.readerId());
+        Book book = bookService.findModelById(createLendingDTO.bookId());
+        // книга и читатель берутся из кэша второго уровня, но остаток и число активных выдач читаются из базы:
+        // в кэше узла может лежать остаток, который уже изменили на другом узле
+        int stock = bookRepository.findStockById(book.getId()).orElseThrow(() -> new BookNotFoundException(book.getId()));
+        if (stock <= lendingRepository.countByBookIdAndStatusIn(book.getId(), ACTIVE_STATUSES))
+            throw new RuntimeException(String.format("Book with id %d isn't available for lending", book.getId()));
 
         Lending lending = lendingMapper.toEntity(createLendingDTO);
         lending.setStatus(LendingStatus.ACTIVE);
-        lending.setBook(bookService.findModelById(createLendingDTO.bookId()));
-        lending.setReader(readerService.findModelById(createLendingDTO.readerId()));
+        lending.setBook(book);
+        lending.setReader(reader);
 
         Lending savedLending = lendingRepository.save(lending);
-        return lendingMapper.toDetailDto(savedLending);
+        // рейтинг популярности и профиль читателя обновятся после фиксации, из outbox
+        outboxPublisher.publish(LendingLifecycleEvent.of(LendingLifecycleEvent.Type.CREATED, savedLending));
+        LendingDetailDTO created = lendingMapper.toDetailDto(savedLending);
+        commit(event, LendingEvent.CHECKOUT, savedLending);
+        return created;
     }
 
     @Transactional
     @Override
+    @Audited(AuditEntity.LENDING)
     public LendingDetailDTO returnBook(Long lendingId) {
+        LendingEvent event = new LendingEvent();
+        event.begin();
         Lending lending = lendingRepository.findById(lendingId).orElseThrow(() -> new LendingNotFoundException(lendingId));
 
         if (lending.getStatus().equals(LendingStatus.RETURNED))
@@ -64,8 +121,11 @@ public class LendingServiceImpl implements LendingService {
 
         lending.setStatus(LendingStatus.RETURNED);
         lending.setReturnDate(LocalDate.now());
+        outboxPublisher.publish(LendingLifecycleEvent.of(LendingLifecycleEvent.Type.RETURNED, lending));
 
-        return lendingMapper.toDetailDto(lending);
+        LendingDetailDTO returned = lendingMapper.toDetailDto(lending);
+        commit(event, LendingEvent.RETURN, lending);
+        return returned;
     }
 
     @Override
@@ -74,6 +134,13 @@ public class LendingServiceImpl implements LendingService {
         return lendingMapper.toDetailDto(lending);
     }
 
+    @Transactional
+    @Override
+    public Map<String, Object> findById(Long lendingId, String fields) {
+        return projectionRepository.findById(Projections.LENDING_DETAIL, Projections.LENDING_DETAIL.resolve(fields),
+                lendingId).orElseThrow(() -> new LendingNotFoundException(lendingId));
+    }
+
     @Override
     public Page<LendingDTO> findByStatus(LendingStatus status, Pageable pageable) {
         Page<Lending> lendings = lendingRepository.findByStatus(status, pageable);
@@ -95,8 +162,8 @@ public class LendingServiceImpl implements LendingService {
 
     @Override
     public Page<LendingDTO> findByReaderId(Long readerId, Pageable pageable) {
-        Page<Lending> lendings = lendingRepository.findByReaderId(readerId, pageable);
-        return lendings.map(lendingMapper::toDto);
+        return withArchived(page -> lendingRepository.findByReaderId(readerId, page),
+                lendingArchive.findByReaderId(readerId), pageable);
     }
 
     @Override
@@ -107,8 +174,8 @@ public class LendingServiceImpl implements LendingService {
 
     @Override
     public Page<LendingDTO> findByBookId(Long bookId, Pageable pageable) {
-        Page<Lending> lendings = lendingRepository.findByBookId(bookId, pageable);
-        return lendings.map(lendingMapper::toDto);
+        return withArchived(page -> lendingRepository.findByBookId(bookId, page),
+                lendingArchive.findByBookId(bookId), pageable);
     }
 
     @Override
@@ -124,6 +191,7 @@ public class LendingServiceImpl implements LendingService {
 
     @Transactional
     @Override
+    @Audited(AuditEntity.LENDING)
     public LendingDetailDTO extendLending(Long lendingId, LocalDate newDueDate) {
         Lending lending = lendingRepository.findById(lendingId).orElseThrow(() -> new LendingNotFoundException(lendingId));
         if (newDueDate.isBefore(lending.getDueDate()))
@@ -135,11 +203,13 @@ public class LendingServiceImpl implements LendingService {
 
     @Transactional
     @Override
+    @Audited(AuditEntity.LENDING)
     public void updateStatuses() {
         List<Lending> lendings = lendingRepository.findAll();
         for (Lending lending : lendings) {
             if (lending.getStatus().equals(LendingStatus.ACTIVE) && lending.getDueDate().isBefore(LocalDate.now())) {
                lending.setStatus(LendingStatus.OVERDUE);
+               outboxPublisher.publish(LendingLifecycleEvent.of(LendingLifecycleEvent.Type.OVERDUE, lending));
             }
         }
     }
@@ -153,9 +223,17 @@ public class LendingServiceImpl implements LendingService {
 
     @Transactional
     @Override
+    public Page<Map<String, Object>> findAllLendings(String fields, Pageable pageable) {
+        return projectionRepository.findAll(Projections.LENDING, Projections.LENDING.resolve(fields), null, pageable);
+    }
+
+    @Transactional
+    @Override
+    @Audited(AuditEntity.LENDING)
     public LendingDetailDTO updateLendingStatus(Long lendingId, LendingStatus newStatus) {
         Lending lending = lendingRepository.findById(lendingId).orElseThrow(() -> new LendingNotFoundException(lendingId));
         lending.setStatus(newStatus);
+        outboxPublisher.publish(LendingLifecycleEvent.of(LendingLifecycleEvent.Type.STATUS_CHANGED, lending));
         return lendingMapper.toDetailDto(lending);
     }
 
@@ -163,4 +241,130 @@ public class LendingServiceImpl implements LendingService {
     public Page<LendingDTO> getOverdueLendingsForReader(Long readerId, Pageable pageable) {
         return findByReaderIdAndStatus(readerId, LendingStatus.OVERDUE, pageable);
     }
+
+    // без сортировки архив идёт после живых выдач: туда попадают только возвращённые раньше любых живых
+    private Page<LendingDTO> withArchived(Function<Pageable, Page<Lending>> liveQuery, List<ArchivedLending> archived,
+                                          Pageable pageable) {
+        if (archived.isEmpty())
+            return liveQuery.apply(pageable).map(lendingMapper::toDto);
+        if (pageable.getSort().isUnsorted())
+            return appendArchived(liveQuery.apply(pageable), archived, pageable);
+        return mergeArchived(liveQuery, archived, pageable);
+    }
+
+    private Page<LendingDTO> appendArchived(Page<Lending> live, List<ArchivedLending> archived, Pageable pageable) {
+        long total = live.getTotalElements() + archived.size();
+        List<LendingDTO> content = new ArrayList<>(live.map(lendingMapper::toDto).getContent());
+        int from = pageable.isPaged() ? (int) Math.min(archived.size(),
+                Math.max(0, pageable.getOffset() - live.getTotalElements())) : 0;
+        int to = pageable.isPaged() ? Math.min(archived.size(), from + pageable.getPageSize() - content.size())
+                : archived.size();
+        Map<Long, Book> books = new HashMap<>();
+        Map<Long, Reader> readers = new HashMap<>();
+        for (ArchivedLending row : archived.subList(from, Math.max(from, to)))
+            content.add(toDto(row, books, readers));
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    // слияние двух отсортированных источников: из базы берутся живые выдачи от начала до конца запрошенной страницы,
+    // архив сортируется в памяти тем же порядком
+    private Page<LendingDTO> mergeArchived(Function<Pageable, Page<Lending>> liveQuery, List<ArchivedLending> archived,
+                                           Pageable pageable) {
+        Comparator<Lending> order = mergeOrder(pageable.getSort());
+        Page<Lending> live = liveQuery.apply(pageable.isPaged()
+                ? PageRequest.of(0, (int) (pageable.getOffset() + pageable.getPageSize()), pageable.getSort())
+                : pageable);
+        List<Lending> liveRows = live.getContent();
+        List<ArchivedLending> archivedRows = archived.stream()
+                .sorted(Comparator.comparing(LendingServiceImpl::toLending, order))
+                .toList();
+
+        long skip = pageable.isPaged() ? pageable.getOffset() : 0;
+        int limit = pageable.isPaged() ? pageable.getPageSize() : Integer.MAX_VALUE;
+        List<LendingDTO> content = new ArrayList<>();
+        Map<Long, Book> books = new HashMap<>();
+        Map<Long, Reader> readers = new HashMap<>();
+        int nextLive = 0;
+        int nextArchived = 0;
+        for (long position = 0; content.size() < limit
+                && (nextLive < liveRows.size() || nextArchived < archivedRows.size()); position++) {
+            boolean takeArchived = nextLive == liveRows.size() || nextArchived < archivedRows.size()
+                    && order.compare(toLending(archivedRows.get(nextArchived)), liveRows.get(nextLive)) < 0;
+            if (position < skip) {
+                if (takeArchived) nextArchived++; else nextLive++;
+                continue;
+            }
+            content.add(takeArchived ? toDto(archivedRows.get(nextArchived++), books, readers)
+                    : lendingMapper.toDto(liveRows.get(nextLive++)));
+        }
+        return new PageImpl<>(content, pageable, live.getTotalElements() + archived.size());
+    }
+
+    // порядок, который можно воспроизвести и для архивных строк; книга и читатель в архиве хранятся только как id
+    private static Comparator<Lending> mergeOrder(Sort sort) {
+        List<String> unsupported = sort.stream()
+                .map(Sort.Order::getProperty)
+                .filter(property -> !MERGE_SORT_KEYS.containsKey(property))
+                .toList();
+        if (!unsupported.isEmpty())
+            throw new UnknownFieldException(unsupported, MERGE_SORT_KEYS.keySet());
+
+        Comparator<Lending> order = (first, second) -> 0;
+        for (Sort.Order property : sort) {
+            Comparator<Comparable<Object>> values = property.getNullHandling() == Sort.NullHandling.NULLS_FIRST
+                    ? Comparator.nullsFirst(Comparator.naturalOrder()) : Comparator.nullsLast(Comparator.naturalOrder());
+            Comparator<Lending> byProperty = Comparator.comparing(MERGE_SORT_KEYS.get(property.getProperty()), values);
+            order = order.thenComparing(property.isAscending() ? byProperty : byProperty.reversed());
+        }
+        return order;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Lending, Comparable<Object>> sortKey(Function<Lending, ? extends Comparable<?>> key) {
+        return lending -> (Comparable<Object>) key.apply(lending);
+    }
+
+    private static Lending toLending(ArchivedLending archived) {
+        Lending lending = new Lending();
+        lending.setId(archived.id());
+        lending.setLendingDate(archived.lendingDate());
+        lending.setDueDate(archived.dueDate());
+        lending.setReturnDate(archived.returnDate());
+        lending.setStatus(LendingStatus.RETURNED);
+        return lending;
+    }
+
+    private LendingDTO toDto(ArchivedLending archived, Map<Long, Book> books, Map<Long, Reader> readers) {
+        Lending lending = toLending(archived);
+        lending.setBook(books.computeIfAbsent(archived.bookId(), this::findArchivedBook));
+        lending.setReader(readers.computeIfAbsent(archived.readerId(), this::findArchivedReader));
+        return lendingMapper.toDto(lending);
+    }
+
+    // после архивации книгу и читателя уже ничто не удерживает от удаления
+    private Book findArchivedBook(Long bookId) {
+        try {
+            return bookService.findModelById(bookId);
+        } catch (BookNotFoundException e) {
+            return null;
+        }
+    }
+
+    private Reader findArchivedReader(Long readerId) {
+        try {
+            return readerService.findModelById(readerId);
+        } catch (ReaderNotFoundException e) {
+            return null;
+        }
+    }
+
+    private static void commit(LendingEvent event, String operation, Lending lending) {
+        if (!event.shouldCommit())
+            return;
+        event.operation = operation;
+        event.lendingId = lending.getId() != null ? lending.getId() : 0;
+        event.bookId = lending.getBook() != null && lending.getBook().getId() != null ? lending.getBook().getId() : 0;
+        event.readerId = lending.getReader() != null && lending.getReader().getId() != null ? lending.getReader().getId() : 0;
+        event.commit();
+    }
 }
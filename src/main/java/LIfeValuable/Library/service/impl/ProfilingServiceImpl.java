@@ -0,0 +1,139 @@
+package LifeValuable.Library.service.impl;
+
+import LifeValuable.Library.dto.admin.RecordingDTO;
+import LifeValuable.Library.exception.RecordingInProgressException;
+import LifeValuable.Library.exception.RecordingNotFoundException;
+import LifeValuable.Library.profiling.BookAvailabilityEvent;
+import LifeValuable.Library.profiling.CacheOperationEvent;
+import LifeValuable.Library.profiling.LendingEvent;
+import LifeValuable.Library.profiling.MapperEvent;
+import LifeValuable.Library.profiling.PasswordHashEvent;
+import LifeValuable.Library.service.ProfilingService;
+import jdk.jfr.Configuration;
+import jdk.jfr.Event;
+import jdk.jfr.Recording;
+import jdk.jfr.RecordingState;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Одна запись JFR за раз, ограниченная по длительности и размеру. Файл записи хранится до запуска следующей.
+ */
+@Slf4j
+@Service
+public class ProfilingServiceImpl implements ProfilingService {
+    private static final long MEGABYTE = 1024 * 1024;
+    private static final List<Class<? extends Event>> EVENTS = List.of(LendingEvent.class,
+            BookAvailabilityEvent.class, CacheOperationEvent.class, MapperEvent.class, PasswordHashEvent.class);
+
+    @Value("${jfr.directory:}")
+    private String directory = "";
+
+    @Value("${jfr.settings:default}")
+    private String settings = "default";
+
+    @Value("${jfr.max-duration-seconds:3600}")
+    private long maxDurationSeconds = 3600;
+
+    @Value("${jfr.max-size-mb:256}")
+    private long maxSizeMb = 256;
+
+    private Recording recording;
+    private Path file;
+
+    @Override
+    public synchronized RecordingDTO start(long durationSeconds, long sizeMb) {
+        if (recording != null && recording.getState() == RecordingState.RUNNING)
+            throw new RecordingInProgressException(recording.getId());
+        discard();
+
+        try {
+            Recording started = new Recording(Configuration.getConfiguration(settings));
+            for (Class<? extends Event> event : EVENTS)
+                started.enable(event);
+            started.setName("library-" + started.getId());
+            started.setDuration(Duration.ofSeconds(Math.min(durationSeconds, maxDurationSeconds)));
+            started.setMaxSize(Math.min(sizeMb, maxSizeMb) * MEGABYTE);
+            started.setToDisk(true);
+
+            Path destination = directory.isEmpty()
+                    ? Files.createTempFile("library-", ".jfr")
+                    : Files.createTempFile(Files.createDirectories(Path.of(directory)), "library-", ".jfr");
+            started.setDestination(destination);
+            started.start();
+
+            recording = started;
+            file = destination;
+            log.info("Started flight recording {} to {}", started.getId(), destination);
+            return toDto(started);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (ParseException e) {
+            throw new IllegalStateException("Invalid JFR settings: " + settings, e);
+        }
+    }
+
+    @Override
+    public synchronized RecordingDTO stop() {
+        Recording current = current();
+        if (current.getState() == RecordingState.RUNNING) {
+            current.stop();
+            log.info("Stopped flight recording {}", current.getId());
+        }
+        return toDto(current);
+    }
+
+    @Override
+    public synchronized RecordingDTO getCurrent() {
+        return toDto(current());
+    }
+
+    @Override
+    public synchronized Path getRecordingFile() {
+        Recording current = current();
+        try {
+            // во время записи отдаём снимок накопленных данных
+            if (current.getState() == RecordingState.RUNNING)
+                current.dump(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return file;
+    }
+
+    private Recording current() {
+        if (recording == null)
+            throw new RecordingNotFoundException();
+        return recording;
+    }
+
+    private void discard() {
+        if (recording != null)
+            recording.close();
+        if (file != null) {
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException e) {
+                log.warn("Failed to delete flight recording {}", file, e);
+            }
+        }
+        recording = null;
+        file = null;
+    }
+
+    private static RecordingDTO toDto(Recording recording) {
+        Duration duration = recording.getDuration();
+        return new RecordingDTO(recording.getId(), recording.getName(), recording.getState().name(),
+                recording.getStartTime(), recording.getStopTime(), duration != null ? duration.toSeconds() : 0,
+                recording.getMaxSize(), recording.getSize());
+    }
+}
@@ -1,5 +1,7 @@
 package LifeValuable.Library.service.impl;
 
+import LifeValuable.Library.audit.AuditEntity;
+import LifeValuable.Library.audit.Audited;
 import LifeValuable.Library.dto.reader.CreateReaderDTO;
 import LifeValuable.Library.dto.reader.ReaderDTO;
 import LifeValuable.Library.dto.reader.ReaderDetailDTO;
@@ -7,99 +9,101 @@ import LifeValuable.Library.exception.ReaderNotFoundException;
 import LifeValuable.Library.mapper.ReaderMapper;
 import LifeValuable.Library.model.Reader;
 import LifeValuable.Library.model.Role;
+import LifeValuable.Library.projection.Projections;
+import LifeValuable.Library.repository.ProjectionRepository;
 import LifeValuable.Library.repository.ReaderRepository;
 import LifeValuable.Library.service.ReaderService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDate;
+import java.util.Map;
 
 @Service
 public class ReaderServiceImpl implements ReaderService {
+    public static final String PROFILE_CACHE_NAME = "readerProfiles";
+
     private final ReaderRepository readerRepository;
     private final ReaderMapper readerMapper;
     private final PasswordEncoder passwordEncoder;
+    private final CacheManager cacheManager;
+    private final ProjectionRepository projectionRepository;
 
     @Autowired
-    public ReaderServiceImpl(ReaderRepository readerRepository, ReaderMapper readerMapper, PasswordEncoder passwordEncoder) {
+    public ReaderServiceImpl(ReaderRepository readerRepository, ReaderMapper readerMapper, PasswordEncoder passwordEncoder,
+                             CacheManager cacheManager, ProjectionRepository projectionRepository) {
         this.readerRepository = readerRepository;
         this.readerMapper = readerMapper;
         this.passwordEncoder = passwordEncoder;
+        this.cacheManager = cacheManager;
+        this.projectionRepository = projectionRepository;
     }
 
     
     @Override
+    @Audited(AuditEntity.READER)
     public ReaderDetailDTO create(CreateReaderDTO createReaderDTO) {
-        if (readerRepository.findByEmail(createReaderDTO.email()).isPresent())
-            throw new RuntimeException("A reader with email " + createReaderDTO.email() + " already exists");
-
-        if (!createReaderDTO.phoneNumber().isEmpty() && readerRepository.findByPhoneNumber(createReaderDTO.phoneNumber()).isPresent())
-            throw new RuntimeException("A reader with phone number " + createReaderDTO.phoneNumber() + " already exists");
-
         Reader reader = readerMapper.toEntity(createReaderDTO);
         reader.setRegistrationDate(LocalDate.now());
 
         reader.setPassword(passwordEncoder.encode(createReaderDTO.password()));
         reader.setRole(Role.READER);
 
-        Reader savedReader = readerRepository.save(reader);
+        Reader savedReader = readerRepository.saveAndFlush(reader);
         return readerMapper.toDetailDto(savedReader);
     }
 
     @Transactional
     @Override
+    @Audited(AuditEntity.READER)
     public ReaderDetailDTO update(CreateReaderDTO createReaderDTO, Long id) {
         Reader readerToUpdate = readerRepository.findById(id).orElseThrow(() -> new ReaderNotFoundException(id));
-
-        if (readerRepository.findByEmail(createReaderDTO.email()).isPresent())
-            throw new RuntimeException("A reader with email " + createReaderDTO.email() + " already exists");
-
-        if (!createReaderDTO.phoneNumber().isEmpty() && readerRepository.findByPhoneNumber(createReaderDTO.phoneNumber()).isPresent())
-            throw new RuntimeException("A reader with phone number " + createReaderDTO.phoneNumber() + " already exists");
+        String previousEmail = readerToUpdate.getEmail();
 
         readerToUpdate.setFirstName(createReaderDTO.firstName());
         readerToUpdate.setLastName(createReaderDTO.lastName());
         readerToUpdate.setEmail(createReaderDTO.email());
         readerToUpdate.setPhoneNumber(createReaderDTO.phoneNumber());
+        readerRepository.flush();
+        evictProfile(previousEmail);
 
         return readerMapper.toDetailDto(readerToUpdate);
     }
 
     @Transactional
     @Override
+    @Audited(AuditEntity.READER)
     public ReaderDetailDTO updateCurrentUser(CreateReaderDTO dto, String currentEmail) {
         Reader readerToUpdate = readerRepository.findByEmail(currentEmail)
                 .orElseThrow(() -> new ReaderNotFoundException("email", currentEmail));
 
-        if (!readerToUpdate.getEmail().equals(dto.email()) &&
-                readerRepository.findByEmail(dto.email()).isPresent()) {
-            throw new RuntimeException("A reader with email " + dto.email() + " already exists");
-        }
-
-        if (!dto.phoneNumber().isEmpty() &&
-                !dto.phoneNumber().equals(readerToUpdate.getPhoneNumber()) &&
-                readerRepository.findByPhoneNumber(dto.phoneNumber()).isPresent()) {
-            throw new RuntimeException("A reader with phone number " + dto.phoneNumber() + " already exists");
-        }
-
         readerToUpdate.setFirstName(dto.firstName());
         readerToUpdate.setLastName(dto.lastName());
         readerToUpdate.setEmail(dto.email());
         readerToUpdate.setPhoneNumber(dto.phoneNumber());
+        readerRepository.flush();
+        evictProfile(currentEmail);
 
         return readerMapper.toDetailDto(readerToUpdate);
     }
 
+    @Transactional
     @Override
+    @Audited(AuditEntity.READER)
     public void deleteById(Long id) {
-        if (!readerRepository.existsById(id))
-            throw new ReaderNotFoundException(id);
+        Reader reader = readerRepository.findById(id).orElseThrow(() -> new ReaderNotFoundException(id));
 
-        readerRepository.deleteById(id);
+        readerRepository.delete(reader);
+        evictProfile(reader.getEmail());
     }
 
     @Transactional
@@ -109,6 +113,13 @@ public class ReaderServiceImpl implements ReaderService {
         return readerMapper.toDetailDto(reader);
     }
 
+    @Transactional
+    @Override
+    public Map<String, Object> findById(Long id, String fields) {
+        return projectionRepository.findById(Projections.READER_DETAIL, Projections.READER_DETAIL.resolve(fields), id)
+                .orElseThrow(() -> new ReaderNotFoundException(id));
+    }
+
     @Transactional
     @Override
     public Reader findModelById(Long id) {
@@ -121,6 +132,12 @@ public class ReaderServiceImpl implements ReaderService {
         return readerRepository.findAll(pageable).map(readerMapper::toDto);
     }
 
+    @Transactional
+    @Override
+    public Page<Map<String, Object>> findAll(String fields, Pageable pageable) {
+        return projectionRepository.findAll(Projections.READER, Projections.READER.resolve(fields), null, pageable);
+    }
+
     @Transactional
     @Override
     public ReaderDetailDTO findByPhoneNumber(String number) {
@@ -128,10 +145,30 @@ public class ReaderServiceImpl implements ReaderService {
         return readerMapper.toDetailDto(reader);
     }
 
+    // профиль текущего пользователя читается на каждом /me и при входе, поэтому держится в двухуровневом кэше
+    @Cacheable(cacheNames = PROFILE_CACHE_NAME, key = "#email", sync = true)
     @Transactional
     @Override
     public ReaderDetailDTO findByEmail(String email) {
         Reader reader = readerRepository.findByEmail(email).orElseThrow(() -> new ReaderNotFoundException("email", email));
         return readerMapper.toDetailDto(reader);
     }
+
+    // удаление откладывается до коммита, иначе параллельный запрос успеет закэшировать старое состояние
+    @Override
+    public void evictProfile(String email) {
+        Cache cache = cacheManager.getCache(PROFILE_CACHE_NAME);
+        if (cache == null || email == null)
+            return;
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.evict(email);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.evict(email);
+            }
+        });
+    }
 }
@@ -0,0 +1,118 @@
+package LifeValuable.Library.service.impl;
+
+import LifeValuable.Library.config.CacheBackend;
+import LifeValuable.Library.config.ConditionalOnCacheBackend;
+import LifeValuable.Library.model.Book;
+import LifeValuable.Library.model.Genre;
+import LifeValuable.Library.model.TrendingWindow;
+import LifeValuable.Library.service.TrendingService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.redis.connection.StringRedisConnection;
+import org.springframework.data.redis.connection.zset.Aggregate;
+import org.springframework.data.redis.connection.zset.Weights;
+import org.springframework.data.redis.core.RedisCallback;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+@Slf4j
+@Service
+@ConditionalOnCacheBackend({CacheBackend.REDIS, CacheBackend.TWO_LEVEL})
+public class RedisTrendingService implements TrendingService {
+    private static final String KEY_PREFIX = "trending:";
+
+    private final StringRedisTemplate redisTemplate;
+    private final Instant epoch;
+    private final Clock clock;
+
+    @Autowired
+    public RedisTrendingService(StringRedisTemplate redisTemplate,
+                                @Value("${trending.epoch:2025-01-01}") String epoch) {
+        // в контексте нет ConversionService, поэтому дата разбирается здесь
+        this(redisTemplate, LocalDate.parse(epoch).atStartOfDay(ZoneOffset.UTC).toInstant(), Clock.systemUTC());
+    }
+
+    public RedisTrendingService(StringRedisTemplate redisTemplate, Instant epoch, Clock clock) {
+        this.redisTemplate = redisTemplate;
+        this.epoch = epoch;
+        this.clock = clock;
+    }
+
+    @Override
+    public void recordLending(Book book) {
+        Instant now = clock.instant();
+        String member = book.getId().toString();
+        try {
+            redisTemplate.executePipelined((RedisCallback<Object>) connection -> {
+                StringRedisConnection stringConnection = (StringRedisConnection) connection;
+                for (TrendingWindow window : TrendingWindow.values()) {
+                    long generation = TrendingService.generation(window, epoch, now);
+                    double increment = TrendingService.growthFactor(window,
+                            TrendingService.generationStart(window, epoch, generation), now);
+                    stringConnection.zIncrBy(key(window, null, generation), increment, member);
+                    if (book.getGenres() != null) {
+                        for (Genre genre : book.getGenres())
+                            stringConnection.zIncrBy(key(window, genre.getName(), generation), increment, member);
+                    }
+                }
+                return null;
+            });
+        } catch (DataAccessException e) {
+            log.warn("Failed to record lending of book {} in trending scores: {}", book.getId(), e.getMessage());
+        }
+    }
+
+    @Override
+    public List<Score> findTop(TrendingWindow window, String genreName, int limit) {
+        Instant now = clock.instant();
+        long generation = TrendingService.generation(window, epoch, now);
+        try {
+            Set<ZSetOperations.TypedTuple<String>> tuples = TrendingService.overlapsPrevious(window, epoch, now)
+                    ? withPrevious(window, genreName, generation, limit)
+                    : redisTemplate.opsForZSet().reverseRangeWithScores(key(window, genreName, generation), 0, limit - 1);
+            if (tuples == null)
+                return Collections.emptyList();
+
+            double norm = TrendingService.growthFactor(window,
+                    TrendingService.generationStart(window, epoch, generation), now);
+            return tuples.stream()
+                    .map(tuple -> new Score(Long.valueOf(tuple.getValue()), tuple.getScore() / norm))
+                    .toList();
+        } catch (DataAccessException e) {
+            log.warn("Failed to read trending scores {}: {}", key(window, genreName, generation), e.getMessage());
+            return Collections.emptyList();
+        }
+    }
+
+    // счёты прошлого поколения сводятся к отсчёту текущего во временном ключе
+    private Set<ZSetOperations.TypedTuple<String>> withPrevious(TrendingWindow window, String genreName,
+                                                               long generation, int limit) {
+        String union = KEY_PREFIX + "union:" + UUID.randomUUID();
+        try {
+            redisTemplate.opsForZSet().unionAndStore(key(window, genreName, generation),
+                    List.of(key(window, genreName, generation - 1)), union,
+                    Aggregate.SUM, Weights.of(1, TrendingService.carryWeight()));
+            return redisTemplate.opsForZSet().reverseRangeWithScores(union, 0, limit - 1);
+        } finally {
+            redisTemplate.delete(union);
+        }
+    }
+
+    static String key(TrendingWindow window, String genreName, long generation) {
+        // нулевое поколение лежит в ключах, заведённых до сдвига отсчёта
+        String key = KEY_PREFIX + window.name().toLowerCase() + (generation == 0 ? "" : ":g" + generation);
+        return genreName == null ? key : key + ":genre:" + genreName;
+    }
+}
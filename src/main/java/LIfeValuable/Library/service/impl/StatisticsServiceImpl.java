@@ -0,0 +1,112 @@
+package LifeValuable.Library.service.impl;
+
+import LifeValuable.Library.cache.SecondLevelCacheRegions;
+import LifeValuable.Library.dto.admin.CacheRegionStatisticsDTO;
+import LifeValuable.Library.dto.admin.HibernateStatisticsDTO;
+import LifeValuable.Library.dto.admin.QueryShapeStatisticsDTO;
+import LifeValuable.Library.dto.admin.RequestTraceDTO;
+import LifeValuable.Library.dto.admin.StatisticsDTO;
+import LifeValuable.Library.metrics.SlowRequestLog;
+import LifeValuable.Library.metrics.SqlStatistics;
+import LifeValuable.Library.service.StatisticsService;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Objects;
+
+@Service
+public class StatisticsServiceImpl implements StatisticsService {
+    private final Statistics hibernateStatistics;
+    private final SqlStatistics sqlStatistics;
+    private final SlowRequestLog slowRequestLog;
+
+    @Autowired
+    public StatisticsServiceImpl(EntityManagerFactory entityManagerFactory, SqlStatistics sqlStatistics,
+                                 SlowRequestLog slowRequestLog) {
+        this.hibernateStatistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        this.sqlStatistics = sqlStatistics;
+        this.slowRequestLog = slowRequestLog;
+    }
+
+    @Override
+    public StatisticsDTO getStatistics(int limit) {
+        List<QueryShapeStatisticsDTO> queries = sqlStatistics.getTopByTotalTime(limit).stream()
+                .map(shape -> new QueryShapeStatisticsDTO(shape.sql(), shape.count(), shape.totalMs(),
+                        shape.maxMs(), shape.meanMs(), shape.rows(), shape.slowCount()))
+                .toList();
+        return new StatisticsDTO(sqlStatistics.getSince(), toDto(hibernateStatistics), queries);
+    }
+
+    @Override
+    public List<RequestTraceDTO> getSlowRequests(int limit) {
+        return slowRequestLog.getRecent(limit).stream()
+                .map(entry -> new RequestTraceDTO(entry.startedAt(), entry.method(), entry.path(), entry.status(),
+                        entry.totalMs(), entry.breakdownMs()))
+                .toList();
+    }
+
+    @Override
+    public void reset() {
+        hibernateStatistics.clear();
+        sqlStatistics.reset();
+        slowRequestLog.clear();
+    }
+
+    private static HibernateStatisticsDTO toDto(Statistics statistics) {
+        return new HibernateStatisticsDTO(
+                statistics.isStatisticsEnabled(),
+                statistics.getSessionOpenCount(),
+                statistics.getTransactionCount(),
+                statistics.getFlushCount(),
+                statistics.getPrepareStatementCount(),
+                statistics.getEntityLoadCount(),
+                statistics.getEntityFetchCount(),
+                statistics.getEntityInsertCount(),
+                statistics.getEntityUpdateCount(),
+                statistics.getEntityDeleteCount(),
+                statistics.getCollectionLoadCount(),
+                statistics.getCollectionFetchCount(),
+                statistics.getQueryExecutionCount(),
+                statistics.getQueryExecutionMaxTime(),
+                statistics.getQueryExecutionMaxTimeQueryString(),
+                statistics.getSecondLevelCacheHitCount(),
+                statistics.getSecondLevelCacheMissCount(),
+                statistics.getSecondLevelCachePutCount(),
+                statistics.getQueryCacheHitCount(),
+                statistics.getQueryCacheMissCount(),
+                cacheRegions(statistics));
+    }
+
+    private static List<CacheRegionStatisticsDTO> cacheRegions(Statistics statistics) {
+        if (!statistics.isStatisticsEnabled())
+            return List.of();
+        return SecondLevelCacheRegions.names().stream()
+                .map(name -> {
+                    // регион без статистики, если кэш второго уровня или кэш запросов выключены
+                    try {
+                        return statistics.getCacheRegionStatistics(name);
+                    } catch (IllegalArgumentException e) {
+                        return null;
+                    }
+                })
+                .filter(Objects::nonNull)
+                .map(StatisticsServiceImpl::toDto)
+                .toList();
+    }
+
+    private static CacheRegionStatisticsDTO toDto(CacheRegionStatistics region) {
+        long lookups = region.getHitCount() + region.getMissCount();
+        return new CacheRegionStatisticsDTO(
+                region.getRegionName(),
+                region.getHitCount(),
+                region.getMissCount(),
+                region.getPutCount(),
+                lookups == 0 ? 0 : (double) region.getHitCount() / lookups,
+                region.getElementCountInMemory());
+    }
+}
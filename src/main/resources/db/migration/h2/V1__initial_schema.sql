@@ -0,0 +1,49 @@
+create table genre (
+    id bigint generated by default as identity,
+    name varchar(255) not null,
+    description varchar(255) not null,
+    primary key (id)
+);
+
+create table book (
+    id bigint generated by default as identity,
+    title varchar(255) not null,
+    author varchar(255) not null,
+    isbn varchar(255),
+    publicationyear integer,
+    stock integer check (stock >= 0),
+    primary key (id)
+);
+
+create table book_genre (
+    book_id bigint not null,
+    genre_id bigint not null
+);
+
+create table reader (
+    id bigint generated by default as identity,
+    firstname varchar(255) not null,
+    lastname varchar(255) not null,
+    email varchar(255) not null,
+    phonenumber varchar(255),
+    registrationdate date not null,
+    password varchar(255) not null,
+    role enum ('READER', 'LIBRARIAN', 'ADMIN') not null,
+    primary key (id)
+);
+
+create table lending (
+    id bigint generated by default as identity,
+    book_id bigint not null,
+    reader_id bigint not null,
+    lendingdate date not null,
+    duedate date not null,
+    returndate date,
+    status enum ('ACTIVE', 'RETURNED', 'OVERDUE'),
+    primary key (id)
+);
+
+alter table book_genre add constraint fk_book_genre_book foreign key (book_id) references book;
+alter table book_genre add constraint fk_book_genre_genre foreign key (genre_id) references genre;
+alter table lending add constraint fk_lending_book foreign key (book_id) references book;
+alter table lending add constraint fk_lending_reader foreign key (reader_id) references reader;
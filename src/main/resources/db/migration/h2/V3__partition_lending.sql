@@ -0,0 +1,3 @@
+-- H2 не поддерживает секционирование: таблица lending остаётся обычной,
+-- версия нужна только для совпадения истории миграций с PostgreSQL.
+select 1;
@@ -0,0 +1,14 @@
+create table outbox_event (
+    id bigint generated by default as identity,
+    aggregatetype varchar(255) not null,
+    aggregateid bigint not null,
+    eventtype varchar(255) not null,
+    payload varchar(4000) not null,
+    createdat timestamp(6) with time zone not null,
+    availableat timestamp(6) with time zone not null,
+    attempts integer not null default 0,
+    lasterror varchar(1000),
+    primary key (id)
+);
+
+create index ix_outbox_event_aggregate on outbox_event (aggregatetype, aggregateid, id);
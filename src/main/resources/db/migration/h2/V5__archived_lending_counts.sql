@@ -0,0 +1,2 @@
+alter table book add column archivedlendings bigint not null default 0;
+alter table reader add column archivedlendings bigint not null default 0;
@@ -0,0 +1,23 @@
+-- Уникальность, которую раньше обеспечивали только проверки в сервисах
+alter table book add constraint uk_book_isbn unique (isbn);
+alter table reader add constraint uk_reader_email unique (email);
+alter table genre add constraint uk_genre_name unique (name);
+-- пустая строка означает "без телефона" и не должна конфликтовать
+create unique index uk_reader_phone_number on reader (phonenumber) where phonenumber <> '';
+
+alter table book_genre add constraint pk_book_genre primary key (book_id, genre_id);
+create index ix_book_genre_genre on book_genre (genre_id);
+
+create index ix_book_title on book (title);
+create index ix_book_author on book (author);
+create index ix_book_publication_year on book (publicationyear);
+create index ix_book_stock on book (stock);
+
+-- частичный уникальный индекс не подходит для поиска по параметру, нужен обычный
+create index ix_reader_phone_number on reader (phonenumber);
+
+create index ix_lending_reader_status on lending (reader_id, status);
+create index ix_lending_book on lending (book_id);
+create index ix_lending_status on lending (status);
+create index ix_lending_lending_date on lending (lendingdate);
+create index ix_lending_overdue on lending (duedate) where returndate is null;
@@ -0,0 +1,64 @@
+-- Выдачи хранятся помесячными секциями по lendingdate: запросы по диапазону дат читают только
+-- нужные месяцы, а старые месяцы отсоединяются без DELETE и последующего VACUUM.
+-- Существующая таблица переливается в секционированную целиком, в одной транзакции миграции.
+
+alter table lending rename to lending_legacy;
+alter index lending_pkey rename to lending_legacy_pkey;
+drop index ix_lending_reader_status;
+drop index ix_lending_book;
+drop index ix_lending_status;
+drop index ix_lending_lending_date;
+drop index ix_lending_overdue;
+
+-- identity на секционированной таблице появилась только в PostgreSQL 17, поэтому обычная последовательность
+alter table lending_legacy alter column id drop identity;
+create sequence lending_id_seq;
+
+create table lending (
+    id bigint not null default nextval('lending_id_seq'),
+    book_id bigint not null,
+    reader_id bigint not null,
+    lendingdate date not null,
+    duedate date not null,
+    returndate date,
+    status varchar(255) check (status in ('ACTIVE', 'RETURNED', 'OVERDUE')),
+    -- ключ секционирования обязан входить в первичный ключ
+    primary key (id, lendingdate)
+) partition by range (lendingdate);
+
+alter sequence lending_id_seq owned by lending.id;
+
+alter table lending add constraint fk_lending_book foreign key (book_id) references book;
+alter table lending add constraint fk_lending_reader foreign key (reader_id) references reader;
+
+-- страховка для дат за пределами созданных месяцев; задача обслуживания держит её пустой
+create table lending_default partition of lending default;
+
+do $$
+declare
+    first_day date;
+    last_first_day date := (date_trunc('month', current_date) + interval '3 months')::date;
+begin
+    select date_trunc('month', coalesce(min(lendingdate), current_date))::date into first_day from lending_legacy;
+    while first_day <= last_first_day loop
+        execute format('create table %I partition of lending for values from (%L) to (%L)',
+                       'lending_' || to_char(first_day, 'YYYY_MM'), first_day, (first_day + interval '1 month')::date);
+        first_day := (first_day + interval '1 month')::date;
+    end loop;
+end $$;
+
+insert into lending (id, book_id, reader_id, lendingdate, duedate, returndate, status)
+select id, book_id, reader_id, lendingdate, duedate, returndate, status from lending_legacy;
+
+select setval('lending_id_seq', coalesce((select max(id) from lending), 0) + 1, false);
+
+drop table lending_legacy;
+
+-- индексы на родительской таблице создаются и на каждой будущей секции
+create index ix_lending_reader_status on lending (reader_id, status);
+create index ix_lending_book on lending (book_id);
+create index ix_lending_status on lending (status);
+create index ix_lending_lending_date on lending (lendingdate);
+create index ix_lending_overdue on lending (duedate) where returndate is null;
+
+analyze lending;
@@ -0,0 +1,19 @@
+-- События выдач пишутся в одной транзакции с самой выдачей и разбираются фоновым диспетчером
+create table outbox_event (
+    id bigint generated by default as identity,
+    aggregatetype varchar(255) not null,
+    aggregateid bigint not null,
+    eventtype varchar(255) not null,
+    payload varchar(4000) not null,
+    createdat timestamp(6) with time zone not null,
+    availableat timestamp(6) with time zone not null,
+    attempts integer not null default 0,
+    lasterror varchar(1000),
+    primary key (id)
+);
+
+-- проверка «нет более раннего события того же агрегата» при выборке пачки
+create index ix_outbox_event_aggregate on outbox_event (aggregatetype, aggregateid, id);
+
+-- строки живут секунды, поэтому очистка мёртвых версий должна срабатывать гораздо раньше обычного
+alter table outbox_event set (autovacuum_vacuum_scale_factor = 0.01, autovacuum_vacuum_threshold = 1000);
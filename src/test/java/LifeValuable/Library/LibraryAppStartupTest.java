@@ -0,0 +1,62 @@
+package LifeValuable.Library;
+
+import LifeValuable.Library.config.CacheBackend;
+import LifeValuable.Library.dataset.DatasetGenerator;
+import LifeValuable.Library.dataset.DatasetSpec;
+import LifeValuable.Library.load.EmbeddedLibrary;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.net.CookieManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Поднимает {@link LibraryApp} целиком с каждым {@code cache.backend}: ошибка в конфигурации бинов видна здесь,
+ * а не только при запуске.
+ */
+class LibraryAppStartupTest {
+
+    @AfterEach
+    void tearDown() {
+        System.clearProperty(CacheBackend.PROPERTY);
+    }
+
+    @ParameterizedTest
+    @EnumSource(CacheBackend.class)
+    void whenStartedWithCacheBackend_thenReaderCanLogInAndReadBooks(CacheBackend backend) throws Exception {
+        System.setProperty(CacheBackend.PROPERTY, backend.getValue());
+        try (EmbeddedLibrary library = EmbeddedLibrary.start(DatasetSpec.scaled(200, 1))) {
+            HttpClient http = HttpClient.newBuilder().cookieHandler(new CookieManager()).build();
+            URI baseUri = library.getBaseUri();
+
+            HttpResponse<String> login = http.send(HttpRequest.newBuilder(baseUri.resolve("/api/auth/login"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(
+                            "{\"email\":\"reader1@example.com\",\"password\":\"" + DatasetGenerator.PASSWORD + "\"}"))
+                    .build(), HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> book = http.send(HttpRequest.newBuilder(baseUri.resolve("/api/books/1")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> cachedBook = http.send(HttpRequest.newBuilder(baseUri.resolve("/api/books/1")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> trending = http.send(
+                    HttpRequest.newBuilder(baseUri.resolve("/api/books/trending?window=MONTH")).build(),
+                    HttpResponse.BodyHandlers.ofString());
+
+            assertThat(login.statusCode()).isEqualTo(200);
+            assertThat(book.statusCode()).isEqualTo(200);
+            assertThat(cachedBook.body()).isEqualTo(book.body());
+            assertThat(trending.statusCode()).isEqualTo(200);
+            assertThat(trending.body()).startsWith("[");
+            if (backend == CacheBackend.LOCAL)
+                assertThat(library.getRedis().getCommandCount()).isZero();
+            else
+                assertThat(library.getRedis().getCommandCount()).isPositive();
+        }
+    }
+}
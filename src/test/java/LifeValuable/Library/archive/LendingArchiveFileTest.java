@@ -0,0 +1,96 @@
+package LifeValuable.Library.archive;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class LendingArchiveFileTest {
+    private static final LocalDate START = LocalDate.of(2020, 1, 1);
+
+    @TempDir
+    private Path directory;
+
+    @Test
+    void whenWrittenAndOpened_thenAllRowsAndFooterAreRestored() throws IOException {
+        List<ArchivedLending> rows = List.of(
+                new ArchivedLending(30L, 7L, 100L, START.plusDays(40), START.plusDays(54), START.plusDays(50)),
+                new ArchivedLending(10L, 5L, 200L, START.plusDays(20), START.plusDays(34), START.plusDays(60)),
+                // возврат раньше даты выдачи в базе не запрещён, смещения хранятся со знаком
+                new ArchivedLending(20L, 7L, 200L, START, START.plusDays(14), START.minusDays(3)));
+
+        LendingArchiveFile.write(directory.resolve("a.lca"), rows);
+        LendingArchiveFile file = LendingArchiveFile.open(directory.resolve("a.lca"));
+
+        assertThat(file.getRowCount()).isEqualTo(3);
+        assertThat(file.getMinId()).isEqualTo(10L);
+        assertThat(file.getMaxId()).isEqualTo(30L);
+        assertThat(file.getMinLendingDate()).isEqualTo(START);
+        assertThat(file.getMaxLendingDate()).isEqualTo(START.plusDays(40));
+        assertThat(file.ids()).containsExactly(10L, 20L, 30L);
+        assertThat(file.readAll()).containsExactly(rows.get(1), rows.get(2), rows.get(0));
+    }
+
+    @Test
+    void whenFindByReaderOrBook_thenOnlyMatchingRowsAreDecoded() throws IOException {
+        List<ArchivedLending> rows = generate(1000, 300, 70_000);
+        LendingArchiveFile file = LendingArchiveFile.write(directory.resolve("a.lca"), rows);
+
+        assertThat(file.findByReaderId(42L))
+                .containsExactlyElementsOf(rows.stream().filter(row -> row.readerId() == 42L).toList());
+        assertThat(file.findByBookId(42L))
+                .containsExactlyElementsOf(rows.stream().filter(row -> row.bookId() == 42L).toList());
+        assertThat(file.findByReaderId(1_000_000L)).isEmpty();
+        assertThat(file.containsReader(1_000_000L)).isFalse();
+    }
+
+    @Test
+    void whenDictionaryGrows_thenCodeWidthFollows() {
+        assertThat(LendingArchiveFile.codeWidth(256)).isEqualTo(1);
+        assertThat(LendingArchiveFile.codeWidth(257)).isEqualTo(2);
+        assertThat(LendingArchiveFile.codeWidth(65_536)).isEqualTo(2);
+        assertThat(LendingArchiveFile.codeWidth(65_537)).isEqualTo(4);
+    }
+
+    @Test
+    void whenWideDictionaries_thenRowsRoundTrip() throws IOException {
+        List<ArchivedLending> rows = generate(70_000, 70_000, 300);
+        LendingArchiveFile file = LendingArchiveFile.write(directory.resolve("a.lca"), rows);
+
+        assertThat(LendingArchiveFile.open(file.getPath()).readAll()).isEqualTo(rows);
+        assertThat(file.findByBookId(69_999L)).containsExactly(rows.get(69_999));
+    }
+
+    @Test
+    void whenColumnsCompressed_thenFileIsSmallerThanRawRows() throws IOException {
+        LendingArchiveFile file = LendingArchiveFile.write(directory.resolve("a.lca"), generate(100_000, 2000, 5000));
+
+        // без кодирования строка занимает шесть 8-байтовых полей
+        assertThat(file.getSize()).isLessThan(100_000L * 8);
+    }
+
+    @Test
+    void whenFileIsNotAnArchive_thenOpenFails() throws IOException {
+        Path path = Files.write(directory.resolve("broken.lca"), new byte[64]);
+
+        assertThatThrownBy(() -> LendingArchiveFile.open(path)).isInstanceOf(IOException.class);
+    }
+
+    static List<ArchivedLending> generate(int count, int books, int readers) {
+        List<ArchivedLending> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LocalDate lendingDate = START.plusDays(i / 50);
+            rows.add(new ArchivedLending(1000L + i * 3L, (long) (i % books), (long) ((i * 7) % readers),
+                    lendingDate, lendingDate.plusDays(14), lendingDate.plusDays(i % 20)));
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,74 @@
+package LifeValuable.Library.archive;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Скорость поиска истории по файлу архива в строках в секунду на одно ядро: результат JMH
+ * в ops/s равен числу просмотренных строк файла. Запуск: main из IDE или
+ * {@code java -cp <test classpath> org.openjdk.jmh.Main LendingArchiveScanBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgs = "-Xmx2g")
+public class LendingArchiveScanBenchmark {
+    private static final int ROWS = 2_000_000;
+
+    private Path directory;
+    private LendingArchiveFile file;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("lending-archive");
+        // 100 тысяч книг и 300 тысяч читателей: коды по 4 байта, худший случай для сканирования
+        file = LendingArchiveFile.write(directory.resolve("bench.lca"),
+                LendingArchiveFileTest.generate(ROWS, 100_000, 300_000));
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file.getPath());
+        Files.deleteIfExists(directory);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<ArchivedLending> findByReaderId() throws IOException {
+        return file.findByReaderId(4242L);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<ArchivedLending> findByBookId() throws IOException {
+        return file.findByBookId(4242L);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LendingArchiveScanBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,65 @@
+package LifeValuable.Library.archive;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LendingArchiveTest {
+    @TempDir
+    private Path directory;
+
+    @Test
+    void whenStaged_thenFileIsPendingAndNotQueried() {
+        LendingArchive archive = new LendingArchive(directory);
+
+        Path pending = archive.stage(List.of(lending(1L, 5L, 2020)));
+
+        assertThat(archive.pendingFiles()).containsExactly(pending);
+        assertThat(archive.ids(pending)).containsExactly(1L);
+        assertThat(archive.findByReaderId(5L)).isEmpty();
+    }
+
+    @Test
+    void whenPromoted_thenRowsFromAllFilesAreMergedNewestFirst() {
+        LendingArchive archive = new LendingArchive(directory);
+        archive.promote(archive.stage(List.of(lending(1L, 5L, 2019), lending(2L, 6L, 2019))));
+        archive.promote(archive.stage(List.of(lending(3L, 5L, 2021), lending(4L, 5L, 2020))));
+
+        assertThat(archive.pendingFiles()).isEmpty();
+        assertThat(archive.findByReaderId(5L)).extracting(ArchivedLending::id).containsExactly(3L, 4L, 1L);
+        assertThat(archive.findByBookId(106L)).extracting(ArchivedLending::id).containsExactly(2L);
+        assertThat(archive.getFileCount()).isEqualTo(2);
+        assertThat(archive.getRowCount()).isEqualTo(4);
+    }
+
+    @Test
+    void whenReopened_thenCommittedFilesAreLoadedFromDisk() throws Exception {
+        LendingArchive archive = new LendingArchive(directory);
+        archive.promote(archive.stage(List.of(lending(1L, 5L, 2019))));
+        Files.write(directory.resolve("garbage" + LendingArchive.EXTENSION), new byte[3]);
+
+        LendingArchive reopened = new LendingArchive(directory);
+
+        assertThat(reopened.findByReaderId(5L)).extracting(ArchivedLending::id).containsExactly(1L);
+        assertThat(reopened.getFileCount()).isEqualTo(1);
+    }
+
+    @Test
+    void whenDirectoryIsMissing_thenArchiveIsEmpty() {
+        LendingArchive archive = new LendingArchive(directory.resolve("missing"));
+
+        assertThat(archive.pendingFiles()).isEmpty();
+        assertThat(archive.findByBookId(1L)).isEmpty();
+    }
+
+    private static ArchivedLending lending(Long id, Long readerId, int year) {
+        LocalDate date = LocalDate.of(year, 3, 1);
+        return new ArchivedLending(id, readerId + 100, readerId, date, date.plusDays(14), date.plusDays(7));
+    }
+}
@@ -0,0 +1,53 @@
+package LifeValuable.Library.audit;
+
+import LifeValuable.Library.metrics.MetricsRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditLogCliTest {
+    @TempDir
+    private Path directory;
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream err = new ByteArrayOutputStream();
+
+    @Test
+    void whenFilteredByEntityAndId_thenMatchingRecordsArePrinted() throws Exception {
+        AuditLog log = new AuditLog(directory, 1 << 16, 4, 64, false, new MetricsRegistry(),
+                Clock.fixed(Instant.parse("2026-10-19T10:00:00Z"), ZoneOffset.UTC));
+        log.append(AuditEntity.BOOK, 1, "update", "admin");
+        log.append(AuditEntity.READER, 1, "update", "admin");
+        log.append(AuditEntity.BOOK, 2, "deleteById", "admin").get(5, TimeUnit.SECONDS);
+
+        int code = run(directory.toString(), "--entity", "book", "--id", "2");
+        log.close();
+
+        assertThat(code).isZero();
+        assertThat(out.toString(StandardCharsets.UTF_8))
+                .isEqualTo("2026-10-19T10:00:00Z\t3\tBOOK\t2\tdeleteById\tadmin" + System.lineSeparator());
+    }
+
+    @Test
+    void whenOptionIsInvalid_thenUsageIsPrinted() {
+        assertThat(run(directory.toString(), "--entity", "author")).isEqualTo(2);
+        assertThat(run(directory.toString(), "--limit")).isEqualTo(2);
+        assertThat(err.toString(StandardCharsets.UTF_8)).contains("Usage: AuditLogCli");
+        assertThat(out.size()).isZero();
+    }
+
+    private int run(String... args) {
+        return AuditLogCli.run(args, new PrintStream(out, true, StandardCharsets.UTF_8),
+                new PrintStream(err, true, StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,223 @@
+package LifeValuable.Library.audit;
+
+import LifeValuable.Library.metrics.MetricsRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AuditLogTest {
+    private static final Instant START = Instant.parse("2026-10-19T10:00:00Z");
+
+    @TempDir
+    private Path directory;
+
+    private final MutableClock clock = new MutableClock();
+    private final List<AuditLog> logs = new ArrayList<>();
+
+    @AfterEach
+    void tearDown() {
+        logs.forEach(AuditLog::close);
+    }
+
+    @Test
+    void whenAppended_thenRecordIsReadableAfterFlush() throws Exception {
+        AuditLog log = log(1 << 20);
+
+        log.append(AuditEntity.BOOK, 42, "updateBookStock", "admin@example.com").get(5, TimeUnit.SECONDS);
+
+        assertThat(log.find(null, null, null, null, 10)).containsExactly(new AuditRecord(1, START,
+                AuditEntity.BOOK, 42, "updateBookStock", "admin@example.com"));
+    }
+
+    @Test
+    void whenFilteredByEntityAndTime_thenOnlyMatchingRecordsReturned() throws Exception {
+        AuditLog log = log(1 << 20);
+        for (int i = 0; i < 100; i++) {
+            clock.now = START.plusSeconds(i);
+            log.append(i % 2 == 0 ? AuditEntity.BOOK : AuditEntity.READER, i % 10, "update", "admin");
+        }
+        flush(log);
+
+        List<AuditRecord> found = log.find(AuditEntity.BOOK, 4L, START.plusSeconds(20), START.plusSeconds(60), 100);
+
+        assertThat(found).extracting(AuditRecord::sequence).containsExactly(25L, 35L, 45L, 55L);
+        assertThat(log.find(AuditEntity.READER, null, START.plusSeconds(95), null, 100)).hasSize(3);
+        assertThat(log.find(null, null, null, null, 3)).hasSize(3);
+    }
+
+    @Test
+    void whenSegmentIsFull_thenLogRollsAndQueriesSpanSegments() throws Exception {
+        AuditLog log = log(4096);
+        for (int i = 0; i < 300; i++) {
+            clock.now = START.plusMillis(i);
+            log.append(AuditEntity.LENDING, i, "returnBook", "librarian@example.com");
+        }
+        flush(log);
+
+        assertThat(log.getSegmentCount()).isGreaterThan(3);
+        try (Stream<Path> files = Files.list(directory)) {
+            assertThat(files.filter(path -> path.toString().endsWith(AuditSegment.INDEX_EXTENSION)).count())
+                    .isEqualTo(log.getSegmentCount() - 1);
+        }
+        assertThat(log.find(null, null, null, null, 300)).extracting(AuditRecord::sequence)
+                .containsExactlyElementsOf(sequence(1, 300));
+        assertThat(log.find(AuditEntity.LENDING, 250L, null, null, 10)).extracting(AuditRecord::timestamp)
+                .containsExactly(START.plusMillis(250));
+    }
+
+    @Test
+    void whenReopened_thenSequenceContinuesAndOldRecordsAreVisible() throws Exception {
+        AuditLog first = log(4096);
+        for (int i = 0; i < 100; i++)
+            first.append(AuditEntity.GENRE, i, "create", "admin");
+        // закрытие дописывает очередь до конца
+        first.close();
+
+        AuditLog second = log(4096);
+        second.append(AuditEntity.GENRE, 100, "create", "admin").get(5, TimeUnit.SECONDS);
+
+        assertThat(second.find(null, null, null, null, 1000)).extracting(AuditRecord::sequence)
+                .containsExactlyElementsOf(sequence(1, 101));
+        assertThat(AuditLog.openReadOnly(directory).find(AuditEntity.GENRE, 100L, null, null, 10))
+                .extracting(AuditRecord::sequence).containsExactly(101L);
+    }
+
+    @Test
+    void whenTailIsTorn_thenItIsDiscardedOnRecovery() throws Exception {
+        AuditLog first = log(1 << 16);
+        for (int i = 0; i < 3; i++)
+            first.append(AuditEntity.BOOK, i, "update", "admin");
+        first.close();
+        Path segment = directory.resolve(AuditSegment.fileName(1));
+        int end = AuditSegment.open(segment, false, 256).getCommittedBytes();
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            // длина записана, а тело с контрольной суммой — нет
+            channel.write(ByteBuffer.allocate(8).putInt(0, 40).putInt(4, 12345), end);
+        }
+
+        AuditLog second = log(1 << 16);
+        second.append(AuditEntity.BOOK, 3, "update", "admin").get(5, TimeUnit.SECONDS);
+
+        assertThat(second.find(null, null, null, null, 10)).extracting(AuditRecord::entityId)
+                .containsExactly(0L, 1L, 2L, 3L);
+    }
+
+    @Test
+    void whenManyProducers_thenEveryRecordGetsUniqueSequence() throws Exception {
+        AuditLog log = log(1 << 16);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> producers = new ArrayList<>();
+            for (int thread = 0; thread < 8; thread++) {
+                int base = thread * 1000;
+                producers.add(executor.submit(() -> {
+                    List<CompletableFuture<Void>> written = new ArrayList<>();
+                    for (int i = 0; i < 500; i++)
+                        written.add(log.append(AuditEntity.READER, base + i, "update", "reader"));
+                    CompletableFuture.allOf(written.toArray(CompletableFuture[]::new)).join();
+                }));
+            }
+            for (Future<?> producer : producers)
+                producer.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        List<AuditRecord> records = log.find(null, null, null, null, 10_000);
+        assertThat(records).extracting(AuditRecord::sequence).containsExactlyElementsOf(sequence(1, 4000));
+        assertThat(records).extracting(AuditRecord::entityId).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void whenIdle_thenWriterWaitsWithoutTimeoutUntilAppendOrClose() throws Exception {
+        AuditLog log = log(1 << 20);
+        flush(log);
+
+        Thread writer = awaitParkedWriter(log);
+        assertThat(writer.getState()).isEqualTo(Thread.State.WAITING);
+        log.append(AuditEntity.BOOK, 7, "update", "admin").get(5, TimeUnit.SECONDS);
+
+        awaitParkedWriter(log);
+        log.close();
+        writer.join(TimeUnit.SECONDS.toMillis(5));
+        assertThat(writer.isAlive()).isFalse();
+    }
+
+    @Test
+    void whenReadOnly_thenAppendIsRejected() {
+        AuditLog log = AuditLog.openReadOnly(directory);
+
+        assertThat(log.append(AuditEntity.BOOK, 1, "update", "admin")).isCompletedExceptionally();
+        assertThat(log.find(null, null, null, null, 10)).isEmpty();
+    }
+
+    private AuditLog log(int segmentSize) {
+        AuditLog log = new AuditLog(directory, segmentSize, 4, 64, false, new MetricsRegistry(), clock);
+        logs.add(log);
+        return log;
+    }
+
+    private static void flush(AuditLog log) throws Exception {
+        // запись пачкой: последняя запись сброшена на диск только вместе со всеми предыдущими
+        log.append(AuditEntity.BOOK, -1, "flush", "test").get(5, TimeUnit.SECONDS);
+    }
+
+    // поток записи, который уснул на этом журнале
+    private static Thread awaitParkedWriter(AuditLog log) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            for (Thread thread : Thread.getAllStackTraces().keySet()) {
+                if (LockSupport.getBlocker(thread) == log)
+                    return thread;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Audit log writer did not park");
+    }
+
+    private static List<Long> sequence(long from, long to) {
+        List<Long> sequence = new ArrayList<>();
+        for (long i = from; i <= to; i++)
+            sequence.add(i);
+        return sequence;
+    }
+
+    private static final class MutableClock extends Clock {
+        private volatile Instant now = START;
+
+        @Override
+        public ZoneOffset getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(java.time.ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package LifeValuable.Library.audit;
+
+import LifeValuable.Library.metrics.MetricsRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.aop.framework.ProxyFactory;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class AuditMethodInterceptorTest {
+    @TempDir
+    private Path directory;
+
+    private AuditLog auditLog;
+    private BookOperations proxy;
+
+    @BeforeEach
+    void setUp() {
+        auditLog = new AuditLog(directory, 1 << 16, 4, 64, false, new MetricsRegistry(), Clock.systemUTC());
+        ProxyFactory factory = new ProxyFactory(new BookOperations());
+        factory.setProxyTargetClass(true);
+        factory.addAdvice(new AuditMethodInterceptor(auditLog, BookOperations.class, 1000));
+        proxy = (BookOperations) factory.getProxy();
+    }
+
+    @AfterEach
+    void tearDown() {
+        auditLog.close();
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void whenAuditedMethodSucceeds_thenRecordIsWrittenWithActor() {
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated("admin@example.com", null, List.of()));
+
+        proxy.update(7L, "Dune");
+
+        assertThat(auditLog.find(null, null, null, null, 10)).singleElement().satisfies(record -> {
+            assertThat(record.entity()).isEqualTo(AuditEntity.BOOK);
+            assertThat(record.entityId()).isEqualTo(7L);
+            assertThat(record.operation()).isEqualTo("update");
+            assertThat(record.actor()).isEqualTo("admin@example.com");
+        });
+    }
+
+    @Test
+    void whenCreateReturnsRecord_thenIdIsTakenFromResult() {
+        proxy.create("Dune");
+
+        assertThat(auditLog.find(AuditEntity.BOOK, 100L, null, null, 10)).singleElement()
+                .extracting(AuditRecord::actor).isEqualTo("system");
+    }
+
+    @Test
+    void whenMethodThrowsOrIsNotAudited_thenNothingIsWritten() {
+        assertThatThrownBy(() -> proxy.delete(1L)).isInstanceOf(IllegalStateException.class);
+        proxy.findTitle(1L);
+
+        assertThat(auditLog.find(null, null, null, null, 10)).isEmpty();
+    }
+
+    @Test
+    void whenResultHasNoId_thenFirstLongArgumentIsUsed() {
+        assertThat(AuditMethodInterceptor.entityId(new Created(5L, "x"), new Object[]{9L})).isEqualTo(5L);
+        assertThat(AuditMethodInterceptor.entityId(null, new Object[]{"x", 9L, 3L})).isEqualTo(9L);
+        assertThat(AuditMethodInterceptor.entityId("x", new Object[]{"y"})).isZero();
+    }
+
+    record Created(Long id, String title) {
+    }
+
+    static class BookOperations {
+        @Audited(AuditEntity.BOOK)
+        public Created create(String title) {
+            return new Created(100L, title);
+        }
+
+        @Audited(AuditEntity.BOOK)
+        public void update(Long id, String title) {
+        }
+
+        @Audited(AuditEntity.BOOK)
+        public void delete(Long id) {
+            throw new IllegalStateException("Book is lent");
+        }
+
+        public String findTitle(Long id) {
+            return "Dune";
+        }
+    }
+}
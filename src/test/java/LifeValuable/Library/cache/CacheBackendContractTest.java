@@ -0,0 +1,140 @@
+package LifeValuable.Library.cache;
+
+import LifeValuable.Library.dto.book.BookDetailDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Общие для всех {@code cache.backend} правила хранения и вытеснения: наследники только создают кэш
+ * так же, как конфигурация приложения.
+ */
+abstract class CacheBackendContractTest {
+    protected static final Duration TTL = Duration.ofMillis(800);
+
+    protected Cache cache;
+
+    protected abstract Cache createCache(String name, Duration ttl);
+
+    @BeforeEach
+    void setUpCache() {
+        cache = createCache("books", TTL);
+    }
+
+    @Test
+    void whenPut_thenReadableByKeyOfAnyTypeWithSameString() {
+        cache.put(42L, book(42L, "Война и мир"));
+
+        assertThat(cache.get(42L).get()).isEqualTo(book(42L, "Война и мир"));
+        assertThat(cache.get("42", BookDetailDTO.class)).isEqualTo(book(42L, "Война и мир"));
+        assertThat(cache.get(7L)).isNull();
+    }
+
+    @Test
+    void whenNullCached_thenHitWithNullValue() {
+        cache.put(1L, null);
+
+        assertThat(cache.get(1L)).isNotNull();
+        assertThat(cache.get(1L).get()).isNull();
+    }
+
+    @Test
+    void whenEvicted_thenMissAndOtherKeysKept() {
+        cache.put(1L, book(1L, "Идиот"));
+        cache.put(2L, book(2L, "Бесы"));
+
+        cache.evict(1L);
+
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.get(2L)).isNotNull();
+    }
+
+    @Test
+    void whenCleared_thenAllKeysMiss() {
+        cache.put(1L, book(1L, "Идиот"));
+        cache.put(2L, book(2L, "Бесы"));
+
+        cache.clear();
+
+        assertThat(cache.get(1L)).isNull();
+        assertThat(cache.get(2L)).isNull();
+    }
+
+    @Test
+    void whenPutIfAbsentOnPresentKey_thenExistingValueKept() {
+        assertThat(cache.putIfAbsent(1L, book(1L, "Идиот"))).isNull();
+
+        Cache.ValueWrapper existing = cache.putIfAbsent(1L, book(1L, "Бесы"));
+
+        assertThat(existing.get()).isEqualTo(book(1L, "Идиот"));
+        assertThat(cache.get(1L).get()).isEqualTo(book(1L, "Идиот"));
+    }
+
+    @Test
+    void whenLoadedThroughValueLoader_thenLoaderRunsOnce() {
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get(1L, () -> book(1L, "Идиот#" + loads.incrementAndGet()));
+        BookDetailDTO book = cache.get(1L, () -> book(1L, "Идиот#" + loads.incrementAndGet()));
+
+        assertThat(book.title()).isEqualTo("Идиот#1");
+        assertThat(loads.get()).isEqualTo(1);
+    }
+
+    @Test
+    void whenValueLoaderFails_thenValueRetrievalExceptionAndNothingCached() {
+        assertThatThrownBy(() -> cache.get(1L, () -> {
+            throw new IllegalStateException("database is down");
+        })).isInstanceOf(Cache.ValueRetrievalException.class)
+                .hasRootCauseInstanceOf(IllegalStateException.class);
+
+        assertThat(cache.get(1L)).isNull();
+    }
+
+    @Test
+    void whenBulkReadAndWritten_thenOnlyNonNullHitsReturned() {
+        Map<Object, Object> entries = new LinkedHashMap<>();
+        entries.put(1L, book(1L, "Идиот"));
+        entries.put(3L, book(3L, "Бесы"));
+        entries.put(4L, null);
+        BulkCache.putAll(cache, entries);
+
+        Map<Object, Object> found = BulkCache.getAll(cache, List.of(1L, 2L, 3L, 4L));
+
+        assertThat(found).containsOnlyKeys(1L, 3L);
+        assertThat(found.get(3L)).isEqualTo(book(3L, "Бесы"));
+    }
+
+    @Test
+    void whenTtlPassed_thenEntryExpires() throws InterruptedException {
+        cache.put(1L, book(1L, "Идиот"));
+
+        Thread.sleep(TTL.toMillis() * 2);
+
+        assertThat(cache.get(1L)).isNull();
+    }
+
+    @Test
+    void whenOverwritten_thenTtlStartsAgain() throws InterruptedException {
+        cache.put(1L, book(1L, "Идиот"));
+        Thread.sleep(TTL.toMillis() * 5 / 8);
+
+        cache.put(1L, book(1L, "Бесы"));
+        Thread.sleep(TTL.toMillis() * 5 / 8);
+
+        assertThat(cache.get(1L).get()).isEqualTo(book(1L, "Бесы"));
+    }
+
+    private static BookDetailDTO book(long id, String title) {
+        return new BookDetailDTO(id, title, "Достоевский", null, 1869, 3, 3, List.of("Роман"));
+    }
+}
@@ -0,0 +1,138 @@
+package LifeValuable.Library.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CacheCircuitBreakerTest {
+    private static final long MS = 1_000_000L;
+
+    private final CacheCircuitBreaker.Settings settings = new CacheCircuitBreaker.Settings(
+            10, 5, 0.5, Duration.ofMillis(50), Duration.ofSeconds(1), 2);
+
+    private AtomicLong nanos;
+    private CacheCircuitBreaker breaker;
+
+    @BeforeEach
+    void setUp() {
+        nanos = new AtomicLong();
+        breaker = new CacheCircuitBreaker(settings, nanos::get, Clock.systemUTC());
+    }
+
+    @Test
+    void whenFailuresBelowMinimumCalls_thenStaysClosed() {
+        for (int i = 0; i < 4; i++)
+            breaker.recordFailure(new RuntimeException("timeout"));
+
+        assertThat(breaker.getState()).isEqualTo(CacheCircuitBreaker.State.CLOSED);
+        assertThat(breaker.allowRequest()).isTrue();
+    }
+
+    @Test
+    void whenFailureRateReachesThreshold_thenOpens() {
+        for (int i = 0; i < 3; i++)
+            breaker.recordSuccess(MS);
+        for (int i = 0; i < 3; i++)
+            breaker.recordFailure(new RuntimeException("timeout"));
+
+        assertThat(breaker.getState()).isEqualTo(CacheCircuitBreaker.State.OPEN);
+        assertThat(breaker.allowRequest()).isFalse();
+    }
+
+    @Test
+    void whenCallsAreSlow_thenCountedAsFailures() {
+        for (int i = 0; i < 5; i++)
+            breaker.recordSuccess(80 * MS);
+
+        assertThat(breaker.getState()).isEqualTo(CacheCircuitBreaker.State.OPEN);
+        assertThat(breaker.getTransitions().get(0).reason()).contains("slow call");
+    }
+
+    @Test
+    void whenOldFailuresLeaveWindow_thenStaysClosed() {
+        for (int i = 0; i < 2; i++)
+            breaker.recordFailure(new RuntimeException("timeout"));
+        for (int i = 0; i < 10; i++)
+            breaker.recordSuccess(MS);
+        breaker.recordFailure(new RuntimeException("timeout"));
+
+        assertThat(breaker.getState()).isEqualTo(CacheCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void whenOpenDurationElapsed_thenAllowsLimitedProbes() {
+        trip();
+        nanos.addAndGet(1_001 * MS);
+
+        assertThat(breaker.allowRequest()).isTrue();
+        assertThat(breaker.getState()).isEqualTo(CacheCircuitBreaker.State.HALF_OPEN);
+        assertThat(breaker.allowRequest()).isTrue();
+        assertThat(breaker.allowRequest()).isFalse();
+    }
+
+    @Test
+    void whenProbesSucceed_thenCloses() {
+        trip();
+        nanos.addAndGet(1_001 * MS);
+
+        breaker.allowRequest();
+        breaker.recordSuccess(MS);
+        breaker.allowRequest();
+        breaker.recordSuccess(MS);
+
+        assertThat(breaker.getState()).isEqualTo(CacheCircuitBreaker.State.CLOSED);
+        assertThat(breaker.getTransitions())
+                .extracting(CacheCircuitBreaker.Transition::to)
+                .containsExactly(CacheCircuitBreaker.State.OPEN, CacheCircuitBreaker.State.HALF_OPEN,
+                        CacheCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void whenProbeFails_thenOpensAgain() {
+        trip();
+        nanos.addAndGet(1_001 * MS);
+
+        breaker.allowRequest();
+        breaker.recordFailure(new RuntimeException("timeout"));
+
+        assertThat(breaker.getState()).isEqualTo(CacheCircuitBreaker.State.OPEN);
+        assertThat(breaker.allowRequest()).isFalse();
+    }
+
+    @Test
+    void whenStateChanges_thenListenersNotified() {
+        List<CacheCircuitBreaker.Transition> transitions = new ArrayList<>();
+        breaker.addListener(transitions::add);
+
+        trip();
+
+        assertThat(transitions).hasSize(1);
+        assertThat(transitions.get(0).from()).isEqualTo(CacheCircuitBreaker.State.CLOSED);
+        assertThat(transitions.get(0).to()).isEqualTo(CacheCircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void whenCacheErrorHandled_thenFailureRecorded() {
+        CircuitBreakerCacheErrorHandler errorHandler = new CircuitBreakerCacheErrorHandler(breaker);
+        Cache cache = new ConcurrentMapCache("books");
+
+        for (int i = 0; i < 5; i++)
+            errorHandler.handleCacheGetError(new RuntimeException("timeout"), cache, 1L);
+
+        assertThat(breaker.getState()).isEqualTo(CacheCircuitBreaker.State.OPEN);
+    }
+
+    private void trip() {
+        for (int i = 0; i < 5; i++)
+            breaker.recordFailure(new RuntimeException("timeout"));
+    }
+}
@@ -0,0 +1,106 @@
+package LifeValuable.Library.cache;
+
+import LifeValuable.Library.dto.book.BookDTO;
+import LifeValuable.Library.dto.book.BookDetailDTO;
+import LifeValuable.Library.dto.cache.CacheablePage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializer;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение сериализаторов кэша. Запуск: main из IDE или
+ * {@code java -cp <test classpath> org.openjdk.jmh.Main CacheSerializerBenchmark}.
+ * Размеры значений печатаются перед прогоном.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CacheSerializerBenchmark {
+
+    @Param({"json", "compact"})
+    private String serializer;
+
+    private RedisSerializer<Object> codec;
+    private BookDetailDTO book;
+    private CacheablePage<BookDTO> page;
+    private byte[] bookBytes;
+    private byte[] pageBytes;
+
+    @Setup
+    public void setUp() {
+        codec = create(serializer);
+        book = sampleBook();
+        page = samplePage();
+        bookBytes = codec.serialize(book);
+        pageBytes = codec.serialize(page);
+    }
+
+    @Benchmark
+    public byte[] serializeBook() {
+        return codec.serialize(book);
+    }
+
+    @Benchmark
+    public Object deserializeBook() {
+        return codec.deserialize(bookBytes);
+    }
+
+    @Benchmark
+    public byte[] serializePage() {
+        return codec.serialize(page);
+    }
+
+    @Benchmark
+    public Object deserializePage() {
+        return codec.deserialize(pageBytes);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        for (String name : List.of("json", "compact")) {
+            RedisSerializer<Object> codec = create(name);
+            System.out.printf("%-8s book: %5d bytes, page: %6d bytes%n", name,
+                    codec.serialize(sampleBook()).length, codec.serialize(samplePage()).length);
+        }
+        new Runner(new OptionsBuilder()
+                .include(CacheSerializerBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+
+    private static RedisSerializer<Object> create(String name) {
+        return name.equals("json") ? new GenericJackson2JsonRedisSerializer() : new CompactCacheSerializer(1024);
+    }
+
+    private static BookDetailDTO sampleBook() {
+        return new BookDetailDTO(42L, "Мастер и Маргарита", "Михаил Булгаков", "978-5-17-090712-3",
+                1967, 5, 3, List.of("Роман", "Фантастика"));
+    }
+
+    private static CacheablePage<BookDTO> samplePage() {
+        List<BookDTO> books = new ArrayList<>();
+        for (long i = 0; i < 20; i++)
+            books.add(new BookDTO(i, "Книга " + i, "Автор " + (i % 7), 1950 + (int) i, 3, List.of("Роман")));
+        return new CacheablePage<>(new PageImpl<>(books, PageRequest.of(0, 20), 1000));
+    }
+}
@@ -0,0 +1,125 @@
+package LifeValuable.Library.cache;
+
+import LifeValuable.Library.dto.book.BookDetailDTO;
+import LifeValuable.Library.dto.genre.GenreDTO;
+import LifeValuable.Library.model.Book;
+import LifeValuable.Library.repository.BookLendingProjection;
+import LifeValuable.Library.repository.BookRepository;
+import LifeValuable.Library.repository.LendingRepository;
+import LifeValuable.Library.service.BookService;
+import LifeValuable.Library.service.GenreService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CacheWarmerTest {
+
+    @Mock
+    private LendingRepository lendingRepository;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private BookService bookService;
+
+    @Mock
+    private GenreService genreService;
+
+    private CacheWarmer cacheWarmer;
+
+    @BeforeEach
+    void setUp() {
+        cacheWarmer = new CacheWarmer(lendingRepository, bookRepository, bookService, genreService);
+        ReflectionTestUtils.setField(cacheWarmer, "topBooks", 50);
+        ReflectionTestUtils.setField(cacheWarmer, "batchSize", 10);
+        ReflectionTestUtils.setField(cacheWarmer, "parallelism", 4);
+        ReflectionTestUtils.setField(cacheWarmer, "budgetMs", 5000L);
+
+        when(genreService.findAll()).thenReturn(List.of(
+                new GenreDTO(1L, "Фэнтези", null), new GenreDTO(2L, "Научная фантастика", null)));
+        when(bookRepository.findWithGenresByIdIn(any())).thenAnswer(invocation ->
+                invocation.<Collection<Long>>getArgument(0).stream().map(id -> new Book()).toList());
+        when(bookService.findAllByIds(anyList())).thenAnswer(invocation ->
+                invocation.<List<Long>>getArgument(0).stream().map(CacheWarmerTest::book).toList());
+    }
+
+    @Test
+    void whenWarmUp_thenGenreCatalogEntitiesAndBooksLoadedInBatches() {
+        List<BookLendingProjection> top = LongStream.rangeClosed(1, 25).mapToObj(this::projection).toList();
+        when(lendingRepository.findTopBorrowedBooks(any(Pageable.class))).thenReturn(new PageImpl<>(top));
+
+        CacheWarmer.WarmupReport report = cacheWarmer.warmUp();
+
+        assertThat(report.books()).isEqualTo(25);
+        assertThat(report.entities()).isEqualTo(25);
+        assertThat(report.genres()).isEqualTo(2);
+        assertThat(report.failed()).isZero();
+        assertThat(report.budgetExceeded()).isFalse();
+        assertThat(cacheWarmer.getLastReport()).isEqualTo(report);
+        verify(genreService).reload();
+        verify(bookService, times(3)).findAllByIds(anyList());
+        verify(bookService).findAllByIds(LongStream.rangeClosed(21, 25).boxed().toList());
+        verify(bookRepository, times(3)).findWithGenresByIdIn(any());
+    }
+
+    @Test
+    void whenBatchFailsToLoad_thenCountFailureAndContinue() {
+        List<BookLendingProjection> top = LongStream.rangeClosed(1, 20).mapToObj(this::projection).toList();
+        when(lendingRepository.findTopBorrowedBooks(any(Pageable.class))).thenReturn(new PageImpl<>(top));
+        doThrow(new RuntimeException("Redis недоступен"))
+                .when(bookService).findAllByIds(LongStream.rangeClosed(1, 10).boxed().toList());
+
+        CacheWarmer.WarmupReport report = cacheWarmer.warmUp();
+
+        assertThat(report.books()).isEqualTo(10);
+        assertThat(report.entities()).isEqualTo(20);
+        assertThat(report.failed()).isEqualTo(1);
+    }
+
+    @Test
+    void whenBudgetExceeded_thenStopAndReport() {
+        ReflectionTestUtils.setField(cacheWarmer, "budgetMs", 100L);
+        ReflectionTestUtils.setField(cacheWarmer, "parallelism", 1);
+        List<BookLendingProjection> top = LongStream.rangeClosed(1, 50).mapToObj(this::projection).toList();
+        when(lendingRepository.findTopBorrowedBooks(any(Pageable.class))).thenReturn(new PageImpl<>(top));
+        when(bookService.findAllByIds(anyList())).thenAnswer(invocation -> {
+            Thread.sleep(60);
+            return List.of();
+        });
+
+        CacheWarmer.WarmupReport report = cacheWarmer.warmUp();
+
+        assertThat(report.budgetExceeded()).isTrue();
+        assertThat(report.entities()).isLessThan(50);
+        assertThat(report.duration().toMillis()).isLessThan(2000);
+    }
+
+    private static BookDetailDTO book(long id) {
+        return new BookDetailDTO(id, "Книга " + id, "Автор", null, 2000, 1, 1, List.of());
+    }
+
+    private BookLendingProjection projection(long id) {
+        return new BookLendingProjection() {
+            public Long getId() { return id; }
+            public String getTitle() { return "Книга " + id; }
+            public String getAuthor() { return "Автор"; }
+            public Integer getLendingCount() { return 1; }
+        };
+    }
+}
@@ -0,0 +1,184 @@
+package LifeValuable.Library.cache;
+
+import org.apache.commons.pool2.impl.GenericObjectPoolConfig;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisClientConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CircuitBreakingCacheTest {
+    private static final Duration READ_TIMEOUT = Duration.ofMillis(100);
+    private static final Duration OPEN_DURATION = Duration.ofMillis(300);
+
+    private final CacheCircuitBreaker.Settings settings = new CacheCircuitBreaker.Settings(
+            10, 5, 0.5, Duration.ofMillis(30), OPEN_DURATION, 2);
+
+    private FakeRedisServer redis;
+    private JedisConnectionFactory connectionFactory;
+    private CacheCircuitBreaker breaker;
+    private CircuitBreakingCache cache;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        redis = new FakeRedisServer().start();
+
+        GenericObjectPoolConfig<?> poolConfig = new GenericObjectPoolConfig<>();
+        poolConfig.setMaxWait(Duration.ofMillis(50));
+        connectionFactory = new JedisConnectionFactory(
+                new RedisStandaloneConfiguration("localhost", redis.getPort()),
+                JedisClientConfiguration.builder()
+                        .connectTimeout(READ_TIMEOUT)
+                        .readTimeout(READ_TIMEOUT)
+                        .usePooling()
+                        .poolConfig(poolConfig)
+                        .build());
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+
+        RedisCacheManager cacheManager = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(RedisCacheConfiguration.defaultCacheConfig()
+                        .serializeKeysWith(RedisSerializationContext.SerializationPair
+                                .fromSerializer(new StringRedisSerializer()))
+                        .serializeValuesWith(RedisSerializationContext.SerializationPair
+                                .fromSerializer(new GenericJackson2JsonRedisSerializer())))
+                .build();
+
+        breaker = new CacheCircuitBreaker(settings);
+        cache = new CircuitBreakingCache(cacheManager.getCache("books"), breaker);
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionFactory.destroy();
+        redis.stop();
+    }
+
+    @Test
+    void whenRedisHealthy_thenReadsAndWritesGoThrough() {
+        cache.put(1L, "Война и мир");
+
+        assertThat(cache.get(1L).get()).isEqualTo("Война и мир");
+        assertThat(redis.containsKey("books::1")).isTrue();
+        assertThat(breaker.getState()).isEqualTo(CacheCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void whenRedisTimesOut_thenBreakerOpensAndCacheBypassed() {
+        redis.setDelay(1_000);
+
+        for (int i = 0; i < settings.minimumCalls(); i++)
+            assertThat(cache.get((long) i)).isNull();
+
+        assertThat(breaker.getState()).isEqualTo(CacheCircuitBreaker.State.OPEN);
+        assertThat(breaker.getTransitions().get(0).reason()).contains("RedisConnectionFailureException");
+    }
+
+    @Test
+    void whenRedisSlow_thenBreakerOpens() {
+        redis.setDelay(50);
+
+        for (int i = 0; i < settings.minimumCalls(); i++)
+            cache.get((long) i);
+
+        assertThat(breaker.getState()).isEqualTo(CacheCircuitBreaker.State.OPEN);
+        assertThat(breaker.getTransitions().get(0).reason()).contains("slow call");
+    }
+
+    @Test
+    void whenBreakerOpen_thenBypassTakesUnderAMillisecond() {
+        tripWithTimeouts();
+        long commandsBefore = redis.getCommandCount();
+        AtomicInteger databaseQueries = new AtomicInteger();
+
+        int requests = 1_000;
+        long start = System.nanoTime();
+        for (int i = 0; i < requests; i++)
+            assertThat(cache.get(1L, () -> "db-" + databaseQueries.incrementAndGet())).startsWith("db-");
+        long perRequest = (System.nanoTime() - start) / requests;
+
+        assertThat(Duration.ofNanos(perRequest)).isLessThan(Duration.ofMillis(1));
+        assertThat(databaseQueries.get()).isEqualTo(requests);
+        assertThat(redis.getCommandCount()).isEqualTo(commandsBefore);
+    }
+
+    @Test
+    void whenRedisRecovers_thenProbesCloseBreaker() throws Exception {
+        tripWithTimeouts();
+        redis.setDelay(0);
+        Thread.sleep(OPEN_DURATION.toMillis() + 50);
+
+        for (int i = 0; i < settings.halfOpenProbes(); i++)
+            cache.get(1L);
+
+        assertThat(breaker.getState()).isEqualTo(CacheCircuitBreaker.State.CLOSED);
+        assertThat(breaker.getTransitions())
+                .extracting(CacheCircuitBreaker.Transition::to)
+                .containsExactly(CacheCircuitBreaker.State.OPEN, CacheCircuitBreaker.State.HALF_OPEN,
+                        CacheCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void whenRedisStillDownAfterOpenDuration_thenOpensAgain() throws Exception {
+        tripWithTimeouts();
+        Thread.sleep(OPEN_DURATION.toMillis() + 50);
+
+        cache.get(1L);
+
+        assertThat(breaker.getState()).isEqualTo(CacheCircuitBreaker.State.OPEN);
+        assertThat(breaker.getTransitions())
+                .extracting(CacheCircuitBreaker.Transition::to)
+                .containsExactly(CacheCircuitBreaker.State.OPEN, CacheCircuitBreaker.State.HALF_OPEN,
+                        CacheCircuitBreaker.State.OPEN);
+    }
+
+    @Test
+    void whenRedisStopped_thenBreakerOpensAndClosesAfterRestart() throws Exception {
+        redis.stop();
+        for (int i = 0; i < settings.minimumCalls(); i++)
+            assertThat(cache.get((long) i)).isNull();
+        assertThat(breaker.getState()).isEqualTo(CacheCircuitBreaker.State.OPEN);
+
+        redis.start();
+        Thread.sleep(OPEN_DURATION.toMillis() + 50);
+        for (int i = 0; i < settings.halfOpenProbes(); i++)
+            cache.get(1L);
+
+        assertThat(breaker.getState()).isEqualTo(CacheCircuitBreaker.State.CLOSED);
+    }
+
+    @Test
+    void whenEvictedWhileOpen_thenStaleEntryRemovedOnRecovery() throws Exception {
+        cache.put(1L, "Старое название");
+        tripWithTimeouts();
+
+        cache.evict(1L);
+        assertThat(cache.getPendingInvalidations()).isEqualTo(1);
+
+        redis.setDelay(0);
+        Thread.sleep(OPEN_DURATION.toMillis() + 50);
+
+        assertThat(cache.get(1L)).isNull();
+        assertThat(redis.containsKey("books::1")).isFalse();
+        assertThat(cache.getPendingInvalidations()).isZero();
+    }
+
+    private void tripWithTimeouts() {
+        redis.setDelay(1_000);
+        for (int i = 0; i < settings.minimumCalls(); i++)
+            cache.get((long) i);
+        assertThat(breaker.getState()).isEqualTo(CacheCircuitBreaker.State.OPEN);
+    }
+}
@@ -0,0 +1,124 @@
+package LifeValuable.Library.cache;
+
+import LifeValuable.Library.dto.book.BookDTO;
+import LifeValuable.Library.dto.book.BookDetailDTO;
+import LifeValuable.Library.dto.cache.CacheablePage;
+import LifeValuable.Library.dto.reader.ReaderDetailDTO;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.redis.serializer.GenericJackson2JsonRedisSerializer;
+import org.springframework.data.redis.serializer.SerializationException;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class CompactCacheSerializerTest {
+    private final GenericJackson2JsonRedisSerializer json = new GenericJackson2JsonRedisSerializer();
+    private final CompactCacheSerializer serializer = new CompactCacheSerializer(json, 1024);
+
+    private final BookDetailDTO book = new BookDetailDTO(42L, "Мастер и Маргарита", "Михаил Булгаков",
+            "978-5-17-090712-3", 1967, 5, 3, List.of("Роман", "Фантастика"));
+
+    @Test
+    void whenBookDetailSerialized_thenRoundTripsAndIsSmallerThanJson() {
+        byte[] bytes = serializer.serialize(book);
+
+        assertThat(serializer.deserialize(bytes)).isEqualTo(book);
+        assertThat(bytes.length * 2).isLessThan(json.serialize(book).length);
+    }
+
+    @Test
+    void whenReaderDetailSerialized_thenRoundTrips() {
+        ReaderDetailDTO reader = new ReaderDetailDTO(7L, "Иван", "Петров", "ivan@example.com", null,
+                LocalDate.of(2024, 3, 15), 2, 0, 11, "READER");
+
+        assertThat(serializer.deserialize(serializer.serialize(reader))).isEqualTo(reader);
+    }
+
+    @Test
+    void whenPageSerialized_thenRoundTrips() {
+        List<BookDTO> books = List.of(
+                new BookDTO(1L, "Война и мир", "Лев Толстой", 1869, 4, List.of("Роман")),
+                new BookDTO(2L, "Идиот", "Фёдор Достоевский", null, 2, List.of()));
+        CacheablePage<BookDTO> page = new CacheablePage<>(new PageImpl<>(books, PageRequest.of(1, 2), 10));
+
+        Object restored = serializer.deserialize(serializer.serialize(page));
+
+        assertThat(restored).isInstanceOf(CacheablePage.class);
+        CacheablePage<?> restoredPage = (CacheablePage<?>) restored;
+        assertThat(restoredPage.getContent()).isEqualTo(books);
+        assertThat(restoredPage.toPage().getTotalElements()).isEqualTo(10);
+        assertThat(restoredPage.getNumber()).isEqualTo(1);
+        assertThat(restoredPage.isFirst()).isFalse();
+    }
+
+    @Test
+    void whenScalarsSerialized_thenRoundTrip() {
+        assertThat(serializer.deserialize(serializer.serialize(true))).isEqualTo(true);
+        assertThat(serializer.deserialize(serializer.serialize(-17))).isEqualTo(-17);
+        assertThat(serializer.deserialize(serializer.serialize(Long.MIN_VALUE))).isEqualTo(Long.MIN_VALUE);
+        assertThat(serializer.deserialize(serializer.serialize(3.5))).isEqualTo(3.5);
+        assertThat(serializer.deserialize(serializer.serialize("книга"))).isEqualTo("книга");
+    }
+
+    @Test
+    void whenLegacyJsonEntryRead_thenDeserializedWithJson() {
+        byte[] legacy = json.serialize(book);
+
+        assertThat(serializer.deserialize(legacy)).isEqualTo(book);
+    }
+
+    @Test
+    void whenEntryFromNewerVersion_thenTreatedAsMiss() {
+        byte[] bytes = serializer.serialize(book);
+        bytes[1] = CompactCacheSerializer.VERSION + 1;
+
+        assertThat(serializer.deserialize(bytes)).isNull();
+    }
+
+    @Test
+    void whenLargeValue_thenCompressed() {
+        List<BookDTO> books = new ArrayList<>();
+        for (long i = 0; i < 200; i++)
+            books.add(new BookDTO(i, "Собрание сочинений, том " + i, "Антон Чехов", 1900, 3, List.of("Рассказ")));
+        CacheablePage<BookDTO> page = new CacheablePage<>(new PageImpl<>(books, PageRequest.of(0, 200), 200));
+        CompactCacheSerializer uncompressed = new CompactCacheSerializer(json, 0);
+
+        byte[] compressed = serializer.serialize(page);
+
+        assertThat(compressed.length).isLessThan(uncompressed.serialize(page).length / 2);
+        assertThat(((CacheablePage<?>) serializer.deserialize(compressed)).getContent()).isEqualTo(books);
+    }
+
+    @Test
+    void whenCompressedEntryCorrupt_thenSerializationException() {
+        List<BookDTO> books = new ArrayList<>();
+        for (long i = 0; i < 200; i++)
+            books.add(new BookDTO(i, "Собрание сочинений, том " + i, "Антон Чехов", 1900, 3, List.of("Рассказ")));
+        byte[] compressed = serializer.serialize(new CacheablePage<>(new PageImpl<>(books, PageRequest.of(0, 200), 200)));
+
+        byte[] truncated = Arrays.copyOf(compressed, compressed.length / 2);
+        byte[] garbled = compressed.clone();
+        for (int i = CompactCacheSerializer.HEADER_SIZE + 3; i < garbled.length; i++)
+            garbled[i] = (byte) 0xFF;
+        byte[] negativeLength = {CompactCacheSerializer.MAGIC, CompactCacheSerializer.VERSION, 1,
+                (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F};
+
+        for (byte[] entry : List.of(truncated, garbled, negativeLength))
+            assertThatThrownBy(() -> serializer.deserialize(entry)).isInstanceOf(SerializationException.class);
+    }
+
+    @Test
+    void whenUnknownType_thenFallsBackToJson() {
+        LocalDate date = LocalDate.of(2025, 1, 1);
+        List<Object> value = List.of(date, new java.util.HashMap<>(java.util.Map.of("key", "value")));
+
+        assertThat(serializer.deserialize(serializer.serialize(value))).isEqualTo(value);
+    }
+}
@@ -0,0 +1,482 @@
+package LifeValuable.Library.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+
+/**
+ * Минимальный сервер по протоколу RESP для тестов: строковые ключи с TTL
+ * и управляемая задержка ответа, чтобы имитировать зависший Redis.
+ * Для запуска всего приложения есть также pub/sub, счётчики в отсортированных множествах
+ * и скрипт освобождения аренды {@link RedisCacheLease}; других Lua-скриптов сервер не исполняет.
+ */
+public class FakeRedisServer implements AutoCloseable {
+    private record Entry(byte[] value, long expiresAt) {
+        boolean expired(long now) {
+            return expiresAt > 0 && now >= expiresAt;
+        }
+    }
+
+    private final Map<String, Entry> data = new ConcurrentHashMap<>();
+    private final Map<String, Map<String, Double>> sortedSets = new ConcurrentHashMap<>();
+    private final Map<String, Set<OutputStream>> subscribers = new ConcurrentHashMap<>();
+    private final Set<Socket> clients = ConcurrentHashMap.newKeySet();
+    private final AtomicLong commands = new AtomicLong();
+    private final Map<String, AtomicLong> commandsByName = new ConcurrentHashMap<>();
+    private volatile long delayMillis;
+    private volatile int port;
+    private volatile ServerSocket serverSocket;
+    private ExecutorService executor;
+
+    public FakeRedisServer start() throws IOException {
+        ServerSocket socket = new ServerSocket();
+        socket.setReuseAddress(true);
+        socket.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port));
+        serverSocket = socket;
+        port = socket.getLocalPort();
+        executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "fake-redis");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.execute(this::acceptLoop);
+        return this;
+    }
+
+    public void stop() {
+        try {
+            if (serverSocket != null)
+                serverSocket.close();
+        } catch (IOException ignored) {
+        }
+        for (Socket client : clients) {
+            try {
+                client.close();
+            } catch (IOException ignored) {
+            }
+        }
+        clients.clear();
+        if (executor != null)
+            executor.shutdownNow();
+    }
+
+    @Override
+    public void close() {
+        stop();
+    }
+
+    public int getPort() {
+        return port;
+    }
+
+    public void setDelay(long delayMillis) {
+        this.delayMillis = delayMillis;
+    }
+
+    public long getCommandCount() {
+        return commands.get();
+    }
+
+    public boolean containsKey(String key) {
+        Entry entry = data.get(key);
+        return entry != null && !entry.expired(System.currentTimeMillis());
+    }
+
+    public long ttlMillis(String key) {
+        Entry entry = data.get(key);
+        if (entry == null || entry.expired(System.currentTimeMillis()))
+            return -2;
+        return entry.expiresAt() == 0 ? -1 : entry.expiresAt() - System.currentTimeMillis();
+    }
+
+    public long getCommandCount(String name) {
+        return commandsByName.getOrDefault(name, new AtomicLong()).get();
+    }
+
+    public Set<String> keys() {
+        return Set.copyOf(data.keySet());
+    }
+
+    private void acceptLoop() {
+        ServerSocket socket = serverSocket;
+        while (!socket.isClosed()) {
+            try {
+                Socket client = socket.accept();
+                clients.add(client);
+                executor.execute(() -> serve(client));
+            } catch (IOException e) {
+                return;
+            }
+        }
+    }
+
+    private void serve(Socket client) {
+        OutputStream out;
+        try {
+            out = new BufferedOutputStream(client.getOutputStream());
+        } catch (IOException e) {
+            clients.remove(client);
+            return;
+        }
+        try (client) {
+            InputStream in = new BufferedInputStream(client.getInputStream());
+            while (true) {
+                List<byte[]> command = readCommand(in);
+                if (command == null)
+                    return;
+                commands.incrementAndGet();
+                long delay = delayMillis;
+                if (delay > 0)
+                    Thread.sleep(delay);
+                // в этот поток пишут и публикации из чужих соединений
+                synchronized (out) {
+                    execute(command, out);
+                    out.flush();
+                }
+            }
+        } catch (IOException | InterruptedException ignored) {
+        } finally {
+            clients.remove(client);
+            subscribers.values().forEach(channel -> channel.remove(out));
+        }
+    }
+
+    private List<byte[]> readCommand(InputStream in) throws IOException {
+        int marker = in.read();
+        if (marker == -1)
+            return null;
+        if (marker != '*')
+            throw new IOException("Unsupported request type " + (char) marker);
+        int count = Integer.parseInt(readLine(in));
+        List<byte[]> args = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            if (in.read() != '$')
+                throw new IOException("Bulk string expected");
+            int length = Integer.parseInt(readLine(in));
+            byte[] arg = in.readNBytes(length);
+            in.readNBytes(2);
+            args.add(arg);
+        }
+        return args;
+    }
+
+    private String readLine(InputStream in) throws IOException {
+        StringBuilder line = new StringBuilder();
+        int b;
+        while ((b = in.read()) != '\r') {
+            if (b == -1)
+                throw new IOException("Connection closed");
+            line.append((char) b);
+        }
+        in.read();
+        return line.toString();
+    }
+
+    private void execute(List<byte[]> command, OutputStream out) throws IOException {
+        String name = text(command.get(0)).toUpperCase(Locale.ROOT);
+        commandsByName.computeIfAbsent(name, n -> new AtomicLong()).incrementAndGet();
+        long now = System.currentTimeMillis();
+        switch (name) {
+            case "PING" -> simple(out, "PONG");
+            case "SELECT", "CLIENT", "FLUSHDB", "FLUSHALL" -> {
+                if (name.startsWith("FLUSH")) {
+                    data.clear();
+                    sortedSets.clear();
+                }
+                simple(out, "OK");
+            }
+            case "ECHO" -> bulk(out, command.get(1));
+            case "GET" -> bulk(out, value(text(command.get(1)), now));
+            case "MGET" -> {
+                out.write(("*" + (command.size() - 1) + "\r\n").getBytes(StandardCharsets.US_ASCII));
+                for (int i = 1; i < command.size(); i++)
+                    bulk(out, value(text(command.get(i)), now));
+            }
+            case "SET" -> set(command, out, now);
+            case "SETEX", "PSETEX" -> {
+                long amount = Long.parseLong(text(command.get(2)));
+                data.put(text(command.get(1)), new Entry(command.get(3),
+                        now + (name.equals("SETEX") ? amount * 1000 : amount)));
+                simple(out, "OK");
+            }
+            case "DEL", "UNLINK" -> {
+                long removed = 0;
+                for (int i = 1; i < command.size(); i++)
+                    if (value(text(command.get(i)), now) != null && data.remove(text(command.get(i))) != null
+                            || sortedSets.remove(text(command.get(i))) != null)
+                        removed++;
+                integer(out, removed);
+            }
+            case "EXISTS" -> {
+                long found = 0;
+                for (int i = 1; i < command.size(); i++)
+                    if (value(text(command.get(i)), now) != null)
+                        found++;
+                integer(out, found);
+            }
+            case "KEYS" -> array(out, matching(text(command.get(1)), now));
+            case "SCAN" -> {
+                String pattern = "*";
+                for (int i = 2; i + 1 < command.size(); i += 2)
+                    if (text(command.get(i)).equalsIgnoreCase("MATCH"))
+                        pattern = text(command.get(i + 1));
+                out.write("*2\r\n".getBytes(StandardCharsets.US_ASCII));
+                bulk(out, "0".getBytes(StandardCharsets.UTF_8));
+                array(out, matching(pattern, now));
+            }
+            case "EXPIRE", "PEXPIRE" -> {
+                String key = text(command.get(1));
+                byte[] value = value(key, now);
+                if (value == null) {
+                    integer(out, 0);
+                } else {
+                    long amount = Long.parseLong(text(command.get(2)));
+                    data.put(key, new Entry(value, now + (name.equals("EXPIRE") ? amount * 1000 : amount)));
+                    integer(out, 1);
+                }
+            }
+            case "TTL", "PTTL" -> {
+                String key = text(command.get(1));
+                Entry entry = data.get(key);
+                if (entry == null || entry.expired(now))
+                    integer(out, -2);
+                else if (entry.expiresAt() == 0)
+                    integer(out, -1);
+                else
+                    integer(out, name.equals("TTL") ? (entry.expiresAt() - now) / 1000 : entry.expiresAt() - now);
+            }
+            case "ZINCRBY" -> {
+                double score = sortedSets.computeIfAbsent(text(command.get(1)), key -> new ConcurrentHashMap<>())
+                        .merge(text(command.get(3)), Double.parseDouble(text(command.get(2))), Double::sum);
+                bulk(out, score(score));
+            }
+            case "ZREVRANGE" -> zrevrange(command, out);
+            case "ZUNIONSTORE" -> zunionstore(command, out);
+            case "SUBSCRIBE" -> {
+                for (int i = 1; i < command.size(); i++) {
+                    subscribers.computeIfAbsent(text(command.get(i)), channel -> ConcurrentHashMap.newKeySet()).add(out);
+                    subscription(out, "subscribe", command.get(i), subscriptions(out));
+                }
+            }
+            case "UNSUBSCRIBE" -> {
+                List<byte[]> channels = new ArrayList<>(command.subList(1, command.size()));
+                if (channels.isEmpty())
+                    subscribers.forEach((channel, outs) -> {
+                        if (outs.contains(out))
+                            channels.add(channel.getBytes(StandardCharsets.UTF_8));
+                    });
+                for (byte[] channel : channels) {
+                    subscribers.getOrDefault(text(channel), Set.of()).remove(out);
+                    subscription(out, "unsubscribe", channel, subscriptions(out));
+                }
+            }
+            case "PUBLISH" -> integer(out, publish(command.get(1), command.get(2)));
+            case "EVALSHA" -> error(out, "NOSCRIPT No matching script. Please use EVAL.");
+            case "EVAL" -> {
+                String script = text(command.get(1));
+                if (!script.contains("redis.call('get', KEYS[1]) == ARGV[1]")) {
+                    error(out, "ERR unsupported script");
+                    return;
+                }
+                // сравнить и удалить или продлить, как в RedisCacheLease
+                String key = text(command.get(3));
+                byte[] value = value(key, now);
+                boolean owned = value != null && text(value).equals(text(command.get(4)));
+                if (script.contains("redis.call('del', KEYS[1])")) {
+                    integer(out, owned && data.remove(key) != null ? 1 : 0);
+                } else if (script.contains("redis.call('pexpire', KEYS[1], ARGV[2])")) {
+                    if (owned)
+                        data.put(key, new Entry(value, now + Long.parseLong(text(command.get(5)))));
+                    integer(out, owned ? 1 : 0);
+                } else {
+                    error(out, "ERR unsupported script");
+                }
+            }
+            default -> error(out, "ERR unknown command '" + name + "'");
+        }
+    }
+
+    private void set(List<byte[]> command, OutputStream out, long now) throws IOException {
+        String key = text(command.get(1));
+        byte[] value = command.get(2);
+        long expiresAt = 0;
+        boolean nx = false;
+        boolean xx = false;
+        boolean get = false;
+        for (int i = 3; i < command.size(); i++) {
+            String option = text(command.get(i)).toUpperCase(Locale.ROOT);
+            switch (option) {
+                case "EX" -> expiresAt = now + Long.parseLong(text(command.get(++i))) * 1000;
+                case "PX" -> expiresAt = now + Long.parseLong(text(command.get(++i)));
+                case "NX" -> nx = true;
+                case "XX" -> xx = true;
+                case "GET" -> get = true;
+                default -> {
+                    error(out, "ERR syntax error");
+                    return;
+                }
+            }
+        }
+        byte[] previous = value(key, now);
+        boolean write = !(nx && previous != null) && !(xx && previous == null);
+        if (write)
+            data.put(key, new Entry(value, expiresAt));
+        if (get)
+            bulk(out, previous);
+        else if (write)
+            simple(out, "OK");
+        else
+            bulk(out, null);
+    }
+
+    private void zrevrange(List<byte[]> command, OutputStream out) throws IOException {
+        Map<String, Double> set = sortedSets.getOrDefault(text(command.get(1)), Map.of());
+        List<Map.Entry<String, Double>> entries = new ArrayList<>(set.entrySet());
+        entries.sort(Map.Entry.<String, Double>comparingByValue().reversed());
+        int size = entries.size();
+        int start = Integer.parseInt(text(command.get(2)));
+        int stop = Integer.parseInt(text(command.get(3)));
+        start = Math.max(start < 0 ? size + start : start, 0);
+        stop = Math.min(stop < 0 ? size + stop : stop, size - 1);
+        boolean withScores = command.size() > 4 && text(command.get(4)).equalsIgnoreCase("WITHSCORES");
+        List<byte[]> values = new ArrayList<>();
+        for (int i = start; i <= stop; i++) {
+            values.add(entries.get(i).getKey().getBytes(StandardCharsets.UTF_8));
+            if (withScores)
+                values.add(score(entries.get(i).getValue()));
+        }
+        array(out, values);
+    }
+
+    // только AGGREGATE SUM, который и так по умолчанию
+    private void zunionstore(List<byte[]> command, OutputStream out) throws IOException {
+        int keys = Integer.parseInt(text(command.get(2)));
+        double[] weights = new double[keys];
+        Arrays.fill(weights, 1);
+        for (int i = 3 + keys; i < command.size(); i++) {
+            if (text(command.get(i)).equalsIgnoreCase("WEIGHTS"))
+                for (int k = 0; k < keys; k++)
+                    weights[k] = Double.parseDouble(text(command.get(++i)));
+            else if (text(command.get(i)).equalsIgnoreCase("AGGREGATE"))
+                i++;
+        }
+        Map<String, Double> union = new ConcurrentHashMap<>();
+        for (int k = 0; k < keys; k++) {
+            double weight = weights[k];
+            sortedSets.getOrDefault(text(command.get(3 + k)), Map.of())
+                    .forEach((member, score) -> union.merge(member, score * weight, Double::sum));
+        }
+        sortedSets.put(text(command.get(1)), union);
+        integer(out, union.size());
+    }
+
+    private long publish(byte[] channel, byte[] message) {
+        long delivered = 0;
+        for (OutputStream subscriber : subscribers.getOrDefault(text(channel), Set.of())) {
+            try {
+                synchronized (subscriber) {
+                    array(subscriber, List.of("message".getBytes(StandardCharsets.UTF_8), channel, message));
+                    subscriber.flush();
+                }
+                delivered++;
+            } catch (IOException e) {
+                subscribers.get(text(channel)).remove(subscriber);
+            }
+        }
+        return delivered;
+    }
+
+    private long subscriptions(OutputStream out) {
+        return subscribers.values().stream().filter(outs -> outs.contains(out)).count();
+    }
+
+    private static void subscription(OutputStream out, String kind, byte[] channel, long count) throws IOException {
+        out.write("*3\r\n".getBytes(StandardCharsets.US_ASCII));
+        bulk(out, kind.getBytes(StandardCharsets.UTF_8));
+        bulk(out, channel);
+        integer(out, count);
+    }
+
+    private static byte[] score(double score) {
+        return Double.toString(score).getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private byte[] value(String key, long now) {
+        Entry entry = data.get(key);
+        if (entry == null)
+            return null;
+        if (entry.expired(now)) {
+            data.remove(key, entry);
+            return null;
+        }
+        return entry.value();
+    }
+
+    private List<byte[]> matching(String glob, long now) {
+        StringBuilder regex = new StringBuilder();
+        for (char c : glob.toCharArray()) {
+            if (c == '*')
+                regex.append(".*");
+            else if (c == '?')
+                regex.append('.');
+            else
+                regex.append(Pattern.quote(String.valueOf(c)));
+        }
+        Pattern pattern = Pattern.compile(regex.toString(), Pattern.DOTALL);
+        List<byte[]> keys = new ArrayList<>();
+        for (String key : data.keySet())
+            if (pattern.matcher(key).matches() && value(key, now) != null)
+                keys.add(key.getBytes(StandardCharsets.UTF_8));
+        return keys;
+    }
+
+    private static String text(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void simple(OutputStream out, String value) throws IOException {
+        out.write(("+" + value + "\r\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void error(OutputStream out, String message) throws IOException {
+        out.write(("-" + message + "\r\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void integer(OutputStream out, long value) throws IOException {
+        out.write((":" + value + "\r\n").getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static void bulk(OutputStream out, byte[] value) throws IOException {
+        if (value == null) {
+            out.write("$-1\r\n".getBytes(StandardCharsets.US_ASCII));
+            return;
+        }
+        out.write(("$" + value.length + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        out.write(value);
+        out.write("\r\n".getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static void array(OutputStream out, List<byte[]> values) throws IOException {
+        out.write(("*" + values.size() + "\r\n").getBytes(StandardCharsets.US_ASCII));
+        for (byte[] value : values)
+            bulk(out, value);
+    }
+}
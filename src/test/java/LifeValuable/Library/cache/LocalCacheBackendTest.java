@@ -0,0 +1,35 @@
+package LifeValuable.Library.cache;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class LocalCacheBackendTest extends CacheBackendContractTest {
+
+    @Override
+    protected Cache createCache(String name, Duration ttl) {
+        return new LocalCache(name, 100, (key, value) -> ttl);
+    }
+
+    @Test
+    void whenMaximumSizeExceeded_thenOldEntriesEvicted() {
+        LocalCache cache = (LocalCache) this.cache;
+        for (long id = 1; id <= 1000; id++)
+            cache.put(id, "Книга " + id);
+
+        ((com.github.benmanes.caffeine.cache.Cache<?, ?>) cache.getNativeCache()).cleanUp();
+
+        assertThat(cache.getSize()).isEqualTo(100);
+    }
+
+    @Test
+    void whenCacheRequestedTwice_thenSameInstance() {
+        LocalCacheManager cacheManager = new LocalCacheManager(100, (key, value) -> TTL);
+
+        assertThat(cacheManager.getCache("books")).isSameAs(cacheManager.getCache("books"));
+        assertThat(cacheManager.getCacheNames()).containsExactly("books");
+    }
+}
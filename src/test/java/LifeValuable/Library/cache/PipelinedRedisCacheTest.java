@@ -0,0 +1,86 @@
+package LifeValuable.Library.cache;
+
+import LifeValuable.Library.dto.book.BookDetailDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class PipelinedRedisCacheTest {
+    private FakeRedisServer redis;
+    private JedisConnectionFactory connectionFactory;
+    private PipelinedRedisCache cache;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        redis = new FakeRedisServer().start();
+        connectionFactory = new JedisConnectionFactory(new RedisStandaloneConfiguration("localhost", redis.getPort()));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+
+        RedisCacheManager cacheManager = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(RedisCacheConfiguration.defaultCacheConfig()
+                        .serializeKeysWith(RedisSerializationContext.SerializationPair
+                                .fromSerializer(new StringRedisSerializer()))
+                        .serializeValuesWith(RedisSerializationContext.SerializationPair
+                                .fromSerializer(new CompactCacheSerializer(1024)))
+                        .entryTtl(Duration.ofMinutes(30)))
+                .build();
+        cache = new PipelinedRedisCache((RedisCache) cacheManager.getCache("books"), connectionFactory);
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionFactory.destroy();
+        redis.stop();
+    }
+
+    @Test
+    void whenGetAll_thenOneMgetAndOnlyHitsReturned() {
+        cache.put(1L, book(1L));
+        cache.put(3L, book(3L));
+
+        Map<Object, Object> found = cache.getAll(List.of(1L, 2L, 3L));
+
+        assertThat(found).containsOnlyKeys(1L, 3L);
+        assertThat(found.get(3L)).isEqualTo(book(3L));
+        assertThat(redis.getCommandCount("MGET")).isEqualTo(1);
+        assertThat(redis.getCommandCount("GET")).isZero();
+    }
+
+    @Test
+    void whenPutAll_thenEntriesReadableWithTtl() {
+        Map<Object, Object> entries = new LinkedHashMap<>();
+        for (long id = 1; id <= 20; id++)
+            entries.put(id, book(id));
+
+        cache.putAll(entries);
+
+        assertThat(redis.getCommandCount("SET")).isEqualTo(20);
+        assertThat(cache.get(7L).get()).isEqualTo(book(7L));
+        assertThat(redis.ttlMillis("books::7")).isBetween(1L, Duration.ofMinutes(30).toMillis());
+    }
+
+    @Test
+    void whenGetAllWithNoKeys_thenRedisNotCalled() {
+        assertThat(cache.getAll(List.of())).isEmpty();
+        assertThat(redis.getCommandCount("MGET")).isZero();
+    }
+
+    private static BookDetailDTO book(long id) {
+        return new BookDetailDTO(id, "Книга " + id, "Автор", null, 2000, 3, 3, List.of("Роман"));
+    }
+}
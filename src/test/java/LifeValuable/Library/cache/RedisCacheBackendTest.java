@@ -0,0 +1,51 @@
+package LifeValuable.Library.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.serializer.RedisSerializationContext;
+import org.springframework.data.redis.serializer.StringRedisSerializer;
+
+import java.io.IOException;
+import java.time.Duration;
+
+class RedisCacheBackendTest extends CacheBackendContractTest {
+    private FakeRedisServer redis;
+    private JedisConnectionFactory connectionFactory;
+
+    @Override
+    protected Cache createCache(String name, Duration ttl) {
+        return redisCache(name, ttl);
+    }
+
+    protected PipelinedRedisCache redisCache(String name, Duration ttl) {
+        try {
+            redis = new FakeRedisServer().start();
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+        connectionFactory = new JedisConnectionFactory(new RedisStandaloneConfiguration("localhost", redis.getPort()));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+
+        RedisCacheManager cacheManager = RedisCacheManager.builder(connectionFactory)
+                .cacheDefaults(RedisCacheConfiguration.defaultCacheConfig()
+                        .serializeKeysWith(RedisSerializationContext.SerializationPair
+                                .fromSerializer(new StringRedisSerializer()))
+                        .serializeValuesWith(RedisSerializationContext.SerializationPair
+                                .fromSerializer(new CompactCacheSerializer(1024)))
+                        .entryTtl(ttl))
+                .build();
+        return new PipelinedRedisCache((RedisCache) cacheManager.getCache(name), connectionFactory);
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionFactory.destroy();
+        redis.stop();
+    }
+}
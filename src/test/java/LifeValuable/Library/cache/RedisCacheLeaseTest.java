@@ -0,0 +1,67 @@
+package LifeValuable.Library.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RedisCacheLeaseTest {
+    private FakeRedisServer redis;
+    private JedisConnectionFactory connectionFactory;
+    private StringRedisTemplate redisTemplate;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        redis = new FakeRedisServer().start();
+        connectionFactory = new JedisConnectionFactory(new RedisStandaloneConfiguration("localhost", redis.getPort()));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        redisTemplate = new StringRedisTemplate(connectionFactory);
+        redisTemplate.afterPropertiesSet();
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionFactory.destroy();
+        redis.stop();
+    }
+
+    @Test
+    void whenRenewedByOwner_thenTtlIsExtended() {
+        RedisCacheLease lease = new RedisCacheLease(redisTemplate);
+        assertThat(lease.tryAcquire("books::1", Duration.ofSeconds(1))).isTrue();
+
+        assertThat(lease.renew("books::1", Duration.ofSeconds(30))).isTrue();
+
+        assertThat(redis.ttlMillis("lease:books::1")).isGreaterThan(Duration.ofSeconds(20).toMillis());
+    }
+
+    @Test
+    void whenLeaseHeldByAnotherNode_thenRenewAndReleaseLeaveItAlone() {
+        RedisCacheLease owner = new RedisCacheLease(redisTemplate);
+        RedisCacheLease other = new RedisCacheLease(redisTemplate);
+        owner.tryAcquire("books::1", Duration.ofSeconds(1));
+
+        assertThat(other.renew("books::1", Duration.ofSeconds(30))).isFalse();
+        other.release("books::1");
+
+        assertThat(redis.ttlMillis("lease:books::1")).isLessThanOrEqualTo(Duration.ofSeconds(1).toMillis());
+        assertThat(other.tryAcquire("books::1", Duration.ofSeconds(1))).isFalse();
+    }
+
+    @Test
+    void whenLeaseAlreadyReleased_thenRenewFails() {
+        RedisCacheLease lease = new RedisCacheLease(redisTemplate);
+        lease.tryAcquire("books::1", Duration.ofSeconds(1));
+        lease.release("books::1");
+
+        assertThat(lease.renew("books::1", Duration.ofSeconds(30))).isFalse();
+        assertThat(redis.containsKey("lease:books::1")).isFalse();
+    }
+}
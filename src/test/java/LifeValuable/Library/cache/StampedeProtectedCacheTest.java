@@ -0,0 +1,174 @@
+package LifeValuable.Library.cache;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class StampedeProtectedCacheTest {
+    private static final int CONCURRENT_REQUESTS = 64;
+    private static final Duration QUERY_TIME = Duration.ofMillis(50);
+
+    private final StampedeProtectedCache.Settings settings = new StampedeProtectedCache.Settings(
+            Duration.ofSeconds(2), Duration.ofMillis(5), Duration.ofMinutes(30), 1.0);
+
+    private ConcurrentMapCache redis;
+    private AtomicInteger databaseQueries;
+    private ExecutorService requests;
+
+    @BeforeEach
+    void setUp() {
+        redis = new ConcurrentMapCache("books");
+        databaseQueries = new AtomicInteger();
+        requests = Executors.newFixedThreadPool(CONCURRENT_REQUESTS);
+    }
+
+    @AfterEach
+    void tearDown() {
+        requests.shutdownNow();
+    }
+
+    @Test
+    void whenExpiryStorm_withoutProtection_thenEveryRequestQueriesDatabase() throws Exception {
+        runStorm(() -> {
+            Cache.ValueWrapper cached = redis.get(1L);
+            if (cached != null)
+                return cached.get();
+            Object value = queryDatabase();
+            redis.put(1L, value);
+            return value;
+        });
+
+        assertThat(databaseQueries.get()).isGreaterThan(1);
+    }
+
+    @Test
+    void whenExpiryStorm_withProtection_thenDatabaseQueriedOnce() throws Exception {
+        Cache cache = new StampedeProtectedCache(redis, new InMemoryCacheLease(), Runnable::run, settings);
+
+        List<Object> results = runStorm(() -> cache.get(1L, this::queryDatabase));
+
+        assertThat(databaseQueries.get()).isEqualTo(1);
+        assertThat(results).containsOnly("Дюна");
+        assertThat(redis.get(1L)).isNotNull();
+    }
+
+    @Test
+    void whenExpiryStormAcrossNodes_thenLeaseHolderLoadsAndOthersWait() throws Exception {
+        CacheLease sharedLease = new InMemoryCacheLease();
+        Cache firstNode = new StampedeProtectedCache(redis, sharedLease, Runnable::run, settings);
+        Cache secondNode = new StampedeProtectedCache(redis, sharedLease, Runnable::run, settings);
+        AtomicInteger request = new AtomicInteger();
+
+        List<Object> results = runStorm(() -> (request.incrementAndGet() % 2 == 0 ? firstNode : secondNode)
+                .get(1L, this::queryDatabase));
+
+        assertThat(databaseQueries.get()).isEqualTo(1);
+        assertThat(results).containsOnly("Дюна");
+    }
+
+    @Test
+    void whenLeaseHeldByStalledNode_thenLoadAfterLeaseTimeout() {
+        CacheLease stalledLease = new InMemoryCacheLease();
+        stalledLease.tryAcquire("books::1", Duration.ofMinutes(1));
+        StampedeProtectedCache.Settings shortLease = new StampedeProtectedCache.Settings(
+                Duration.ofMillis(50), Duration.ofMillis(5), Duration.ofMinutes(30), 1.0);
+        Cache cache = new StampedeProtectedCache(redis, stalledLease, Runnable::run, shortLease);
+
+        assertThat(cache.get(1L, this::queryDatabase)).isEqualTo("Дюна");
+        assertThat(databaseQueries.get()).isEqualTo(1);
+    }
+
+    @Test
+    void whenLoaderFails_thenWaitersReceiveFailureAndNothingIsCached() {
+        Cache cache = new StampedeProtectedCache(redis, new InMemoryCacheLease(), Runnable::run, settings);
+
+        assertThatThrownBy(() -> cache.get(1L, () -> {
+            throw new IllegalStateException("database is down");
+        })).isInstanceOf(Cache.ValueRetrievalException.class);
+        assertThat(redis.get(1L)).isNull();
+    }
+
+    @Test
+    void whenHitNearExpiry_thenRefreshInBackground() {
+        List<Runnable> scheduled = new ArrayList<>();
+        StampedeProtectedCache.Settings expiring = new StampedeProtectedCache.Settings(
+                Duration.ofSeconds(2), Duration.ofMillis(5), Duration.ZERO, 1.0);
+        Cache cache = new StampedeProtectedCache(redis, new InMemoryCacheLease(), scheduled::add, expiring, () -> 0.5);
+
+        cache.get(1L, this::queryDatabase);
+        Object value = cache.get(1L, this::queryDatabase);
+
+        assertThat(value).isEqualTo("Дюна");
+        assertThat(scheduled).hasSize(1);
+        scheduled.get(0).run();
+        assertThat(databaseQueries.get()).isEqualTo(2);
+    }
+
+    @Test
+    void whenHitFarFromExpiry_thenDoNotRefresh() {
+        List<Runnable> scheduled = new ArrayList<>();
+        Cache cache = new StampedeProtectedCache(redis, new InMemoryCacheLease(), scheduled::add, settings, () -> 0.5);
+
+        cache.get(1L, this::queryDatabase);
+        cache.get(1L, this::queryDatabase);
+
+        assertThat(scheduled).isEmpty();
+        assertThat(databaseQueries.get()).isEqualTo(1);
+    }
+
+    @Test
+    void whenEvicted_thenNextReadLoadsAgain() {
+        Cache cache = new StampedeProtectedCache(redis, new InMemoryCacheLease(), Runnable::run, settings);
+
+        cache.get(1L, this::queryDatabase);
+        cache.evict(1L);
+        cache.get(1L, this::queryDatabase);
+
+        assertThat(databaseQueries.get()).isEqualTo(2);
+    }
+
+    @Test
+    void whenJitteredTtl_thenStayWithinBounds() {
+        JitteredTtlFunction ttlFunction = new JitteredTtlFunction(Duration.ofMinutes(30), 0.1);
+
+        for (int i = 0; i < 1000; i++) {
+            assertThat(ttlFunction.getTimeToLive(i, null))
+                    .isBetween(Duration.ofMinutes(27), Duration.ofMinutes(33));
+        }
+        assertThat(ttlFunction.getMinimumTimeToLive()).isEqualTo(Duration.ofMinutes(27));
+    }
+
+    private String queryDatabase() throws InterruptedException {
+        databaseQueries.incrementAndGet();
+        Thread.sleep(QUERY_TIME.toMillis());
+        return "Дюна";
+    }
+
+    private List<Object> runStorm(Callable<Object> request) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Object>> futures = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+            futures.add(requests.submit(() -> {
+                start.await();
+                return request.call();
+            }));
+        }
+        start.countDown();
+
+        List<Object> results = new ArrayList<>();
+        for (Future<Object> future : futures)
+            results.add(future.get(10, TimeUnit.SECONDS));
+        return results;
+    }
+}
@@ -0,0 +1,14 @@
+package LifeValuable.Library.cache;
+
+import org.springframework.cache.Cache;
+
+import java.time.Duration;
+
+class TwoLevelCacheBackendTest extends RedisCacheBackendTest {
+
+    @Override
+    protected Cache createCache(String name, Duration ttl) {
+        return new TwoLevelCache(redisCache(name, ttl), new TwoLevelCache.Settings(100, ttl), message -> {
+        });
+    }
+}
@@ -0,0 +1,138 @@
+package LifeValuable.Library.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TwoLevelCacheTest {
+    private final TwoLevelCache.Settings settings = new TwoLevelCache.Settings(100, Duration.ofMinutes(1));
+
+    private ConcurrentMapCache redis;
+    private List<TwoLevelCache> nodes;
+
+    @BeforeEach
+    void setUp() {
+        redis = new ConcurrentMapCache("readerProfiles");
+        nodes = new CopyOnWriteArrayList<>();
+    }
+
+    @Test
+    void whenValueReadTwice_thenSecondReadIsServedLocally() {
+        TwoLevelCache cache = node(settings);
+        redis.put("ivan@example.com", "Иван");
+
+        assertThat(cache.get("ivan@example.com").get()).isEqualTo("Иван");
+        redis.evict("ivan@example.com");
+
+        assertThat(cache.get("ivan@example.com").get()).isEqualTo("Иван");
+    }
+
+    @Test
+    void whenLoadedThroughValueLoader_thenLoaderRunsOnceAndValueReachesRedis() {
+        TwoLevelCache cache = node(settings);
+        AtomicInteger loads = new AtomicInteger();
+
+        cache.get("ivan@example.com", () -> "Иван#" + loads.incrementAndGet());
+        String value = cache.get("ivan@example.com", () -> "Иван#" + loads.incrementAndGet());
+
+        assertThat(value).isEqualTo("Иван#1");
+        assertThat(loads.get()).isEqualTo(1);
+        assertThat(redis.get("ivan@example.com").get()).isEqualTo("Иван#1");
+    }
+
+    @Test
+    void whenEvictedOnOneNode_thenOtherNodesDropLocalCopy() {
+        TwoLevelCache first = node(settings);
+        TwoLevelCache second = node(settings);
+        first.put("ivan@example.com", "Иван");
+        assertThat(second.get("ivan@example.com").get()).isEqualTo("Иван");
+
+        first.evict("ivan@example.com");
+
+        assertThat(second.get("ivan@example.com")).isNull();
+        assertThat(second.getLocalSize()).isZero();
+    }
+
+    @Test
+    void whenPutOnOneNode_thenOwnLocalCopyIsKeptAndOthersReloadFromRedis() {
+        TwoLevelCache first = node(settings);
+        TwoLevelCache second = node(settings);
+        second.put("ivan@example.com", "Иван");
+
+        first.put("ivan@example.com", "Иван Петров");
+
+        assertThat(first.getLocalSize()).isEqualTo(1);
+        assertThat(second.getLocalSize()).isZero();
+        assertThat(second.get("ivan@example.com").get()).isEqualTo("Иван Петров");
+    }
+
+    @Test
+    void whenCleared_thenEveryNodeDropsLocalCopies() {
+        TwoLevelCache first = node(settings);
+        TwoLevelCache second = node(settings);
+        first.put("ivan@example.com", "Иван");
+        second.put("olga@example.com", "Ольга");
+
+        first.clear();
+
+        assertThat(first.getLocalSize()).isZero();
+        assertThat(second.getLocalSize()).isZero();
+        assertThat(redis.getNativeCache()).isEmpty();
+    }
+
+    @Test
+    void whenBulkRead_thenOnlyLocalMissesGoToRedis() {
+        TwoLevelCache first = node(settings);
+        TwoLevelCache second = node(settings);
+        first.putAll(Map.of("ivan@example.com", "Иван", "olga@example.com", "Ольга"));
+        second.get("ivan@example.com");
+        redis.put("ivan@example.com", "Иван Петров");
+        redis.put("olga@example.com", "Ольга Петрова");
+
+        Map<Object, Object> found = second.getAll(List.of("ivan@example.com", "olga@example.com", "petr@example.com"));
+
+        assertThat(found).containsExactly(
+                Map.entry("ivan@example.com", "Иван"), Map.entry("olga@example.com", "Ольга Петрова"));
+        assertThat(second.getLocalSize()).isEqualTo(2);
+    }
+
+    @Test
+    void whenInvalidationCannotBePublished_thenLocalAndRedisAreStillEvicted() {
+        TwoLevelCache cache = new TwoLevelCache(redis, settings, message -> {
+            throw new IllegalStateException("Redis недоступен");
+        });
+        cache.put("ivan@example.com", "Иван");
+
+        cache.evict("ivan@example.com");
+
+        assertThat(cache.get("ivan@example.com")).isNull();
+        assertThat(redis.get("ivan@example.com")).isNull();
+    }
+
+    @Test
+    void whenInvalidationMessageLost_thenLocalCopyExpiresAfterTtl() throws InterruptedException {
+        TwoLevelCache cache = new TwoLevelCache(redis, new TwoLevelCache.Settings(100, Duration.ofMillis(50)),
+                message -> {});
+        cache.put("ivan@example.com", "Иван");
+        redis.put("ivan@example.com", "Иван Петров");
+
+        Thread.sleep(100);
+
+        assertThat(cache.get("ivan@example.com").get()).isEqualTo("Иван Петров");
+    }
+
+    private TwoLevelCache node(TwoLevelCache.Settings settings) {
+        TwoLevelCache node = new TwoLevelCache(redis, settings,
+                message -> nodes.forEach(subscriber -> subscriber.onInvalidation(message)));
+        nodes.add(node);
+        return node;
+    }
+}
@@ -0,0 +1,195 @@
+package LifeValuable.Library.coalescing;
+
+import LifeValuable.Library.metrics.MetricsRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestCoalescingFilterTest {
+    private static final Authentication READER = authentication("reader@example.com", "ROLE_READER");
+
+    private MetricsRegistry registry;
+    private RequestCoalescingFilter filter;
+    private AtomicInteger executions;
+
+    @BeforeEach
+    void setUp() {
+        registry = new MetricsRegistry();
+        filter = new RequestCoalescingFilter(registry);
+        filter.setPaths("/api/books/search, /api/books/*");
+        executions = new AtomicInteger();
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void whenIdenticalRequestsOverlap_thenOneExecutionServesAll() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain chain = blocking(release);
+
+        CompletableFuture<MockHttpServletResponse> leader = async("/api/books/1", null, READER, chain);
+        awaitExecutions(1);
+        List<CompletableFuture<MockHttpServletResponse>> followers = new ArrayList<>();
+        for (int i = 0; i < 5; i++)
+            followers.add(async("/api/books/1", null, authentication("other" + i + "@example.com", "ROLE_READER"),
+                    chain));
+        Thread.sleep(100);
+        release.countDown();
+
+        assertThat(leader.get(5, TimeUnit.SECONDS).getContentAsString()).isEqualTo("{\"id\":1}");
+        for (CompletableFuture<MockHttpServletResponse> follower : followers) {
+            MockHttpServletResponse response = follower.get(5, TimeUnit.SECONDS);
+            assertThat(response.getStatus()).isEqualTo(200);
+            assertThat(response.getContentAsString()).isEqualTo("{\"id\":1}");
+            assertThat(response.getContentType()).isEqualTo("application/json");
+            assertThat(response.getHeader("ETag")).isEqualTo("\"1\"");
+            assertThat(response.getHeader(RequestCoalescingFilter.COALESCED_HEADER)).isEqualTo("true");
+        }
+        assertThat(executions).hasValue(1);
+        assertThat(scrape()).contains(
+                "library_coalescing_requests_total{route=\"/api/books/*\",role=\"follower\"} 5",
+                "library_coalescing_collapse_ratio{route=\"/api/books/*\"} 0.8333");
+    }
+
+    @Test
+    void whenRolesOrQueryDiffer_thenRequestsAreNotCoalesced() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain chain = blocking(release);
+
+        CompletableFuture<MockHttpServletResponse> reader = async("/api/books/search", "genre=Poetry", READER, chain);
+        CompletableFuture<MockHttpServletResponse> admin = async("/api/books/search", "genre=Poetry",
+                authentication("admin@example.com", "ROLE_ADMIN"), chain);
+        CompletableFuture<MockHttpServletResponse> otherGenre = async("/api/books/search", "genre=Drama", READER, chain);
+        awaitExecutions(3);
+        release.countDown();
+
+        assertThat(List.of(reader.get(5, TimeUnit.SECONDS), admin.get(5, TimeUnit.SECONDS),
+                otherGenre.get(5, TimeUnit.SECONDS)))
+                .allSatisfy(response -> assertThat(response.getHeader(RequestCoalescingFilter.COALESCED_HEADER)).isNull());
+        assertThat(executions).hasValue(3);
+    }
+
+    @Test
+    void whenRequestsDoNotOverlap_thenEachExecutes() throws Exception {
+        FilterChain chain = blocking(new CountDownLatch(0));
+
+        perform("/api/books/1", null, READER, chain);
+        perform("/api/books/1", null, READER, chain);
+
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    void whenRouteNotEnabled_thenFilterIsSkipped() throws Exception {
+        FilterChain chain = blocking(new CountDownLatch(0));
+
+        MockHttpServletResponse response = perform("/api/readers/me", null, READER, chain);
+
+        assertThat(response.getContentAsString()).isEqualTo("{\"id\":1}");
+        assertThat(scrape()).doesNotContain("library_coalescing_requests_total{");
+    }
+
+    @Test
+    void whenLeaderFails_thenFollowersExecuteThemselves() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger calls = new AtomicInteger();
+        FilterChain chain = (request, response) -> {
+            if (calls.incrementAndGet() == 1) {
+                executions.incrementAndGet();
+                await(release);
+                throw new IllegalStateException("Database is down");
+            }
+            blocking(new CountDownLatch(0)).doFilter(request, response);
+        };
+
+        CompletableFuture<MockHttpServletResponse> leader = async("/api/books/1", null, READER, chain);
+        awaitExecutions(1);
+        CompletableFuture<MockHttpServletResponse> follower = async("/api/books/1", null, READER, chain);
+        Thread.sleep(100);
+        release.countDown();
+
+        assertThat(leader).failsWithin(5, TimeUnit.SECONDS);
+        assertThat(follower.get(5, TimeUnit.SECONDS).getContentAsString()).isEqualTo("{\"id\":2}");
+        assertThat(scrape()).contains("role=\"fallback\"} 1");
+    }
+
+    private FilterChain blocking(CountDownLatch release) {
+        return (request, response) -> {
+            int id = executions.incrementAndGet();
+            await(release);
+            HttpServletResponse http = (HttpServletResponse) response;
+            http.setContentType("application/json");
+            http.setHeader("ETag", "\"" + id + "\"");
+            http.getOutputStream().write(("{\"id\":" + id + "}").getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private CompletableFuture<MockHttpServletResponse> async(String path, String query, Authentication authentication,
+                                                             FilterChain chain) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                return perform(path, query, authentication, chain);
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            } finally {
+                SecurityContextHolder.clearContext();
+            }
+        });
+    }
+
+    private MockHttpServletResponse perform(String path, String query, Authentication authentication,
+                                            FilterChain chain) throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(authentication);
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setQueryString(query);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private void awaitExecutions(int count) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (executions.get() < count && System.nanoTime() < deadline)
+            Thread.sleep(5);
+    }
+
+    private String scrape() throws Exception {
+        StringWriter out = new StringWriter();
+        registry.writeTo(out);
+        return out.toString();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static Authentication authentication(String name, String role) {
+        return UsernamePasswordAuthenticationToken.authenticated(name, null, List.of(new SimpleGrantedAuthority(role)));
+    }
+}
@@ -0,0 +1,155 @@
+package LifeValuable.Library.controller;
+
+import LifeValuable.Library.audit.AuditEntity;
+import LifeValuable.Library.dto.admin.AuditRecordDTO;
+import LifeValuable.Library.dto.admin.CacheRegionStatisticsDTO;
+import LifeValuable.Library.dto.admin.HibernateStatisticsDTO;
+import LifeValuable.Library.dto.admin.QueryShapeStatisticsDTO;
+import LifeValuable.Library.dto.admin.RecordingDTO;
+import LifeValuable.Library.dto.admin.RequestTraceDTO;
+import LifeValuable.Library.dto.admin.StatisticsDTO;
+import LifeValuable.Library.exception.GlobalExceptionHandler;
+import LifeValuable.Library.exception.RecordingNotFoundException;
+import LifeValuable.Library.service.AuditService;
+import LifeValuable.Library.service.ProfilingService;
+import LifeValuable.Library.service.StatisticsService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+public class AdminControllerTest {
+    private MockMvc mockMvc;
+
+    @Mock
+    private StatisticsService statisticsService;
+
+    @Mock
+    private ProfilingService profilingService;
+
+    @Mock
+    private AuditService auditService;
+
+    @InjectMocks
+    private AdminController controller;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    @Test
+    void whenGetStatistics_thenReturnHibernateAndQueryShapes() throws Exception {
+        HibernateStatisticsDTO hibernate = new HibernateStatisticsDTO(true, 4, 3, 2, 10, 7, 1, 0, 0, 0, 5, 2,
+                6, 12, "select b from Book b", 9, 3, 3, 0, 0,
+                List.of(new CacheRegionStatisticsDTO("book", 9, 3, 3, 0.75, 3)));
+        QueryShapeStatisticsDTO query = new QueryShapeStatisticsDTO("select b1_0.id from book b1_0 where b1_0.id=?",
+                6, 18.5, 7.25, 3.08, 6, 0);
+        when(statisticsService.getStatistics(5))
+                .thenReturn(new StatisticsDTO(Instant.parse("2025-01-01T00:00:00Z"), hibernate, List.of(query)));
+
+        mockMvc.perform(get("/api/admin/statistics").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hibernate.entityLoadCount", is(7)))
+                .andExpect(jsonPath("$.hibernate.collectionFetchCount", is(2)))
+                .andExpect(jsonPath("$.hibernate.cacheRegions[0].region", is("book")))
+                .andExpect(jsonPath("$.hibernate.cacheRegions[0].hitRate", is(0.75)))
+                .andExpect(jsonPath("$.queries", hasSize(1)))
+                .andExpect(jsonPath("$.queries[0].count", is(6)))
+                .andExpect(jsonPath("$.queries[0].maxMs", is(7.25)));
+    }
+
+    @Test
+    void whenGetSlowRequests_thenReturnBreakdown() throws Exception {
+        RequestTraceDTO trace = new RequestTraceDTO(Instant.parse("2025-01-01T00:00:00Z"), "POST", "/api/lendings",
+                201, 812.5, Map.of("db", 640.0, "json", 12.5));
+        when(statisticsService.getSlowRequests(20)).thenReturn(List.of(trace));
+
+        mockMvc.perform(get("/api/admin/slow-requests"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].path", is("/api/lendings")))
+                .andExpect(jsonPath("$[0].breakdownMs.db", is(640.0)));
+    }
+
+    @Test
+    void whenResetStatistics_thenNoContent() throws Exception {
+        mockMvc.perform(delete("/api/admin/statistics"))
+                .andExpect(status().isNoContent());
+
+        verify(statisticsService).reset();
+    }
+
+    @Test
+    void whenStartRecording_thenCreated() throws Exception {
+        when(profilingService.start(120, 64)).thenReturn(new RecordingDTO(3, "library-3", "RUNNING",
+                Instant.parse("2025-01-01T00:00:00Z"), null, 120, 64L * 1024 * 1024, 0));
+
+        mockMvc.perform(post("/api/admin/recordings").param("durationSeconds", "120"))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Location", "/api/admin/recordings/current"))
+                .andExpect(jsonPath("$.state", is("RUNNING")));
+    }
+
+    @Test
+    void whenNoRecording_thenNotFound() throws Exception {
+        when(profilingService.getCurrent()).thenThrow(new RecordingNotFoundException());
+
+        mockMvc.perform(get("/api/admin/recordings/current"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void whenDownloadRecording_thenFileReturnedAsAttachment() throws Exception {
+        Path file = Files.createTempFile("library-", ".jfr");
+        Files.write(file, new byte[]{1, 2, 3});
+        when(profilingService.getRecordingFile()).thenReturn(file);
+
+        try {
+            mockMvc.perform(get("/api/admin/recordings/current/file"))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("Content-Disposition", containsString("attachment; filename=")))
+                    .andExpect(content().bytes(new byte[]{1, 2, 3}));
+        } finally {
+            Files.delete(file);
+        }
+    }
+
+    @Test
+    void whenGetAuditRecords_thenFiltersArePassedToService() throws Exception {
+        Instant from = Instant.parse("2026-10-01T00:00:00Z");
+        Instant to = Instant.parse("2026-10-02T00:00:00Z");
+        when(auditService.find(AuditEntity.BOOK, 42L, from, to, 10)).thenReturn(List.of(
+                new AuditRecordDTO(7, Instant.parse("2026-10-01T12:00:00Z"), "BOOK", 42, "updateBookStock",
+                        "admin@example.com")));
+
+        mockMvc.perform(get("/api/admin/audit")
+                        .param("entity", "BOOK")
+                        .param("entityId", "42")
+                        .param("from", from.toString())
+                        .param("to", to.toString())
+                        .param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].operation", is("updateBookStock")))
+                .andExpect(jsonPath("$[0].actor", is("admin@example.com")));
+    }
+}
@@ -2,11 +2,15 @@ package LifeValuable.Library.controller;
 
 import LifeValuable.Library.dto.book.BookDTO;
 import LifeValuable.Library.dto.book.BookDetailDTO;
+import LifeValuable.Library.dto.book.BookTrendingDTO;
 import LifeValuable.Library.dto.book.CreateBookDTO;
 import LifeValuable.Library.exception.BookNotFoundException;
 import LifeValuable.Library.exception.GlobalExceptionHandler;
+import LifeValuable.Library.exception.UnknownFieldException;
+import LifeValuable.Library.model.TrendingWindow;
 import LifeValuable.Library.service.BookService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -23,7 +27,10 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.sql.SQLIntegrityConstraintViolationException;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.hamcrest.Matchers.*;
@@ -127,6 +134,78 @@ public class BookControllerTest {
         verify(bookService).findById(99L);
     }
 
+    @Test
+    void whenGetAllBooksWithFields_thenReturnOnlyRequestedFields() throws Exception {
+        Pageable pageable = PageRequest.of(0, 20, defaultSort);
+        Map<String, Object> book = new LinkedHashMap<>();
+        book.put("id", 1L);
+        book.put("title", "Дюна");
+        when(bookService.findAll("id,title", pageable)).thenReturn(new PageImpl<>(List.of(book), pageable, 1));
+
+        mockMvc.perform(get("/api/books")
+                        .param("fields", "id,title")
+                        .param("page", "0")
+                        .param("size", "20")
+                        .param("sort", "title,asc"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(1))
+                .andExpect(jsonPath("$.content[0].title").value("Дюна"))
+                .andExpect(jsonPath("$.content[0].author").doesNotExist())
+                .andExpect(jsonPath("$.totalElements").value(1));
+
+        verify(bookService, never()).findAll(any(Pageable.class));
+    }
+
+    @Test
+    void whenGetBookByIdWithFields_thenReturnOnlyRequestedFields() throws Exception {
+        when(bookService.findById(1L, "availableStock")).thenReturn(Map.of("availableStock", 100));
+
+        mockMvc.perform(get("/api/books/1").param("fields", "availableStock"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.availableStock").value(100))
+                .andExpect(jsonPath("$.title").doesNotExist());
+
+        verify(bookService, never()).findById(anyLong());
+    }
+
+    @Test
+    void whenGetBookByIdWithUnknownField_thenReturnBadRequest() throws Exception {
+        when(bookService.findById(1L, "price"))
+                .thenThrow(new UnknownFieldException(List.of("price"), List.of("id", "title")));
+
+        mockMvc.perform(get("/api/books/1").param("fields", "price"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("Неизвестные поля: price. Доступны: id, title"));
+    }
+
+    @Test
+    void whenGetTrending_thenReturnTrendingBooks() throws Exception {
+        when(bookService.findTrending(TrendingWindow.MONTH, "Научная фантастика", 5))
+                .thenReturn(List.of(new BookTrendingDTO(1L, "Дюна", "Фрэнк Герберт", 4.2)));
+
+        mockMvc.perform(get("/api/books/trending")
+                        .param("window", "MONTH")
+                        .param("genre", "Научная фантастика")
+                        .param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(1)))
+                .andExpect(jsonPath("$[0].id").value(1))
+                .andExpect(jsonPath("$[0].score").value(4.2));
+
+        verify(bookService).findTrending(TrendingWindow.MONTH, "Научная фантастика", 5);
+    }
+
+    @Test
+    void whenGetTrending_withoutParams_thenUseWeekWindow() throws Exception {
+        when(bookService.findTrending(TrendingWindow.WEEK, null, 10)).thenReturn(List.of());
+
+        mockMvc.perform(get("/api/books/trending"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(0)));
+
+        verify(bookService).findTrending(TrendingWindow.WEEK, null, 10);
+    }
+
     @Test
     void whenCreateBook_thenReturnBookDetails() throws Exception {
         when(bookService.create(any(CreateBookDTO.class))).thenReturn(bookDetailDTO);
@@ -186,6 +265,23 @@ public class BookControllerTest {
         verify(bookService).update(any(CreateBookDTO.class), eq(99L));
     }
 
+    @Test
+    void whenUpdateBookWithExistingIsbn_thenReturnConflict() throws Exception {
+        when(bookService.update(any(CreateBookDTO.class), eq(1L)))
+                .thenThrow(new DataIntegrityViolationException("could not execute statement",
+                        new SQLIntegrityConstraintViolationException(
+                                "duplicate key value violates unique constraint \"uk_book_isbn\"")));
+
+        mockMvc.perform(put("/api/books/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(createBookDTO)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.violations", hasSize(1)))
+                .andExpect(jsonPath("$.violations[0].field").value("isbn"));
+
+        verify(bookService).update(any(CreateBookDTO.class), eq(1L));
+    }
+
     @Test
     void whenUpdateBookWithInvalidData_thenReturnValidationErrors() throws Exception {
         CreateBookDTO invalidBook = new CreateBookDTO("", "", "", -1, -1, List.of());
@@ -532,4 +628,19 @@ public class BookControllerTest {
 
         verify(bookService).removeGenreFromBook(99L, "Научная фантастика");
     }
+
+    @Test
+    void whenGetByIds_thenReturnBooksInRequestOrder() throws Exception {
+        BookDetailDTO other = new BookDetailDTO(2L, "Дюна", "Фрэнк Герберт", "9785171367060", 1965, 5, 5,
+                List.of("Научная фантастика"));
+        when(bookService.findAllByIds(List.of(2L, 1L))).thenReturn(List.of(other, bookDetailDTO));
+
+        mockMvc.perform(get("/api/books").param("ids", "2,1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].id").value(2))
+                .andExpect(jsonPath("$[1].id").value(1));
+
+        verify(bookService, never()).findAll(any(Pageable.class));
+    }
 }
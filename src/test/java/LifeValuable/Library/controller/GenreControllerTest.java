@@ -0,0 +1,154 @@
+package LifeValuable.Library.controller;
+
+import LifeValuable.Library.dto.genre.CreateGenreDTO;
+import LifeValuable.Library.dto.genre.GenreDTO;
+import LifeValuable.Library.exception.GenreNotFoundException;
+import LifeValuable.Library.exception.GlobalExceptionHandler;
+import LifeValuable.Library.service.GenreService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.hamcrest.Matchers.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@ExtendWith(MockitoExtension.class)
+public class GenreControllerTest {
+    private MockMvc mockMvc;
+
+    @Mock
+    private GenreService genreService;
+
+    @InjectMocks
+    private GenreController controller;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final CreateGenreDTO createGenreDTO = new CreateGenreDTO("Роман", "Крупная форма");
+    private final GenreDTO genreDTO = new GenreDTO(1L, "Роман", "Крупная форма");
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .build();
+    }
+
+    private String asJsonString(Object object) throws Exception {
+        return objectMapper.writeValueAsString(object);
+    }
+
+    @Test
+    void whenGetAllGenres_thenReturnList() throws Exception {
+        when(genreService.findAll()).thenReturn(List.of(genreDTO, new GenreDTO(2L, "Сказка", "Для детей")));
+
+        mockMvc.perform(get("/api/genres"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].name").value("Роман"));
+
+        verify(genreService).findAll();
+    }
+
+    @Test
+    void whenGetGenreById_thenReturnGenre() throws Exception {
+        when(genreService.findById(1L)).thenReturn(genreDTO);
+
+        mockMvc.perform(get("/api/genres/1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1))
+                .andExpect(jsonPath("$.description").value("Крупная форма"));
+    }
+
+    @Test
+    void whenGetNonExistentGenre_thenReturnNotFound() throws Exception {
+        when(genreService.findById(99L)).thenThrow(new GenreNotFoundException(99L));
+
+        mockMvc.perform(get("/api/genres/99"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.message").value("Не найден жанр с id: 99"));
+    }
+
+    @Test
+    void whenSearchGenreByName_thenReturnGenre() throws Exception {
+        when(genreService.findByName("Роман")).thenReturn(genreDTO);
+
+        mockMvc.perform(get("/api/genres/search").param("name", "Роман"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1));
+    }
+
+    @Test
+    void whenCreateGenre_thenReturnCreatedGenre() throws Exception {
+        when(genreService.create(createGenreDTO)).thenReturn(genreDTO);
+
+        mockMvc.perform(post("/api/genres")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(createGenreDTO)))
+                .andExpect(status().isCreated())
+                .andExpect(header().string("Location", containsString("/api/genres/1")))
+                .andExpect(jsonPath("$.name").value("Роман"));
+
+        verify(genreService).create(createGenreDTO);
+    }
+
+    @Test
+    void whenCreateGenreWithInvalidData_thenReturnValidationErrors() throws Exception {
+        mockMvc.perform(post("/api/genres")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(new CreateGenreDTO("", ""))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.violations[*].field", hasItems("name", "description")));
+
+        verify(genreService, never()).create(any());
+    }
+
+    @Test
+    void whenCreateGenreWithExistingName_thenReturnConflict() throws Exception {
+        when(genreService.create(createGenreDTO)).thenThrow(new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", new SQLException("duplicate"),
+                        "uk_genre_name")));
+
+        mockMvc.perform(post("/api/genres")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(createGenreDTO)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.violations[0].field").value("name"));
+    }
+
+    @Test
+    void whenUpdateGenre_thenReturnUpdatedGenre() throws Exception {
+        when(genreService.update(createGenreDTO, 1L)).thenReturn(genreDTO);
+
+        mockMvc.perform(put("/api/genres/1")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(createGenreDTO)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.id").value(1));
+
+        verify(genreService).update(createGenreDTO, 1L);
+    }
+
+    @Test
+    void whenDeleteGenre_thenReturnNoContent() throws Exception {
+        mockMvc.perform(delete("/api/genres/1"))
+                .andExpect(status().isNoContent());
+
+        verify(genreService).deleteById(1L);
+    }
+}
@@ -22,10 +22,12 @@ import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -158,6 +160,20 @@ public class LendingControllerTest {
         verify(lendingService).findById(99L);
     }
 
+    @Test
+    void whenGetAllLendingsWithFields_thenReturnOnlyRequestedFields() throws Exception {
+        Map<String, Object> lending = Map.of("status", "ACTIVE");
+        when(lendingService.findAllLendings(eq("status"), any(Pageable.class)))
+                .thenReturn(new PageImpl<>(List.of(lending), PageRequest.of(0, 20), 1));
+
+        mockMvc.perform(get("/api/lendings").param("fields", "status"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].status").value("ACTIVE"))
+                .andExpect(jsonPath("$.content[0].bookTitle").doesNotExist());
+
+        verify(lendingService, never()).findAllLendings(any(Pageable.class));
+    }
+
     @Test
     void whenCreateLending_thenReturnLendingDetails() throws Exception {
         when(lendingService.create(createLendingDTO)).thenReturn(lendingDetailDTO);
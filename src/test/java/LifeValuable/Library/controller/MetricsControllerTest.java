@@ -0,0 +1,57 @@
+package LifeValuable.Library.controller;
+
+import LifeValuable.Library.metrics.MetricsRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.startsWith;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+public class MetricsControllerTest {
+    private MetricsController controller;
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        MetricsRegistry registry = new MetricsRegistry();
+        registry.counter("library_test_events", "Test events").labels().inc();
+        controller = new MetricsController(registry);
+        mockMvc = MockMvcBuilders.standaloneSetup(controller)
+                .addPlaceholderValue("metrics.endpoint.path", "/internal/metrics")
+                .build();
+    }
+
+    @Test
+    void whenScraped_thenPrometheusTextReturned() throws Exception {
+        mockMvc.perform(get("/internal/metrics"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", startsWith("text/plain; version=0.0.4")))
+                .andExpect(content().string(containsString("library_test_events_total 1\n")));
+    }
+
+    @Test
+    void whenDisabled_thenNotFound() throws Exception {
+        ReflectionTestUtils.setField(controller, "enabled", false);
+
+        mockMvc.perform(get("/internal/metrics")).andExpect(status().isNotFound());
+    }
+
+    @Test
+    void whenAddressNotAllowed_thenForbidden() throws Exception {
+        controller.setAllowedAddresses("10.0.0.5, 10.0.0.6");
+
+        mockMvc.perform(get("/internal/metrics").with(request -> {
+            request.setRemoteAddr("10.0.0.7");
+            return request;
+        })).andExpect(status().isForbidden());
+        mockMvc.perform(get("/internal/metrics").with(request -> {
+            request.setRemoteAddr("10.0.0.6");
+            return request;
+        })).andExpect(status().isOk());
+    }
+}
@@ -5,6 +5,8 @@ import LifeValuable.Library.exception.ReaderNotFoundException;
 import LifeValuable.Library.exception.GlobalExceptionHandler;
 import LifeValuable.Library.service.ReaderService;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -20,8 +22,10 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.sql.SQLException;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
@@ -139,6 +143,18 @@ public class ReaderControllerTest {
         verify(readerService).findById(99L);
     }
 
+    @Test
+    void whenGetReaderByIdWithFields_thenReturnOnlyRequestedFields() throws Exception {
+        when(readerService.findById(1L, "activeLendingsCount")).thenReturn(Map.of("activeLendingsCount", 2));
+
+        mockMvc.perform(get("/api/readers/1").param("fields", "activeLendingsCount"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.activeLendingsCount").value(2))
+                .andExpect(jsonPath("$.email").doesNotExist());
+
+        verify(readerService, never()).findById(anyLong());
+    }
+
     @Test
     void whenCreateReader_thenReturnReaderDetails() throws Exception {
         when(readerService.create(createReaderDTO)).thenReturn(readerDetailDTO);
@@ -172,6 +188,35 @@ public class ReaderControllerTest {
         verify(readerService, never()).create(createReaderDTO);
     }
 
+    @Test
+    void whenCreateReaderWithExistingEmail_thenReturnConflict() throws Exception {
+        when(readerService.create(createReaderDTO)).thenThrow(new DataIntegrityViolationException("could not execute statement",
+                new ConstraintViolationException("could not execute statement", new SQLException("duplicate"),
+                        "PUBLIC.UK_READER_EMAIL_INDEX_B")));
+
+        mockMvc.perform(post("/api/readers")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(createReaderDTO)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.violations", hasSize(1)))
+                .andExpect(jsonPath("$.violations[0].field").value("email"))
+                .andExpect(jsonPath("$.message").value("Запись с таким значением уже существует"));
+
+        verify(readerService).create(createReaderDTO);
+    }
+
+    @Test
+    void whenCreateReaderViolatesUnknownConstraint_thenReturnConflictWithoutViolations() throws Exception {
+        when(readerService.create(createReaderDTO)).thenThrow(new DataIntegrityViolationException("fk_lending_reader"));
+
+        mockMvc.perform(post("/api/readers")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(asJsonString(createReaderDTO)))
+                .andExpect(status().isConflict())
+                .andExpect(jsonPath("$.violations", hasSize(0)))
+                .andExpect(jsonPath("$.message").value("Нарушение целостности данных"));
+    }
+
     @Test
     void whenUpdateReader_thenReturnUpdatedReaderDetails() throws Exception {
         when(readerService.update(createReaderDTO, 1L)).thenReturn(readerDetailDTO);
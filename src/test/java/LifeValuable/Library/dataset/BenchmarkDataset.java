@@ -0,0 +1,63 @@
+package LifeValuable.Library.dataset;
+
+import LifeValuable.Library.config.DataConfig;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Поднимает {@link DataConfig} над базой для бенчмарков и нагрузочных тестов и загружает в неё набор данных.
+ * <p>
+ * По умолчанию это H2 в памяти с размером набора, заданным бенчмарком. Системные свойства переключают цель:
+ * {@code dataset.url}, {@code dataset.username}, {@code dataset.password} — своя база (например PostgreSQL
+ * с миллионами книг), {@code dataset.books} и {@code dataset.seed} — размер и seed набора,
+ * {@code dataset.reuse=true} — не перезагружать уже загруженный набор.
+ */
+public final class BenchmarkDataset {
+
+    private BenchmarkDataset() {
+    }
+
+    public static DatasetSpec spec(DatasetSpec defaults) {
+        int books = Integer.getInteger("dataset.books", defaults.books());
+        long seed = Long.getLong("dataset.seed", defaults.seed());
+        return books == defaults.books() && seed == defaults.seed() ? defaults : DatasetSpec.scaled(books, seed);
+    }
+
+    public static AnnotationConfigApplicationContext start(String name, DatasetSpec defaults, Class<?>... components)
+            throws SQLException {
+        String url = System.getProperty("dataset.url");
+        if (url == null) {
+            System.setProperty("spring.datasource.url", "jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1");
+            System.setProperty("spring.datasource.username", "sa");
+            System.setProperty("spring.datasource.password", "");
+            System.setProperty("spring.datasource.driver-class-name", "org.h2.Driver");
+            System.setProperty("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        } else {
+            boolean postgres = url.startsWith("jdbc:postgresql:");
+            System.setProperty("spring.datasource.url", url);
+            System.setProperty("spring.datasource.username", System.getProperty("dataset.username", ""));
+            System.setProperty("spring.datasource.password", System.getProperty("dataset.password", ""));
+            System.setProperty("spring.datasource.driver-class-name", postgres ? "org.postgresql.Driver" : "org.h2.Driver");
+            System.setProperty("spring.jpa.properties.hibernate.dialect", postgres
+                    ? "org.hibernate.dialect.PostgreSQLDialect" : "org.hibernate.dialect.H2Dialect");
+        }
+        System.setProperty("spring.jpa.hibernate.ddl-auto", "validate");
+
+        List<Class<?>> classes = new ArrayList<>(List.of(components));
+        classes.add(0, DataConfig.class);
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext(classes.toArray(Class[]::new));
+        if (!Boolean.getBoolean("dataset.reuse")) {
+            try {
+                new DatasetLoader(context.getBean(DataSource.class)).load(spec(defaults));
+            } catch (SQLException | RuntimeException e) {
+                context.close();
+                throw e;
+            }
+        }
+        return context;
+    }
+}
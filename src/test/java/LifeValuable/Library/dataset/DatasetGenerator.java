@@ -0,0 +1,255 @@
+package LifeValuable.Library.dataset;
+
+import java.sql.SQLException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.stream.Stream;
+
+/**
+ * Генерирует строки таблиц по {@link DatasetSpec}, не держа их в памяти.
+ * <p>
+ * Случайность каждой строки выводится из seed, таблицы и id, поэтому строки не зависят от порядка
+ * генерации и от того, какие таблицы загружаются. Жанры, авторы, книги и читатели выбираются по Zipf.
+ * Даты выдач растут вместе с id и распределены по сезонной кривой: пик в сентябре-октябре и зимой,
+ * провал летом, меньше выдач по воскресеньям. Статус выдачи считается относительно {@code spec.to()}.
+ * Пароль всех читателей — {@link #PASSWORD}.
+ */
+public final class DatasetGenerator {
+    public static final String PASSWORD = "password";
+    // BCrypt(12) от PASSWORD: хеширование на каждую строку сделало бы загрузку в тысячи раз медленнее
+    private static final String PASSWORD_HASH = "$2a$12$mljV.fPhZARIpOlkZ.0d6.QbpM4tRsg1u5nf0b06FPbrK8NgoGrC6";
+
+    private static final String[] GENRES = {
+            "Роман", "Детектив", "Фантастика", "Фэнтези", "Классика", "Поэзия", "История", "Биография",
+            "Приключения", "Триллер", "Ужасы", "Научно-популярное", "Психология", "Философия", "Детская литература",
+            "Драма", "Сатира", "Мемуары", "Публицистика", "Путешествия", "Бизнес", "Экономика", "Программирование",
+            "Математика", "Физика", "Медицина", "Кулинария", "Искусство", "Музыка", "Религия"};
+    private static final String[] ADJECTIVES = {
+            "Тихий", "Последний", "Северный", "Забытый", "Золотой", "Тёмный", "Долгий", "Белый", "Старый",
+            "Новый", "Дальний", "Красный", "Великий", "Странный", "Первый", "Чужой", "Ночной", "Вечный"};
+    private static final String[] NOUNS = {
+            "дом", "берег", "сад", "город", "ветер", "путь", "остров", "лес", "мост", "океан", "век", "огонь",
+            "снег", "свет", "край", "зал", "час", "мир", "шторм", "маяк"};
+    private static final String[] MALE_NAMES = {
+            "Иван", "Алексей", "Сергей", "Дмитрий", "Андрей", "Михаил", "Николай", "Павел", "Олег", "Юрий"};
+    private static final String[] FEMALE_NAMES = {
+            "Мария", "Анна", "Елена", "Ольга", "Наталья", "Татьяна", "Ирина", "Светлана", "Дарья", "Екатерина"};
+    private static final String[] SURNAMES = {
+            "Иванов", "Петров", "Сидоров", "Смирнов", "Кузнецов", "Попов", "Соколов", "Лебедев", "Козлов",
+            "Новиков", "Морозов", "Волков", "Соловьёв", "Васильев", "Зайцев", "Павлов", "Семёнов", "Голубев",
+            "Виноградов", "Богданов", "Воробьёв", "Фёдоров", "Михайлов", "Беляев", "Тарасов", "Белов"};
+    // отклонение спроса по месяцам от среднего, с января
+    private static final double[] MONTH_SHAPE = {0.5, 0.4, 0.2, 0.0, -0.4, -0.8, -1.0, -0.6, 0.8, 1.0, 0.7, -0.2};
+    private static final double[] WEEKDAY_WEIGHT = {1.0, 1.0, 1.05, 1.05, 1.1, 1.2, 0.6};
+    // доля вернувших книгу в срок среди тех, кто вернул
+    private static final double ON_TIME_SHARE = 0.85;
+    private static final int MAX_LATE_DAYS = 30;
+    private static final int REGISTRATION_DAYS = 730;
+
+    private final DatasetSpec spec;
+    private final Zipf genres;
+    private final Zipf authors;
+    private final Zipf books;
+    private final Zipf readers;
+    private final double[] dayCdf;
+    // доля всех выдач, открытых на конец периода: по ней выставляется запас популярных книг
+    private final double openShare;
+
+    public DatasetGenerator(DatasetSpec spec) {
+        this.spec = spec;
+        this.genres = new Zipf(spec.genres(), spec.genreSkew());
+        this.authors = new Zipf(spec.authors(), spec.authorSkew());
+        this.books = new Zipf(spec.books(), spec.bookSkew());
+        this.readers = new Zipf(spec.readers(), spec.readerSkew());
+        this.dayCdf = dayCdf(spec);
+        double lastLoanShare = Math.min(1, (double) spec.loanDays() / dayCdf.length * (1 + spec.seasonality()));
+        this.openShare = lastLoanShare + spec.overdueRate() * (1 - lastLoanShare);
+    }
+
+    public DatasetSpec getSpec() {
+        return spec;
+    }
+
+    @FunctionalInterface
+    public interface RowSink {
+        void row(Object... values) throws SQLException;
+    }
+
+    /**
+     * Значения идут в порядке {@link DatasetTable#getColumns()}; даты — {@link LocalDate}, перечисления — строки.
+     */
+    public void generate(DatasetTable table, RowSink sink) throws SQLException {
+        long ids = ids(table);
+        for (long id = 1; id <= ids; id++)
+            generate(table, id, sink);
+    }
+
+    /**
+     * Число исходных id таблицы: у {@code book_genre} это книги, и одна книга даёт от одной до трёх строк.
+     */
+    public long ids(DatasetTable table) {
+        return switch (table) {
+            case GENRE -> spec.genres();
+            case BOOK, BOOK_GENRE -> spec.books();
+            case READER -> spec.readers();
+            case LENDING -> spec.lendings();
+        };
+    }
+
+    public void generate(DatasetTable table, long id, RowSink sink) throws SQLException {
+        switch (table) {
+            case GENRE -> genre(id, sink);
+            case BOOK -> book(id, sink);
+            case BOOK_GENRE -> bookGenres(id, sink);
+            case READER -> reader(id, sink);
+            case LENDING -> lending(id, sink);
+        }
+    }
+
+    private void genre(long id, RowSink sink) throws SQLException {
+        String name = genreName(id);
+        sink.row(id, name, "Книги жанра «" + name + "»");
+    }
+
+    private void book(long id, RowSink sink) throws SQLException {
+        SplittableRandom random = random(DatasetTable.BOOK, id);
+        String title = ADJECTIVES[random.nextInt(ADJECTIVES.length)] + " " + NOUNS[random.nextInt(NOUNS.length)];
+        if (random.nextInt(4) == 0)
+            title += ". Книга " + (2 + random.nextInt(5));
+        int year = Math.max(1450, spec.to().getYear() - (int) Math.abs(random.nextGaussian() * 40));
+        double expectedOpen = spec.lendings() * books.probability(books.rank(id)) * openShare;
+        int stock = Math.max(1 + random.nextInt(5), (int) Math.ceil(expectedOpen * 1.2));
+        sink.row(id, title, author(authors.sample(random)), isbn(id), year, stock);
+    }
+
+    private void bookGenres(long id, RowSink sink) throws SQLException {
+        SplittableRandom random = random(DatasetTable.BOOK_GENRE, id);
+        int count = 1 + (random.nextDouble() < 0.4 ? 1 : 0) + (random.nextDouble() < 0.1 ? 1 : 0);
+        long[] chosen = new long[Math.min(count, spec.genres())];
+        int size = 0;
+        // повторы отбрасываются; при сильном перекосе жанров книга может получить меньше жанров
+        for (int attempt = 0; attempt < count * 4 && size < chosen.length; attempt++) {
+            long genre = genres.sample(random);
+            boolean duplicate = false;
+            for (int i = 0; i < size; i++)
+                duplicate |= chosen[i] == genre;
+            if (!duplicate)
+                chosen[size++] = genre;
+        }
+        for (int i = 0; i < size; i++)
+            sink.row(id, chosen[i]);
+    }
+
+    private void reader(long id, RowSink sink) throws SQLException {
+        SplittableRandom random = random(DatasetTable.READER, id);
+        boolean female = random.nextBoolean();
+        String surname = SURNAMES[random.nextInt(SURNAMES.length)];
+        String firstName = female ? FEMALE_NAMES[random.nextInt(FEMALE_NAMES.length)]
+                : MALE_NAMES[random.nextInt(MALE_NAMES.length)];
+        String phone = random.nextDouble() < 0.8 ? phone(id) : null;
+        LocalDate registered = spec.from().minusDays(1 + random.nextInt(REGISTRATION_DAYS));
+        String role = random.nextInt(500) == 0 ? "LIBRARIAN" : "READER";
+        sink.row(id, firstName, female ? surname + "а" : surname, "reader" + id + "@example.com", phone, registered,
+                PASSWORD_HASH, role);
+    }
+
+    private void lending(long id, RowSink sink) throws SQLException {
+        SplittableRandom random = random(DatasetTable.LENDING, id);
+        // стратифицированная выборка: квантиль растёт с id, поэтому и даты не убывают
+        double quantile = (id - 1 + random.nextDouble()) / spec.lendings();
+        LocalDate lent = spec.from().plusDays(day(quantile));
+        LocalDate due = lent.plusDays(spec.loanDays());
+        LocalDate asOf = spec.to();
+        long elapsed = ChronoUnit.DAYS.between(lent, asOf);
+
+        LocalDate returned = null;
+        String status;
+        if (!due.isBefore(asOf)) {
+            // срок ещё не вышел: часть читателей уже вернула книгу
+            if (elapsed > 0 && random.nextDouble() < 0.5 * elapsed / spec.loanDays()) {
+                returned = lent.plusDays(1 + random.nextLong(elapsed));
+                status = "RETURNED";
+            } else {
+                status = "ACTIVE";
+            }
+        } else if (random.nextDouble() < spec.overdueRate()) {
+            status = "OVERDUE";
+        } else {
+            long days = random.nextDouble() < ON_TIME_SHARE
+                    ? 1 + random.nextInt(spec.loanDays())
+                    : spec.loanDays() + 1 + random.nextInt(MAX_LATE_DAYS);
+            returned = lent.plusDays(Math.min(days, elapsed));
+            status = "RETURNED";
+        }
+        sink.row(id, books.sample(random), readers.sample(random), lent, due, returned, status);
+    }
+
+    private int day(double quantile) {
+        int index = Arrays.binarySearch(dayCdf, quantile * dayCdf[dayCdf.length - 1]);
+        return Math.min(index >= 0 ? index : -index - 1, dayCdf.length - 1);
+    }
+
+    private String author(long id) {
+        int name = (int) (id % MALE_NAMES.length);
+        int surname = (int) (id / MALE_NAMES.length % SURNAMES.length);
+        long series = id / ((long) MALE_NAMES.length * SURNAMES.length);
+        return MALE_NAMES[name] + " " + SURNAMES[surname] + (series > 0 ? " " + (series + 1) : "");
+    }
+
+    private SplittableRandom random(DatasetTable table, long id) {
+        return new SplittableRandom(mix(mix(spec.seed() + table.ordinal()) + id));
+    }
+
+    private static double[] dayCdf(DatasetSpec spec) {
+        int days = (int) ChronoUnit.DAYS.between(spec.from(), spec.to());
+        double[] cdf = new double[days];
+        double total = 0;
+        for (int i = 0; i < days; i++) {
+            LocalDate date = spec.from().plusDays(i);
+            total += (1 + spec.seasonality() * MONTH_SHAPE[date.getMonthValue() - 1])
+                    * WEEKDAY_WEIGHT[date.getDayOfWeek().getValue() - DayOfWeek.MONDAY.getValue()];
+            cdf[i] = total;
+        }
+        return cdf;
+    }
+
+    public static String genreName(long id) {
+        return id <= GENRES.length ? GENRES[(int) id - 1] : "Жанр " + id;
+    }
+
+    /**
+     * Слова, из которых складываются названия книг: по ним нагрузочные сценарии ищут по фрагменту названия.
+     */
+    public static List<String> titleWords() {
+        return Stream.concat(Arrays.stream(ADJECTIVES), Arrays.stream(NOUNS)).toList();
+    }
+
+    // действительный ISBN-13 с префиксом 978, уникальный для id до миллиарда
+    static String isbn(long id) {
+        char[] digits = ("978" + pad(id, 9)).toCharArray();
+        int sum = 0;
+        for (int i = 0; i < 12; i++)
+            sum += (digits[i] - '0') * (i % 2 == 0 ? 1 : 3);
+        return new String(digits) + (10 - sum % 10) % 10;
+    }
+
+    private static String phone(long id) {
+        return "+79" + pad(id, 9);
+    }
+
+    private static String pad(long value, int width) {
+        String digits = Long.toString(value);
+        return "0".repeat(Math.max(0, width - digits.length())) + digits;
+    }
+
+    // финализатор SplitMix64: соседние id дают несвязанные seed
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
@@ -0,0 +1,137 @@
+package LifeValuable.Library.dataset;
+
+import org.junit.jupiter.api.Test;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.Month;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class DatasetGeneratorTest {
+    private static final LocalDate FROM = LocalDate.of(2023, 1, 1);
+    private static final LocalDate TO = LocalDate.of(2025, 12, 31);
+    private static final Comparator<Object[]> SAME_ROW = (a, b) -> Arrays.equals(a, b) ? 0 : 1;
+
+    private final DatasetSpec spec = DatasetSpec.scaled(10_000, 7).withPeriod(FROM, TO);
+
+    @Test
+    void whenSameSeed_thenSameRows() throws SQLException {
+        for (DatasetTable table : DatasetTable.values())
+            assertThat(rows(new DatasetGenerator(spec), table))
+                    .usingElementComparator(SAME_ROW)
+                    .isEqualTo(rows(new DatasetGenerator(spec), table));
+    }
+
+    @Test
+    void whenDifferentSeed_thenDifferentRows() throws SQLException {
+        DatasetSpec other = DatasetSpec.scaled(10_000, 8).withPeriod(FROM, TO);
+
+        assertThat(rows(new DatasetGenerator(other), DatasetTable.LENDING))
+                .usingElementComparator(SAME_ROW)
+                .isNotEqualTo(rows(new DatasetGenerator(spec), DatasetTable.LENDING));
+    }
+
+    @Test
+    void whenLendingsGenerated_thenPopularBooksTakeMostLendings() throws SQLException {
+        Map<Object, Integer> perBook = new HashMap<>();
+        for (Object[] row : rows(new DatasetGenerator(spec), DatasetTable.LENDING))
+            perBook.merge(row[1], 1, Integer::sum);
+
+        List<Integer> counts = new ArrayList<>(perBook.values());
+        counts.sort((a, b) -> b - a);
+        long top = counts.stream().limit(spec.books() / 100).mapToLong(Integer::longValue).sum();
+        // при показателе 1 первый процент книг собирает около половины выдач
+        assertThat((double) top / spec.lendings()).isGreaterThan(0.4);
+        assertThat(perBook.get(new Zipf(spec.books(), spec.bookSkew()).id(1))).isEqualTo(counts.get(0));
+    }
+
+    @Test
+    void whenOverdueRateSet_thenShareOfUnreturnedPastDueMatches() throws SQLException {
+        DatasetGenerator generator = new DatasetGenerator(spec.withOverdueRate(0.2));
+        int pastDue = 0;
+        int overdue = 0;
+        for (Object[] row : rows(generator, DatasetTable.LENDING)) {
+            if (((LocalDate) row[4]).isBefore(TO)) {
+                pastDue++;
+                if (row[6].equals("OVERDUE"))
+                    overdue++;
+            }
+        }
+
+        assertThat((double) overdue / pastDue).isCloseTo(0.2, within(0.02));
+    }
+
+    @Test
+    void whenLendingsGenerated_thenDatesGrowWithIdAndStatusesConsistent() throws SQLException {
+        LocalDate previous = FROM;
+        for (Object[] row : rows(new DatasetGenerator(spec), DatasetTable.LENDING)) {
+            LocalDate lent = (LocalDate) row[3];
+            LocalDate due = (LocalDate) row[4];
+            LocalDate returned = (LocalDate) row[5];
+            assertThat(lent).isAfterOrEqualTo(previous).isBefore(TO);
+            assertThat(due).isEqualTo(lent.plusDays(spec.loanDays()));
+            switch ((String) row[6]) {
+                case "RETURNED" -> assertThat(returned).isAfter(lent).isBeforeOrEqualTo(TO);
+                case "ACTIVE" -> assertThat(returned).isNull();
+                default -> assertThat(returned == null && due.isBefore(TO)).isTrue();
+            }
+            previous = lent;
+        }
+    }
+
+    @Test
+    void whenSeasonalityEnabled_thenAutumnBusierThanSummer() throws SQLException {
+        assertThat(octoberToJulyRatio(spec.withSeasonality(0.5))).isGreaterThan(2.0);
+        assertThat(octoberToJulyRatio(spec.withSeasonality(0))).isCloseTo(1.0, within(0.1));
+    }
+
+    @Test
+    void whenCatalogueGenerated_thenUniqueKeysAreUnique() throws SQLException {
+        DatasetGenerator generator = new DatasetGenerator(spec);
+        assertThat(new HashSet<>(column(generator, DatasetTable.BOOK, 3))).hasSize(spec.books());
+        assertThat(new HashSet<>(column(generator, DatasetTable.GENRE, 1))).hasSize(spec.genres());
+        assertThat(new HashSet<>(column(generator, DatasetTable.READER, 3))).hasSize(spec.readers());
+
+        List<Object[]> bookGenres = rows(generator, DatasetTable.BOOK_GENRE);
+        assertThat(bookGenres.stream().map(Arrays::asList).distinct().count()).isEqualTo(bookGenres.size());
+        assertThat(bookGenres.stream().map(row -> row[0]).distinct().count()).isEqualTo(spec.books());
+    }
+
+    @Test
+    void whenIsbnGenerated_thenCheckDigitValid() {
+        assertThat(DatasetGenerator.isbn(1)).isEqualTo("9780000000019");
+        assertThat(DatasetGenerator.isbn(123_456_789)).hasSize(13).startsWith("978123456789");
+    }
+
+    private static double octoberToJulyRatio(DatasetSpec spec) throws SQLException {
+        int october = 0;
+        int july = 0;
+        for (Object[] row : rows(new DatasetGenerator(spec), DatasetTable.LENDING)) {
+            Month month = ((LocalDate) row[3]).getMonth();
+            if (month == Month.OCTOBER)
+                october++;
+            else if (month == Month.JULY)
+                july++;
+        }
+        return (double) october / july;
+    }
+
+    private static List<Object> column(DatasetGenerator generator, DatasetTable table, int index) throws SQLException {
+        return rows(generator, table).stream().map(row -> row[index]).toList();
+    }
+
+    private static List<Object[]> rows(DatasetGenerator generator, DatasetTable table) throws SQLException {
+        List<Object[]> rows = new ArrayList<>();
+        generator.generate(table, values -> rows.add(values.clone()));
+        return rows;
+    }
+}
@@ -0,0 +1,385 @@
+package LifeValuable.Library.dataset;
+
+import lombok.extern.slf4j.Slf4j;
+import org.h2.tools.SimpleResultSet;
+import org.h2.tools.SimpleRowSource;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Types;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Загружает набор данных в схему, созданную миграциями, заменяя строки книг, жанров, читателей и выдач.
+ * <p>
+ * В PostgreSQL строки идут через {@code COPY ... FROM STDIN} в текстовом формате, месячные секции выдач
+ * за период набора создаются заранее. В H2 строки вставляются одним {@code INSERT ... SELECT} на таблицу
+ * из табличной функции {@value #H2_ROWS_FUNCTION}. В обеих базах вторичные индексы и внешние ключи
+ * снимаются перед загрузкой и строятся заново после неё, уникальные ограничения остаются. Построение
+ * индексов занимает большую часть времени: PostgreSQL грузит около 200 тысяч строк в секунду от начала
+ * до конца, H2 в несколько раз медленнее, поэтому для миллионов книг нужен PostgreSQL. Id задаются явно,
+ * после загрузки счётчики id переставляются за максимум.
+ * <p>
+ * Запуск против своей базы: {@code java -cp <test classpath> LifeValuable.Library.dataset.DatasetLoader
+ * <jdbc url> <user> <password> [книг] [seed]}.
+ */
+@Slf4j
+public class DatasetLoader {
+    private static final String H2_ROWS_FUNCTION = "DATASET_ROWS";
+    private static final Map<DatasetTable, int[]> H2_TYPES = Map.of(
+            DatasetTable.GENRE, new int[] {Types.BIGINT, Types.VARCHAR, Types.VARCHAR},
+            DatasetTable.BOOK, new int[] {Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.INTEGER,
+                    Types.INTEGER},
+            DatasetTable.BOOK_GENRE, new int[] {Types.BIGINT, Types.BIGINT},
+            DatasetTable.READER, new int[] {Types.BIGINT, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR, Types.VARCHAR,
+                    Types.DATE, Types.VARCHAR, Types.VARCHAR},
+            DatasetTable.LENDING, new int[] {Types.BIGINT, Types.BIGINT, Types.BIGINT, Types.DATE, Types.DATE,
+                    Types.DATE, Types.VARCHAR});
+    // строки вывода SCRIPT NODATA: индекс без ограничения и внешний ключ, который держит свой индекс
+    private static final Pattern H2_INDEX = Pattern.compile("CREATE INDEX (\\S+) ON .*", Pattern.DOTALL);
+    private static final Pattern H2_FOREIGN_KEY = Pattern.compile("ALTER TABLE (\\S+) ADD CONSTRAINT (\\S+) FOREIGN KEY.*",
+            Pattern.DOTALL);
+    // генераторы идущих загрузок для табличной функции H2, которая вызывается статически
+    private static final Map<String, DatasetGenerator> GENERATORS = new ConcurrentHashMap<>();
+    private static final int COPY_BUFFER = 1 << 16;
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private final DataSource dataSource;
+
+    public DatasetLoader(DataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    public record Report(Map<DatasetTable, Long> rows, long millis) {
+        public long totalRows() {
+            return rows.values().stream().mapToLong(Long::longValue).sum();
+        }
+
+        public long rowsPerSecond() {
+            return millis == 0 ? totalRows() : totalRows() * 1000 / millis;
+        }
+    }
+
+    public Report load(DatasetSpec spec) throws SQLException {
+        DatasetGenerator generator = new DatasetGenerator(spec);
+        Map<DatasetTable, Long> rows = new EnumMap<>(DatasetTable.class);
+        long started = System.nanoTime();
+        try (Connection connection = dataSource.getConnection()) {
+            boolean postgres = connection.getMetaData().getDatabaseProductName().equals("PostgreSQL");
+            boolean autoCommit = connection.getAutoCommit();
+            connection.setAutoCommit(false);
+            List<String> deferred = List.of();
+            try {
+                if (postgres) {
+                    truncatePostgres(connection);
+                    createPartitions(connection, spec);
+                    deferred = dropPostgresIndexes(connection);
+                } else {
+                    prepareH2(connection);
+                    deferred = dropH2Indexes(connection);
+                }
+                for (DatasetTable table : DatasetTable.values()) {
+                    long tableStarted = System.nanoTime();
+                    long count = postgres ? copy(connection, generator, table)
+                            : insertSelect(connection, generator, table);
+                    rows.put(table, count);
+                    log.info("Loaded {} rows into {} in {} ms", count, table.getTable(),
+                            (System.nanoTime() - tableStarted) / 1_000_000);
+                }
+                if (!deferred.isEmpty()) {
+                    long indexesStarted = System.nanoTime();
+                    restore(connection, deferred);
+                    log.info("Rebuilt {} indexes and foreign keys in {} ms", deferred.size(),
+                            (System.nanoTime() - indexesStarted) / 1_000_000);
+                    deferred = List.of();
+                }
+                resetIds(connection, postgres);
+                connection.commit();
+            } catch (SQLException | RuntimeException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                if (!postgres) {
+                    // загрузка сорвалась до перестроения: схема всё равно должна вернуться к миграциям
+                    restore(connection, deferred);
+                    execute(connection, "set referential_integrity true");
+                }
+                connection.setAutoCommit(autoCommit);
+            }
+            if (postgres)
+                execute(connection, "analyze");
+        }
+        Report report = new Report(rows, (System.nanoTime() - started) / 1_000_000);
+        log.info("Dataset with seed {} loaded: {} rows in {} ms, {} rows/s",
+                spec.seed(), report.totalRows(), report.millis(), report.rowsPerSecond());
+        return report;
+    }
+
+    private void prepareH2(Connection connection) throws SQLException {
+        execute(connection, "set referential_integrity false");
+        execute(connection, "create alias if not exists " + H2_ROWS_FUNCTION + " for '"
+                + DatasetLoader.class.getName() + ".rows'");
+        DatasetTable[] tables = DatasetTable.values();
+        for (int i = tables.length - 1; i >= 0; i--)
+            execute(connection, "truncate table " + tables[i].getTable());
+    }
+
+    // вторичные индексы и внешние ключи строятся после загрузки: без них H2 вставляет строки в разы быстрее,
+    // а одно построение индекса по готовой таблице дешевле, чем обновление его на каждую строку
+    private List<String> dropH2Indexes(Connection connection) throws SQLException {
+        List<String> indexes = new ArrayList<>();
+        List<String> foreignKeys = new ArrayList<>();
+        String tables = Arrays.stream(DatasetTable.values()).map(DatasetTable::getTable).collect(Collectors.joining(", "));
+        try (Statement statement = connection.createStatement();
+             ResultSet script = statement.executeQuery("script nodata table " + tables)) {
+            while (script.next()) {
+                String sql = script.getString(1);
+                if (H2_INDEX.matcher(sql).matches())
+                    indexes.add(sql);
+                else if (H2_FOREIGN_KEY.matcher(sql).matches())
+                    foreignKeys.add(sql);
+            }
+        }
+        for (String foreignKey : foreignKeys) {
+            Matcher matcher = H2_FOREIGN_KEY.matcher(foreignKey);
+            matcher.matches();
+            execute(connection, "alter table " + matcher.group(1) + " drop constraint " + matcher.group(2));
+        }
+        for (String index : indexes) {
+            Matcher matcher = H2_INDEX.matcher(index);
+            matcher.matches();
+            execute(connection, "drop index " + matcher.group(1));
+        }
+        List<String> restore = new ArrayList<>(indexes);
+        restore.addAll(foreignKeys);
+        return restore;
+    }
+
+    // то же для PostgreSQL: индексы без ограничений и внешние ключи родительских таблиц (секции наследуют их сами);
+    // DDL здесь транзакционный, поэтому при сбое схему возвращает откат
+    private List<String> dropPostgresIndexes(Connection connection) throws SQLException {
+        String tables = Arrays.stream(DatasetTable.values()).map(table -> "'" + table.getTable() + "'::regclass")
+                .collect(Collectors.joining(", "));
+        List<String> drop = new ArrayList<>();
+        List<String> indexes = new ArrayList<>();
+        List<String> foreignKeys = new ArrayList<>();
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("select format('alter table %s drop constraint %I', conrelid::regclass, conname), "
+                     + "format('alter table %s add constraint %I %s', conrelid::regclass, conname, pg_get_constraintdef(oid)) "
+                     + "from pg_constraint where contype = 'f' and conparentid = 0 and conrelid in (" + tables + ")")) {
+            while (result.next()) {
+                drop.add(result.getString(1));
+                foreignKeys.add(result.getString(2));
+            }
+        }
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("select format('drop index %s', x.indexrelid::regclass), "
+                     + "pg_get_indexdef(x.indexrelid) from pg_index x where x.indrelid in (" + tables + ") "
+                     + "and not exists (select 1 from pg_constraint c where c.conindid = x.indexrelid)")) {
+            while (result.next()) {
+                drop.add(result.getString(1));
+                indexes.add(result.getString(2));
+            }
+        }
+        for (String sql : drop)
+            execute(connection, sql);
+        List<String> restore = new ArrayList<>(indexes);
+        restore.addAll(foreignKeys);
+        return restore;
+    }
+
+    private static void restore(Connection connection, List<String> statements) throws SQLException {
+        for (String sql : statements)
+            execute(connection, sql);
+    }
+
+    // INSERT ... SELECT из табличной функции: строки не проходят через JDBC по одной, а читаются H2 напрямую
+    private long insertSelect(Connection connection, DatasetGenerator generator, DatasetTable table)
+            throws SQLException {
+        String key = UUID.randomUUID().toString();
+        GENERATORS.put(key, generator);
+        // аргументы — литералы: при разборе запроса H2 узнаёт по ним столбцы, а параметры тогда ещё не заданы
+        try (Statement statement = connection.createStatement()) {
+            return statement.executeLargeUpdate("insert into " + table.getTable() + " ("
+                    + String.join(", ", table.getColumns()) + ") select * from " + H2_ROWS_FUNCTION
+                    + "('" + key + "', '" + table.name() + "')");
+        } finally {
+            GENERATORS.remove(key);
+        }
+    }
+
+    /**
+     * Табличная функция H2 {@value #H2_ROWS_FUNCTION}: строки таблицы из зарегистрированного генератора,
+     * по одной исходной строке за раз.
+     */
+    public static ResultSet rows(Connection connection, String key, String tableName) throws SQLException {
+        DatasetTable table = DatasetTable.valueOf(tableName);
+        // при разборе запроса H2 вызывает функцию только ради списка столбцов
+        if (connection.getMetaData().getURL().equals("jdbc:columnlist:connection"))
+            return columns(new SimpleResultSet(), table);
+
+        DatasetGenerator generator = GENERATORS.get(key);
+        long ids = generator.ids(table);
+        Deque<Object[]> pending = new ArrayDeque<>();
+        long[] nextId = {1};
+        return columns(new SimpleResultSet(new SimpleRowSource() {
+            @Override
+            public Object[] readRow() throws SQLException {
+                while (pending.isEmpty() && nextId[0] <= ids)
+                    generator.generate(table, nextId[0]++, pending::add);
+                return pending.poll();
+            }
+
+            @Override
+            public void close() {
+            }
+
+            @Override
+            public void reset() {
+                throw new UnsupportedOperationException("Dataset rows can be read only once");
+            }
+        }), table);
+    }
+
+    private static SimpleResultSet columns(SimpleResultSet result, DatasetTable table) {
+        int[] types = H2_TYPES.get(table);
+        for (int i = 0; i < types.length; i++)
+            result.addColumn(table.getColumns().get(i), types[i], types[i] == Types.VARCHAR ? 255 : 0, 0);
+        return result;
+    }
+
+    private void truncatePostgres(Connection connection) throws SQLException {
+        execute(connection, "truncate table lending, book_genre, book, reader, genre");
+    }
+
+    // секции с именами как у LendingPartitionService, чтобы обслуживание подхватило их как свои
+    private void createPartitions(Connection connection, DatasetSpec spec) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery(
+                     "select 1 from pg_partitioned_table where partrelid = 'lending'::regclass")) {
+            if (!result.next())
+                return;
+        }
+        LocalDate month = spec.from().withDayOfMonth(1);
+        while (!month.isAfter(spec.to())) {
+            execute(connection, String.format(
+                    "create table if not exists lending_%s partition of lending for values from ('%s') to ('%s')",
+                    month.format(PARTITION_NAME), month, month.plusMonths(1)));
+            month = month.plusMonths(1);
+        }
+    }
+
+    private long copy(Connection connection, DatasetGenerator generator, DatasetTable table) throws SQLException {
+        CopyIn copy = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(
+                "copy " + table.getTable() + " (" + String.join(", ", table.getColumns()) + ") from stdin");
+        StringBuilder buffer = new StringBuilder(COPY_BUFFER + 1024);
+        long[] count = new long[1];
+        try {
+            generator.generate(table, values -> {
+                for (int i = 0; i < values.length; i++) {
+                    if (i > 0)
+                        buffer.append('\t');
+                    appendCopyValue(buffer, values[i]);
+                }
+                buffer.append('\n');
+                count[0]++;
+                if (buffer.length() >= COPY_BUFFER) {
+                    writeToCopy(copy, buffer);
+                    buffer.setLength(0);
+                }
+            });
+            writeToCopy(copy, buffer);
+            copy.endCopy();
+        } finally {
+            if (copy.isActive())
+                copy.cancelCopy();
+        }
+        return count[0];
+    }
+
+    private static void writeToCopy(CopyIn copy, StringBuilder buffer) throws SQLException {
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copy.writeToCopy(bytes, 0, bytes.length);
+    }
+
+    private static void appendCopyValue(StringBuilder buffer, Object value) {
+        if (value == null) {
+            buffer.append("\\N");
+            return;
+        }
+        String text = value.toString();
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            switch (c) {
+                case '\\' -> buffer.append("\\\\");
+                case '\t' -> buffer.append("\\t");
+                case '\n' -> buffer.append("\\n");
+                case '\r' -> buffer.append("\\r");
+                default -> buffer.append(c);
+            }
+        }
+    }
+
+    private void resetIds(Connection connection, boolean postgres) throws SQLException {
+        for (DatasetTable table : DatasetTable.values()) {
+            if (!table.hasId())
+                continue;
+            long next = 1;
+            try (Statement statement = connection.createStatement();
+                 ResultSet result = statement.executeQuery("select max(id) from " + table.getTable())) {
+                if (result.next())
+                    next = result.getLong(1) + 1;
+            }
+            if (!postgres) {
+                execute(connection, "alter table " + table.getTable() + " alter column id restart with " + next);
+            } else if (table == DatasetTable.LENDING) {
+                // у секционированной таблицы своя последовательность вместо identity
+                execute(connection, "select setval(coalesce(pg_get_serial_sequence('lending', 'id'), 'lending_id_seq'), "
+                        + next + ", false)");
+            } else {
+                execute(connection, "select setval(pg_get_serial_sequence('" + table.getTable() + "', 'id'), "
+                        + next + ", false)");
+            }
+        }
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    public static void main(String[] args) throws SQLException {
+        if (args.length < 3) {
+            System.err.println("Usage: DatasetLoader <jdbc url> <user> <password> [books] [seed]");
+            System.exit(2);
+        }
+        DriverManagerDataSource dataSource = new DriverManagerDataSource(args[0], args[1], args[2]);
+        int books = args.length > 3 ? Integer.parseInt(args[3]) : 1_000_000;
+        long seed = args.length > 4 ? Long.parseLong(args[4]) : 42;
+        Report report = new DatasetLoader(dataSource).load(DatasetSpec.scaled(books, seed));
+        System.out.printf("%s%n%d rows in %d ms, %d rows/s%n", report.rows(), report.totalRows(), report.millis(),
+                report.rowsPerSecond());
+    }
+}
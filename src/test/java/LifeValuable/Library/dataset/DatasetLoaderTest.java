@@ -0,0 +1,120 @@
+package LifeValuable.Library.dataset;
+
+import LifeValuable.Library.config.DataConfig;
+import LifeValuable.Library.model.Book;
+import LifeValuable.Library.model.Genre;
+import LifeValuable.Library.model.LendingStatus;
+import LifeValuable.Library.model.Reader;
+import LifeValuable.Library.repository.BookRepository;
+import LifeValuable.Library.repository.GenreRepository;
+import LifeValuable.Library.repository.LendingRepository;
+import LifeValuable.Library.repository.ReaderRepository;
+import jakarta.validation.Validation;
+import jakarta.validation.Validator;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringJUnitConfig(DataConfig.class)
+@TestPropertySource(locations = "classpath:application-test.properties",
+        properties = "spring.datasource.url=jdbc:h2:mem:dataset;DB_CLOSE_DELAY=-1")
+class DatasetLoaderTest {
+    private static final DatasetSpec SPEC = DatasetSpec.scaled(2_000, 11)
+            .withPeriod(LocalDate.of(2024, 1, 1), LocalDate.of(2025, 6, 30));
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private ReaderRepository readerRepository;
+
+    @Autowired
+    private LendingRepository lendingRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private final Validator validator = Validation.buildDefaultValidatorFactory().getValidator();
+
+    @Test
+    void whenLoaded_thenTablesHoldGeneratedRows() throws SQLException {
+        DatasetLoader.Report report = new DatasetLoader(dataSource).load(SPEC);
+
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        assertThat(report.rows().get(DatasetTable.BOOK)).isEqualTo(SPEC.books());
+        assertThat(report.rows().get(DatasetTable.LENDING)).isEqualTo(SPEC.lendings());
+        for (DatasetTable table : DatasetTable.values())
+            assertThat(jdbc.queryForObject("select count(*) from " + table.getTable(), Long.class))
+                    .isEqualTo(report.rows().get(table));
+        assertThat(jdbc.queryForObject("select count(*) from lending l left join book b on b.id = l.book_id "
+                + "left join reader r on r.id = l.reader_id where b.id is null or r.id is null", Long.class)).isZero();
+    }
+
+    @Test
+    void whenLoaded_thenEntitiesPassValidationAndIdsContinue() throws SQLException {
+        new DatasetLoader(dataSource).load(SPEC);
+        TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+
+        transaction.executeWithoutResult(status -> {
+            List<Book> books = bookRepository.findAll(PageRequest.of(0, 200)).getContent();
+            assertThat(books).allSatisfy(book -> {
+                assertThat(validator.validate(book)).isEmpty();
+                assertThat(book.getGenres()).isNotEmpty();
+            });
+            List<Reader> readers = readerRepository.findAll(PageRequest.of(0, 200)).getContent();
+            assertThat(readers).allSatisfy(reader -> assertThat(validator.validate(reader)).isEmpty());
+        });
+
+        assertThat(new JdbcTemplate(dataSource).queryForObject("select count(*) from lending where status = ?",
+                Long.class, LendingStatus.OVERDUE.name())).isPositive();
+
+        Genre genre = new Genre();
+        genre.setName("Новый жанр");
+        genre.setDescription("Добавлен после загрузки");
+        assertThat(genreRepository.save(genre).getId()).isEqualTo(SPEC.genres() + 1L);
+    }
+
+    @Test
+    void whenLoaded_thenSecondaryIndexesAndForeignKeysAreRebuilt() throws SQLException {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        String indexes = "select index_name from information_schema.indexes "
+                + "where table_schema = 'PUBLIC' and index_name like 'IX_%' order by index_name";
+        String foreignKeys = "select constraint_name from information_schema.table_constraints "
+                + "where table_schema = 'PUBLIC' and constraint_type = 'FOREIGN KEY' order by constraint_name";
+        List<String> indexesBefore = jdbc.queryForList(indexes, String.class);
+        List<String> foreignKeysBefore = jdbc.queryForList(foreignKeys, String.class);
+
+        new DatasetLoader(dataSource).load(SPEC);
+
+        assertThat(jdbc.queryForList(indexes, String.class)).isNotEmpty().isEqualTo(indexesBefore);
+        assertThat(jdbc.queryForList(foreignKeys, String.class)).isNotEmpty().isEqualTo(foreignKeysBefore);
+    }
+
+    @Test
+    void whenLoadedTwice_thenRowsReplaced() throws SQLException {
+        DatasetLoader loader = new DatasetLoader(dataSource);
+        loader.load(SPEC);
+        loader.load(SPEC.withLendings(100));
+
+        assertThat(lendingRepository.count()).isEqualTo(100);
+        assertThat(bookRepository.count()).isEqualTo(SPEC.books());
+    }
+}
@@ -0,0 +1,70 @@
+package LifeValuable.Library.dataset;
+
+import java.time.LocalDate;
+
+/**
+ * Размеры и форма синтетического набора данных. Одинаковые seed и параметры дают одинаковые строки.
+ * <p>
+ * Показатели Zipf задают перекос популярности: чем больше показатель, тем сильнее первые жанры, авторы,
+ * книги и читатели собирают основную часть ссылок. overdueRate — доля просроченных выдач, которые
+ * к дате {@code to} так и не вернули; seasonality — размах сезонных колебаний числа выдач (0 — ровно).
+ */
+public record DatasetSpec(long seed,
+                          int genres, int authors, int books, int readers, int lendings,
+                          double genreSkew, double authorSkew, double bookSkew, double readerSkew,
+                          double overdueRate, double seasonality, int loanDays,
+                          LocalDate from, LocalDate to) {
+
+    public DatasetSpec {
+        if (genres < 1 || authors < 1 || books < 1 || readers < 1 || lendings < 0)
+            throw new IllegalArgumentException("Dataset needs at least one genre, author, book and reader");
+        if (overdueRate < 0 || overdueRate > 1)
+            throw new IllegalArgumentException("Overdue rate must be within [0, 1]: " + overdueRate);
+        if (seasonality < 0 || seasonality >= 1)
+            throw new IllegalArgumentException("Seasonality must be within [0, 1): " + seasonality);
+        if (!from.isBefore(to))
+            throw new IllegalArgumentException("Empty lending period " + from + " - " + to);
+        // читатель с датой регистрации в будущем не пройдёт валидацию сущности
+        if (to.isAfter(LocalDate.now()))
+            throw new IllegalArgumentException("Lending period must end no later than today: " + to);
+    }
+
+    /**
+     * Пропорции по умолчанию: на книгу приходится три выдачи за три года, на четыре книги — один читатель.
+     */
+    public static DatasetSpec scaled(int books, long seed) {
+        LocalDate to = LocalDate.now();
+        return new DatasetSpec(seed, 40, Math.max(1, books / 10), books, Math.max(1, books / 4), books * 3,
+                1.1, 1.0, 1.0, 0.6, 0.05, 0.3, 14, to.minusYears(3), to);
+    }
+
+    public DatasetSpec withReaders(int readers) {
+        return new DatasetSpec(seed, genres, authors, books, readers, lendings, genreSkew, authorSkew, bookSkew,
+                readerSkew, overdueRate, seasonality, loanDays, from, to);
+    }
+
+    public DatasetSpec withLendings(int lendings) {
+        return new DatasetSpec(seed, genres, authors, books, readers, lendings, genreSkew, authorSkew, bookSkew,
+                readerSkew, overdueRate, seasonality, loanDays, from, to);
+    }
+
+    public DatasetSpec withOverdueRate(double overdueRate) {
+        return new DatasetSpec(seed, genres, authors, books, readers, lendings, genreSkew, authorSkew, bookSkew,
+                readerSkew, overdueRate, seasonality, loanDays, from, to);
+    }
+
+    public DatasetSpec withSeasonality(double seasonality) {
+        return new DatasetSpec(seed, genres, authors, books, readers, lendings, genreSkew, authorSkew, bookSkew,
+                readerSkew, overdueRate, seasonality, loanDays, from, to);
+    }
+
+    public DatasetSpec withPeriod(LocalDate from, LocalDate to) {
+        return new DatasetSpec(seed, genres, authors, books, readers, lendings, genreSkew, authorSkew, bookSkew,
+                readerSkew, overdueRate, seasonality, loanDays, from, to);
+    }
+
+    public long totalRows() {
+        // в среднем 1.5 жанра на книгу
+        return genres + books + books * 3L / 2 + readers + lendings;
+    }
+}
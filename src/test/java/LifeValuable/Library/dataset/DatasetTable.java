@@ -0,0 +1,34 @@
+package LifeValuable.Library.dataset;
+
+import java.util.List;
+
+/**
+ * Таблицы набора данных в порядке загрузки: каждая ссылается только на предыдущие.
+ */
+public enum DatasetTable {
+    GENRE("genre", "id", "name", "description"),
+    BOOK("book", "id", "title", "author", "isbn", "publicationyear", "stock"),
+    BOOK_GENRE("book_genre", "book_id", "genre_id"),
+    READER("reader", "id", "firstname", "lastname", "email", "phonenumber", "registrationdate", "password", "role"),
+    LENDING("lending", "id", "book_id", "reader_id", "lendingdate", "duedate", "returndate", "status");
+
+    private final String table;
+    private final List<String> columns;
+
+    DatasetTable(String table, String... columns) {
+        this.table = table;
+        this.columns = List.of(columns);
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    public boolean hasId() {
+        return columns.get(0).equals("id");
+    }
+}
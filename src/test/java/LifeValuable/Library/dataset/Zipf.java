@@ -0,0 +1,118 @@
+package LifeValuable.Library.dataset;
+
+import java.math.BigInteger;
+import java.util.SplittableRandom;
+
+/**
+ * Распределение Zipf на рангах 1..n методом rejection-inversion (Hörmann, Derflinger): память O(1),
+ * поэтому подходит для миллионов книг. Ранг переводится в id перестановкой, чтобы популярные записи
+ * не шли подряд с начала таблицы.
+ */
+public final class Zipf {
+    private static final int EXACT_TERMS = 1000;
+
+    private final int n;
+    private final double exponent;
+    private final double hIntegralX1;
+    private final double hIntegralN;
+    private final double s;
+    private final double normalization;
+    private final long step;
+    private final long inverseStep;
+
+    public Zipf(int n, double exponent) {
+        this.n = n;
+        this.exponent = exponent;
+        this.hIntegralX1 = hIntegral(1.5) - 1;
+        this.hIntegralN = hIntegral(n + 0.5);
+        this.s = 2 - hIntegralInverse(hIntegral(2.5) - h(2));
+
+        double sum = 0;
+        for (int k = 1; k <= Math.min(n, EXACT_TERMS); k++)
+            sum += h(k);
+        if (n > EXACT_TERMS)
+            sum += hIntegral(n + 0.5) - hIntegral(EXACT_TERMS + 0.5);
+        this.normalization = sum;
+
+        // шаг, взаимно простой с n, даёт перестановку i -> i * step mod n
+        long candidate = 2_654_435_761L % n;
+        while (n > 1 && gcd(candidate, n) != 1)
+            candidate++;
+        this.step = Math.max(candidate, 1);
+        this.inverseStep = n > 1 ? BigInteger.valueOf(step).modInverse(BigInteger.valueOf(n)).longValue() : 1;
+    }
+
+    /**
+     * Ранг от 1 до n, ранг 1 самый частый.
+     */
+    int rank(SplittableRandom random) {
+        while (true) {
+            double u = hIntegralN + random.nextDouble() * (hIntegralX1 - hIntegralN);
+            double x = hIntegralInverse(u);
+            int k = (int) (x + 0.5);
+            if (k < 1)
+                k = 1;
+            else if (k > n)
+                k = n;
+            if (k - x <= s || u >= hIntegral(k + 0.5) - h(k))
+                return k;
+        }
+    }
+
+    /**
+     * Id от 1 до n, популярность которого соответствует выбранному рангу.
+     */
+    public long sample(SplittableRandom random) {
+        return id(rank(random));
+    }
+
+    long id(int rank) {
+        return (rank - 1) * step % n + 1;
+    }
+
+    int rank(long id) {
+        return (int) ((id - 1) * inverseStep % n) + 1;
+    }
+
+    /**
+     * Доля выборок, приходящаяся на ранг; сумма по всем рангам около 1.
+     */
+    double probability(int rank) {
+        return h(rank) / normalization;
+    }
+
+    private double h(double x) {
+        return Math.exp(-exponent * Math.log(x));
+    }
+
+    private double hIntegral(double x) {
+        double logX = Math.log(x);
+        return helper2((1 - exponent) * logX) * logX;
+    }
+
+    private double hIntegralInverse(double x) {
+        double t = x * (1 - exponent);
+        if (t < -1)
+            t = -1;
+        return Math.exp(helper1(t) * x);
+    }
+
+    // log1p(x) / x с устойчивым пределом в нуле
+    private static double helper1(double x) {
+        return Math.abs(x) > 1e-8 ? Math.log1p(x) / x : 1 - x * (0.5 - x * (1.0 / 3 - 0.25 * x));
+    }
+
+    // expm1(x) / x с устойчивым пределом в нуле
+    private static double helper2(double x) {
+        return Math.abs(x) > 1e-8 ? Math.expm1(x) / x : 1 + x * 0.5 * (1 + x * (1.0 / 3) * (1 + 0.25 * x));
+    }
+
+    private static long gcd(long a, long b) {
+        while (b != 0) {
+            long t = a % b;
+            a = b;
+            b = t;
+        }
+        return a;
+    }
+}
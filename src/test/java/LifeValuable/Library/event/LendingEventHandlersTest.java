@@ -0,0 +1,73 @@
+package LifeValuable.Library.event;
+
+import LifeValuable.Library.model.Book;
+import LifeValuable.Library.model.LendingStatus;
+import LifeValuable.Library.repository.BookRepository;
+import LifeValuable.Library.service.ReaderService;
+import LifeValuable.Library.service.TrendingService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LendingEventHandlersTest {
+
+    @Mock
+    private ReaderService readerService;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private TrendingService trendingService;
+
+    @Test
+    void whenAnyLendingEvent_thenReaderProfileIsEvicted() {
+        new ReaderProfileEvictionHandler(readerService).handle(event(LendingLifecycleEvent.Type.RETURNED));
+
+        verify(readerService).evictProfile("ivan@example.com");
+    }
+
+    @Test
+    void whenLendingCreated_thenBookIsRecordedInTrending() {
+        Book book = new Book();
+        book.setId(7L);
+        when(bookRepository.findById(7L)).thenReturn(Optional.of(book));
+
+        new TrendingLendingHandler(bookRepository, trendingService).handle(event(LendingLifecycleEvent.Type.CREATED));
+
+        verify(trendingService).recordLending(book);
+    }
+
+    @Test
+    void whenBookWasDeletedBeforeDelivery_thenTrendingIsSkipped() {
+        when(bookRepository.findById(7L)).thenReturn(Optional.empty());
+
+        new TrendingLendingHandler(bookRepository, trendingService).handle(event(LendingLifecycleEvent.Type.CREATED));
+
+        verifyNoInteractions(trendingService);
+    }
+
+    @Test
+    void whenLendingReturned_thenTrendingIsNotTouched() {
+        new TrendingLendingHandler(bookRepository, trendingService).handle(event(LendingLifecycleEvent.Type.RETURNED));
+
+        verifyNoInteractions(bookRepository, trendingService);
+    }
+
+    @Test
+    void whenEventType_thenDerivedFromLifecycleType() {
+        assertThat(event(LendingLifecycleEvent.Type.STATUS_CHANGED).eventType()).isEqualTo("lending.status_changed");
+        assertThat(event(LendingLifecycleEvent.Type.CREATED).aggregateId()).isEqualTo(3L);
+    }
+
+    private static LendingLifecycleEvent event(LendingLifecycleEvent.Type type) {
+        return new LendingLifecycleEvent(type, 3L, 7L, 1L, "ivan@example.com", LendingStatus.ACTIVE);
+    }
+}
@@ -0,0 +1,254 @@
+package LifeValuable.Library.idempotency;
+
+import LifeValuable.Library.cache.InMemoryCacheLease;
+import LifeValuable.Library.metrics.MetricsRegistry;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class IdempotencyFilterTest {
+    private static final String LENDING = "{\"bookId\":1,\"readerId\":2}";
+
+    private MapStore store;
+    private InMemoryCacheLease lease;
+    private IdempotencyFilter filter;
+    private AtomicInteger executions;
+    private volatile int status;
+
+    @BeforeEach
+    void setUp() {
+        store = new MapStore();
+        lease = new InMemoryCacheLease();
+        filter = filter(store);
+        executions = new AtomicInteger();
+        status = 201;
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated("librarian@example.com", null, List.of()));
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void whenRequestRepeated_thenStoredResponseIsReplayed() throws Exception {
+        MockHttpServletResponse first = perform(filter, "key-1", LENDING, handler());
+        MockHttpServletResponse second = perform(filter, "key-1", LENDING, handler());
+
+        assertThat(executions).hasValue(1);
+        assertThat(second.getStatus()).isEqualTo(201);
+        assertThat(second.getContentAsString()).isEqualTo(first.getContentAsString()).isEqualTo("{\"id\":1}");
+        assertThat(second.getHeader(HttpHeaders.LOCATION)).isEqualTo("/api/lendings/1");
+        assertThat(second.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(first.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+        assertThat(store.responses).hasSize(1);
+    }
+
+    @Test
+    void whenKeyReusedWithDifferentBody_thenRequestIsRejected() throws Exception {
+        perform(filter, "key-1", LENDING, handler());
+
+        MockHttpServletResponse response = perform(filter, "key-1", "{\"bookId\":3,\"readerId\":2}", handler());
+
+        assertThat(response.getStatus()).isEqualTo(422);
+        assertThat(response.getContentAsString()).contains("\"status\":422", "/api/lendings");
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void whenDuplicateArrivesDuringExecution_thenItWaitsForFirstResult() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slow = (request, response) -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            handler().doFilter(request, response);
+        };
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        CompletableFuture<MockHttpServletResponse> first = CompletableFuture.supplyAsync(() -> {
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+            return performUnchecked(filter, "key-1", LENDING, slow);
+        });
+        started.await(5, TimeUnit.SECONDS);
+        CompletableFuture<MockHttpServletResponse> duplicate = CompletableFuture.supplyAsync(() -> {
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+            return performUnchecked(filter, "key-1", LENDING, slow);
+        });
+        Thread.sleep(100);
+        release.countDown();
+
+        assertThat(first.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(201);
+        MockHttpServletResponse replayed = duplicate.get(5, TimeUnit.SECONDS);
+        assertThat(replayed.getStatus()).isEqualTo(201);
+        assertThat(replayed.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void whenServerErrorReturned_thenRetryExecutesAgain() throws Exception {
+        status = 503;
+        perform(filter, "key-1", LENDING, handler());
+        status = 201;
+
+        MockHttpServletResponse retry = perform(filter, "key-1", LENDING, handler());
+
+        assertThat(retry.getStatus()).isEqualTo(201);
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    void whenResponseStoredByAnotherNode_thenItIsReplayedWithoutExecution() throws Exception {
+        perform(filter, "key-1", LENDING, handler());
+
+        MockHttpServletResponse response = perform(filter(store), "key-1", LENDING, handler());
+
+        assertThat(response.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isEqualTo("true");
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void whenAnotherNodeHoldsLease_thenConflictIsReturned() throws Exception {
+        ReflectionTestUtils.setField(filter, "waitMs", 100L);
+        ReflectionTestUtils.setField(filter, "pollMs", 10L);
+        lease.tryAcquire("idempotency:librarian@example.com:key-1", Duration.ofSeconds(30));
+
+        MockHttpServletResponse response = perform(filter, "key-1", LENDING, handler());
+
+        assertThat(response.getStatus()).isEqualTo(409);
+        assertThat(response.getHeader(HttpHeaders.RETRY_AFTER)).isEqualTo("1");
+        assertThat(executions).hasValue(0);
+    }
+
+    @Test
+    void whenRequestOutlivesLeaseTtl_thenLeaseIsRenewedAndOtherNodeDoesNotExecute() throws Exception {
+        ReflectionTestUtils.setField(filter, "leaseTtlMs", 60L);
+        IdempotencyFilter otherNode = filter(store);
+        ReflectionTestUtils.setField(otherNode, "waitMs", 50L);
+        ReflectionTestUtils.setField(otherNode, "pollMs", 10L);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        FilterChain slow = (request, response) -> {
+            started.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            handler().doFilter(request, response);
+        };
+        var authentication = SecurityContextHolder.getContext().getAuthentication();
+
+        CompletableFuture<MockHttpServletResponse> first = CompletableFuture.supplyAsync(() -> {
+            SecurityContextHolder.getContext().setAuthentication(authentication);
+            return performUnchecked(filter, "key-1", LENDING, slow);
+        });
+        started.await(5, TimeUnit.SECONDS);
+        Thread.sleep(200);
+        MockHttpServletResponse duplicate = perform(otherNode, "key-1", LENDING, handler());
+        release.countDown();
+
+        assertThat(duplicate.getStatus()).isEqualTo(409);
+        assertThat(first.get(5, TimeUnit.SECONDS).getStatus()).isEqualTo(201);
+        assertThat(executions).hasValue(1);
+    }
+
+    @Test
+    void whenKeysBelongToDifferentUsers_thenTheyDoNotCollide() throws Exception {
+        perform(filter, "key-1", LENDING, handler());
+        SecurityContextHolder.getContext().setAuthentication(
+                UsernamePasswordAuthenticationToken.authenticated("admin@example.com", null, List.of()));
+
+        MockHttpServletResponse response = perform(filter, "key-1", LENDING, handler());
+
+        assertThat(response.getHeader(IdempotencyFilter.REPLAYED_HEADER)).isNull();
+        assertThat(executions).hasValue(2);
+    }
+
+    @Test
+    void whenNoKeyOrKeyTooLong_thenRequestIsNotDeduplicated() throws Exception {
+        perform(filter, null, LENDING, handler());
+        perform(filter, null, LENDING, handler());
+        MockHttpServletResponse invalid = perform(filter, "k".repeat(256), LENDING, handler());
+
+        assertThat(executions).hasValue(2);
+        assertThat(invalid.getStatus()).isEqualTo(400);
+    }
+
+    private FilterChain handler() {
+        return (request, response) -> {
+            byte[] body = request.getInputStream().readAllBytes();
+            assertThat(new String(body, StandardCharsets.UTF_8)).startsWith("{\"bookId\"");
+            int id = executions.incrementAndGet();
+            HttpServletResponse http = (HttpServletResponse) response;
+            http.setStatus(status);
+            http.setHeader(HttpHeaders.LOCATION, "/api/lendings/" + id);
+            http.setContentType("application/json");
+            http.getOutputStream().write(("{\"id\":" + id + "}").getBytes(StandardCharsets.UTF_8));
+        };
+    }
+
+    private IdempotencyFilter filter(IdempotencyStore store) {
+        return new IdempotencyFilter(store, lease, new MetricsRegistry());
+    }
+
+    private static MockHttpServletResponse perform(IdempotencyFilter filter, String key, String body,
+                                                   FilterChain chain) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/lendings");
+        if (key != null)
+            request.addHeader(IdempotencyFilter.HEADER, key);
+        request.setContentType("application/json");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        filter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static MockHttpServletResponse performUnchecked(IdempotencyFilter filter, String key, String body,
+                                                            FilterChain chain) {
+        try {
+            return perform(filter, key, body, chain);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static final class MapStore implements IdempotencyStore {
+        private final Map<String, IdempotentResponse> responses = new ConcurrentHashMap<>();
+
+        @Override
+        public IdempotentResponse find(String key) {
+            return responses.get(key);
+        }
+
+        @Override
+        public void save(String key, IdempotentResponse response, Duration ttl) {
+            responses.put(key, response);
+        }
+    }
+}
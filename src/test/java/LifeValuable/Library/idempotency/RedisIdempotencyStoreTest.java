@@ -0,0 +1,59 @@
+package LifeValuable.Library.idempotency;
+
+import LifeValuable.Library.cache.FakeRedisServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RedisIdempotencyStoreTest {
+    private FakeRedisServer redis;
+    private JedisConnectionFactory connectionFactory;
+    private RedisIdempotencyStore store;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        redis = new FakeRedisServer().start();
+        connectionFactory = new JedisConnectionFactory(new RedisStandaloneConfiguration("localhost", redis.getPort()));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        store = new RedisIdempotencyStore(new StringRedisTemplate(connectionFactory), null);
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionFactory.destroy();
+        redis.close();
+    }
+
+    @Test
+    void whenSaved_thenResponseRoundTripsWithTtl() {
+        byte[] body = "{\"id\":1}".getBytes(StandardCharsets.UTF_8);
+        store.save("librarian:key-1", new IdempotentResponse("abc", 201, "application/json", "/api/lendings/1", body),
+                Duration.ofHours(24));
+
+        IdempotentResponse found = store.find("librarian:key-1");
+
+        assertThat(found.fingerprint()).isEqualTo("abc");
+        assertThat(found.status()).isEqualTo(201);
+        assertThat(found.location()).isEqualTo("/api/lendings/1");
+        assertThat(found.body()).isEqualTo(body);
+        assertThat(store.find("librarian:key-2")).isNull();
+    }
+
+    @Test
+    void whenRedisIsDown_thenStoreBehavesAsEmpty() {
+        redis.close();
+
+        store.save("librarian:key-1", new IdempotentResponse("abc", 201, null, null, new byte[0]), Duration.ofHours(1));
+
+        assertThat(store.find("librarian:key-1")).isNull();
+    }
+}
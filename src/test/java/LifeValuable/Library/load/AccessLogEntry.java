@@ -0,0 +1,56 @@
+package LifeValuable.Library.load;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Строка журнала доступа в формате common или combined (Tomcat AccessLogValve, nginx, Apache):
+ * {@code 10.0.0.1 - user [10/Oct/2025:13:55:36 +0300] "GET /api/books/42 HTTP/1.1" 200 2326 ...}.
+ */
+public record AccessLogEntry(Instant time, String method, String target, int status) {
+    private static final Pattern LINE = Pattern.compile(
+            "^\\S+ \\S+ \\S+ \\[([^\\]]+)] \"(\\S+) (\\S+)(?: [^\"]*)?\" (\\d{3})(?: |$)");
+    private static final DateTimeFormatter TIME = DateTimeFormatter.ofPattern("dd/MMM/yyyy:HH:mm:ss Z", Locale.ENGLISH);
+
+    public static Optional<AccessLogEntry> parse(String line) {
+        Matcher matcher = LINE.matcher(line);
+        if (!matcher.find())
+            return Optional.empty();
+        try {
+            Instant time = OffsetDateTime.parse(matcher.group(1), TIME).toInstant();
+            return Optional.of(new AccessLogEntry(time, matcher.group(2), matcher.group(3),
+                    Integer.parseInt(matcher.group(4))));
+        } catch (DateTimeParseException e) {
+            return Optional.empty();
+        }
+    }
+
+    public String endpoint() {
+        return Endpoints.key(method, target);
+    }
+
+    /**
+     * Воспроизводятся только чтения API: изменяющие запросы испортили бы набор данных, а входы, выходы
+     * и администрирование к профилю нагрузки каталога не относятся.
+     */
+    public boolean isReplayable() {
+        return (method.equals("GET") || method.equals("HEAD"))
+                && target.startsWith("/api/")
+                && !target.startsWith("/api/auth/")
+                && !target.startsWith("/api/admin/");
+    }
+
+    /**
+     * Запрос каталога или собственного профиля, доступный читателю; остальное отправляется от библиотекаря.
+     */
+    public boolean isPatronRequest() {
+        return target.startsWith("/api/books") || target.startsWith("/api/genres")
+                || target.startsWith("/api/readers/me");
+    }
+}
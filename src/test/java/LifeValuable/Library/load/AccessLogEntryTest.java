@@ -0,0 +1,63 @@
+package LifeValuable.Library.load;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class AccessLogEntryTest {
+
+    @Test
+    void whenCommonLogLine_thenParsed() {
+        AccessLogEntry entry = AccessLogEntry.parse(
+                "10.0.0.1 - - [10/Oct/2025:13:55:36 +0300] \"GET /api/books/42 HTTP/1.1\" 200 2326").orElseThrow();
+
+        assertThat(entry.time()).isEqualTo(Instant.parse("2025-10-10T10:55:36Z"));
+        assertThat(entry.method()).isEqualTo("GET");
+        assertThat(entry.target()).isEqualTo("/api/books/42");
+        assertThat(entry.status()).isEqualTo(200);
+    }
+
+    @Test
+    void whenCombinedLogLineWithUser_thenParsed() {
+        AccessLogEntry entry = AccessLogEntry.parse("192.168.1.5 - librarian@example.com [01/Mar/2026:08:00:01 +0000] "
+                + "\"POST /api/lendings HTTP/2.0\" 201 - \"-\" \"Mozilla/5.0 (X11; Linux)\"").orElseThrow();
+
+        assertThat(entry.method()).isEqualTo("POST");
+        assertThat(entry.status()).isEqualTo(201);
+        assertThat(entry.isReplayable()).isFalse();
+    }
+
+    @Test
+    void whenLineMalformed_thenEmpty() {
+        assertThat(AccessLogEntry.parse("")).isEmpty();
+        assertThat(AccessLogEntry.parse("10.0.0.1 - - [yesterday] \"GET / HTTP/1.1\" 200 1")).isEmpty();
+        assertThat(AccessLogEntry.parse("10.0.0.1 - - [10/Oct/2025:13:55:36 +0300] \"-\" 400 0")).isEmpty();
+    }
+
+    @Test
+    void whenReadOfApi_thenReplayedFromMatchingSession() {
+        assertThat(entry("GET", "/api/books/search?genre=x").isReplayable()).isTrue();
+        assertThat(entry("GET", "/api/books/search?genre=x").isPatronRequest()).isTrue();
+        assertThat(entry("GET", "/api/readers/7").isPatronRequest()).isFalse();
+        assertThat(entry("GET", "/api/readers/me").isPatronRequest()).isTrue();
+        assertThat(entry("GET", "/api/admin/statistics").isReplayable()).isFalse();
+        assertThat(entry("GET", "/swagger-ui/index.html").isReplayable()).isFalse();
+        assertThat(entry("DELETE", "/api/books/1").isReplayable()).isFalse();
+    }
+
+    @Test
+    void whenEndpointKeyed_thenIdsAndQueryValuesDropped() {
+        assertThat(Endpoints.key("GET", "/api/books/42")).isEqualTo("GET /api/books/{id}");
+        assertThat(Endpoints.key("POST", "/api/lendings/17/return")).isEqualTo("POST /api/lendings/{id}/return");
+        assertThat(Endpoints.key("GET", "/api/books/search?titleFragment=war&page=2&size=20"))
+                .isEqualTo("GET /api/books/search?page&size&titleFragment");
+        assertThat(Endpoints.key("GET", "/api/books/search?")).isEqualTo("GET /api/books/search");
+        assertThat(Endpoints.key("GET", "/api/books/trending")).isEqualTo("GET /api/books/trending");
+    }
+
+    private static AccessLogEntry entry(String method, String target) {
+        return new AccessLogEntry(Instant.EPOCH, method, target, 200);
+    }
+}
@@ -0,0 +1,138 @@
+package LifeValuable.Library.load;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Воспроизводит журнал доступа с исходными интервалами между запросами, ускоренными в {@code speed} раз.
+ * <p>
+ * Журнал читается потоком, поэтому подходит для суточных логов. Время в журнале с точностью до секунды,
+ * запросы одной секунды равномерно распределяются внутри неё. Запросы каталога идут от сессии читателя,
+ * остальные — от сессии библиотекаря; ожидаемым считается статус из журнала, поэтому расхождения из-за
+ * отличий набора данных от продакшена видны в отчёте отдельно от ошибок сервера. Изменяющие запросы
+ * не воспроизводятся (см. {@link AccessLogEntry#isReplayable()}).
+ */
+@Slf4j
+public class AccessLogReplay {
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final LoadClient client;
+    private final double speed;
+    private final int maxInFlight;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LoadClient.Session patron = new LoadClient.Session();
+    private final LoadClient.Session librarian = new LoadClient.Session();
+
+    public AccessLogReplay(LoadClient client, double speed, int maxInFlight) {
+        if (speed <= 0)
+            throw new IllegalArgumentException("Replay speed must be positive: " + speed);
+        this.client = client;
+        this.speed = speed;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Входит под читателем и библиотекарем; эти запросы в отчёт не попадают.
+     */
+    public void login(String patronEmail, String librarianEmail, String password)
+            throws InterruptedException, ExecutionException {
+        ObjectMapper objectMapper = new ObjectMapper();
+        try {
+            long now = System.nanoTime();
+            client.send(patron, "login", "POST", "/api/auth/login",
+                    objectMapper.writeValueAsString(Map.of("email", patronEmail, "password", password)), 200, now).get();
+            client.send(librarian, "login", "POST", "/api/auth/login",
+                    objectMapper.writeValueAsString(Map.of("email", librarianEmail, "password", password)), 200, now).get();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    public LoadReport replay(Path file, Duration warmup) throws IOException, InterruptedException {
+        LoadReport report = client.getReport();
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        Instant origin = null;
+        List<AccessLogEntry> second = new ArrayList<>();
+        long lines = 0;
+        long skipped = 0;
+
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lines++;
+                Optional<AccessLogEntry> parsed = AccessLogEntry.parse(line);
+                if (parsed.isEmpty() || !parsed.get().isReplayable()) {
+                    report.skipped();
+                    skipped++;
+                    continue;
+                }
+                AccessLogEntry entry = parsed.get();
+                if (origin == null)
+                    origin = entry.time();
+                if (!second.isEmpty() && !entry.time().equals(second.get(0).time())) {
+                    send(second, origin, start, measureFrom);
+                    second.clear();
+                }
+                second.add(entry);
+            }
+        }
+        if (!second.isEmpty())
+            send(second, origin, start, measureFrom);
+        report.stopMeasuring();
+        awaitDrain();
+        log.info("Replayed {} log lines, {} skipped", lines, skipped);
+        return report;
+    }
+
+    private void send(List<AccessLogEntry> entries, Instant origin, long start, long measureFrom)
+            throws InterruptedException {
+        LoadReport report = client.getReport();
+        double offsetSeconds = Duration.between(origin, entries.get(0).time()).toMillis() / 1000.0;
+        for (int i = 0; i < entries.size(); i++) {
+            AccessLogEntry entry = entries.get(i);
+            long dueAt = start + (long) ((offsetSeconds + (double) i / entries.size()) / speed * 1e9);
+            long wait = dueAt - System.nanoTime();
+            if (wait > 0)
+                LockSupport.parkNanos(wait);
+            if (Thread.interrupted())
+                throw new InterruptedException();
+            if (!report.isMeasuring() && System.nanoTime() >= measureFrom)
+                report.startMeasuring();
+
+            if (inFlight.get() >= maxInFlight) {
+                report.dropped();
+                continue;
+            }
+            inFlight.incrementAndGet();
+            client.send(entry.isPatronRequest() ? patron : librarian, entry.endpoint(), entry.method(), entry.target(),
+                            null, entry.status(), dueAt)
+                    .whenComplete((response, failure) -> inFlight.decrementAndGet());
+        }
+    }
+
+    private void awaitDrain() throws InterruptedException {
+        long deadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (inFlight.get() > 0 && System.nanoTime() < deadline)
+            TimeUnit.MILLISECONDS.sleep(50);
+        if (inFlight.get() > 0)
+            log.warn("{} requests still running after {}", inFlight.get(), DRAIN_TIMEOUT);
+    }
+}
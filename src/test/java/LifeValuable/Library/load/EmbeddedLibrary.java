@@ -0,0 +1,73 @@
+package LifeValuable.Library.load;
+
+import LifeValuable.Library.LibraryApp;
+import LifeValuable.Library.cache.FakeRedisServer;
+import LifeValuable.Library.dataset.BenchmarkDataset;
+import LifeValuable.Library.dataset.DatasetSpec;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.catalina.LifecycleException;
+import org.apache.catalina.startup.Tomcat;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.SQLException;
+
+/**
+ * {@link LibraryApp} на свободном порту поверх H2 в памяти с набором данных и {@link FakeRedisServer}
+ * вместо Redis. Каталоги журнала аудита, архива выдач и Tomcat создаются во временном каталоге.
+ * Базу можно заменить своей через свойства {@link BenchmarkDataset}.
+ */
+@Slf4j
+public class EmbeddedLibrary implements AutoCloseable {
+    private final FakeRedisServer redis;
+    private final Tomcat tomcat;
+    private final URI baseUri;
+
+    private EmbeddedLibrary(FakeRedisServer redis, Tomcat tomcat) {
+        this.redis = redis;
+        this.tomcat = tomcat;
+        this.baseUri = URI.create("http://localhost:" + tomcat.getConnector().getLocalPort());
+    }
+
+    public static EmbeddedLibrary start(DatasetSpec spec) throws IOException, SQLException, LifecycleException {
+        Path directory = Files.createTempDirectory("library-load");
+        System.setProperty("catalina.base", directory.resolve("tomcat").toString());
+        System.setProperty("audit.directory", directory.resolve("audit").toString());
+        System.setProperty("lending.archive.directory", directory.resolve("archive").toString());
+
+        FakeRedisServer redis = new FakeRedisServer().start();
+        System.setProperty("redis.host", "127.0.0.1");
+        System.setProperty("redis.port", String.valueOf(redis.getPort()));
+        try {
+            BenchmarkDataset.start("load", spec).close();
+            long started = System.nanoTime();
+            Tomcat tomcat = LibraryApp.start(0);
+            EmbeddedLibrary library = new EmbeddedLibrary(redis, tomcat);
+            log.info("Library started at {} in {} ms", library.baseUri, (System.nanoTime() - started) / 1_000_000);
+            return library;
+        } catch (SQLException | LifecycleException | RuntimeException e) {
+            redis.close();
+            throw e;
+        }
+    }
+
+    public URI getBaseUri() {
+        return baseUri;
+    }
+
+    public FakeRedisServer getRedis() {
+        return redis;
+    }
+
+    @Override
+    public void close() throws LifecycleException {
+        try {
+            tomcat.stop();
+            tomcat.destroy();
+        } finally {
+            redis.close();
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package LifeValuable.Library.load;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Задержки и исходы запросов одной конечной точки. Задержки хранятся в микросекундах с точностью
+ * до трёх значащих цифр; всё, что дольше {@link #MAX_LATENCY_MICROS}, записывается как максимум.
+ */
+public class EndpointStats {
+    static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(5);
+
+    private final Histogram latencies = new ConcurrentHistogram(MAX_LATENCY_MICROS, 3);
+    private final LongAdder requests = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final LongAdder mismatches = new LongAdder();
+
+    /**
+     * @param status статус ответа или 0, если ответа не было
+     * @param expected ожидаемый статус; расхождение без ошибки сервера считается отдельно от ошибок
+     */
+    public void record(long latencyMicros, int status, int expected) {
+        latencies.recordValue(Math.min(Math.max(latencyMicros, 0), MAX_LATENCY_MICROS));
+        requests.increment();
+        if (status == 0 || status >= 500)
+            errors.increment();
+        else if (status != expected)
+            mismatches.increment();
+    }
+
+    public long getRequests() {
+        return requests.sum();
+    }
+
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    public long getMismatches() {
+        return mismatches.sum();
+    }
+
+    public double errorRate() {
+        long total = getRequests();
+        return total == 0 ? 0 : (double) getErrors() / total;
+    }
+
+    /**
+     * Задержка в миллисекундах для перцентиля от 0 до 100.
+     */
+    public double percentileMillis(double percentile) {
+        return latencies.getValueAtPercentile(percentile) / 1000.0;
+    }
+
+    public double maxMillis() {
+        return latencies.getMaxValue() / 1000.0;
+    }
+}
@@ -0,0 +1,36 @@
+package LifeValuable.Library.load;
+
+import java.util.Arrays;
+import java.util.TreeSet;
+
+/**
+ * Имя конечной точки для отчёта: метод, путь с числовыми сегментами, заменёнными на {@code {id}},
+ * и отсортированные имена параметров запроса без значений. Сценарии и воспроизведение журнала
+ * пользуются одними именами, поэтому их отчёты сравнимы построчно.
+ */
+public final class Endpoints {
+
+    private Endpoints() {
+    }
+
+    public static String key(String method, String target) {
+        int query = target.indexOf('?');
+        String path = query < 0 ? target : target.substring(0, query);
+        String[] segments = path.split("/", -1);
+        for (int i = 0; i < segments.length; i++) {
+            if (!segments[i].isEmpty() && segments[i].chars().allMatch(Character::isDigit))
+                segments[i] = "{id}";
+        }
+        StringBuilder key = new StringBuilder(method).append(' ').append(String.join("/", segments));
+        if (query >= 0) {
+            TreeSet<String> names = new TreeSet<>();
+            Arrays.stream(target.substring(query + 1).split("&"))
+                    .filter(parameter -> !parameter.isEmpty())
+                    .map(parameter -> parameter.split("=", 2)[0])
+                    .forEach(names::add);
+            if (!names.isEmpty())
+                key.append('?').append(String.join("&", names));
+        }
+        return key.toString();
+    }
+}
@@ -0,0 +1,138 @@
+package LifeValuable.Library.load;
+
+import LifeValuable.Library.dataset.DatasetGenerator;
+import LifeValuable.Library.dataset.DatasetSpec;
+import LifeValuable.Library.dataset.DatasetTable;
+import LifeValuable.Library.dataset.Zipf;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Сценарии поверх набора данных {@link DatasetGenerator}: книги и читатели выбираются с той же популярностью,
+ * с какой они попадали в выдачи при генерации.
+ * <ul>
+ *     <li>читатель — вход, поиск по слову названия или жанру, просмотр одной-трёх книг, свой профиль, выход;</li>
+ *     <li>библиотекарь за стойкой — вход, карточка читателя, выдача одной-трёх книг подряд, возврат стольких же
+ *     ранее выданных книг, выход.</li>
+ * </ul>
+ * Пакетной выдачи в API нет, поэтому выдача пачки — это несколько {@code POST /api/lendings} подряд.
+ */
+public class LibraryScenarios {
+    private static final int MAX_BOOKS_PER_VISIT = 3;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final DatasetSpec spec;
+    private final Zipf books;
+    private final Zipf readers;
+    private final Zipf genres;
+    private final List<String> titleWords = DatasetGenerator.titleWords();
+    private final List<String> librarians;
+    private final Queue<Long> openLendings = new ConcurrentLinkedQueue<>();
+
+    public LibraryScenarios(DatasetSpec spec) throws SQLException {
+        this.spec = spec;
+        this.books = new Zipf(spec.books(), spec.bookSkew());
+        this.readers = new Zipf(spec.readers(), spec.readerSkew());
+        this.genres = new Zipf(spec.genres(), spec.genreSkew());
+        this.librarians = librarians(spec);
+        if (librarians.isEmpty())
+            throw new IllegalArgumentException("Dataset with " + spec.readers() + " readers has no librarians");
+    }
+
+    public List<String> getLibrarians() {
+        return librarians;
+    }
+
+    public Scenario patron() {
+        return user -> {
+            String email = "reader" + readers.sample(user.random()) + "@example.com";
+            int views = 1 + user.random().nextInt(MAX_BOOKS_PER_VISIT);
+            CompletableFuture<?> chain = user.post("/api/auth/login", login(email), 200)
+                    .thenCompose(response -> user.get(search(user)));
+            for (int i = 0; i < views; i++)
+                chain = chain.thenCompose(response -> user.get("/api/books/" + books.sample(user.random())));
+            return chain
+                    .thenCompose(response -> user.get("/api/readers/me"))
+                    .thenCompose(response -> user.post("/api/auth/logout", null, 200));
+        };
+    }
+
+    public Scenario desk() {
+        return user -> {
+            String email = librarians.get(user.random().nextInt(librarians.size()));
+            long readerId = readers.sample(user.random());
+            int batch = 1 + user.random().nextInt(MAX_BOOKS_PER_VISIT);
+            CompletableFuture<?> chain = user.post("/api/auth/login", login(email), 200)
+                    .thenCompose(response -> user.get("/api/readers/" + readerId));
+            for (int i = 0; i < batch; i++)
+                chain = chain.thenCompose(response -> checkout(user, readerId));
+            for (int i = 0; i < batch; i++)
+                chain = chain.thenCompose(response -> giveBack(user));
+            return chain.thenCompose(response -> user.post("/api/auth/logout", null, 200));
+        };
+    }
+
+    private String search(UserSession user) {
+        if (user.random().nextBoolean())
+            return "/api/books/search?titleFragment=" + encode(titleWords.get(user.random().nextInt(titleWords.size())));
+        return "/api/books/search?genre=" + encode(DatasetGenerator.genreName(genres.sample(user.random())));
+    }
+
+    private CompletableFuture<?> checkout(UserSession user, long readerId) {
+        LocalDate today = LocalDate.now();
+        String body = json(Map.of("bookId", books.sample(user.random()), "readerId", readerId,
+                "lendingDate", today.toString(), "dueDate", today.plusDays(spec.loanDays()).toString()));
+        return user.post("/api/lendings", body, 201).thenAccept(response -> {
+            try {
+                openLendings.add(objectMapper.readTree(response.body()).get("id").asLong());
+            } catch (JsonProcessingException e) {
+                throw new CompletionException(e);
+            }
+        });
+    }
+
+    // возвращается самая давняя из выдач, оформленных сценарием, поэтому запасы книг не истощаются
+    private CompletableFuture<?> giveBack(UserSession user) {
+        Long lendingId = openLendings.poll();
+        if (lendingId == null)
+            return CompletableFuture.completedFuture(null);
+        return user.post("/api/lendings/" + lendingId + "/return", null, 200);
+    }
+
+    private String login(String email) {
+        return json(Map.of("email", email, "password", DatasetGenerator.PASSWORD));
+    }
+
+    private String json(Map<String, Object> values) {
+        try {
+            return objectMapper.writeValueAsString(values);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static List<String> librarians(DatasetSpec spec) throws SQLException {
+        List<String> emails = new ArrayList<>();
+        new DatasetGenerator(spec).generate(DatasetTable.READER, values -> {
+            if ("LIBRARIAN".equals(values[7]))
+                emails.add((String) values[3]);
+        });
+        return List.copyOf(emails);
+    }
+}
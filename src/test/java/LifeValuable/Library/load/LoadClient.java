@@ -0,0 +1,98 @@
+package LifeValuable.Library.load;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Асинхронный HTTP-клиент прогона: одно соединение на всех, сессии различаются только cookie JSESSIONID,
+ * которую клиент держит сам. Задержка считается от запланированного момента запроса, а не от фактической
+ * отправки, поэтому отставание планировщика под нагрузкой попадает в перцентили (без coordinated omission).
+ */
+public class LoadClient {
+    private static final Duration TIMEOUT = Duration.ofSeconds(30);
+    private static final String SESSION_COOKIE = "JSESSIONID=";
+
+    private final HttpClient http;
+    private final URI baseUri;
+    private final LoadReport report;
+
+    public LoadClient(URI baseUri, LoadReport report) {
+        this.http = HttpClient.newBuilder()
+                .connectTimeout(TIMEOUT)
+                .followRedirects(HttpClient.Redirect.NEVER)
+                .build();
+        this.baseUri = baseUri;
+        this.report = report;
+    }
+
+    public LoadReport getReport() {
+        return report;
+    }
+
+    public record Response(int status, String body) {
+    }
+
+    /**
+     * Ответ пришёл со статусом, отличным от ожидаемого; сценарий на этом прерывается.
+     */
+    public static class UnexpectedStatusException extends RuntimeException {
+        public UnexpectedStatusException(String endpoint, int status, int expected) {
+            super(String.format("%s returned %d, expected %d", endpoint, status, expected));
+        }
+    }
+
+    /**
+     * Cookie сессии сервера; до входа пустая.
+     */
+    public static class Session {
+        private volatile String cookie;
+
+        public boolean isLoggedIn() {
+            return cookie != null;
+        }
+    }
+
+    /**
+     * Отправляет запрос и записывает его в отчёт под именем {@code endpoint}. Будущее завершается
+     * исключением, если статус не совпал с {@code expected} или ответа не было.
+     *
+     * @param intendedAt момент по {@link System#nanoTime()}, когда запрос должен был уйти
+     */
+    public CompletableFuture<Response> send(Session session, String endpoint, String method, String path,
+                                            String jsonBody, int expected, long intendedAt) {
+        HttpRequest.Builder request = HttpRequest.newBuilder(baseUri.resolve(path))
+                .timeout(TIMEOUT)
+                .header("Accept", "application/json");
+        if (jsonBody == null) {
+            request.method(method, HttpRequest.BodyPublishers.noBody());
+        } else {
+            request.header("Content-Type", "application/json");
+            request.method(method, HttpRequest.BodyPublishers.ofString(jsonBody));
+        }
+        String cookie = session.cookie;
+        if (cookie != null)
+            request.header("Cookie", cookie);
+
+        return http.sendAsync(request.build(), HttpResponse.BodyHandlers.ofString())
+                .handle((response, failure) -> {
+                    long latency = TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - intendedAt);
+                    int status = failure == null ? response.statusCode() : 0;
+                    report.record(endpoint, latency, status, expected);
+                    if (failure != null)
+                        throw failure instanceof CompletionException completion ? completion : new CompletionException(failure);
+                    response.headers().allValues("Set-Cookie").stream()
+                            .filter(value -> value.startsWith(SESSION_COOKIE))
+                            .findFirst()
+                            .ifPresent(value -> session.cookie = value.split(";", 2)[0]);
+                    if (status != expected)
+                        throw new UnexpectedStatusException(endpoint, status, expected);
+                    return new Response(status, response.body());
+                });
+    }
+}
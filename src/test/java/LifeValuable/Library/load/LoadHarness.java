@@ -0,0 +1,75 @@
+package LifeValuable.Library.load;
+
+import LifeValuable.Library.dataset.BenchmarkDataset;
+import LifeValuable.Library.dataset.DatasetGenerator;
+import LifeValuable.Library.dataset.DatasetSpec;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Нагрузочный прогон REST API. По умолчанию поднимает {@link EmbeddedLibrary} с набором данных
+ * {@code dataset.books} книг и подаёт открытую нагрузку сценариев {@link LibraryScenarios}; с
+ * {@code load.mode=replay} вместо сценариев воспроизводит журнал доступа {@code load.log}.
+ * <p>
+ * Свойства: {@code load.rate} — пользователей в секунду, {@code load.duration} и {@code load.warmup} — секунды
+ * замера и прогрева, {@code load.desk-share} — доля сессий библиотекарей, {@code load.think-ms} — средняя пауза
+ * между шагами, {@code load.max-sessions} — предел одновременных сессий или запросов, {@code load.speed} —
+ * ускорение воспроизведения, {@code load.csv} — файл для сводки, {@code load.url} — уже запущенный сервер
+ * с тем же набором данных вместо встроенного.
+ * <p>
+ * Запуск: {@code java -cp <test classpath> -Dload.rate=5 LifeValuable.Library.load.LoadHarness}. Вход проверяет
+ * пароль BCrypt(12), поэтому на одном ядре интенсивность выше нескольких входов в секунду упирается в процессор.
+ */
+public class LoadHarness {
+    private static final DatasetSpec DEFAULT_DATASET = DatasetSpec.scaled(10_000, 42);
+
+    public static void main(String[] args) throws Exception {
+        DatasetSpec spec = BenchmarkDataset.spec(DEFAULT_DATASET);
+        String url = System.getProperty("load.url");
+        EmbeddedLibrary library = url == null ? EmbeddedLibrary.start(spec) : null;
+        int exitCode = 0;
+        try {
+            URI baseUri = library != null ? library.getBaseUri() : URI.create(url);
+            LoadClient client = new LoadClient(baseUri, new LoadReport());
+            LibraryScenarios scenarios = new LibraryScenarios(spec);
+            Duration warmup = Duration.ofSeconds(Long.getLong("load.warmup", 10));
+            int maxSessions = Integer.getInteger("load.max-sessions", 200);
+
+            LoadReport report;
+            if (System.getProperty("load.mode", "open").equals("replay")) {
+                String log = System.getProperty("load.log");
+                if (log == null)
+                    throw new IllegalArgumentException("load.log is required for replay");
+                AccessLogReplay replay = new AccessLogReplay(client,
+                        Double.parseDouble(System.getProperty("load.speed", "1")), maxSessions);
+                replay.login("reader1@example.com", scenarios.getLibrarians().get(0), DatasetGenerator.PASSWORD);
+                report = replay.replay(Path.of(log), warmup);
+            } else {
+                double deskShare = Double.parseDouble(System.getProperty("load.desk-share", "0.2"));
+                OpenModelDriver driver = new OpenModelDriver(client,
+                        Double.parseDouble(System.getProperty("load.rate", "2")), maxSessions,
+                        Long.getLong("load.think-ms", 500), spec.seed());
+                report = driver.run(List.of(
+                                new OpenModelDriver.Weighted(scenarios.patron(), 1 - deskShare),
+                                new OpenModelDriver.Weighted(scenarios.desk(), deskShare)),
+                        warmup, Duration.ofSeconds(Long.getLong("load.duration", 60)));
+            }
+
+            report.print(System.out);
+            String csv = System.getProperty("load.csv");
+            if (csv != null)
+                report.writeCsv(Path.of(csv));
+        } catch (Exception e) {
+            e.printStackTrace();
+            exitCode = 1;
+        } finally {
+            if (library != null)
+                library.close();
+        }
+        // планировщики приложения не дают JVM завершиться сами
+        System.exit(exitCode);
+    }
+}
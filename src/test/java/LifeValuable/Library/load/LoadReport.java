@@ -0,0 +1,151 @@
+package LifeValuable.Library.load;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Сводка прогона по конечным точкам. Пока идёт прогрев, запросы не записываются: замер начинается
+ * с {@link #startMeasuring()} и заканчивается {@link #stopMeasuring()}, по этому окну считается пропускная способность.
+ */
+public class LoadReport {
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+
+    private final Map<String, EndpointStats> endpoints = new ConcurrentHashMap<>();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder sessions = new LongAdder();
+    private final LongAdder abortedSessions = new LongAdder();
+    private volatile boolean measuring;
+    private volatile long startedAt;
+    private volatile long stoppedAt;
+
+    public void startMeasuring() {
+        startedAt = System.nanoTime();
+        measuring = true;
+    }
+
+    public void stopMeasuring() {
+        if (measuring) {
+            stoppedAt = System.nanoTime();
+            measuring = false;
+        }
+    }
+
+    public boolean isMeasuring() {
+        return measuring;
+    }
+
+    public void record(String endpoint, long latencyMicros, int status, int expected) {
+        if (measuring)
+            endpoints.computeIfAbsent(endpoint, key -> new EndpointStats()).record(latencyMicros, status, expected);
+    }
+
+    /**
+     * Прибытие не обслужено: достигнут предел одновременных сессий.
+     */
+    public void dropped() {
+        if (measuring)
+            dropped.increment();
+    }
+
+    /**
+     * Строка журнала не воспроизводится: изменяющий запрос, служебный путь или нераспознанный формат.
+     */
+    public void skipped() {
+        if (measuring)
+            skipped.increment();
+    }
+
+    /**
+     * Сессия сценария закончилась; прерванной считается сессия, на одном из шагов которой пришёл не тот статус.
+     */
+    public void sessionFinished(boolean completed) {
+        if (measuring) {
+            sessions.increment();
+            if (!completed)
+                abortedSessions.increment();
+        }
+    }
+
+    public EndpointStats getEndpoint(String endpoint) {
+        return endpoints.get(endpoint);
+    }
+
+    public Map<String, EndpointStats> getEndpoints() {
+        return new TreeMap<>(endpoints);
+    }
+
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    public long getSkipped() {
+        return skipped.sum();
+    }
+
+    public long getSessions() {
+        return sessions.sum();
+    }
+
+    public long getAbortedSessions() {
+        return abortedSessions.sum();
+    }
+
+    public double elapsedSeconds() {
+        long end = measuring ? System.nanoTime() : stoppedAt;
+        return startedAt == 0 ? 0 : (end - startedAt) / 1e9;
+    }
+
+    public void print(PrintStream out) {
+        double seconds = elapsedSeconds();
+        out.printf(Locale.ROOT, "%-48s %8s %8s %7s %8s %8s %8s %8s %8s %6s%n", "endpoint", "requests", "rps",
+                "errors", "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "mism");
+        long total = 0;
+        long errors = 0;
+        for (Map.Entry<String, EndpointStats> entry : getEndpoints().entrySet()) {
+            EndpointStats stats = entry.getValue();
+            total += stats.getRequests();
+            errors += stats.getErrors();
+            out.printf(Locale.ROOT, "%-48s %8d %8.1f %6.2f%% %8.1f %8.1f %8.1f %8.1f %8.1f %6d%n", entry.getKey(),
+                    stats.getRequests(), rate(stats.getRequests(), seconds), stats.errorRate() * 100,
+                    stats.percentileMillis(PERCENTILES[0]), stats.percentileMillis(PERCENTILES[1]),
+                    stats.percentileMillis(PERCENTILES[2]), stats.percentileMillis(PERCENTILES[3]),
+                    stats.maxMillis(), stats.getMismatches());
+        }
+        out.printf(Locale.ROOT, "total: %d requests in %.1f s, %.1f rps, %.2f%% errors, %d dropped arrivals, %d skipped%n",
+                total, seconds, rate(total, seconds), total == 0 ? 0 : errors * 100.0 / total, getDropped(), getSkipped());
+        if (getSessions() > 0)
+            out.printf(Locale.ROOT, "sessions: %d finished, %d aborted%n", getSessions(), getAbortedSessions());
+    }
+
+    /**
+     * Одна строка на конечную точку, чтобы сравнивать прогоны разных версий.
+     */
+    public void writeCsv(Path file) throws IOException {
+        double seconds = elapsedSeconds();
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
+            out.println("endpoint,requests,rps,errors,mismatches,p50_ms,p90_ms,p99_ms,p999_ms,max_ms");
+            for (Map.Entry<String, EndpointStats> entry : getEndpoints().entrySet()) {
+                EndpointStats stats = entry.getValue();
+                out.printf(Locale.ROOT, "\"%s\",%d,%.2f,%d,%d,%.3f,%.3f,%.3f,%.3f,%.3f%n",
+                        entry.getKey().replace("\"", "\"\""), stats.getRequests(), rate(stats.getRequests(), seconds),
+                        stats.getErrors(), stats.getMismatches(), stats.percentileMillis(PERCENTILES[0]),
+                        stats.percentileMillis(PERCENTILES[1]), stats.percentileMillis(PERCENTILES[2]),
+                        stats.percentileMillis(PERCENTILES[3]), stats.maxMillis());
+            }
+        }
+    }
+
+    private static double rate(long count, double seconds) {
+        return seconds == 0 ? 0 : count / seconds;
+    }
+}
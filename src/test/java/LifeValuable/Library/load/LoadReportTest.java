@@ -0,0 +1,78 @@
+package LifeValuable.Library.load;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.assertj.core.api.Assertions.withinPercentage;
+
+class LoadReportTest {
+    private final LoadReport report = new LoadReport();
+
+    @Test
+    void whenWarmingUp_thenNothingRecorded() {
+        report.record("GET /api/books/{id}", 1000, 200, 200);
+        report.dropped();
+        report.sessionFinished(false);
+
+        assertThat(report.getEndpoints()).isEmpty();
+        assertThat(report.getDropped()).isZero();
+        assertThat(report.getSessions()).isZero();
+    }
+
+    @Test
+    void whenStatusesRecorded_thenServerErrorsSeparatedFromMismatches() {
+        report.startMeasuring();
+        report.record("GET /api/books/{id}", 1000, 200, 200);
+        report.record("GET /api/books/{id}", 2000, 404, 200);
+        report.record("GET /api/books/{id}", 3000, 503, 200);
+        report.record("GET /api/books/{id}", 4000, 0, 200);
+
+        EndpointStats stats = report.getEndpoint("GET /api/books/{id}");
+        assertThat(stats.getRequests()).isEqualTo(4);
+        assertThat(stats.getErrors()).isEqualTo(2);
+        assertThat(stats.getMismatches()).isEqualTo(1);
+        assertThat(stats.errorRate()).isEqualTo(0.5);
+    }
+
+    @Test
+    void whenLatenciesRecorded_thenPercentilesInMillis() {
+        report.startMeasuring();
+        for (int i = 1; i <= 1000; i++)
+            report.record("GET /api/readers/me", i * 100L, 200, 200);
+        report.record("GET /api/readers/me", Long.MAX_VALUE, 200, 200);
+
+        EndpointStats stats = report.getEndpoint("GET /api/readers/me");
+        assertThat(stats.percentileMillis(50)).isCloseTo(50, withinPercentage(0.5));
+        assertThat(stats.percentileMillis(99)).isCloseTo(99, withinPercentage(0.5));
+        assertThat(stats.maxMillis()).isCloseTo(EndpointStats.MAX_LATENCY_MICROS / 1000.0, within(200.0));
+    }
+
+    @Test
+    void whenPrintedAndWritten_thenOneLinePerEndpoint(@TempDir Path directory) throws IOException {
+        report.startMeasuring();
+        report.record("POST /api/lendings", 5000, 201, 201);
+        report.record("GET /api/books/search?genre", 7000, 200, 200);
+        report.sessionFinished(true);
+        report.stopMeasuring();
+
+        ByteArrayOutputStream printed = new ByteArrayOutputStream();
+        report.print(new PrintStream(printed, true, StandardCharsets.UTF_8));
+        assertThat(printed.toString(StandardCharsets.UTF_8))
+                .contains("GET /api/books/search?genre", "POST /api/lendings", "total: 2 requests",
+                        "sessions: 1 finished, 0 aborted");
+
+        Path csv = directory.resolve("report.csv");
+        report.writeCsv(csv);
+        assertThat(Files.readAllLines(csv)).hasSize(3)
+                .element(1).asString().startsWith("\"GET /api/books/search?genre\",1,");
+    }
+}
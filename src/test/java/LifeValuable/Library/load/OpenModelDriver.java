@@ -0,0 +1,106 @@
+package LifeValuable.Library.load;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Открытая модель нагрузки: пользователи приходят пуассоновским потоком с заданной интенсивностью
+ * независимо от того, как быстро отвечает сервер. В отличие от замкнутой модели с фиксированным числом
+ * потоков, замедление сервера не снижает подаваемую нагрузку, а копит одновременные сессии; сверх
+ * {@code maxSessions} прибытия отбрасываются и считаются в отчёте.
+ */
+@Slf4j
+public class OpenModelDriver {
+    private static final Duration DRAIN_TIMEOUT = Duration.ofSeconds(30);
+
+    private final LoadClient client;
+    private final double arrivalsPerSecond;
+    private final int maxSessions;
+    private final long meanThinkMillis;
+    private final SplittableRandom random;
+    private final AtomicInteger active = new AtomicInteger();
+
+    public record Weighted(Scenario scenario, double weight) {
+    }
+
+    public OpenModelDriver(LoadClient client, double arrivalsPerSecond, int maxSessions, long meanThinkMillis, long seed) {
+        if (arrivalsPerSecond <= 0)
+            throw new IllegalArgumentException("Arrival rate must be positive: " + arrivalsPerSecond);
+        this.client = client;
+        this.arrivalsPerSecond = arrivalsPerSecond;
+        this.maxSessions = maxSessions;
+        this.meanThinkMillis = meanThinkMillis;
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * Подаёт нагрузку {@code warmup + duration}, записывая в отчёт только {@code duration}, затем ждёт
+     * завершения начатых сессий.
+     */
+    public LoadReport run(List<Weighted> mix, Duration warmup, Duration duration) throws InterruptedException {
+        LoadReport report = client.getReport();
+        double totalWeight = mix.stream().mapToDouble(Weighted::weight).sum();
+        long start = System.nanoTime();
+        long measureFrom = start + warmup.toNanos();
+        long end = measureFrom + duration.toNanos();
+        long nextArrival = start;
+
+        while (nextArrival < end) {
+            long wait = nextArrival - System.nanoTime();
+            if (wait > 0)
+                LockSupport.parkNanos(wait);
+            if (Thread.interrupted())
+                throw new InterruptedException();
+            if (!report.isMeasuring() && System.nanoTime() >= measureFrom)
+                report.startMeasuring();
+
+            if (active.get() >= maxSessions) {
+                report.dropped();
+            } else {
+                active.incrementAndGet();
+                UserSession user = new UserSession(client, random.split(), meanThinkMillis, nextArrival);
+                CompletableFuture<?> session;
+                try {
+                    session = pick(mix, totalWeight).run(user);
+                } catch (RuntimeException e) {
+                    session = CompletableFuture.failedFuture(e);
+                }
+                session.whenComplete((result, failure) -> {
+                    active.decrementAndGet();
+                    report.sessionFinished(failure == null);
+                    if (failure != null)
+                        log.debug("Session aborted: {}", failure.getMessage());
+                });
+            }
+            nextArrival += (long) (-Math.log(1 - random.nextDouble()) / arrivalsPerSecond * 1e9);
+        }
+        report.stopMeasuring();
+        awaitDrain();
+        return report;
+    }
+
+    private Scenario pick(List<Weighted> mix, double totalWeight) {
+        double point = random.nextDouble() * totalWeight;
+        for (Weighted weighted : mix) {
+            point -= weighted.weight();
+            if (point < 0)
+                return weighted.scenario();
+        }
+        return mix.get(mix.size() - 1).scenario();
+    }
+
+    private void awaitDrain() throws InterruptedException {
+        long deadline = System.nanoTime() + DRAIN_TIMEOUT.toNanos();
+        while (active.get() > 0 && System.nanoTime() < deadline)
+            TimeUnit.MILLISECONDS.sleep(50);
+        if (active.get() > 0)
+            log.warn("{} sessions still running after {}", active.get(), DRAIN_TIMEOUT);
+    }
+}
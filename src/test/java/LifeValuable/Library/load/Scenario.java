@@ -0,0 +1,12 @@
+package LifeValuable.Library.load;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Цепочка запросов одного пользователя. Будущее завершается, когда пользователь уходит; исключение
+ * означает, что сценарий прерван на неудачном шаге.
+ */
+@FunctionalInterface
+public interface Scenario {
+    CompletableFuture<?> run(UserSession user);
+}
@@ -0,0 +1,51 @@
+package LifeValuable.Library.load;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Один пользователь сценария: своя сессия сервера, свой генератор случайных чисел и пауза на размышление
+ * между шагами. Первый шаг запланирован на момент прибытия, каждый следующий — через экспоненциальную
+ * паузу после ответа на предыдущий.
+ */
+public class UserSession {
+    private final LoadClient client;
+    private final LoadClient.Session session = new LoadClient.Session();
+    private final SplittableRandom random;
+    private final long meanThinkNanos;
+    private long nextAt;
+
+    public UserSession(LoadClient client, SplittableRandom random, long meanThinkMillis, long arrivedAt) {
+        this.client = client;
+        this.random = random;
+        this.meanThinkNanos = TimeUnit.MILLISECONDS.toNanos(meanThinkMillis);
+        this.nextAt = arrivedAt;
+    }
+
+    public SplittableRandom random() {
+        return random;
+    }
+
+    public CompletableFuture<LoadClient.Response> get(String path) {
+        return step("GET", path, null, 200);
+    }
+
+    public CompletableFuture<LoadClient.Response> post(String path, String jsonBody, int expected) {
+        return step("POST", path, jsonBody, expected);
+    }
+
+    private CompletableFuture<LoadClient.Response> step(String method, String path, String jsonBody, int expected) {
+        long intendedAt = nextAt;
+        long delay = intendedAt - System.nanoTime();
+        Executor executor = delay > 0 ? CompletableFuture.delayedExecutor(delay, TimeUnit.NANOSECONDS) : Runnable::run;
+        return CompletableFuture.supplyAsync(() -> intendedAt, executor)
+                .thenCompose(at -> client.send(session, Endpoints.key(method, path), method, path, jsonBody, expected, at))
+                .whenComplete((response, failure) -> nextAt = System.nanoTime() + think());
+    }
+
+    private long think() {
+        return meanThinkNanos == 0 ? 0 : (long) (-Math.log(1 - random.nextDouble()) * meanThinkNanos);
+    }
+}
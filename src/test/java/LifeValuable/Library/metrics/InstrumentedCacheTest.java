@@ -0,0 +1,58 @@
+package LifeValuable.Library.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCache;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class InstrumentedCacheTest {
+    private final MetricsRegistry registry = new MetricsRegistry();
+    private final Cache cache = new InstrumentedCache(new ConcurrentMapCache("books"), registry);
+
+    @Test
+    void whenLoaderCalled_thenMissOtherwiseHit() throws IOException {
+        cache.get(1L, () -> "Война и мир");
+        cache.get(1L, () -> "Война и мир");
+        cache.get(1L, () -> "Война и мир");
+
+        assertThat(scrape()).contains(
+                "library_cache_requests_total{cache=\"books\",result=\"hit\"} 2\n",
+                "library_cache_requests_total{cache=\"books\",result=\"miss\"} 1\n",
+                "library_cache_load_seconds_count{cache=\"books\"} 1\n");
+    }
+
+    @Test
+    void whenBulkLookup_thenHitsAndMissesCountedPerKey() throws IOException {
+        cache.put(1L, "Война и мир");
+        cache.put(2L, "Идиот");
+
+        Map<Object, Object> found = ((InstrumentedCache) cache).getAll(List.of(1L, 2L, 3L));
+
+        assertThat(found).hasSize(2);
+        assertThat(scrape()).contains(
+                "library_cache_requests_total{cache=\"books\",result=\"hit\"} 2\n",
+                "library_cache_requests_total{cache=\"books\",result=\"miss\"} 1\n",
+                "library_cache_puts_total{cache=\"books\"} 2\n");
+    }
+
+    @Test
+    void whenEvicted_thenEvictionCounted() throws IOException {
+        cache.put(1L, "Война и мир");
+        cache.evict(1L);
+
+        assertThat(cache.get(1L)).isNull();
+        assertThat(scrape()).contains("library_cache_evictions_total{cache=\"books\"} 1\n");
+    }
+
+    private String scrape() throws IOException {
+        StringWriter writer = new StringWriter();
+        registry.writeTo(writer);
+        return writer.toString();
+    }
+}
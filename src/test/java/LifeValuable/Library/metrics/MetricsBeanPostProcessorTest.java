@@ -0,0 +1,90 @@
+package LifeValuable.Library.metrics;
+
+import LifeValuable.Library.config.DataConfig;
+import LifeValuable.Library.repository.BookRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.Cacheable;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.stereotype.Service;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringJUnitConfig({DataConfig.class, MetricsRegistry.class, SqlStatistics.class, MetricsBeanPostProcessor.class,
+        MetricsBeanPostProcessorTest.CachingConfig.class})
+@TestPropertySource(locations = "classpath:application-test.properties")
+class MetricsBeanPostProcessorTest {
+
+    @Autowired
+    private MetricsRegistry registry;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private Catalog catalog;
+
+    public interface Catalog {
+        String title(Long id);
+    }
+
+    @Service
+    public static class CatalogService implements Catalog {
+        private final AtomicInteger loads = new AtomicInteger();
+
+        @Cacheable("titles")
+        @Override
+        public String title(Long id) {
+            return "Книга " + id + " #" + loads.incrementAndGet();
+        }
+    }
+
+    @Configuration
+    @EnableCaching
+    static class CachingConfig {
+        @Bean
+        public CacheManager cacheManager() {
+            return new ConcurrentMapCacheManager("titles");
+        }
+
+        @Bean
+        public CatalogService catalogService() {
+            return new CatalogService();
+        }
+    }
+
+    @Test
+    void whenRepositoryCalled_thenQueryTimedUnderRepositoryInterface() throws IOException {
+        bookRepository.count();
+        bookRepository.count();
+
+        assertThat(scrape())
+                .contains("library_repository_query_seconds_count{repository=\"BookRepository\",method=\"count\"} 2\n")
+                .containsPattern("library_jdbc_connection_acquire_seconds_count [1-9]");
+    }
+
+    @Test
+    void whenServiceAlreadyProxied_thenTimingIncludesCacheAndProxyStillWorks() throws IOException {
+        assertThat(catalog.title(1L)).isEqualTo("Книга 1 #1");
+        assertThat(catalog.title(1L)).isEqualTo("Книга 1 #1");
+
+        assertThat(scrape())
+                .contains("library_service_method_seconds_count{service=\"CatalogService\",method=\"title\"} 2\n");
+    }
+
+    private String scrape() throws IOException {
+        StringWriter writer = new StringWriter();
+        registry.writeTo(writer);
+        return writer.toString();
+    }
+}
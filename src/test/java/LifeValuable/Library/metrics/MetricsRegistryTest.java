@@ -0,0 +1,109 @@
+package LifeValuable.Library.metrics;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MetricsRegistryTest {
+    private final MetricsRegistry registry = new MetricsRegistry();
+
+    @Test
+    void whenCounterIncremented_thenWrittenWithTotalSuffixAndLabels() throws IOException {
+        Counter counter = registry.counter("library_test_events", "Test events", "kind");
+        counter.labels("a").inc();
+        counter.labels("a").inc(2);
+
+        assertThat(scrape()).contains(
+                "# HELP library_test_events Test events\n# TYPE library_test_events counter\n",
+                "library_test_events_total{kind=\"a\"} 3\n");
+    }
+
+    @Test
+    void whenHistogramObserved_thenBucketsAreCumulative() throws IOException {
+        Histogram.Child histogram = registry.histogram("library_test_seconds", "Test durations").labels();
+        histogram.observeNanos(TimeUnit.MICROSECONDS.toNanos(300));
+        histogram.observeNanos(TimeUnit.MILLISECONDS.toNanos(3));
+        histogram.observeNanos(TimeUnit.SECONDS.toNanos(30));
+
+        String output = scrape();
+
+        assertThat(output).contains(
+                "library_test_seconds_bucket{le=\"0.0005\"} 1\n",
+                "library_test_seconds_bucket{le=\"0.001\"} 1\n",
+                "library_test_seconds_bucket{le=\"0.005\"} 2\n",
+                "library_test_seconds_bucket{le=\"10\"} 2\n",
+                "library_test_seconds_bucket{le=\"+Inf\"} 3\n",
+                "library_test_seconds_count 3\n",
+                "library_test_seconds_sum 30.0033\n");
+    }
+
+    @Test
+    void whenGaugeRegistered_thenValueReadOnScrape() throws IOException {
+        double[] value = {1.5};
+        registry.gauge("library_test_level", "Test level", () -> value[0]);
+        value[0] = 7;
+
+        assertThat(scrape()).contains("# TYPE library_test_level gauge\nlibrary_test_level 7\n");
+    }
+
+    @Test
+    void whenLabelValueHasQuotes_thenEscaped() throws IOException {
+        registry.counter("library_test_events", "Test events", "kind").labels("say \"hi\"\n").inc();
+
+        assertThat(scrape()).contains("library_test_events_total{kind=\"say \\\"hi\\\"\\n\"} 1\n");
+    }
+
+    @Test
+    void whenRegisteredTwice_thenSameFamilyReturned() {
+        Counter first = registry.counter("library_test_events", "Test events", "kind");
+
+        assertThat(registry.counter("library_test_events", "Test events", "kind")).isSameAs(first);
+        assertThatThrownBy(() -> registry.histogram("library_test_events", "Test events", "kind"))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> first.labels("a", "b"))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void whenUpdatedConcurrently_thenNoUpdatesLost() throws Exception {
+        Counter counter = registry.counter("library_test_events", "Test events", "kind");
+        Histogram histogram = registry.histogram("library_test_seconds", "Test durations", "kind");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < 8; t++)
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    counter.labels("k" + (i % 4)).inc();
+                    histogram.labels("k" + (i % 4)).observeNanos(i);
+                }
+            }));
+        for (Future<?> future : futures)
+            future.get();
+        executor.shutdown();
+
+        long total = 0;
+        long observed = 0;
+        for (int k = 0; k < 4; k++) {
+            total += counter.labels("k" + k).get();
+            observed += histogram.labels("k" + k).getCount();
+        }
+        assertThat(total).isEqualTo(80_000);
+        assertThat(observed).isEqualTo(80_000);
+    }
+
+    private String scrape() throws IOException {
+        StringWriter writer = new StringWriter();
+        registry.writeTo(writer);
+        return writer.toString();
+    }
+}
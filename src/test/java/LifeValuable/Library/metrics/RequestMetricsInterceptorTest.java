@@ -0,0 +1,53 @@
+package LifeValuable.Library.metrics;
+
+import LifeValuable.Library.controller.BookController;
+import LifeValuable.Library.exception.BookNotFoundException;
+import LifeValuable.Library.exception.GlobalExceptionHandler;
+import LifeValuable.Library.service.BookService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.io.StringWriter;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class RequestMetricsInterceptorTest {
+
+    @Mock
+    private BookService bookService;
+
+    private final MetricsRegistry registry = new MetricsRegistry();
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new BookController(bookService))
+                .setControllerAdvice(new GlobalExceptionHandler())
+                .addInterceptors(new RequestMetricsInterceptor(registry))
+                .build();
+    }
+
+    @Test
+    void whenRequestsHandled_thenTimedPerControllerMethodAndStatus() throws Exception {
+        when(bookService.findById(99L)).thenThrow(new BookNotFoundException(99L));
+
+        mockMvc.perform(get("/api/books/99")).andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/books/99")).andExpect(status().isNotFound());
+
+        StringWriter writer = new StringWriter();
+        registry.writeTo(writer);
+        assertThat(writer.toString())
+                .contains("library_http_server_requests_seconds_count{controller=\"BookController\",method=\"getById\",status=\"404\"} 2\n")
+                .contains("library_http_server_requests_active 0\n");
+    }
+}
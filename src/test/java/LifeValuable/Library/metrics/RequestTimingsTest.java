@@ -0,0 +1,84 @@
+package LifeValuable.Library.metrics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestTimingsTest {
+
+    @AfterEach
+    void tearDown() {
+        RequestTimings.end();
+    }
+
+    @Test
+    void whenNoRequestInProgress_thenSpanIsNoop() {
+        try (RequestTimings.Span span = RequestTimings.span(RequestTimings.Category.DB)) {
+            assertThat(RequestTimings.current()).isNull();
+        }
+    }
+
+    @Test
+    void whenSpansNested_thenInnerTimeSubtractedFromOuter() {
+        RequestTimings timings = RequestTimings.begin();
+
+        try (RequestTimings.Span cache = RequestTimings.span(RequestTimings.Category.CACHE)) {
+            try (RequestTimings.Span db = RequestTimings.span(RequestTimings.Category.DB)) {
+                sleepMillis(20);
+            }
+        }
+
+        assertThat(timings.getSelfNanos(RequestTimings.Category.DB)).isGreaterThanOrEqualTo(20_000_000);
+        assertThat(timings.getSelfNanos(RequestTimings.Category.CACHE)).isLessThan(10_000_000);
+        assertThat(timings.getCount(RequestTimings.Category.CACHE)).isEqualTo(1);
+        assertThat(timings.getCount(RequestTimings.Category.DB)).isEqualTo(1);
+    }
+
+    @Test
+    void whenSameCategoryNested_thenCountedOnce() {
+        RequestTimings timings = RequestTimings.begin();
+
+        for (int i = 0; i < 2; i++) {
+            try (RequestTimings.Span repository = RequestTimings.span(RequestTimings.Category.DB)) {
+                RequestTimings.span(RequestTimings.Category.DB).close();
+            }
+        }
+
+        assertThat(timings.getCount(RequestTimings.Category.DB)).isEqualTo(2);
+    }
+
+    @Test
+    void whenOuterClosedFirst_thenInnerSpansClosedToo() {
+        RequestTimings timings = RequestTimings.begin();
+        RequestTimings.Span security = timings.open(RequestTimings.Category.SECURITY);
+        RequestTimings.span(RequestTimings.Category.SERVICE);
+
+        security.close();
+
+        assertThat(timings.getCount(RequestTimings.Category.SECURITY)).isEqualTo(1);
+        assertThat(timings.getCount(RequestTimings.Category.SERVICE)).isEqualTo(1);
+    }
+
+    @Test
+    void whenFormatted_thenServerTimingContainsUsedLayersAppAndTotal() {
+        RequestTimings timings = RequestTimings.begin();
+        RequestTimings.span(RequestTimings.Category.DB).close();
+        RequestTimings.span(RequestTimings.Category.DB).close();
+        RequestTimings.span(RequestTimings.Category.JSON).close();
+
+        Map<String, Double> millis = timings.toMillis();
+        assertThat(millis).containsOnlyKeys("db", "json", "app", "total");
+        assertThat(timings.toServerTiming())
+                .matches("db;dur=\\d+\\.\\d;desc=\"2 calls\", json;dur=\\d+\\.\\d, app;dur=\\d+\\.\\d, total;dur=\\d+\\.\\d");
+    }
+
+    static void sleepMillis(long millis) {
+        long deadline = System.nanoTime() + millis * 1_000_000;
+        while (System.nanoTime() < deadline)
+            LockSupport.parkNanos(deadline - System.nanoTime());
+    }
+}
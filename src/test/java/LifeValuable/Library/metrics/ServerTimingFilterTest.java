@@ -0,0 +1,100 @@
+package LifeValuable.Library.metrics;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.http.HttpServlet;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ServerTimingFilterTest {
+    private SlowRequestLog slowRequestLog;
+    private RequestTimingFilter requestTimingFilter;
+    private ServerTimingFilter serverTimingFilter;
+
+    @BeforeEach
+    void setUp() {
+        slowRequestLog = new SlowRequestLog(2);
+        ReflectionTestUtils.setField(slowRequestLog, "thresholdMs", 0L);
+        requestTimingFilter = new RequestTimingFilter(slowRequestLog);
+        serverTimingFilter = new ServerTimingFilter();
+        serverTimingFilter.setRoles("ADMIN");
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void whenRoleAllowed_thenServerTimingHeaderIncludesBodyWrite() throws Exception {
+        authenticate("ROLE_ADMIN");
+        MockHttpServletResponse response = perform("/api/lendings");
+
+        assertThat(response.getHeader(ServerTimingFilter.HEADER))
+                .contains("security;dur=", "db;dur=", "json;dur=", "total;dur=");
+        assertThat(response.getContentAsString()).isEqualTo("{\"id\":1}");
+    }
+
+    @Test
+    void whenRoleNotAllowed_thenNoHeader() throws Exception {
+        authenticate("ROLE_READER");
+        MockHttpServletResponse response = perform("/api/lendings");
+
+        assertThat(response.getHeader(ServerTimingFilter.HEADER)).isNull();
+        assertThat(response.getContentAsString()).isEqualTo("{\"id\":1}");
+    }
+
+    @Test
+    void whenRequestsFinish_thenRingBufferKeepsMostRecent() throws Exception {
+        perform("/api/books/1");
+        perform("/api/books/2");
+        perform("/api/books/3");
+
+        List<SlowRequestLog.Entry> recent = slowRequestLog.getRecent(10);
+        assertThat(recent).extracting(SlowRequestLog.Entry::path).containsExactly("/api/books/3", "/api/books/2");
+        assertThat(recent.get(0).status()).isEqualTo(HttpServletResponse.SC_OK);
+        assertThat(recent.get(0).breakdownMs()).containsKeys("security", "db", "json", "app", "total");
+    }
+
+    @Test
+    void whenFasterThanThreshold_thenNotRecorded() throws Exception {
+        ReflectionTestUtils.setField(slowRequestLog, "thresholdMs", 60_000L);
+
+        perform("/api/books/1");
+
+        assertThat(slowRequestLog.getRecent(10)).isEmpty();
+    }
+
+    private MockHttpServletResponse perform(String path) throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        Filter handler = (servletRequest, servletResponse, next) -> {
+            RequestTimings.span(RequestTimings.Category.DB).close();
+            try (RequestTimings.Span span = RequestTimings.span(RequestTimings.Category.JSON)) {
+                servletResponse.getOutputStream().write("{\"id\":1}".getBytes(StandardCharsets.UTF_8));
+                servletResponse.flushBuffer();
+            }
+        };
+        MockFilterChain chain = new MockFilterChain(new HttpServlet() {}, serverTimingFilter, handler);
+        requestTimingFilter.doFilter(request, response, chain);
+        return response;
+    }
+
+    private static void authenticate(String authority) {
+        SecurityContextHolder.getContext().setAuthentication(UsernamePasswordAuthenticationToken.authenticated(
+                "user", null, List.of(new SimpleGrantedAuthority(authority))));
+    }
+}
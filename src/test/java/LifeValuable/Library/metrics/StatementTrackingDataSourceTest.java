@@ -0,0 +1,141 @@
+package LifeValuable.Library.metrics;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class StatementTrackingDataSourceTest {
+    private SqlStatistics statistics;
+    private StatementTrackingDataSource dataSource;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        statistics = new SqlStatistics();
+        dataSource = new StatementTrackingDataSource(
+                new DriverManagerDataSource("jdbc:h2:mem:statements;DB_CLOSE_DELAY=-1", "sa", ""), statistics);
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("create table item (id bigint primary key, name varchar(50))");
+        }
+        statistics.reset();
+    }
+
+    @AfterEach
+    void tearDown() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.execute("drop table item");
+        }
+    }
+
+    @Test
+    void whenPreparedStatementExecutedRepeatedly_thenOneShapeWithCountsAndRows() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement insert = connection.prepareStatement("insert into item (id, name) values (?, ?)")) {
+            for (long id = 1; id <= 3; id++) {
+                insert.setLong(1, id);
+                insert.setString(2, "item " + id);
+                insert.addBatch();
+            }
+            insert.executeBatch();
+        }
+
+        try (Connection connection = dataSource.getConnection()) {
+            for (int i = 0; i < 2; i++) {
+                try (PreparedStatement select = connection.prepareStatement("select id from item where id > ?")) {
+                    select.setLong(1, 0);
+                    try (ResultSet resultSet = select.executeQuery()) {
+                        while (resultSet.next()) {
+                        }
+                    }
+                }
+            }
+        }
+
+        List<SqlStatistics.Snapshot> shapes = statistics.getTopByTotalTime(10);
+        assertThat(shapes).hasSize(2);
+        SqlStatistics.Snapshot insert = shape(shapes, "insert");
+        assertThat(insert.count()).isEqualTo(1);
+        assertThat(insert.rows()).isEqualTo(3);
+        SqlStatistics.Snapshot select = shape(shapes, "select");
+        assertThat(select.count()).isEqualTo(2);
+        assertThat(select.rows()).isEqualTo(6);
+        assertThat(select.maxMs()).isGreaterThan(0);
+    }
+
+    @Test
+    void whenLiteralsDiffer_thenStatementsShareShape() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.executeQuery("select name from item where id = 1").close();
+            statement.executeQuery("select name from item where id = 2").close();
+            statement.executeQuery("select name from item where name = 'x' and id in (1, 2, 3)").close();
+        }
+
+        assertThat(statistics.getTopByTotalTime(10))
+                .extracting(SqlStatistics.Snapshot::sql)
+                .containsExactlyInAnyOrder("select name from item where id = ?",
+                        "select name from item where name = ? and id in (?...)");
+    }
+
+    @Test
+    void whenResetCalled_thenShapesCleared() throws SQLException {
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.executeQuery("select count(*) from item").close();
+        }
+
+        statistics.reset();
+
+        assertThat(statistics.getTopByTotalTime(10)).isEmpty();
+    }
+
+    @Test
+    void whenShapeLimitReached_thenNewShapesGoToOtherBucket() throws SQLException {
+        ReflectionTestUtils.setField(statistics, "maxShapes", 1);
+
+        try (Connection connection = dataSource.getConnection(); Statement statement = connection.createStatement()) {
+            statement.executeQuery("select id from item").close();
+            statement.executeQuery("select name from item").close();
+        }
+
+        assertThat(statistics.getTopByTotalTime(10))
+                .extracting(SqlStatistics.Snapshot::sql)
+                .containsExactlyInAnyOrder("select id from item", SqlStatistics.OTHER_SHAPE);
+    }
+
+    @Test
+    void whenQueryIsSlow_thenSlowCountIncremented() throws SQLException {
+        ReflectionTestUtils.setField(statistics, "slowQueryThresholdMs", 0L);
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement select = connection.prepareStatement("select name from item where id = ?")) {
+            select.setLong(1, 1);
+            select.executeQuery().close();
+        }
+
+        assertThat(statistics.getTopByTotalTime(1).get(0).slowCount()).isEqualTo(1);
+    }
+
+    @Test
+    void whenManyDistinctStatements_thenNormalizedSqlCacheStaysBounded() {
+        for (int i = 0; i < SqlStatistics.MAX_NORMALIZED_STATEMENTS * 2; i++)
+            statistics.shape("select name from item where id = " + i);
+
+        assertThat(statistics.getNormalizedCount()).isLessThanOrEqualTo(SqlStatistics.MAX_NORMALIZED_STATEMENTS);
+        assertThat(statistics.getTopByTotalTime(10))
+                .extracting(SqlStatistics.Snapshot::sql)
+                .containsExactly("select name from item where id = ?");
+    }
+
+    private static SqlStatistics.Snapshot shape(List<SqlStatistics.Snapshot> shapes, String prefix) {
+        return shapes.stream().filter(shape -> shape.sql().startsWith(prefix)).findFirst().orElseThrow();
+    }
+}
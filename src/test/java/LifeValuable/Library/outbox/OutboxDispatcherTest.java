@@ -0,0 +1,224 @@
+package LifeValuable.Library.outbox;
+
+import LifeValuable.Library.config.DataConfig;
+import LifeValuable.Library.metrics.MetricsRegistry;
+import LifeValuable.Library.model.OutboxEvent;
+import LifeValuable.Library.repository.OutboxEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.IllegalTransactionStateException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringJUnitConfig({DataConfig.class, OutboxPublisher.class})
+@TestPropertySource(locations = "classpath:application-test.properties",
+        properties = "spring.datasource.url=jdbc:h2:mem:outbox;DB_CLOSE_DELAY=-1")
+class OutboxDispatcherTest {
+
+    @Autowired
+    private OutboxPublisher publisher;
+
+    @Autowired
+    private OutboxEventRepository repository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+    private MetricsRegistry registry;
+    private RecordingHandler handler;
+    private OutboxDispatcher dispatcher;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        repository.deleteAll();
+        registry = new MetricsRegistry();
+        handler = new RecordingHandler();
+        dispatcher = new OutboxDispatcher(repository, List.of(handler, new OtherAggregateHandler()),
+                transaction, registry, Clock.systemUTC());
+    }
+
+    @Test
+    void whenPublishedOutsideTransaction_thenRejected() {
+        assertThatThrownBy(() -> publisher.publish(new TestMessage(1L, "a")))
+                .isInstanceOf(IllegalTransactionStateException.class);
+        assertThat(repository.count()).isZero();
+    }
+
+    @Test
+    void whenEventsDispatched_thenDeliveredInOrderPerAggregateAndDeleted() {
+        publish(new TestMessage(1L, "first"), new TestMessage(2L, "other"), new TestMessage(1L, "second"));
+
+        dispatcher.poll();
+
+        assertThat(handler.received).containsExactly(
+                new TestMessage(1L, "first"), new TestMessage(2L, "other"), new TestMessage(1L, "second"));
+        assertThat(repository.count()).isZero();
+    }
+
+    @Test
+    void whenHandlerFails_thenEventIsRescheduledAndBlocksLaterEventsOfSameAggregate() throws IOException {
+        publish(new TestMessage(1L, "fail"), new TestMessage(1L, "later"), new TestMessage(2L, "ok"));
+
+        dispatcher.poll();
+
+        assertThat(handler.received).containsExactly(new TestMessage(2L, "ok"));
+        List<OutboxEvent> left = repository.findAll();
+        assertThat(left).hasSize(2);
+        OutboxEvent failed = left.stream().filter(event -> event.getAttempts() == 1).findFirst().orElseThrow();
+        assertThat(failed.getLastError()).contains("handler failed");
+        assertThat(failed.getAvailableAt()).isAfter(failed.getCreatedAt());
+        assertThat(scrape()).contains(
+                "library_outbox_events_dispatched_total{event_type=\"test\"} 1",
+                "library_outbox_delivery_failures_total{event_type=\"test\"} 1",
+                "library_outbox_pending_events 2");
+    }
+
+    @Test
+    void whenHandlerFailsInsideTransactionalRepository_thenOnlyThatEventIsRescheduled() {
+        dispatcher = new OutboxDispatcher(repository, List.of(new TransactionalHandler(repository)),
+                transaction, registry, Clock.systemUTC());
+        publish(new TestMessage(1L, "fail"), new TestMessage(2L, "ok"));
+
+        assertThat(dispatcher.dispatchBatch()).isEqualTo(2);
+
+        List<OutboxEvent> left = repository.findAll();
+        assertThat(left).hasSize(1);
+        assertThat(left.get(0).getAttempts()).isEqualTo(1);
+        assertThat(left.get(0).getPayload()).contains("fail");
+    }
+
+    @Test
+    void whenEventLockedByAnotherDispatcher_thenItIsSkipped() throws Exception {
+        publish(new TestMessage(1L, "locked"), new TestMessage(2L, "free"));
+        CountDownLatch claimed = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> other = executor.submit(() -> transaction.executeWithoutResult(status -> {
+                assertThat(repository.claim(Instant.now(), 1)).hasSize(1);
+                claimed.countDown();
+                await(release);
+            }));
+            assertThat(claimed.await(5, TimeUnit.SECONDS)).isTrue();
+
+            assertThat(dispatcher.dispatchBatch()).isEqualTo(1);
+            assertThat(handler.received).containsExactly(new TestMessage(2L, "free"));
+
+            release.countDown();
+            other.get(5, TimeUnit.SECONDS);
+        } finally {
+            release.countDown();
+            executor.shutdownNow();
+        }
+    }
+
+    private void publish(TestMessage... messages) {
+        transaction.executeWithoutResult(status -> {
+            for (TestMessage message : messages)
+                publisher.publish(message);
+        });
+    }
+
+    private String scrape() throws IOException {
+        StringWriter out = new StringWriter();
+        registry.writeTo(out);
+        return out.toString();
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    record TestMessage(Long aggregateId, String text) implements OutboxMessage {
+        @Override
+        public String aggregateType() {
+            return "test";
+        }
+
+        @Override
+        public String eventType() {
+            return "test";
+        }
+    }
+
+    static class RecordingHandler implements OutboxEventHandler<TestMessage> {
+        final List<TestMessage> received = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String aggregateType() {
+            return "test";
+        }
+
+        @Override
+        public Class<TestMessage> messageType() {
+            return TestMessage.class;
+        }
+
+        @Override
+        public void handle(TestMessage message) {
+            if (message.text().equals("fail"))
+                throw new IllegalStateException("handler failed");
+            received.add(message);
+        }
+    }
+
+    // ошибка вылетает из @Transactional метода репозитория и помечает его транзакцию rollback-only
+    record TransactionalHandler(OutboxEventRepository repository) implements OutboxEventHandler<TestMessage> {
+        @Override
+        public String aggregateType() {
+            return "test";
+        }
+
+        @Override
+        public Class<TestMessage> messageType() {
+            return TestMessage.class;
+        }
+
+        @Override
+        public void handle(TestMessage message) {
+            if (message.text().equals("fail"))
+                repository.save(new OutboxEvent());
+        }
+    }
+
+    static class OtherAggregateHandler implements OutboxEventHandler<TestMessage> {
+        @Override
+        public String aggregateType() {
+            return "other";
+        }
+
+        @Override
+        public Class<TestMessage> messageType() {
+            return TestMessage.class;
+        }
+
+        @Override
+        public void handle(TestMessage message) {
+            throw new AssertionError("Must not receive events of another aggregate");
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package LifeValuable.Library.projection;
+
+import LifeValuable.Library.dto.book.BookDetailDTO;
+import LifeValuable.Library.exception.UnknownFieldException;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.RecordComponent;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProjectionTest {
+
+    @Test
+    void whenFieldsRequestedOutOfOrder_thenResolvedInDtoOrder() {
+        assertThat(Projections.BOOK_DETAIL.resolve(" stock, id ,title"))
+                .containsExactly("id", "title", "stock");
+    }
+
+    @Test
+    void whenFieldsEmpty_thenAllFieldsResolved() {
+        assertThat(Projections.BOOK_DETAIL.resolve(" , ")).isEqualTo(Projections.BOOK_DETAIL.getNames());
+    }
+
+    @Test
+    void whenUnknownFieldRequested_thenThrowUnknownFieldException() {
+        assertThatThrownBy(() -> Projections.BOOK.resolve("id,price,isbn"))
+                .isInstanceOf(UnknownFieldException.class)
+                .extracting("apiMessage").asString()
+                .startsWith("Неизвестные поля: price, isbn.");
+    }
+
+    @Test
+    void whenDetailProjectionBuilt_thenFieldsMatchDtoComponents() {
+        List<String> components = Arrays.stream(BookDetailDTO.class.getRecordComponents())
+                .map(RecordComponent::getName).toList();
+
+        assertThat(Projections.BOOK_DETAIL.getNames()).isEqualTo(components);
+    }
+}
@@ -208,12 +208,12 @@ public class BookRepositoryTest {
     @Test
     public void whenFindByAllGenres_thenReturnBooksWithAllSpecifiedGenres() {
         Genre fantasy = new Genre();
-        fantasy.setName("Фэнтези");
+        fantasy.setName("Эпическое фэнтези");
         fantasy.setDescription("Магические миры");
         entityManager.persist(fantasy);
 
         Genre sciFi = new Genre();
-        sciFi.setName("Научная фантастика");
+        sciFi.setName("Твёрдая научная фантастика");
         sciFi.setDescription("Основана на научных теориях");
         entityManager.persist(sciFi);
 
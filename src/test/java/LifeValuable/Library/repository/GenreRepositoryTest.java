@@ -89,8 +89,8 @@ public class GenreRepositoryTest {
     @Test
     public void whenSaveGenre_thenGenreIsSaved() {
         Genre newGenre = new Genre();
-        newGenre.setName("Детектив");
-        newGenre.setDescription("Расследование загадочных происшествий");
+        newGenre.setName("Ужасы");
+        newGenre.setDescription("Истории, которые пугают");
 
         Genre savedGenre = genreRepository.save(newGenre);
 
@@ -98,7 +98,7 @@ public class GenreRepositoryTest {
 
         Optional<Genre> foundGenre = genreRepository.findById(savedGenre.getId());
         assertThat(foundGenre).isPresent();
-        assertThat(foundGenre.get().getName()).isEqualTo("Детектив");
+        assertThat(foundGenre.get().getName()).isEqualTo("Ужасы");
     }
 
     @Test
@@ -0,0 +1,223 @@
+package LifeValuable.Library.repository;
+
+import LifeValuable.Library.config.DataConfig;
+import LifeValuable.Library.model.Genre;
+import LifeValuable.Library.model.LendingStatus;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Named;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Проверяет через {@code EXPLAIN}, что запросы репозиториев на заполненной базе идут по индексам
+ * из миграций. Не проверяются {@code findByTitleContaining} (LIKE с ведущим %) и
+ * {@code findTopBorrowedBooks} (агрегат по всем выдачам): им индекс по построению не помогает.
+ */
+@SpringJUnitConfig({DataConfig.class, IndexUsageTest.ExplainConfig.class})
+@TestPropertySource(locations = "classpath:application-test.properties",
+        properties = "spring.datasource.url=jdbc:h2:mem:explain;DB_CLOSE_DELAY=-1")
+class IndexUsageTest {
+    private static final List<String> PLANS = new CopyOnWriteArrayList<>();
+    private static final Pageable PAGE = PageRequest.of(0, 20);
+    private static final LocalDate TODAY = LocalDate.of(2025, 6, 1);
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private ReaderRepository readerRepository;
+
+    @Autowired
+    private LendingRepository lendingRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Configuration
+    static class ExplainConfig {
+        @Bean
+        static BeanPostProcessor explainingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? explaining(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    @BeforeAll
+    static void seed(@Autowired DataSource dataSource) {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        if (jdbc.queryForObject("select count(*) from book", Long.class) > 0)
+            return;
+
+        jdbc.batchUpdate("insert into genre (name, description) values (?, ?)",
+                ids(30).map(id -> new Object[]{"Жанр " + id, "Описание " + id}).toList());
+        jdbc.batchUpdate("insert into book (title, author, isbn, publicationyear, stock) values (?, ?, ?, ?, ?)",
+                ids(3000).map(id -> new Object[]{"Книга " + id, "Автор " + id % 600, "isbn-" + id,
+                        1900 + id % 125, id % 50}).toList());
+        jdbc.batchUpdate("insert into book_genre (book_id, genre_id) values (?, ?)",
+                ids(3000).flatMap(id -> Stream.of(new Object[]{id, id % 30 + 1}, new Object[]{id, (id + 7) % 30 + 1}))
+                        .toList());
+        jdbc.batchUpdate("insert into reader (firstname, lastname, email, phonenumber, registrationdate, password, role) "
+                        + "values (?, ?, ?, ?, ?, ?, ?)",
+                ids(1000).map(id -> new Object[]{"Имя " + id, "Фамилия " + id, "reader" + id + "@library.test",
+                        id % 4 == 0 ? "" : "+7900" + (1000000 + id), TODAY.minusDays(id), "hash", "READER"}).toList());
+        jdbc.batchUpdate("insert into lending (book_id, reader_id, lendingdate, duedate, returndate, status) "
+                        + "values (?, ?, ?, ?, ?, ?)",
+                ids(8000).map(id -> {
+                    LocalDate lent = TODAY.minusDays(id % 2000);
+                    boolean open = id % 40 == 0;
+                    LendingStatus status = !open ? LendingStatus.RETURNED
+                            : id % 80 == 0 ? LendingStatus.OVERDUE : LendingStatus.ACTIVE;
+                    return new Object[]{id % 3000 + 1, id % 1000 + 1, lent, lent.plusDays(14),
+                            open ? null : lent.plusDays(10), status.name()};
+                }).toList());
+        jdbc.execute("analyze");
+    }
+
+    static Stream<Named<Consumer<IndexUsageTest>>> queries() {
+        return Stream.of(
+                query("BookRepository.findByTitle", test -> test.bookRepository.findByTitle("Книга 42")),
+                query("BookRepository.findByAuthor", test -> test.bookRepository.findByAuthor("Автор 7", PAGE)),
+                query("BookRepository.findByIsbn", test -> test.bookRepository.findByIsbn("isbn-42")),
+                query("BookRepository.findByPublicationYear",
+                        test -> test.bookRepository.findByPublicationYear(1950, PAGE)),
+                query("BookRepository.findByPublicationYearBetween",
+                        test -> test.bookRepository.findByPublicationYearBetween(1950, 1952, PAGE)),
+                query("BookRepository.findByStockGreaterThan",
+                        test -> test.bookRepository.findByStockGreaterThan(48, PAGE)),
+                query("BookRepository.findByStockLessThan",
+                        test -> test.bookRepository.findByStockLessThan(1, PAGE)),
+                query("BookRepository.findByGenreName",
+                        test -> test.bookRepository.findByGenreName("Жанр 3", PAGE)),
+                query("BookRepository.findByAllGenres", test -> {
+                    List<Genre> genres = test.genreRepository.findByNameIn(List.of("Жанр 3", "Жанр 10"));
+                    PLANS.clear();
+                    test.bookRepository.findByAllGenres(genres, PAGE);
+                }),
+                query("GenreRepository.findByName", test -> test.genreRepository.findByName("Жанр 3")),
+                query("GenreRepository.findByNameIn",
+                        test -> test.genreRepository.findByNameIn(List.of("Жанр 3", "Жанр 4"))),
+                query("ReaderRepository.findByEmail",
+                        test -> test.readerRepository.findByEmail("reader42@library.test")),
+                query("ReaderRepository.findCredentialsByEmail",
+                        test -> test.readerRepository.findCredentialsByEmail("reader42@library.test")),
+                query("ReaderRepository.findByPhoneNumber",
+                        test -> test.readerRepository.findByPhoneNumber("+79001000042")),
+                query("LendingRepository.findByStatus",
+                        test -> test.lendingRepository.findByStatus(LendingStatus.ACTIVE, PAGE)),
+                query("LendingRepository.findByStatusAndReturnDateIsNull",
+                        test -> test.lendingRepository.findByStatusAndReturnDateIsNull(LendingStatus.OVERDUE, PAGE)),
+                query("LendingRepository.findByDueDateBeforeAndReturnDateIsNull",
+                        test -> test.lendingRepository.findByDueDateBeforeAndReturnDateIsNull(
+                                TODAY.minusDays(1900), PAGE)),
+                query("LendingRepository.findByLendingDateBetween",
+                        test -> test.lendingRepository.findByLendingDateBetween(
+                                TODAY.minusDays(10), TODAY.minusDays(5), PAGE)),
+                query("LendingRepository.findByReaderId", test -> test.lendingRepository.findByReaderId(42L, PAGE)),
+                query("LendingRepository.findByReaderIdAndStatus",
+                        test -> test.lendingRepository.findByReaderIdAndStatus(40L, LendingStatus.ACTIVE, PAGE)),
+                query("LendingRepository.findByBookId", test -> test.lendingRepository.findByBookId(42L, PAGE)),
+                query("LendingRepository.countByBookIdAndStatusIn",
+                        test -> test.lendingRepository.countByBookIdAndStatusIn(
+                                42L, List.of(LendingStatus.ACTIVE, LendingStatus.OVERDUE))));
+    }
+
+    @ParameterizedTest
+    @MethodSource("queries")
+    void whenRepositoryQueryRuns_thenEveryTableIsReadThroughAnIndex(Consumer<IndexUsageTest> query) {
+        PLANS.clear();
+
+        query.accept(this);
+
+        assertThat(PLANS).isNotEmpty();
+        assertThat(PLANS).allSatisfy(plan -> assertThat(plan).doesNotContainIgnoringCase("tableScan"));
+    }
+
+    private static Named<Consumer<IndexUsageTest>> query(String name, Consumer<IndexUsageTest> query) {
+        return Named.of(name, query);
+    }
+
+    private static Stream<Long> ids(int count) {
+        return Stream.iterate(1L, id -> id + 1).limit(count);
+    }
+
+    /**
+     * Перед каждым SELECT выполняет тот же запрос с {@code EXPLAIN} и теми же параметрами.
+     */
+    private static DataSource explaining(DataSource target) {
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class<?>[]{DataSource.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(target, method, args);
+                    return result instanceof Connection connection ? explaining(connection) : result;
+                });
+    }
+
+    private static Connection explaining(Connection connection) {
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[]{Connection.class},
+                (proxy, method, args) -> {
+                    Object result = invoke(connection, method, args);
+                    if (result instanceof PreparedStatement statement && method.getName().equals("prepareStatement")
+                            && ((String) args[0]).trim().toLowerCase().startsWith("select"))
+                        return explaining(connection, statement, (String) args[0]);
+                    return result;
+                });
+    }
+
+    private static PreparedStatement explaining(Connection connection, PreparedStatement statement, String sql) {
+        List<Map.Entry<Method, Object[]>> parameters = new ArrayList<>();
+        return (PreparedStatement) Proxy.newProxyInstance(PreparedStatement.class.getClassLoader(),
+                new Class<?>[]{PreparedStatement.class}, (proxy, method, args) -> {
+                    if (method.getName().startsWith("set") && args != null && args.length >= 2
+                            && args[0] instanceof Integer)
+                        parameters.add(Map.entry(method, args));
+                    if (method.getName().equals("executeQuery") || method.getName().equals("execute")) {
+                        try (PreparedStatement explain = connection.prepareStatement("explain " + sql)) {
+                            for (Map.Entry<Method, Object[]> parameter : parameters)
+                                invoke(explain, parameter.getKey(), parameter.getValue());
+                            try (ResultSet plan = explain.executeQuery()) {
+                                plan.next();
+                                PLANS.add(plan.getString(1));
+                            }
+                        }
+                    }
+                    return invoke(statement, method, args);
+                });
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getTargetException();
+        }
+    }
+}
@@ -0,0 +1,220 @@
+package LifeValuable.Library.repository;
+
+import LifeValuable.Library.dataset.BenchmarkDataset;
+import LifeValuable.Library.dataset.DatasetSpec;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Arrays;
+
+/**
+ * Секционированная по месяцам lending против той же выборки в обычной таблице с индексами из V2 на PostgreSQL:
+ * планы (EXPLAIN ANALYZE) и время страницы с count для {@link LendingRepository#findByLendingDateBetween} и
+ * {@link LendingRepository#findByDueDateBeforeAndReturnDateIsNull}, а также отключение месяца против удаления
+ * его строк из обычной таблицы. Отключение откатывается, копия lending_flat удаляется в конце.
+ * <p>
+ * Запуск: {@code java -cp <test classpath> -Ddataset.url=jdbc:postgresql://localhost/library_bench
+ * -Ddataset.username=... LifeValuable.Library.repository.LendingPartitioningBenchmark [выдач]} — по умолчанию
+ * 50 млн выдач за 10 лет на миллионе книг; {@code -Ddataset.reuse=true} пропускает загрузку набора.
+ * <p>
+ * PostgreSQL 16.4, 1 CPU, 5 ГБ RAM, shared_buffers 128 МБ, 50 млн выдач в 125 секциях, медиана / p95 в мс:
+ * <pre>
+ *                                   секции          обычная таблица
+ * период, неделя: страница          0.32 / 4.2      0.20 / 0.85
+ * период, неделя: count             37 / 40         11 / 13
+ * просрочка на сегодня: страница    0.34 / 2.8      0.07 / 1.4
+ * просрочка на сегодня: count       3 554 / 3 623   1 066 / 1 113
+ * просрочка год назад: страница     0.26 / 1.8      0.04 / 1.7
+ * просрочка год назад: count        3 251 / 3 290   953 / 1 042
+ * месяц, 491 тыс. строк             detach 4.3      delete 176 + vacuum 64
+ * </pre>
+ * Чтение секции не ускоряют: неделя читается последовательным просмотром месячной секции вместо диапазона
+ * по индексу lendingdate, а count просрочки просматривает все секции, где обычная таблица идёт по частичному
+ * индексу на duedate. Выигрыш только в удалении старых месяцев.
+ */
+public class LendingPartitioningBenchmark {
+    private static final int LENDINGS = 50_000_000;
+    private static final String COLUMNS = "id, book_id, reader_id, lendingdate, duedate, returndate, status";
+    private static final DateTimeFormatter PARTITION_NAME = DateTimeFormatter.ofPattern("yyyy_MM");
+    private static final int PAGE_SIZE = 20;
+    private static final int WARMUP = 5;
+    private static final int RUNS = 30;
+    private static final int MAINTENANCE_RUNS = 3;
+
+    public static void main(String[] args) throws SQLException {
+        if (!System.getProperty("dataset.url", "").startsWith("jdbc:postgresql:")) {
+            System.err.println("Usage: -Ddataset.url=jdbc:postgresql://... LendingPartitioningBenchmark [lendings]");
+            System.exit(2);
+        }
+        int lendings = args.length > 0 ? Integer.parseInt(args[0]) : LENDINGS;
+        LocalDate today = LocalDate.now();
+        DatasetSpec spec = DatasetSpec.scaled(1_000_000, 42).withLendings(lendings)
+                .withPeriod(today.minusYears(10), today);
+
+        long started = System.nanoTime();
+        try (AnnotationConfigApplicationContext context = BenchmarkDataset.start("partitioning", spec);
+             Connection connection = context.getBean(DataSource.class).getConnection()) {
+            System.out.printf("Dataset ready in %d s%n", (System.nanoTime() - started) / 1_000_000_000);
+            connection.setAutoCommit(true);
+            printSettings(connection);
+            createFlatCopy(connection);
+            try {
+                LocalDate weekStart = today.minusDays(30);
+                compare(connection, "period, week: page",
+                        "select " + COLUMNS + " from %s where lendingdate between ? and ? offset 0 rows fetch first "
+                                + PAGE_SIZE + " rows only", weekStart, weekStart.plusDays(7));
+                compare(connection, "period, week: count",
+                        "select count(id) from %s where lendingdate between ? and ?", weekStart, weekStart.plusDays(7));
+                for (LocalDate date : new LocalDate[]{today, today.minusYears(1)}) {
+                    compare(connection, "overdue at " + date + ": page",
+                            "select " + COLUMNS + " from %s where duedate < ? and returndate is null and lendingdate < ?"
+                                    + " offset 0 rows fetch first " + PAGE_SIZE + " rows only", date, date);
+                    compare(connection, "overdue at " + date + ": count",
+                            "select count(id) from %s where duedate < ? and returndate is null and lendingdate < ?",
+                            date, date);
+                }
+                // первый месяц набора неполный, поэтому берётся следующий
+                compareMonthRemoval(connection, spec.from().withDayOfMonth(1).plusMonths(1));
+            } finally {
+                execute(connection, "drop table if exists lending_flat");
+            }
+        }
+    }
+
+    private static void printSettings(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet result = statement.executeQuery("select version(), current_setting('shared_buffers'), "
+                     + "current_setting('work_mem'), (select count(*) from pg_inherits "
+                     + "where inhparent = 'lending'::regclass), (select count(*) from lending)")) {
+            result.next();
+            System.out.printf("%s%nshared_buffers=%s, work_mem=%s, partitions=%d, lendings=%d%n", result.getString(1),
+                    result.getString(2), result.getString(3), result.getLong(4), result.getLong(5));
+        }
+    }
+
+    // та же выборка без секционирования и с индексами lending до V3
+    private static void createFlatCopy(Connection connection) throws SQLException {
+        long started = System.nanoTime();
+        execute(connection, "drop table if exists lending_flat");
+        execute(connection, "create table lending_flat (like lending including defaults)");
+        execute(connection, "insert into lending_flat select * from lending");
+        execute(connection, "alter table lending_flat add primary key (id)");
+        execute(connection, "alter table lending_flat add foreign key (book_id) references book");
+        execute(connection, "alter table lending_flat add foreign key (reader_id) references reader");
+        execute(connection, "create index on lending_flat (reader_id, status)");
+        execute(connection, "create index on lending_flat (book_id)");
+        execute(connection, "create index on lending_flat (status)");
+        execute(connection, "create index on lending_flat (lendingdate)");
+        execute(connection, "create index on lending_flat (duedate) where returndate is null");
+        execute(connection, "vacuum analyze lending");
+        execute(connection, "vacuum analyze lending_flat");
+        System.out.printf("lending_flat built in %d s%n", (System.nanoTime() - started) / 1_000_000_000);
+    }
+
+    private static void compare(Connection connection, String name, String sql, LocalDate first, LocalDate second)
+            throws SQLException {
+        for (String table : new String[]{"lending", "lending_flat"}) {
+            String query = String.format(sql, table);
+            System.out.printf("%n=== %s, %s%n", name, table);
+            try (PreparedStatement explain = connection.prepareStatement("explain (analyze, buffers) " + query)) {
+                bind(explain, first, second);
+                try (ResultSet plan = explain.executeQuery()) {
+                    while (plan.next())
+                        System.out.println(plan.getString(1));
+                }
+            }
+            // один PreparedStatement, как у приложения: после пяти выполнений драйвер переходит на серверный
+            // prepare, и PostgreSQL может выбрать общий план с отсечением секций при выполнении
+            long[] nanos = new long[RUNS];
+            try (PreparedStatement statement = connection.prepareStatement(query)) {
+                for (int i = -WARMUP; i < RUNS; i++) {
+                    long started = System.nanoTime();
+                    bind(statement, first, second);
+                    try (ResultSet result = statement.executeQuery()) {
+                        while (result.next())
+                            result.getObject(1);
+                    }
+                    if (i >= 0)
+                        nanos[i] = System.nanoTime() - started;
+                }
+            }
+            printLatency(name + ", " + table, nanos);
+        }
+    }
+
+    // отключение месяца против удаления его строк: оба варианта сначала откатываются, чтобы замерить время
+    // под блокировкой, затем удаление фиксируется вместе с VACUUM, который и выносит удалённые строки из индексов
+    private static void compareMonthRemoval(Connection connection, LocalDate month) throws SQLException {
+        String partition = "lending_" + month.format(PARTITION_NAME);
+        String delete = "delete from lending_flat where lendingdate >= '" + month + "' and lendingdate < '"
+                + month.plusMonths(1) + "'";
+        System.out.printf("%n=== month %s%n", partition);
+        connection.setAutoCommit(false);
+        try {
+            try (Statement statement = connection.createStatement();
+                 ResultSet plan = statement.executeQuery("explain (analyze, buffers) " + delete)) {
+                while (plan.next())
+                    System.out.println(plan.getString(1));
+            }
+            connection.rollback();
+
+            long[] detach = new long[MAINTENANCE_RUNS];
+            long[] deleteRolledBack = new long[MAINTENANCE_RUNS];
+            for (int i = 0; i < MAINTENANCE_RUNS; i++) {
+                detach[i] = timeAndRollback(connection, "alter table lending detach partition " + partition);
+                deleteRolledBack[i] = timeAndRollback(connection, delete);
+            }
+            printLatency("detach " + partition, detach);
+            printLatency("delete month from lending_flat", deleteRolledBack);
+
+            long started = System.nanoTime();
+            execute(connection, delete);
+            connection.commit();
+            long deleted = System.nanoTime() - started;
+            connection.setAutoCommit(true);
+            started = System.nanoTime();
+            execute(connection, "vacuum lending_flat");
+            System.out.printf("committed delete %.2f ms, vacuum lending_flat %.2f ms%n", deleted / 1e6,
+                    (System.nanoTime() - started) / 1e6);
+        } finally {
+            if (!connection.getAutoCommit()) {
+                connection.rollback();
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static long timeAndRollback(Connection connection, String sql) throws SQLException {
+        long started = System.nanoTime();
+        execute(connection, sql);
+        long nanos = System.nanoTime() - started;
+        connection.rollback();
+        return nanos;
+    }
+
+    private static void bind(PreparedStatement statement, LocalDate first, LocalDate second) throws SQLException {
+        statement.setDate(1, Date.valueOf(first));
+        statement.setDate(2, Date.valueOf(second));
+    }
+
+    private static void printLatency(String name, long[] nanos) {
+        long[] sorted = nanos.clone();
+        Arrays.sort(sorted);
+        System.out.printf("%s: median %.2f ms, p95 %.2f ms, max %.2f ms%n", name, sorted[sorted.length / 2] / 1e6,
+                sorted[(int) Math.ceil(sorted.length * 0.95) - 1] / 1e6, sorted[sorted.length - 1] / 1e6);
+    }
+
+    private static void execute(Connection connection, String sql) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package LifeValuable.Library.repository;
+
+import LifeValuable.Library.config.DataConfig;
+import LifeValuable.Library.model.*;
+import LifeValuable.Library.projection.Projections;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import jakarta.persistence.PersistenceContext;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringJUnitConfig({DataConfig.class, ProjectionRepository.class})
+@TestPropertySource(locations = "classpath:application-test.properties",
+        properties = "spring.datasource.url=jdbc:h2:mem:projection;DB_CLOSE_DELAY=-1")
+@Transactional
+class ProjectionRepositoryTest {
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private ProjectionRepository projectionRepository;
+
+    private Statistics statistics;
+    private Book book;
+    private Book book2;
+    private Reader reader;
+    private Lending lending;
+
+    @BeforeEach
+    void setUp() {
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        entityManager.createQuery("DELETE FROM Lending").executeUpdate();
+        entityManager.createQuery("DELETE FROM Book").executeUpdate();
+        entityManager.createQuery("DELETE FROM Reader").executeUpdate();
+        entityManager.createQuery("DELETE FROM Genre").executeUpdate();
+
+        Genre classic = new Genre();
+        classic.setName("Классика");
+        classic.setDescription("Классическая литература");
+        entityManager.persist(classic);
+
+        Genre novel = new Genre();
+        novel.setName("Роман");
+        novel.setDescription("Крупная повествовательная форма");
+        entityManager.persist(novel);
+
+        book = new Book();
+        book.setTitle("Мастер и Маргарита");
+        book.setAuthor("Михаил Булгаков");
+        book.setIsbn("9785699236916");
+        book.setPublicationYear(1967);
+        book.setStock(5);
+        book.setGenres(new ArrayList<>(List.of(classic, novel)));
+        entityManager.persist(book);
+
+        book2 = new Book();
+        book2.setTitle("Война и мир");
+        book2.setAuthor("Лев Толстой");
+        book2.setIsbn("9785389054097");
+        book2.setPublicationYear(1869);
+        book2.setStock(3);
+        book2.setGenres(new ArrayList<>(List.of(classic)));
+        entityManager.persist(book2);
+
+        reader = new Reader();
+        reader.setFirstName("Иван");
+        reader.setLastName("Петров");
+        reader.setEmail("ipetrov@example.com");
+        reader.setPhoneNumber("+79991234567");
+        reader.setRegistrationDate(LocalDate.now().minusMonths(1));
+        reader.setPassword("password");
+        reader.setRole(Role.READER);
+        entityManager.persist(reader);
+
+        lending = new Lending();
+        lending.setBook(book);
+        lending.setReader(reader);
+        lending.setLendingDate(LocalDate.now().minusDays(21));
+        lending.setDueDate(LocalDate.now().minusDays(7));
+        lending.setStatus(LendingStatus.OVERDUE);
+        entityManager.persist(lending);
+
+        Lending active = new Lending();
+        active.setBook(book);
+        active.setReader(reader);
+        active.setLendingDate(LocalDate.now().minusDays(3));
+        active.setDueDate(LocalDate.now().plusDays(11));
+        active.setStatus(LendingStatus.ACTIVE);
+        entityManager.persist(active);
+
+        Lending returned = new Lending();
+        returned.setBook(book2);
+        returned.setReader(reader);
+        returned.setLendingDate(LocalDate.now().minusDays(30));
+        returned.setDueDate(LocalDate.now().minusDays(16));
+        returned.setReturnDate(LocalDate.now().minusDays(20));
+        returned.setStatus(LendingStatus.RETURNED);
+        entityManager.persist(returned);
+
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+    }
+
+    @Test
+    void whenFieldsRequested_thenOnlyTheseKeysReturnedWithoutLoadingEntities() {
+        Page<Map<String, Object>> page = projectionRepository.findAll(Projections.BOOK,
+                Projections.BOOK.resolve("title,id"), null, PageRequest.of(0, 10, Sort.by("title")));
+
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        assertThat(page.getContent()).extracting(values -> List.copyOf(values.keySet()))
+                .containsOnly(List.of("id", "title"));
+        assertThat(page.getContent()).extracting(values -> values.get("title"))
+                .containsExactly("Война и мир", "Мастер и Маргарита");
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(statistics.getCollectionLoadCount()).isZero();
+    }
+
+    @Test
+    void whenCollectionRequested_thenLoadedBySingleExtraQuery() {
+        projectionRepository.findAll(Projections.BOOK, Projections.BOOK.resolve("id"), null, PageRequest.of(0, 10));
+        long withoutGenres = statistics.getPrepareStatementCount();
+        statistics.clear();
+
+        Page<Map<String, Object>> page = projectionRepository.findAll(Projections.BOOK,
+                Projections.BOOK.resolve("id,genreNames"), null, PageRequest.of(0, 10, Sort.by("id")));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(withoutGenres + 1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat((List<Object>) page.getContent().get(0).get("genreNames"))
+                .containsExactlyInAnyOrder("Классика", "Роман");
+        assertThat((List<Object>) page.getContent().get(1).get("genreNames")).containsExactly("Классика");
+    }
+
+    @Test
+    void whenBookDetailRequested_thenAvailableStockCountsOpenLendings() {
+        Map<String, Object> found = projectionRepository.findById(Projections.BOOK_DETAIL,
+                Projections.BOOK_DETAIL.resolve("availableStock,stock"), book.getId()).orElseThrow();
+
+        assertThat(found).containsExactly(Map.entry("stock", 5), Map.entry("availableStock", 3));
+    }
+
+    @Test
+    void whenLendingsRequested_thenDerivedFieldsMatchMapper() {
+        Page<Map<String, Object>> page = projectionRepository.findAll(Projections.LENDING,
+                Projections.LENDING.resolve("readerFullName,isOverdue,daysLeft,bookTitle"),
+                (root, query, builder) -> builder.equal(root.get("id"), lending.getId()), PageRequest.of(0, 10));
+
+        assertThat(page.getContent()).hasSize(1);
+        assertThat(page.getContent().get(0))
+                .containsEntry("bookTitle", "Мастер и Маргарита")
+                .containsEntry("readerFullName", "Иван Петров")
+                .containsEntry("isOverdue", true)
+                .containsEntry("daysLeft", -7);
+    }
+
+    @Test
+    void whenReaderDetailRequested_thenCountsComputedBySubqueries() {
+        Map<String, Object> found = projectionRepository.findById(Projections.READER_DETAIL,
+                Projections.READER_DETAIL.resolve("activeLendingsCount,overdueLendingsCount,totalBorrowed,role"),
+                reader.getId()).orElseThrow();
+
+        assertThat(found)
+                .containsEntry("activeLendingsCount", 1)
+                .containsEntry("overdueLendingsCount", 1)
+                .containsEntry("totalBorrowed", 3)
+                .containsEntry("role", "READER");
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    void whenIdNotFound_thenEmpty() {
+        assertThat(projectionRepository.findById(Projections.BOOK_DETAIL,
+                Projections.BOOK_DETAIL.resolve("title"), -1L)).isEmpty();
+    }
+
+    @Test
+    void whenPaged_thenTotalCountsAllRows() {
+        Page<Map<String, Object>> page = projectionRepository.findAll(Projections.BOOK,
+                Projections.BOOK.resolve("title"), null, PageRequest.of(1, 1, Sort.by("title")));
+
+        assertThat(page.getTotalElements()).isEqualTo(2);
+        assertThat(page.getContent()).extracting(values -> values.get("title")).containsExactly("Мастер и Маргарита");
+    }
+}
@@ -10,6 +10,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
 import org.springframework.transaction.annotation.Transactional;
@@ -19,6 +20,7 @@ import java.util.List;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringJUnitConfig(DataConfig.class)
 @TestPropertySource(locations = "classpath:application-test.properties")
@@ -192,4 +194,42 @@ public class ReaderRepositoryTest {
         assertThat(reader)
                 .isEmpty();
     }
+
+    @Test
+    void whenSaveReaderWithExistingEmail_thenUniqueConstraintIsViolated() {
+        Reader reader = newReader("white@vasya.ru", "+70000000001");
+
+        assertThatThrownBy(() -> readerRepository.saveAndFlush(reader))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .hasMessageContaining("UK_READER_EMAIL");
+    }
+
+    @Test
+    void whenSaveReaderWithExistingPhoneNumber_thenUniqueConstraintIsViolated() {
+        Reader reader = newReader("new@domen.com", "+70123456789");
+
+        assertThatThrownBy(() -> readerRepository.saveAndFlush(reader))
+                .isInstanceOf(DataIntegrityViolationException.class)
+                .hasMessageContaining("UK_READER_PHONE_NUMBER");
+    }
+
+    @Test
+    void whenSaveReadersWithEmptyPhoneNumber_thenBothAreSaved() {
+        readerRepository.saveAndFlush(newReader("first@domen.com", ""));
+        readerRepository.saveAndFlush(newReader("second@domen.com", ""));
+
+        assertThat(readerRepository.count()).isEqualTo(4);
+    }
+
+    private static Reader newReader(String email, String phoneNumber) {
+        Reader reader = new Reader();
+        reader.setFirstName("Petr");
+        reader.setLastName("Grey");
+        reader.setEmail(email);
+        reader.setPhoneNumber(phoneNumber);
+        reader.setRegistrationDate(LocalDate.now());
+        reader.setPassword("password");
+        reader.setRole(Role.READER);
+        return reader;
+    }
 }
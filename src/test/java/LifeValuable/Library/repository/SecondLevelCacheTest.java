@@ -0,0 +1,178 @@
+package LifeValuable.Library.repository;
+
+import LifeValuable.Library.cache.SecondLevelCacheRegions;
+import LifeValuable.Library.config.DataConfig;
+import LifeValuable.Library.model.Book;
+import LifeValuable.Library.model.Genre;
+import LifeValuable.Library.model.Reader;
+import LifeValuable.Library.model.Role;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringJUnitConfig(DataConfig.class)
+@TestPropertySource(locations = "classpath:application-test.properties",
+        properties = "spring.datasource.url=jdbc:h2:mem:l2cache;DB_CLOSE_DELAY=-1")
+class SecondLevelCacheTest {
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private ReaderRepository readerRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transaction;
+    private Statistics statistics;
+    private Long bookId;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        bookId = transaction.execute(status -> {
+            bookRepository.deleteAll();
+            genreRepository.deleteAll();
+            readerRepository.deleteAll();
+            genreRepository.flush();
+
+            Reader reader = new Reader();
+            reader.setFirstName("Иван");
+            reader.setLastName("Петров");
+            reader.setEmail("ivan@example.com");
+            reader.setRegistrationDate(LocalDate.now());
+            reader.setPassword("old-hash");
+            reader.setRole(Role.READER);
+            readerRepository.save(reader);
+
+            Genre genre = new Genre();
+            genre.setName("Фэнтези");
+            genre.setDescription("Магия и волшебные существа");
+            genreRepository.save(genre);
+
+            Book book = new Book();
+            book.setTitle("Хоббит");
+            book.setAuthor("Джон Толкин");
+            book.setIsbn("9785170801152");
+            book.setPublicationYear(1937);
+            book.setStock(3);
+            book.setGenres(new ArrayList<>(List.of(genre)));
+            return bookRepository.save(book).getId();
+        });
+        entityManagerFactory.getCache().evictAll();
+        statistics.clear();
+    }
+
+    @Test
+    void whenBookLoadedTwice_thenSecondLoadIsServedFromSecondLevelCache() {
+        transaction.executeWithoutResult(status ->
+                assertThat(bookRepository.findById(bookId).orElseThrow().getGenres()).hasSize(1));
+        long statements = statistics.getPrepareStatementCount();
+
+        transaction.executeWithoutResult(status ->
+                assertThat(bookRepository.findById(bookId).orElseThrow().getGenres()).hasSize(1));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+        assertThat(statistics.getDomainDataRegionStatistics(SecondLevelCacheRegions.BOOK).getHitCount())
+                .isEqualTo(1);
+        assertThat(statistics.getDomainDataRegionStatistics(SecondLevelCacheRegions.BOOK_GENRES).getHitCount())
+                .isEqualTo(1);
+        assertThat(statistics.getDomainDataRegionStatistics(SecondLevelCacheRegions.GENRE).getHitCount())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void whenBooksLoadedWithGenresForWarmUp_thenLaterLoadIsServedFromSecondLevelCache() {
+        assertThat(bookRepository.findWithGenresByIdIn(List.of(bookId))).hasSize(1);
+        long statements = statistics.getPrepareStatementCount();
+
+        transaction.executeWithoutResult(status ->
+                assertThat(bookRepository.findById(bookId).orElseThrow().getGenres()).hasSize(1));
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+        assertThat(statistics.getDomainDataRegionStatistics(SecondLevelCacheRegions.BOOK_GENRES).getHitCount())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void whenBookFoundByIsbnTwice_thenSecondQueryIsServedFromQueryCache() {
+        transaction.executeWithoutResult(status -> assertThat(bookRepository.findByIsbn("9785170801152")).isPresent());
+        long statements = statistics.getPrepareStatementCount();
+
+        transaction.executeWithoutResult(status -> assertThat(bookRepository.findByIsbn("9785170801152")).isPresent());
+
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(statements);
+        assertThat(statistics.getQueryRegionStatistics(SecondLevelCacheRegions.BOOK_BY_ISBN).getHitCount())
+                .isEqualTo(1);
+    }
+
+    @Test
+    void whenBookUpdated_thenCachedQueryResultIsInvalidated() {
+        transaction.executeWithoutResult(status -> bookRepository.findByIsbn("9785170801152"));
+
+        transaction.executeWithoutResult(status -> {
+            Book book = bookRepository.findById(bookId).orElseThrow();
+            book.setStock(7);
+        });
+
+        transaction.executeWithoutResult(status ->
+                assertThat(bookRepository.findByIsbn("9785170801152").orElseThrow().getStock()).isEqualTo(7));
+        assertThat(statistics.getQueryRegionStatistics(SecondLevelCacheRegions.BOOK_BY_ISBN).getHitCount())
+                .isZero();
+    }
+
+    @Test
+    void whenPasswordChangedOnAnotherNode_thenCredentialsLookupSeesItDespiteCachedReader() {
+        transaction.executeWithoutResult(status -> readerRepository.findByEmail("ivan@example.com"));
+        // другой узел меняет пароль: локальный кэш этого узла об этом не знает
+        new JdbcTemplate(dataSource).update(
+                "UPDATE reader SET password = 'new-hash', role = 'ADMIN' WHERE email = 'ivan@example.com'");
+
+        transaction.executeWithoutResult(status ->
+                assertThat(readerRepository.findByEmail("ivan@example.com").orElseThrow().getPassword())
+                        .isEqualTo("old-hash"));
+        ReaderCredentialsProjection credentials = transaction.execute(status ->
+                readerRepository.findCredentialsByEmail("ivan@example.com").orElseThrow());
+
+        assertThat(credentials.getPassword()).isEqualTo("new-hash");
+        assertThat(credentials.getRole()).isEqualTo(Role.ADMIN);
+    }
+
+    @Test
+    void whenStockChangedOnAnotherNode_thenStockLookupSeesItDespiteCachedBook() {
+        transaction.executeWithoutResult(status -> bookRepository.findById(bookId));
+        new JdbcTemplate(dataSource).update("UPDATE book SET stock = 1 WHERE id = ?", bookId);
+
+        transaction.executeWithoutResult(status -> {
+            assertThat(bookRepository.findById(bookId).orElseThrow().getStock()).isEqualTo(3);
+            assertThat(bookRepository.findStockById(bookId)).contains(1);
+        });
+    }
+}
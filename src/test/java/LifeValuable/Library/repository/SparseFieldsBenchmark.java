@@ -0,0 +1,99 @@
+package LifeValuable.Library.repository;
+
+import LifeValuable.Library.dataset.BenchmarkDataset;
+import LifeValuable.Library.dataset.DatasetSpec;
+import LifeValuable.Library.mapper.BookMapper;
+import LifeValuable.Library.projection.Projections;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Страница из 50 книг синтетического каталога ({@link BenchmarkDataset}): полные DTO против {@code ?fields=} —
+ * время запроса с сериализацией в JSON. Размер ответа в байтах для каждого варианта печатается при старте.
+ * Запуск: main из IDE или
+ * {@code java -cp <test classpath> org.openjdk.jmh.Main SparseFieldsBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SparseFieldsBenchmark {
+    private static final int BOOKS = 5_000;
+
+    @Param({"id,title", "id,title,genreNames"})
+    public String fields;
+
+    private AnnotationConfigApplicationContext context;
+    private TransactionTemplate transaction;
+    private BookRepository bookRepository;
+    private ProjectionRepository projectionRepository;
+    private final BookMapper bookMapper = Mappers.getMapper(BookMapper.class);
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    private final Pageable pageable = PageRequest.of(3, 50, Sort.by("title"));
+
+    @Setup(Level.Trial)
+    public void setUp() throws SQLException, JsonProcessingException {
+        // без кэша второго уровня оба варианта честно идут в базу
+        System.setProperty("spring.jpa.properties.hibernate.cache.use_second_level_cache", "false");
+        System.setProperty("spring.jpa.properties.hibernate.cache.use_query_cache", "false");
+        System.setProperty("spring.jpa.properties.hibernate.generate_statistics", "false");
+        context = BenchmarkDataset.start("sparse", DatasetSpec.scaled(BOOKS, 42), ProjectionRepository.class);
+        transaction = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        bookRepository = context.getBean(BookRepository.class);
+        projectionRepository = context.getBean(ProjectionRepository.class);
+        System.out.printf("%nPayload bytes: full=%d, fields=%s: %d%n", full().length, fields, sparse().length);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public byte[] full() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(transaction.execute(status ->
+                bookRepository.findAll(pageable).map(bookMapper::toDto)).getContent());
+    }
+
+    @Benchmark
+    public byte[] sparse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(transaction.execute(status ->
+                projectionRepository.findAll(Projections.BOOK, Projections.BOOK.resolve(fields), null, pageable))
+                .getContent());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SparseFieldsBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
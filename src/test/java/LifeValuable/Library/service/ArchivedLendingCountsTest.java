@@ -0,0 +1,190 @@
+package LifeValuable.Library.service.impl;
+
+import LifeValuable.Library.archive.LendingArchive;
+import LifeValuable.Library.config.DataConfig;
+import LifeValuable.Library.mapper.ReaderMapperImpl;
+import LifeValuable.Library.model.*;
+import LifeValuable.Library.projection.Projections;
+import LifeValuable.Library.repository.BookLendingProjection;
+import LifeValuable.Library.repository.BookRepository;
+import LifeValuable.Library.repository.GenreRepository;
+import LifeValuable.Library.repository.LendingRepository;
+import LifeValuable.Library.repository.ProjectionRepository;
+import LifeValuable.Library.repository.ReaderRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.context.junit.jupiter.SpringJUnitConfig;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Перенос выдач в архив не меняет счётчики, которые видят пользователи: рейтинг популярных книг
+ * и число взятых читателем книг считаются вместе с архивом.
+ */
+@SpringJUnitConfig({DataConfig.class, ProjectionRepository.class})
+@TestPropertySource(locations = "classpath:application-test.properties",
+        properties = "spring.datasource.url=jdbc:h2:mem:archivecounts;DB_CLOSE_DELAY=-1")
+class ArchivedLendingCountsTest {
+    private static final LocalDate CUTOFF = LocalDate.of(2025, 1, 1);
+
+    @Autowired
+    private LendingRepository lendingRepository;
+
+    @Autowired
+    private BookRepository bookRepository;
+
+    @Autowired
+    private ReaderRepository readerRepository;
+
+    @Autowired
+    private GenreRepository genreRepository;
+
+    @Autowired
+    private ProjectionRepository projectionRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    private Path directory;
+
+    private TransactionTemplate transaction;
+    private LendingArchiveServiceImpl archiveService;
+    private List<Long> readerIds;
+
+    @BeforeEach
+    void setUp() {
+        transaction = new TransactionTemplate(transactionManager);
+        archiveService = new LendingArchiveServiceImpl(lendingRepository, bookRepository, readerRepository,
+                new LendingArchive(directory), new ConcurrentMapCacheManager("readerProfiles"), transaction);
+        archiveService.setRowsPerFile(3);
+        archiveService.setBatchSize(2);
+
+        readerIds = transaction.execute(status -> {
+            lendingRepository.deleteAllInBatch();
+            bookRepository.deleteAll();
+            genreRepository.deleteAll();
+            readerRepository.deleteAll();
+            genreRepository.flush();
+
+            Genre genre = genreRepository.save(genre());
+            Book popular = bookRepository.save(book("Мастер и Маргарита", "9785699236916", genre));
+            Book archivedOnly = bookRepository.save(book("Война и мир", "9785389054097", genre));
+            Book recent = bookRepository.save(book("Идиот", "9785170927661", genre));
+            Reader ivan = readerRepository.save(reader("ivan@example.com"));
+            Reader olga = readerRepository.save(reader("olga@example.com"));
+
+            LocalDate old = LocalDate.of(2024, 3, 1);
+            LocalDate fresh = LocalDate.of(2025, 3, 1);
+            lendingRepository.saveAll(List.of(
+                    lending(popular, ivan, old, old.plusDays(10)),
+                    lending(popular, olga, old.plusDays(1), old.plusDays(12)),
+                    lending(popular, ivan, old.plusDays(30), old.plusDays(40)),
+                    lending(popular, olga, fresh, null),
+                    lending(archivedOnly, ivan, old.plusDays(2), old.plusDays(20)),
+                    lending(archivedOnly, ivan, old.plusDays(50), old.plusDays(60)),
+                    lending(recent, olga, fresh, fresh.plusDays(5))));
+            return List.of(ivan.getId(), olga.getId());
+        });
+    }
+
+    @Test
+    void whenReturnedLendingsArchived_thenTopBorrowedAndReaderTotalsAreUnchanged() {
+        Map<Long, Integer> topBefore = topBorrowed();
+        Map<Long, List<Integer>> totalsBefore = readerTotals();
+
+        assertThat(archiveService.archiveReturnedBefore(CUTOFF).lendings()).isEqualTo(5);
+
+        assertThat(lendingRepository.count()).isEqualTo(2);
+        assertThat(topBorrowed()).containsExactlyEntriesOf(topBefore);
+        assertThat(readerTotals()).isEqualTo(totalsBefore);
+        assertThat(totalsBefore.values()).containsExactly(List.of(4, 4), List.of(3, 3));
+    }
+
+    @Test
+    void whenArchiveRunRepeated_thenArchivedLendingsAreNotCountedTwice() {
+        Map<Long, Integer> topBefore = topBorrowed();
+        Map<Long, List<Integer>> totalsBefore = readerTotals();
+
+        archiveService.archiveReturnedBefore(CUTOFF);
+        assertThat(archiveService.archiveReturnedBefore(CUTOFF).lendings()).isZero();
+
+        assertThat(topBorrowed()).containsExactlyEntriesOf(topBefore);
+        assertThat(readerTotals()).isEqualTo(totalsBefore);
+    }
+
+    private Map<Long, Integer> topBorrowed() {
+        Map<Long, Integer> top = new LinkedHashMap<>();
+        for (BookLendingProjection book : lendingRepository.findTopBorrowedBooks(PageRequest.of(0, 10)))
+            top.put(book.getId(), book.getLendingCount());
+        return top;
+    }
+
+    // totalBorrowed из сущности через маппер и из проекции для ?fields=
+    private Map<Long, List<Integer>> readerTotals() {
+        ReaderMapperImpl mapper = new ReaderMapperImpl();
+        Map<Long, List<Integer>> totals = new LinkedHashMap<>();
+        for (Long readerId : readerIds) {
+            Integer mapped = transaction.execute(status ->
+                    mapper.toDetailDto(readerRepository.findById(readerId).orElseThrow()).totalBorrowed());
+            Object projected = projectionRepository.findById(Projections.READER_DETAIL,
+                    Projections.READER_DETAIL.resolve("totalBorrowed"), readerId).orElseThrow().get("totalBorrowed");
+            totals.put(readerId, List.of(mapped, (Integer) projected));
+        }
+        return totals;
+    }
+
+    private static Genre genre() {
+        Genre genre = new Genre();
+        genre.setName("Классика");
+        genre.setDescription("Классическая литература");
+        return genre;
+    }
+
+    private static Book book(String title, String isbn, Genre genre) {
+        Book book = new Book();
+        book.setTitle(title);
+        book.setAuthor("Автор");
+        book.setIsbn(isbn);
+        book.setPublicationYear(1900);
+        book.setStock(5);
+        book.setGenres(new ArrayList<>(List.of(genre)));
+        return book;
+    }
+
+    private static Reader reader(String email) {
+        Reader reader = new Reader();
+        reader.setFirstName("Иван");
+        reader.setLastName("Петров");
+        reader.setEmail(email);
+        reader.setRegistrationDate(LocalDate.of(2020, 1, 1));
+        reader.setPassword("hash");
+        reader.setRole(Role.READER);
+        return reader;
+    }
+
+    private static Lending lending(Book book, Reader reader, LocalDate lendingDate, LocalDate returnDate) {
+        Lending lending = new Lending();
+        lending.setBook(book);
+        lending.setReader(reader);
+        lending.setLendingDate(lendingDate);
+        lending.setDueDate(lendingDate.plusDays(14));
+        lending.setReturnDate(returnDate);
+        lending.setStatus(returnDate != null ? LendingStatus.RETURNED : LendingStatus.ACTIVE);
+        return lending;
+    }
+}
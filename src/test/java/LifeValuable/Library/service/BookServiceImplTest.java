@@ -3,6 +3,7 @@ package LifeValuable.Library.service.impl;
 import LifeValuable.Library.dto.book.BookDTO;
 import LifeValuable.Library.dto.book.BookDetailDTO;
 import LifeValuable.Library.dto.book.BookPopularityDTO;
+import LifeValuable.Library.dto.book.BookTrendingDTO;
 import LifeValuable.Library.dto.book.CreateBookDTO;
 import LifeValuable.Library.exception.BookNotFoundException;
 import LifeValuable.Library.exception.GenreNotFoundException;
@@ -11,9 +12,13 @@ import LifeValuable.Library.model.Book;
 import LifeValuable.Library.model.Genre;
 import LifeValuable.Library.model.Lending;
 import LifeValuable.Library.model.LendingStatus;
+import LifeValuable.Library.model.TrendingWindow;
 import LifeValuable.Library.repository.BookRepository;
-import LifeValuable.Library.repository.GenreRepository;
+import LifeValuable.Library.repository.ProjectionRepository;
+import LifeValuable.Library.service.GenreService;
+import LifeValuable.Library.service.TrendingService;
 
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -41,10 +46,18 @@ public class BookServiceImplTest {
     private BookRepository bookRepository;
 
     @Mock
-    private GenreRepository genreRepository;
+    private ProjectionRepository projectionRepository;
+
+    @Mock
+    private GenreService genreService;
+
+    @Mock
+    private TrendingService trendingService;
 
     private final BookMapper bookMapper = Mappers.getMapper(BookMapper.class);
 
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager("books");
+
     private BookServiceImpl bookService;
 
     private Book book;
@@ -94,7 +107,8 @@ public class BookServiceImplTest {
         genre.setName("Научная фантастика");
         genresOfCreateBookDTO.add(genre);
 
-        bookService = new BookServiceImpl(bookRepository, bookMapper, genreRepository);
+        bookService = new BookServiceImpl(bookRepository, bookMapper, genreService, trendingService,
+                cacheManager, projectionRepository);
     }
 
     @Test
@@ -110,18 +124,18 @@ public class BookServiceImplTest {
         expectedBook.setId(2L);
         expectedBook.setGenres(genresOfCreateBookDTO);
 
-        when(genreRepository.findByNameIn(anyList())).thenReturn(genresOfCreateBookDTO);
-        when(bookRepository.save(bookToSave)).thenReturn(savedBook);
+        when(genreService.findModelsByNames(anyList())).thenReturn(genresOfCreateBookDTO);
+        when(bookRepository.saveAndFlush(bookToSave)).thenReturn(savedBook);
 
         BookDetailDTO actualDTO = bookService.create(createBookDTO);
         BookDetailDTO expectedDTO = bookMapper.toDetailDto(expectedBook);
 
         assertThat(actualDTO).isEqualTo(expectedDTO);
 
-        verify(bookRepository).save(argThat(book ->
+        verify(bookRepository).saveAndFlush(argThat(book ->
                 book.getGenres() != null && book.getGenres().equals(genresOfCreateBookDTO)
         ));
-        verify(genreRepository).findByNameIn(anyList());
+        verify(genreService).findModelsByNames(anyList());
     }
 
     @Test
@@ -133,15 +147,17 @@ public class BookServiceImplTest {
         finalBook.setLendings(new ArrayList<>());
 
         when(bookRepository.findById(expectedId)).thenReturn(Optional.of(book));
-        when(genreRepository.findByNameIn(anyList())).thenReturn(genresOfCreateBookDTO);
+        when(genreService.findModelsByNames(anyList())).thenReturn(genresOfCreateBookDTO);
 
         BookDetailDTO actualDTO = bookService.update(createBookDTO, expectedId);
         BookDetailDTO expectedDTO = bookMapper.toDetailDto(finalBook);
 
         assertThat(actualDTO).isEqualTo(expectedDTO);
         verify(bookRepository).findById(expectedId);
+        verify(bookRepository).flush();
+        verify(bookRepository, never()).findByIsbn(any());
         verify(bookRepository, never()).save(any());
-        verify(genreRepository).findByNameIn(createBookDTO.genreNames());
+        verify(genreService).findModelsByNames(createBookDTO.genreNames());
     }
 
     @Test
@@ -479,14 +495,14 @@ public class BookServiceImplTest {
         List<Book> books = List.of(book);
         Page<Book> bookPage = new PageImpl<>(books, pageable, books.size());
 
-        when(genreRepository.findByNameIn(genreNames)).thenReturn(genres);
+        when(genreService.findModelsByNames(genreNames)).thenReturn(genres);
         when(bookRepository.findByAllGenres(eq(genres), eq(pageable))).thenReturn(bookPage);
 
         Page<BookDTO> result = bookService.findByAllGenres(genreNames, pageable);
 
         assertThat(result).isNotNull();
         assertThat(result.getTotalElements()).isEqualTo(1);
-        verify(genreRepository).findByNameIn(genreNames);
+        verify(genreService).findModelsByNames(genreNames);
         verify(bookRepository).findByAllGenres(eq(genres), eq(pageable));
     }
 
@@ -501,14 +517,14 @@ public class BookServiceImplTest {
         }).toList();
         Page<Book> emptyPage = Page.empty(pageable);
 
-        when(genreRepository.findByNameIn(genreNames)).thenReturn(genres);
+        when(genreService.findModelsByNames(genreNames)).thenReturn(genres);
         when(bookRepository.findByAllGenres(eq(genres), eq(pageable))).thenReturn(emptyPage);
 
         Page<BookDTO> result = bookService.findByAllGenres(genreNames, pageable);
 
         assertThat(result).isNotNull();
         assertThat(result.isEmpty()).isTrue();
-        verify(genreRepository).findByNameIn(genreNames);
+        verify(genreService).findModelsByNames(genreNames);
         verify(bookRepository).findByAllGenres(eq(genres), eq(pageable));
     }
 
@@ -521,7 +537,7 @@ public class BookServiceImplTest {
                 .isInstanceOf(RuntimeException.class)
                 .hasMessageContaining("Genre names list cannot be empty");
 
-        verify(genreRepository, never()).findByNameIn(anyList());
+        verify(genreService, never()).findModelsByNames(anyList());
         verify(bookRepository, never()).findByAllGenres(anyList(), any());
     }
 
@@ -552,14 +568,14 @@ public class BookServiceImplTest {
         BookDetailDTO expectedDto = bookMapper.toDetailDto(updatedBook);
 
         when(bookRepository.findById(bookId)).thenReturn(Optional.of(book));
-        when(genreRepository.findByName(genreName)).thenReturn(Optional.of(newGenre));
+        when(genreService.findModelByName(genreName)).thenReturn(newGenre);
 
         BookDetailDTO result = bookService.addGenreToBook(bookId, genreName);
 
         assertThat(result).isEqualTo(expectedDto);
         assertThat(book.getGenres()).contains(newGenre);
         verify(bookRepository).findById(bookId);
-        verify(genreRepository).findByName(genreName);
+        verify(genreService).findModelByName(genreName);
     }
 
     @Test
@@ -574,7 +590,7 @@ public class BookServiceImplTest {
                 .hasMessageContaining("Book not found with id: " + nonExistingBookId);
 
         verify(bookRepository).findById(nonExistingBookId);
-        verify(genreRepository, never()).findByName(anyString());
+        verify(genreService, never()).findModelByName(anyString());
     }
 
     @Test
@@ -583,14 +599,14 @@ public class BookServiceImplTest {
         String nonExistingGenreName = "Несуществующий жанр";
 
         when(bookRepository.findById(bookId)).thenReturn(Optional.of(book));
-        when(genreRepository.findByName(nonExistingGenreName)).thenReturn(Optional.empty());
+        when(genreService.findModelByName(nonExistingGenreName)).thenThrow(new GenreNotFoundException(nonExistingGenreName));
 
         assertThatThrownBy(() -> bookService.addGenreToBook(bookId, nonExistingGenreName))
                 .isInstanceOf(GenreNotFoundException.class)
                 .hasMessageContaining("Genre not found with name: " + nonExistingGenreName);
 
         verify(bookRepository).findById(bookId);
-        verify(genreRepository).findByName(nonExistingGenreName);
+        verify(genreService).findModelByName(nonExistingGenreName);
     }
 
     @Test
@@ -609,7 +625,7 @@ public class BookServiceImplTest {
         assertThat(result).isEqualTo(expectedDto);
         assertThat(book.getGenres().size()).isEqualTo(2);
         verify(bookRepository).findById(bookId);
-        verify(genreRepository, never()).findByName(existingGenreName);
+        verify(genreService, never()).findModelByName(existingGenreName);
     }
 
     @Test
@@ -640,7 +656,7 @@ public class BookServiceImplTest {
         assertThat(result).isEqualTo(expectedDto);
         assertThat(book.getGenres()).doesNotContain(genreToRemove);
         verify(bookRepository).findById(bookId);
-        verify(genreRepository, never()).findByName(genreName);
+        verify(genreService, never()).findModelByName(genreName);
     }
 
     @Test
@@ -655,7 +671,7 @@ public class BookServiceImplTest {
                 .hasMessageContaining("Book not found with id: " + nonExistingBookId);
 
         verify(bookRepository).findById(nonExistingBookId);
-        verify(genreRepository, never()).findByName(anyString());
+        verify(genreService, never()).findModelByName(anyString());
     }
 
     @Test
@@ -673,7 +689,7 @@ public class BookServiceImplTest {
                 .hasMessageContaining("Book does not have genre: " + nonExistingGenreName);
 
         verify(bookRepository).findById(bookId);
-        verify(genreRepository, never()).findByName(nonExistingGenreName);
+        verify(genreService, never()).findModelByName(nonExistingGenreName);
     }
 
     @Test
@@ -688,7 +704,7 @@ public class BookServiceImplTest {
                 .hasMessageContaining("Can't remove the last genre from a book");
 
         verify(bookRepository, times(2)).findById(bookId);
-        verify(genreRepository, never()).findByName(lastGenreName);
+        verify(genreService, never()).findModelByName(lastGenreName);
     }
 
     @Test
@@ -959,4 +975,86 @@ public class BookServiceImplTest {
 
         verify(bookRepository).findById(nonExistingBookId);
     }
+
+    @Test
+    void whenFindTrending_thenReturnBooksInScoreOrder() {
+        Book other = new Book();
+        other.setId(2L);
+        other.setTitle("Дюна");
+        other.setAuthor("Фрэнк Герберт");
+
+        when(trendingService.findTop(TrendingWindow.WEEK, null, 10)).thenReturn(List.of(
+                new TrendingService.Score(2L, 3.5),
+                new TrendingService.Score(1L, 1.25)));
+        when(bookRepository.findAllById(List.of(2L, 1L))).thenReturn(List.of(book, other));
+
+        List<BookTrendingDTO> result = bookService.findTrending(TrendingWindow.WEEK, null, 10);
+
+        assertThat(result).containsExactly(
+                new BookTrendingDTO(2L, "Дюна", "Фрэнк Герберт", 3.5),
+                new BookTrendingDTO(1L, book.getTitle(), book.getAuthor(), 1.25));
+    }
+
+    @Test
+    void whenFindTrending_withDeletedBook_thenSkipIt() {
+        when(trendingService.findTop(TrendingWindow.MONTH, "Фэнтези", 5)).thenReturn(List.of(
+                new TrendingService.Score(99L, 2.0),
+                new TrendingService.Score(1L, 1.0)));
+        when(bookRepository.findAllById(List.of(99L, 1L))).thenReturn(List.of(book));
+
+        List<BookTrendingDTO> result = bookService.findTrending(TrendingWindow.MONTH, "Фэнтези", 5);
+
+        assertThat(result).extracting(BookTrendingDTO::id).containsExactly(1L);
+    }
+
+    @Test
+    void whenFindTrending_withNoScores_thenSkipRepository() {
+        when(trendingService.findTop(TrendingWindow.YEAR, null, 10)).thenReturn(List.of());
+
+        assertThat(bookService.findTrending(TrendingWindow.YEAR, null, 10)).isEmpty();
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    void whenFindAllByIds_withAllCached_thenSkipRepository() {
+        BookDetailDTO other = new BookDetailDTO(2L, "Дюна", "Фрэнк Герберт", "9785171367060", 1965, 5, 5,
+                List.of("Научная фантастика"));
+        cacheManager.getCache("books").put(1L, bookDetailDTO);
+        cacheManager.getCache("books").put(2L, other);
+
+        List<BookDetailDTO> result = bookService.findAllByIds(List.of(2L, 1L));
+
+        assertThat(result).containsExactly(other, bookDetailDTO);
+        verifyNoInteractions(bookRepository);
+    }
+
+    @Test
+    void whenFindAllByIds_withMisses_thenLoadOnlyMissesAndBackFillCache() {
+        Book dune = new Book();
+        dune.setId(2L);
+        dune.setTitle("Дюна");
+        dune.setAuthor("Фрэнк Герберт");
+        dune.setPublicationYear(1965);
+        dune.setStock(5);
+        dune.setGenres(List.of());
+        dune.setLendings(List.of());
+        cacheManager.getCache("books").put(1L, bookDetailDTO);
+        when(bookRepository.findAllById(List.of(2L, 99L))).thenReturn(List.of(dune));
+
+        List<BookDetailDTO> result = bookService.findAllByIds(List.of(2L, 1L, 99L, 2L));
+
+        assertThat(result).extracting(BookDetailDTO::id).containsExactly(2L, 1L);
+        assertThat(cacheManager.getCache("books").get(2L, BookDetailDTO.class).title()).isEqualTo("Дюна");
+        verify(bookRepository).findAllById(List.of(2L, 99L));
+    }
+
+    @Test
+    void whenFindAllByIds_withStockCountUnderSameKey_thenTreatAsMiss() {
+        cacheManager.getCache("books").put(1L, 7);
+        when(bookRepository.findAllById(List.of(1L))).thenReturn(List.of(book));
+
+        List<BookDetailDTO> result = bookService.findAllByIds(List.of(1L));
+
+        assertThat(result).containsExactly(bookDetailDTO);
+    }
 }
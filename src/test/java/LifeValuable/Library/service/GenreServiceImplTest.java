@@ -0,0 +1,230 @@
+package LifeValuable.Library.service.impl;
+
+import LifeValuable.Library.dto.genre.CreateGenreDTO;
+import LifeValuable.Library.dto.genre.GenreDTO;
+import LifeValuable.Library.exception.GenreNotFoundException;
+import LifeValuable.Library.mapper.GenreMapper;
+import LifeValuable.Library.model.Genre;
+import LifeValuable.Library.repository.GenreRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapstruct.factory.Mappers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.redis.RedisConnectionFailureException;
+import org.springframework.data.redis.connection.DefaultMessage;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class GenreServiceImplTest {
+
+    @Mock
+    private GenreRepository genreRepository;
+
+    @Mock
+    private StringRedisTemplate redisTemplate;
+
+    @Mock
+    private RedisMessageListenerContainer listenerContainer;
+
+    private final GenreMapper genreMapper = Mappers.getMapper(GenreMapper.class);
+
+    private final ConcurrentMapCacheManager cacheManager = new ConcurrentMapCacheManager("books");
+
+    private GenreServiceImpl genreService;
+
+    private MessageListener invalidationListener;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(genreRepository.findAll()).thenReturn(new ArrayList<>(List.of(
+                genre(1L, "Роман", "Крупная форма"),
+                genre(2L, "Детектив", "Расследования"))));
+
+        genreService = new GenreServiceImpl(genreRepository, genreMapper, redisTemplate, cacheManager,
+                listenerContainer);
+
+        ArgumentCaptor<MessageListener> listener = ArgumentCaptor.forClass(MessageListener.class);
+        verify(listenerContainer).addMessageListener(listener.capture(),
+                eq(new ChannelTopic(GenreServiceImpl.INVALIDATION_CHANNEL)));
+        invalidationListener = listener.getValue();
+    }
+
+    @Test
+    void whenResolveGenresRepeatedly_thenCatalogIsLoadedOnce() {
+        List<Genre> first = genreService.findModelsByNames(List.of("Роман", "Детектив"));
+        List<Genre> second = genreService.findModelsByNames(List.of("Роман"));
+        Genre single = genreService.findModelByName("Детектив");
+
+        assertThat(first).extracting(Genre::getId).containsExactly(1L, 2L);
+        assertThat(second).extracting(Genre::getId).containsExactly(1L);
+        assertThat(single.getId()).isEqualTo(2L);
+        verify(genreRepository, times(1)).findAll();
+        verify(genreRepository, never()).findByNameIn(anyList());
+        verify(genreRepository, never()).findByName(anyString());
+    }
+
+    @Test
+    void whenResolveUnknownNames_thenOnlyKnownGenresAreReturned() {
+        List<Genre> genres = genreService.findModelsByNames(List.of("Роман", "Поэзия"));
+
+        assertThat(genres).extracting(Genre::getName).containsExactly("Роман");
+    }
+
+    @Test
+    void whenResolveUnknownName_thenThrowGenreNotFoundException() {
+        assertThatThrownBy(() -> genreService.findModelByName("Поэзия"))
+                .isInstanceOf(GenreNotFoundException.class)
+                .hasMessageContaining("Genre not found with name: Поэзия");
+    }
+
+    @Test
+    void whenResolvedGenreIsModified_thenCatalogIsUnaffected() {
+        genreService.findModelByName("Роман").setName("Изменено");
+
+        assertThat(genreService.findByName("Роман").id()).isEqualTo(1L);
+    }
+
+    @Test
+    void whenFindAll_thenGenresAreSortedByName() {
+        List<GenreDTO> genres = genreService.findAll();
+
+        assertThat(genres).extracting(GenreDTO::name).containsExactly("Детектив", "Роман");
+    }
+
+    @Test
+    void whenCreate_thenCatalogContainsNewGenreWithoutReload() {
+        when(genreRepository.saveAndFlush(any(Genre.class))).thenAnswer(invocation -> {
+            Genre genre = invocation.getArgument(0);
+            genre.setId(3L);
+            return genre;
+        });
+        genreService.findAll();
+
+        GenreDTO created = genreService.create(new CreateGenreDTO("Поэзия", "Стихи"));
+
+        assertThat(created).isEqualTo(new GenreDTO(3L, "Поэзия", "Стихи"));
+        assertThat(genreService.findModelByName("Поэзия").getId()).isEqualTo(3L);
+        verify(genreRepository, times(1)).findAll();
+        verify(redisTemplate).convertAndSend(eq(GenreServiceImpl.INVALIDATION_CHANNEL), anyString());
+    }
+
+    @Test
+    void whenUpdateRenamesGenre_thenOldNameIsGoneAndBooksCacheIsCleared() {
+        cacheManager.getCache("books").put(1L, "cached book");
+        when(genreRepository.findById(1L)).thenReturn(Optional.of(genre(1L, "Роман", "Крупная форма")));
+        when(genreRepository.saveAndFlush(any(Genre.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        GenreDTO updated = genreService.update(new CreateGenreDTO("Повесть", "Средняя форма"), 1L);
+
+        assertThat(updated).isEqualTo(new GenreDTO(1L, "Повесть", "Средняя форма"));
+        assertThat(genreService.findModelByName("Повесть").getId()).isEqualTo(1L);
+        assertThatThrownBy(() -> genreService.findModelByName("Роман"))
+                .isInstanceOf(GenreNotFoundException.class);
+        assertThat(cacheManager.getCache("books").get(1L)).isNull();
+    }
+
+    @Test
+    void whenUpdateNonExistingGenre_thenThrowGenreNotFoundException() {
+        when(genreRepository.findById(99L)).thenReturn(Optional.empty());
+
+        assertThatThrownBy(() -> genreService.update(new CreateGenreDTO("Поэзия", "Стихи"), 99L))
+                .isInstanceOf(GenreNotFoundException.class)
+                .hasMessageContaining("Genre not found with id: 99");
+
+        verify(genreRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void whenDelete_thenGenreIsRemovedFromCatalog() {
+        when(genreRepository.existsById(2L)).thenReturn(true);
+
+        genreService.deleteById(2L);
+
+        verify(genreRepository).deleteById(2L);
+        assertThat(genreService.findAll()).extracting(GenreDTO::name).containsExactly("Роман");
+    }
+
+    @Test
+    void whenDeleteNonExistingGenre_thenThrowGenreNotFoundException() {
+        when(genreRepository.existsById(99L)).thenReturn(false);
+
+        assertThatThrownBy(() -> genreService.deleteById(99L))
+                .isInstanceOf(GenreNotFoundException.class);
+
+        verify(genreRepository, never()).deleteById(anyLong());
+        verify(redisTemplate, never()).convertAndSend(anyString(), anyString());
+    }
+
+    @Test
+    void whenPublishingInvalidationFails_thenWriteStillSucceeds() {
+        when(genreRepository.existsById(2L)).thenReturn(true);
+        when(redisTemplate.convertAndSend(anyString(), anyString()))
+                .thenThrow(new RedisConnectionFailureException("Redis is down"));
+
+        genreService.deleteById(2L);
+
+        assertThat(genreService.findAll()).hasSize(1);
+    }
+
+    @Test
+    void whenInvalidationFromAnotherNode_thenCatalogIsReloaded() {
+        genreService.findAll();
+        when(genreRepository.findAll()).thenReturn(List.of(genre(1L, "Роман", "Крупная форма")));
+
+        invalidationListener.onMessage(message("another-node"), null);
+
+        assertThat(genreService.findAll()).extracting(GenreDTO::name).containsExactly("Роман");
+        verify(genreRepository, times(2)).findAll();
+    }
+
+    @Test
+    void whenInvalidationFromSameNode_thenCatalogIsNotReloaded() {
+        ArgumentCaptor<String> origin = ArgumentCaptor.forClass(String.class);
+        when(genreRepository.existsById(2L)).thenReturn(true);
+        genreService.deleteById(2L);
+        verify(redisTemplate).convertAndSend(eq(GenreServiceImpl.INVALIDATION_CHANNEL), origin.capture());
+
+        invalidationListener.onMessage(message(origin.getValue()), null);
+
+        verify(genreRepository, times(1)).findAll();
+    }
+
+    @Test
+    void whenCatalogIsOlderThanMaxAge_thenItIsReloaded() {
+        genreService.setMaxAgeMs(-1);
+
+        genreService.findAll();
+        genreService.findAll();
+
+        verify(genreRepository, times(2)).findAll();
+    }
+
+    private static Genre genre(Long id, String name, String description) {
+        Genre genre = new Genre();
+        genre.setId(id);
+        genre.setName(name);
+        genre.setDescription(description);
+        return genre;
+    }
+
+    private static DefaultMessage message(String body) {
+        return new DefaultMessage(GenreServiceImpl.INVALIDATION_CHANNEL.getBytes(StandardCharsets.UTF_8),
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,160 @@
+package LifeValuable.Library.service.impl;
+
+import LifeValuable.Library.model.Book;
+import LifeValuable.Library.model.Genre;
+import LifeValuable.Library.model.TrendingWindow;
+import LifeValuable.Library.service.TrendingService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class InMemoryTrendingServiceTest {
+    private static final Instant EPOCH = Instant.parse("2025-01-01T00:00:00Z");
+
+    private MutableClock clock;
+    private InMemoryTrendingService trendingService;
+
+    private Book harryPotter;
+    private Book dune;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(EPOCH.plus(Duration.ofDays(300)));
+        trendingService = new InMemoryTrendingService(EPOCH, clock);
+
+        Genre fantasy = new Genre();
+        fantasy.setName("Фэнтези");
+        Genre sciFi = new Genre();
+        sciFi.setName("Научная фантастика");
+
+        harryPotter = new Book();
+        harryPotter.setId(1L);
+        harryPotter.setGenres(List.of(fantasy));
+
+        dune = new Book();
+        dune.setId(2L);
+        dune.setGenres(List.of(sciFi));
+    }
+
+    @Test
+    void whenRecordLending_thenScoreIsOnePerLendingAtLendingTime() {
+        trendingService.recordLending(harryPotter);
+        trendingService.recordLending(harryPotter);
+
+        List<TrendingService.Score> top = trendingService.findTop(TrendingWindow.WEEK, null, 10);
+
+        assertThat(top).hasSize(1);
+        assertThat(top.get(0).bookId()).isEqualTo(1L);
+        assertThat(top.get(0).score()).isCloseTo(2.0, within(1e-9));
+    }
+
+    @Test
+    void whenTimePasses_thenScoreDecaysByWindow() {
+        trendingService.recordLending(harryPotter);
+        clock.advance(Duration.ofDays(7));
+
+        double week = trendingService.findTop(TrendingWindow.WEEK, null, 1).get(0).score();
+        double year = trendingService.findTop(TrendingWindow.YEAR, null, 1).get(0).score();
+
+        assertThat(week).isCloseTo(Math.exp(-1), within(1e-9));
+        assertThat(year).isCloseTo(Math.exp(-7.0 / 365), within(1e-9));
+    }
+
+    @Test
+    void whenOlderLendingsOutnumberRecent_thenWeekWindowPrefersRecent() {
+        for (int i = 0; i < 3; i++)
+            trendingService.recordLending(harryPotter);
+        clock.advance(Duration.ofDays(28));
+        trendingService.recordLending(dune);
+
+        assertThat(trendingService.findTop(TrendingWindow.WEEK, null, 2))
+                .extracting(TrendingService.Score::bookId)
+                .containsExactly(2L, 1L);
+        assertThat(trendingService.findTop(TrendingWindow.YEAR, null, 2))
+                .extracting(TrendingService.Score::bookId)
+                .containsExactly(1L, 2L);
+    }
+
+    @Test
+    void whenFindTopByGenre_thenReturnOnlyBooksOfGenre() {
+        trendingService.recordLending(harryPotter);
+        trendingService.recordLending(dune);
+        trendingService.recordLending(dune);
+
+        assertThat(trendingService.findTop(TrendingWindow.MONTH, "Фэнтези", 10))
+                .extracting(TrendingService.Score::bookId)
+                .containsExactly(1L);
+        assertThat(trendingService.findTop(TrendingWindow.MONTH, null, 10))
+                .extracting(TrendingService.Score::bookId)
+                .containsExactly(2L, 1L);
+    }
+
+    @Test
+    void whenFindTop_withLimit_thenReturnAtMostLimit() {
+        trendingService.recordLending(harryPotter);
+        trendingService.recordLending(dune);
+
+        assertThat(trendingService.findTop(TrendingWindow.WEEK, null, 1)).hasSize(1);
+        assertThat(trendingService.findTop(TrendingWindow.WEEK, "Неизвестный", 10)).isEmpty();
+    }
+
+    @Test
+    void whenDecadesPassWithNewGenerations_thenScoresStayFiniteAndCarriedOver() {
+        Instant boundary = TrendingService.generationStart(TrendingWindow.WEEK, EPOCH, 8);
+        clock.set(boundary.minus(Duration.ofDays(1)));
+        trendingService.recordLending(harryPotter);
+        clock.set(boundary.plus(Duration.ofDays(1)));
+        trendingService.recordLending(dune);
+
+        List<TrendingService.Score> top = trendingService.findTop(TrendingWindow.WEEK, null, 10);
+
+        assertThat(top).extracting(TrendingService.Score::bookId).containsExactly(2L, 1L);
+        assertThat(top.get(0).score()).isCloseTo(1.0, within(1e-9));
+        assertThat(top.get(1).score()).isCloseTo(Math.exp(-2.0 / 7), within(1e-9));
+
+        clock.advance(Duration.ofDays(7 * TrendingService.OVERLAP_WINDOWS));
+        assertThat(trendingService.findTop(TrendingWindow.WEEK, null, 10))
+                .extracting(TrendingService.Score::bookId)
+                .containsExactly(2L);
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        void set(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
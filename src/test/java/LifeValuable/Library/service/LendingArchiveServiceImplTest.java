@@ -0,0 +1,145 @@
+package LifeValuable.Library.service.impl;
+
+import LifeValuable.Library.archive.ArchivedLending;
+import LifeValuable.Library.archive.LendingArchive;
+import LifeValuable.Library.model.LendingStatus;
+import LifeValuable.Library.repository.BookRepository;
+import LifeValuable.Library.repository.LendingRepository;
+import LifeValuable.Library.repository.ReaderRepository;
+import LifeValuable.Library.service.LendingArchiveService.ArchiveReport;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LendingArchiveServiceImplTest {
+    private static final LocalDate CUTOFF = LocalDate.of(2025, 10, 1);
+
+    @Mock
+    private LendingRepository lendingRepository;
+
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private ReaderRepository readerRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    private Path directory;
+
+    private LendingArchive archive;
+    private ConcurrentMapCacheManager cacheManager;
+    private LendingArchiveServiceImpl archiveService;
+
+    @BeforeEach
+    void setUp() {
+        archive = new LendingArchive(directory);
+        cacheManager = new ConcurrentMapCacheManager("readerProfiles");
+        archiveService = new LendingArchiveServiceImpl(lendingRepository, bookRepository, readerRepository, archive,
+                cacheManager, new TransactionTemplate(transactionManager));
+        archiveService.setRowsPerFile(4);
+        archiveService.setBatchSize(3);
+    }
+
+    @Test
+    void whenRetentionIsDisabled_thenNothingIsArchived() {
+        assertThat(archiveService.archive()).isEqualTo(new ArchiveReport(0, 0));
+
+        verifyNoInteractions(lendingRepository);
+    }
+
+    @Test
+    void whenReturnedLendingsPastCutoff_thenTheyAreWrittenToFilesAndDeleted() {
+        List<ArchivedLending> rows = rows(1, 6);
+        database(rows);
+        cacheManager.getCache("readerProfiles").put("ivan@example.com", "profile");
+
+        ArchiveReport report = archiveService.archiveReturnedBefore(CUTOFF);
+
+        assertThat(report).isEqualTo(new ArchiveReport(2, 6));
+        assertThat(archive.pendingFiles()).isEmpty();
+        assertThat(archive.getRowCount()).isEqualTo(6);
+        assertThat(archive.findByReaderId(1L)).hasSize(6);
+        verify(lendingRepository).deleteAllByIdInBatch(List.of(1L, 2L, 3L));
+        verify(lendingRepository).deleteAllByIdInBatch(List.of(4L));
+        verify(lendingRepository).deleteAllByIdInBatch(List.of(5L, 6L));
+        verify(bookRepository).addArchivedLendings(List.of(10L), 3L);
+        verify(bookRepository).addArchivedLendings(List.of(10L), 1L);
+        verify(bookRepository).addArchivedLendings(List.of(10L), 2L);
+        verify(readerRepository).addArchivedLendings(List.of(1L), 3L);
+        assertThat(cacheManager.getCache("readerProfiles").get("ivan@example.com")).isNull();
+    }
+
+    @Test
+    void whenDeleteFails_thenFileStaysPendingAndIsFinishedOnNextRun() {
+        database(rows(1, 2));
+        doThrow(new IllegalStateException("connection lost")).when(lendingRepository).deleteAllByIdInBatch(any());
+
+        assertThatThrownBy(() -> archiveService.archiveReturnedBefore(CUTOFF)).isInstanceOf(IllegalStateException.class);
+        assertThat(archive.pendingFiles()).hasSize(1);
+        assertThat(archive.findByReaderId(1L)).isEmpty();
+
+        verifyNoInteractions(bookRepository, readerRepository);
+
+        doNothing().when(lendingRepository).deleteAllByIdInBatch(any());
+        database(List.of());
+
+        assertThat(archiveService.archiveReturnedBefore(CUTOFF)).isEqualTo(new ArchiveReport(1, 2));
+        assertThat(archive.pendingFiles()).isEmpty();
+        assertThat(archive.findByReaderId(1L)).extracting(ArchivedLending::id).containsExactly(2L, 1L);
+        verify(bookRepository).addArchivedLendings(List.of(10L), 2L);
+    }
+
+    @Test
+    void whenPendingFileRowsAlreadyDeleted_thenTheyAreNotCountedAgain() {
+        database(rows(1, 3));
+        doReturn(List.of(3L)).when(lendingRepository).findExistingIds(any());
+
+        assertThat(archiveService.archiveReturnedBefore(CUTOFF)).isEqualTo(new ArchiveReport(1, 3));
+
+        verify(lendingRepository).deleteAllByIdInBatch(List.of(3L));
+        verify(bookRepository).addArchivedLendings(List.of(10L), 1L);
+        verify(readerRepository).addArchivedLendings(List.of(1L), 1L);
+        verifyNoMoreInteractions(bookRepository, readerRepository);
+    }
+
+    private void database(List<ArchivedLending> rows) {
+        when(lendingRepository.findArchivable(eq(LendingStatus.RETURNED), eq(CUTOFF), anyLong(), any(Pageable.class)))
+                .thenAnswer(invocation -> {
+                    long afterId = invocation.getArgument(2);
+                    Pageable pageable = invocation.getArgument(3);
+                    return rows.stream().filter(row -> row.id() > afterId).limit(pageable.getPageSize()).toList();
+                });
+        lenient().doAnswer(invocation -> List.copyOf(invocation.<List<Long>>getArgument(0)))
+                .when(lendingRepository).findExistingIds(any());
+    }
+
+    private static List<ArchivedLending> rows(long from, long to) {
+        List<ArchivedLending> rows = new ArrayList<>();
+        for (long id = from; id <= to; id++) {
+            LocalDate date = LocalDate.of(2024, 1, 1).plusDays(id);
+            rows.add(new ArchivedLending(id, 10L, 1L, date, date.plusDays(14), date.plusDays(5)));
+        }
+        return rows;
+    }
+}
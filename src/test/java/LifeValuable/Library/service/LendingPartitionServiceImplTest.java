@@ -0,0 +1,117 @@
+package LifeValuable.Library.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.BadSqlGrammarException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LendingPartitionServiceImplTest {
+    private static final LocalDate TODAY = LocalDate.of(2026, 10, 19);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private LendingPartitionServiceImpl partitionService;
+
+    @BeforeEach
+    void setUp() {
+        partitionService = new LendingPartitionServiceImpl(jdbcTemplate);
+        partitionService.setMonthsAhead(2);
+    }
+
+    @Test
+    void whenPartitionName_thenYearAndMonthAreZeroPadded() {
+        assertThat(LendingPartitionServiceImpl.partitionName(YearMonth.of(2026, 3))).isEqualTo("lending_2026_03");
+    }
+
+    @Test
+    void whenTableIsPartitioned_thenMissingMonthsAheadAreCreated() {
+        partitioned(true);
+        existing("lending_2026_10");
+
+        List<String> created = partitionService.createFuturePartitions(TODAY);
+
+        assertThat(created).containsExactly("lending_2026_11", "lending_2026_12");
+        verify(jdbcTemplate).execute(
+                "create table lending_2026_11 partition of lending for values from ('2026-11-01') to ('2026-12-01')");
+        verify(jdbcTemplate).execute(
+                "create table lending_2026_12 partition of lending for values from ('2026-12-01') to ('2027-01-01')");
+        verify(jdbcTemplate, never()).execute(contains("lending_2026_10 partition"));
+    }
+
+    @Test
+    void whenPartitionCannotBeCreated_thenOtherMonthsAreStillCreated() {
+        partitioned(true);
+        existing();
+        doThrow(new DataIntegrityViolationException("default partition would be violated"))
+                .when(jdbcTemplate).execute(startsWith("create table lending_2026_10 "));
+
+        List<String> created = partitionService.createFuturePartitions(TODAY);
+
+        assertThat(created).containsExactly("lending_2026_11", "lending_2026_12");
+    }
+
+    @Test
+    void whenDatabaseHasNoPartitionCatalog_thenNothingIsDone() {
+        when(jdbcTemplate.queryForObject(contains("pg_partitioned_table"), eq(Boolean.class), any()))
+                .thenThrow(new BadSqlGrammarException("partitioned", "select", new SQLException("Table not found")));
+        partitionService.setRetentionMonths(12);
+
+        assertThat(partitionService.maintain().created()).isEmpty();
+        assertThat(partitionService.detachExpiredPartitions(TODAY)).isEmpty();
+
+        verify(jdbcTemplate, never()).execute(anyString());
+        verify(jdbcTemplate, times(1)).queryForObject(contains("pg_partitioned_table"), eq(Boolean.class), any());
+    }
+
+    @Test
+    void whenRetentionIsDisabled_thenNoPartitionIsDetached() {
+        assertThat(partitionService.detachExpiredPartitions(TODAY)).isEmpty();
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void whenMonthsPastRetention_thenClosedMonthsAreDetachedAndOpenOnesKept() {
+        partitioned(true);
+        partitionService.setRetentionMonths(12);
+        when(jdbcTemplate.queryForList(contains("pg_inherits"), eq(String.class), eq("lending")))
+                .thenReturn(List.of("lending_2025_08", "lending_2025_09", "lending_2025_10", "lending_default"));
+        when(jdbcTemplate.queryForObject("select exists(select 1 from lending_2025_08 where returndate is null)",
+                Boolean.class)).thenReturn(false);
+        when(jdbcTemplate.queryForObject("select exists(select 1 from lending_2025_09 where returndate is null)",
+                Boolean.class)).thenReturn(true);
+
+        List<String> detached = partitionService.detachExpiredPartitions(TODAY);
+
+        assertThat(detached).containsExactly("lending_2025_08");
+        verify(jdbcTemplate).execute("alter table lending detach partition lending_2025_08");
+        verify(jdbcTemplate, never()).execute(contains("lending_2025_09"));
+        verify(jdbcTemplate, never()).execute(contains("lending_2025_10"));
+        verify(jdbcTemplate, never()).execute(contains("lending_default"));
+    }
+
+    private void partitioned(boolean partitioned) {
+        when(jdbcTemplate.queryForObject(contains("pg_partitioned_table"), eq(Boolean.class), eq("lending")))
+                .thenReturn(partitioned);
+    }
+
+    private void existing(String... tables) {
+        lenient().when(jdbcTemplate.queryForObject(eq("select to_regclass(?) is not null"), eq(Boolean.class), any()))
+                .thenAnswer(invocation -> List.of(tables).contains(invocation.<String>getArgument(2)));
+    }
+}
@@ -1,19 +1,25 @@
 package LifeValuable.Library.service;
 
-import LifeValuable.Library.dto.book.BookDetailDTO;
+import LifeValuable.Library.archive.ArchivedLending;
+import LifeValuable.Library.archive.LendingArchive;
 import LifeValuable.Library.dto.book.BookPopularityDTO;
 import LifeValuable.Library.dto.lending.CreateLendingDTO;
 import LifeValuable.Library.dto.lending.LendingDTO;
 import LifeValuable.Library.dto.lending.LendingDetailDTO;
-import LifeValuable.Library.dto.reader.ReaderDetailDTO;
+import LifeValuable.Library.event.LendingLifecycleEvent;
+import LifeValuable.Library.exception.BookNotFoundException;
 import LifeValuable.Library.exception.LendingNotFoundException;
+import LifeValuable.Library.exception.UnknownFieldException;
 import LifeValuable.Library.mapper.LendingMapper;
 import LifeValuable.Library.model.Book;
 import LifeValuable.Library.model.Lending;
 import LifeValuable.Library.model.LendingStatus;
 import LifeValuable.Library.model.Reader;
+import LifeValuable.Library.outbox.OutboxPublisher;
 import LifeValuable.Library.repository.BookLendingProjection;
+import LifeValuable.Library.repository.BookRepository;
 import LifeValuable.Library.repository.LendingRepository;
+import LifeValuable.Library.repository.ProjectionRepository;
 import LifeValuable.Library.service.impl.LendingServiceImpl;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -25,6 +31,7 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -41,12 +48,24 @@ class LendingServiceImplTest {
     @Mock
     private LendingRepository lendingRepository;
 
+    @Mock
+    private BookRepository bookRepository;
+
+    @Mock
+    private ProjectionRepository projectionRepository;
+
     @Mock
     private BookService bookService;
 
     @Mock
     private ReaderService readerService;
 
+    @Mock
+    private OutboxPublisher outboxPublisher;
+
+    @Mock
+    private LendingArchive lendingArchive;
+
     private final LendingMapper lendingMapper = Mappers.getMapper(LendingMapper.class);
 
     private LendingServiceImpl lendingService;
@@ -55,8 +74,6 @@ class LendingServiceImplTest {
     private LendingDTO lendingDTO;
     private LendingDetailDTO lendingDetailDTO;
     private CreateLendingDTO createLendingDTO;
-    private BookDetailDTO bookDetailDTO;
-    private ReaderDetailDTO readerDetailDTO;
     private BookLendingProjection bookLendingProjection;
 
     @BeforeEach
@@ -71,6 +88,7 @@ class LendingServiceImplTest {
         reader.setId(1L);
         reader.setFirstName("Иван");
         reader.setLastName("Иванов");
+        reader.setEmail("ivan@example.com");
 
         lending = new Lending();
         lending.setId(1L);
@@ -90,64 +108,64 @@ class LendingServiceImplTest {
                 LocalDate.now().plusDays(14)
         );
 
-        bookDetailDTO = new BookDetailDTO(
-                book.getId(),
-                book.getTitle(),
-                book.getAuthor(),
-                "9785389077843",
-                1997,
-                book.getStock(),
-                5,
-                List.of("Фэнтези")
-        );
-
-        readerDetailDTO = new ReaderDetailDTO(
-                reader.getId(),
-                reader.getFirstName(),
-                reader.getLastName(),
-                "example@email.com",
-                "123456789",
-                LocalDate.now().minusMonths(6),
-                0,
-                0,
-                0,
-                "READER"
-        );
-
-        lendingService = new LendingServiceImpl(lendingRepository, bookService, readerService, lendingMapper);
+        lendingService = new LendingServiceImpl(lendingRepository, bookRepository, bookService, readerService, lendingMapper,
+                outboxPublisher, lendingArchive, projectionRepository);
     }
 
     @Test
     void whenCreate_thenSaveAndReturnLendingDetailDTO() {
-        when(readerService.findById(createLendingDTO.readerId())).thenReturn(readerDetailDTO);
-        when(bookService.findById(createLendingDTO.bookId())).thenReturn(bookDetailDTO);
+        when(readerService.findModelById(createLendingDTO.readerId())).thenReturn(lending.getReader());
+        when(bookService.findModelById(createLendingDTO.bookId())).thenReturn(lending.getBook());
+        when(bookRepository.findStockById(lending.getBook().getId())).thenReturn(Optional.of(10));
+        when(lendingRepository.countByBookIdAndStatusIn(eq(lending.getBook().getId()), anyCollection())).thenReturn(3L);
         when(lendingRepository.save(any(Lending.class))).thenReturn(lending);
 
         LendingDetailDTO result = lendingService.create(createLendingDTO);
 
         assertThat(result).isEqualTo(lendingDetailDTO);
-        verify(readerService).findById(createLendingDTO.readerId());
-        verify(bookService).findById(createLendingDTO.bookId());
-        verify(lendingRepository).save(any(Lending.class));
+        verify(readerService).findModelById(createLendingDTO.readerId());
+        verify(bookService).findModelById(createLendingDTO.bookId());
+        verify(lendingRepository).countByBookIdAndStatusIn(lending.getBook().getId(),
+                List.of(LendingStatus.ACTIVE, LendingStatus.OVERDUE));
+        verify(lendingRepository).save(argThat(saved ->
+                saved.getBook() == lending.getBook() && saved.getReader() == lending.getReader()));
+        verify(readerService, never()).findById(anyLong());
+        verify(bookService, never()).findById(anyLong());
+        verify(outboxPublisher).publish(new LendingLifecycleEvent(LendingLifecycleEvent.Type.CREATED,
+                1L, 1L, 1L, "ivan@example.com", LendingStatus.ACTIVE));
+        verify(readerService, never()).evictProfile(anyString());
     }
 
     @Test
     void whenCreate_withUnavailableBook_thenThrowException() {
-        BookDetailDTO unavailableBook = new BookDetailDTO(
-                bookDetailDTO.id(), bookDetailDTO.title(), bookDetailDTO.author(),
-                bookDetailDTO.isbn(), bookDetailDTO.publicationYear(), bookDetailDTO.stock(),
-                0, bookDetailDTO.genreNames()
-        );
+        when(readerService.findModelById(createLendingDTO.readerId())).thenReturn(lending.getReader());
+        when(bookService.findModelById(createLendingDTO.bookId())).thenReturn(lending.getBook());
+        when(bookRepository.findStockById(lending.getBook().getId())).thenReturn(Optional.of(10));
+        when(lendingRepository.countByBookIdAndStatusIn(eq(lending.getBook().getId()), anyCollection()))
+                .thenReturn(10L);
 
-        when(readerService.findById(createLendingDTO.readerId())).thenReturn(readerDetailDTO);
-        when(bookService.findById(createLendingDTO.bookId())).thenReturn(unavailableBook);
+        assertThatThrownBy(() -> lendingService.create(createLendingDTO))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("isn't available for lending");
+
+        verify(readerService).findModelById(createLendingDTO.readerId());
+        verify(bookService).findModelById(createLendingDTO.bookId());
+        verify(lendingRepository, never()).save(any(Lending.class));
+        verifyNoInteractions(outboxPublisher);
+    }
+
+    @Test
+    void whenCreate_withStockReducedOnAnotherNode_thenThrowExceptionDespiteCachedBook() {
+        when(readerService.findModelById(createLendingDTO.readerId())).thenReturn(lending.getReader());
+        when(bookService.findModelById(createLendingDTO.bookId())).thenReturn(lending.getBook());
+        when(bookRepository.findStockById(lending.getBook().getId())).thenReturn(Optional.of(3));
+        when(lendingRepository.countByBookIdAndStatusIn(eq(lending.getBook().getId()), anyCollection())).thenReturn(3L);
 
         assertThatThrownBy(() -> lendingService.create(createLendingDTO))
                 .isInstanceOf(RuntimeException.class)
                 .hasMessageContaining("isn't available for lending");
 
-        verify(readerService).findById(createLendingDTO.readerId());
-        verify(bookService).findById(createLendingDTO.bookId());
+        assertThat(lending.getBook().getStock()).isEqualTo(10);
         verify(lendingRepository, never()).save(any(Lending.class));
     }
 
@@ -160,6 +178,8 @@ class LendingServiceImplTest {
         assertThat(result.status()).isEqualTo(LendingStatus.RETURNED);
         assertThat(result.returnDate()).isEqualTo(LocalDate.now());
         verify(lendingRepository).findById(lending.getId());
+        verify(outboxPublisher).publish(new LendingLifecycleEvent(LendingLifecycleEvent.Type.RETURNED,
+                1L, 1L, 1L, "ivan@example.com", LendingStatus.RETURNED));
     }
 
     @Test
@@ -312,6 +332,85 @@ class LendingServiceImplTest {
         verify(lendingRepository).findByBookId(bookId, pageable);
     }
 
+    @Test
+    void whenReaderHasArchivedLendings_thenTheyFollowLiveOnesOnTheLastPage() {
+        Long readerId = 1L;
+        Pageable pageable = PageRequest.of(0, 3);
+        when(lendingRepository.findByReaderId(readerId, pageable))
+                .thenReturn(new PageImpl<>(List.of(lending), pageable, 1));
+        when(lendingArchive.findByReaderId(readerId)).thenReturn(List.of(
+                archived(90L, 2L, LocalDate.of(2024, 5, 1)),
+                archived(80L, 1L, LocalDate.of(2024, 3, 1)),
+                archived(70L, 1L, LocalDate.of(2024, 1, 1))));
+        when(readerService.findModelById(readerId)).thenReturn(lending.getReader());
+        when(bookService.findModelById(1L)).thenReturn(lending.getBook());
+        when(bookService.findModelById(2L)).thenThrow(new BookNotFoundException(2L));
+
+        Page<LendingDTO> result = lendingService.findByReaderId(readerId, pageable);
+
+        assertThat(result.getTotalElements()).isEqualTo(4);
+        assertThat(result.getTotalPages()).isEqualTo(2);
+        assertThat(result.getContent()).extracting(LendingDTO::id).containsExactly(1L, 90L, 80L);
+        LendingDTO archived = result.getContent().get(2);
+        assertThat(archived.status()).isEqualTo(LendingStatus.RETURNED);
+        assertThat(archived.bookTitle()).isEqualTo(lending.getBook().getTitle());
+        assertThat(archived.readerFullName()).isEqualTo("Иван Иванов");
+        assertThat(archived.isOverdue()).isFalse();
+        assertThat(archived.daysLeft()).isZero();
+        assertThat(result.getContent().get(1).bookTitle()).isNull();
+        verify(readerService, times(1)).findModelById(readerId);
+    }
+
+    @Test
+    void whenPageIsPastLiveLendings_thenArchivedOnesAreOffsetByLiveTotal() {
+        Long bookId = 1L;
+        Pageable pageable = PageRequest.of(1, 2);
+        when(lendingRepository.findByBookId(bookId, pageable))
+                .thenReturn(new PageImpl<>(List.of(), pageable, 1));
+        when(lendingArchive.findByBookId(bookId)).thenReturn(List.of(
+                archived(90L, bookId, LocalDate.of(2024, 5, 1)),
+                archived(80L, bookId, LocalDate.of(2024, 3, 1)),
+                archived(70L, bookId, LocalDate.of(2024, 1, 1))));
+        when(readerService.findModelById(1L)).thenReturn(lending.getReader());
+        when(bookService.findModelById(bookId)).thenReturn(lending.getBook());
+
+        Page<LendingDTO> result = lendingService.findByBookId(bookId, pageable);
+
+        assertThat(result.getTotalElements()).isEqualTo(4);
+        assertThat(result.getContent()).extracting(LendingDTO::id).containsExactly(80L, 70L);
+    }
+
+    @Test
+    void whenSortedByLendingDateAscending_thenArchivedLendingsAreMergedInOrder() {
+        Long readerId = 1L;
+        lending.setLendingDate(LocalDate.of(2024, 4, 1));
+        Pageable pageable = PageRequest.of(1, 2, Sort.by("lendingDate"));
+        Pageable head = PageRequest.of(0, 4, Sort.by("lendingDate"));
+        when(lendingRepository.findByReaderId(readerId, head))
+                .thenReturn(new PageImpl<>(List.of(lending), head, 1));
+        when(lendingArchive.findByReaderId(readerId)).thenReturn(List.of(
+                archived(90L, 1L, LocalDate.of(2024, 5, 1)),
+                archived(70L, 1L, LocalDate.of(2024, 1, 1)),
+                archived(80L, 1L, LocalDate.of(2024, 3, 1))));
+        when(readerService.findModelById(readerId)).thenReturn(lending.getReader());
+        when(bookService.findModelById(1L)).thenReturn(lending.getBook());
+
+        Page<LendingDTO> result = lendingService.findByReaderId(readerId, pageable);
+
+        assertThat(result.getTotalElements()).isEqualTo(4);
+        assertThat(result.getContent()).extracting(LendingDTO::id).containsExactly(1L, 90L);
+    }
+
+    @Test
+    void whenSortedByPropertyArchiveDoesNotHave_thenUnknownFieldException() {
+        Long bookId = 1L;
+        when(lendingArchive.findByBookId(bookId)).thenReturn(List.of(archived(90L, bookId, LocalDate.of(2024, 5, 1))));
+
+        assertThatThrownBy(() -> lendingService.findByBookId(bookId, PageRequest.of(0, 10, Sort.by("book.title"))))
+                .isInstanceOf(UnknownFieldException.class);
+        verifyNoInteractions(lendingRepository);
+    }
+
     @Test
     void whenFindTopBorrowedBooks_thenReturnPageOfBookPopularityDTO() {
         Pageable pageable = PageRequest.of(0, 10);
@@ -363,6 +462,8 @@ class LendingServiceImplTest {
         overdueLending.setId(2L);
         overdueLending.setStatus(LendingStatus.ACTIVE);
         overdueLending.setDueDate(LocalDate.now().minusDays(1));
+        overdueLending.setReader(lending.getReader());
+        overdueLending.setBook(lending.getBook());
 
         List<Lending> lendings = new ArrayList<>();
         lendings.add(lending);
@@ -375,6 +476,8 @@ class LendingServiceImplTest {
         assertThat(overdueLending.getStatus()).isEqualTo(LendingStatus.OVERDUE);
         assertThat(lending.getStatus()).isEqualTo(LendingStatus.ACTIVE);
         verify(lendingRepository).findAll();
+        verify(outboxPublisher).publish(new LendingLifecycleEvent(LendingLifecycleEvent.Type.OVERDUE,
+                2L, 1L, 1L, "ivan@example.com", LendingStatus.OVERDUE));
     }
 
     @Test
@@ -400,6 +503,8 @@ class LendingServiceImplTest {
 
         assertThat(result.status()).isEqualTo(LendingStatus.OVERDUE);
         verify(lendingRepository).findById(lending.getId());
+        verify(outboxPublisher).publish(new LendingLifecycleEvent(LendingLifecycleEvent.Type.STATUS_CHANGED,
+                1L, 1L, 1L, "ivan@example.com", LendingStatus.OVERDUE));
     }
 
     @Test
@@ -416,4 +521,8 @@ class LendingServiceImplTest {
         assertThat(result).isNotNull();
         verify(lendingRepository).findByReaderIdAndStatus(readerId, LendingStatus.OVERDUE, pageable);
     }
+
+    private static ArchivedLending archived(Long id, Long bookId, LocalDate lendingDate) {
+        return new ArchivedLending(id, bookId, 1L, lendingDate, lendingDate.plusDays(14), lendingDate.plusDays(10));
+    }
 }
@@ -0,0 +1,105 @@
+package LifeValuable.Library.service.impl;
+
+import LifeValuable.Library.dto.admin.RecordingDTO;
+import LifeValuable.Library.exception.RecordingInProgressException;
+import LifeValuable.Library.exception.RecordingNotFoundException;
+import LifeValuable.Library.profiling.LendingEvent;
+import LifeValuable.Library.profiling.ProfiledPasswordEncoder;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.security.crypto.password.NoOpPasswordEncoder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class ProfilingServiceImplTest {
+    @TempDir
+    Path directory;
+
+    private ProfilingServiceImpl profilingService;
+
+    @BeforeEach
+    void setUp() {
+        profilingService = new ProfilingServiceImpl();
+        ReflectionTestUtils.setField(profilingService, "directory", directory.toString());
+    }
+
+    @AfterEach
+    void tearDown() {
+        try {
+            profilingService.stop();
+        } catch (RecordingNotFoundException ignored) {
+        }
+    }
+
+    @Test
+    void whenRecordingStopped_thenFileContainsLibraryEvents() throws Exception {
+        RecordingDTO started = profilingService.start(60, 16);
+        assertThat(started.state()).isEqualTo("RUNNING");
+        assertThat(started.maxSizeBytes()).isEqualTo(16L * 1024 * 1024);
+
+        LendingEvent event = new LendingEvent();
+        event.begin();
+        event.operation = LendingEvent.CHECKOUT;
+        event.lendingId = 42;
+        event.bookId = 7;
+        event.commit();
+        new ProfiledPasswordEncoder(NoOpPasswordEncoder.getInstance()).matches("secret", "secret");
+
+        assertThat(profilingService.stop().state()).isNotEqualTo("RUNNING");
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(profilingService.getRecordingFile());
+        RecordedEvent lending = events.stream()
+                .filter(recorded -> recorded.getEventType().getName().equals("library.Lending"))
+                .findFirst().orElseThrow();
+        assertThat(lending.getLong("lendingId")).isEqualTo(42);
+        assertThat(lending.getString("operation")).isEqualTo("checkout");
+        assertThat(events).anyMatch(recorded -> recorded.getEventType().getName().equals("library.PasswordHash")
+                && recorded.getBoolean("matched"));
+    }
+
+    @Test
+    void whenRequestedLimitsExceedConfigured_thenClamped() {
+        ReflectionTestUtils.setField(profilingService, "maxDurationSeconds", 10L);
+        ReflectionTestUtils.setField(profilingService, "maxSizeMb", 1L);
+
+        RecordingDTO started = profilingService.start(3600, 512);
+
+        assertThat(started.durationSeconds()).isEqualTo(10);
+        assertThat(started.maxSizeBytes()).isEqualTo(1024 * 1024);
+    }
+
+    @Test
+    void whenRecordingRunning_thenSecondStartRejectedAndSnapshotAvailable() throws Exception {
+        profilingService.start(60, 16);
+
+        assertThatThrownBy(() -> profilingService.start(60, 16)).isInstanceOf(RecordingInProgressException.class);
+        assertThat(Files.size(profilingService.getRecordingFile())).isPositive();
+    }
+
+    @Test
+    void whenNewRecordingStarted_thenPreviousFileDeleted() {
+        profilingService.start(60, 16);
+        profilingService.stop();
+        Path previous = profilingService.getRecordingFile();
+
+        profilingService.start(60, 16);
+
+        assertThat(previous).doesNotExist();
+    }
+
+    @Test
+    void whenNothingRecorded_thenNotFound() {
+        assertThatThrownBy(() -> profilingService.getCurrent()).isInstanceOf(RecordingNotFoundException.class);
+        assertThatThrownBy(() -> profilingService.getRecordingFile()).isInstanceOf(RecordingNotFoundException.class);
+    }
+}
@@ -6,6 +6,7 @@ import LifeValuable.Library.dto.reader.ReaderDetailDTO;
 import LifeValuable.Library.exception.ReaderNotFoundException;
 import LifeValuable.Library.mapper.ReaderMapper;
 import LifeValuable.Library.model.Reader;
+import LifeValuable.Library.repository.ProjectionRepository;
 import LifeValuable.Library.repository.ReaderRepository;
 import LifeValuable.Library.security.PasswordConfig;
 import org.junit.jupiter.api.BeforeEach;
@@ -16,6 +17,8 @@ import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.mapstruct.factory.Mappers;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.cache.Cache;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
@@ -30,7 +33,6 @@ import java.util.Optional;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -39,10 +41,16 @@ class ReaderServiceImplTest {
     @Mock
     private ReaderRepository readerRepository;
 
+    @Mock
+    private ProjectionRepository projectionRepository;
+
     private final PasswordEncoder passwordEncoder = new PasswordConfig().passwordEncoder();
 
     private final ReaderMapper readerMapper = Mappers.getMapper(ReaderMapper.class);
 
+    private final ConcurrentMapCacheManager cacheManager =
+            new ConcurrentMapCacheManager(ReaderServiceImpl.PROFILE_CACHE_NAME);
+
     private ReaderServiceImpl readerService;
 
     private Reader reader;
@@ -68,7 +76,8 @@ class ReaderServiceImplTest {
                 "Сергей", "Иванов", "sergey.i@example.com", "+79112223344", "password"
         );
 
-        readerService = new ReaderServiceImpl(readerRepository, readerMapper, passwordEncoder);
+        readerService = new ReaderServiceImpl(readerRepository, readerMapper, passwordEncoder, cacheManager,
+                projectionRepository);
 
     }
 
@@ -78,14 +87,14 @@ class ReaderServiceImplTest {
         Long expectedGeneratedId = 2L;
         readerToSave.setId(expectedGeneratedId);
 
-        when(readerRepository.save(any(Reader.class))).thenReturn(readerToSave);
+        when(readerRepository.saveAndFlush(any(Reader.class))).thenReturn(readerToSave);
 
         ReaderDetailDTO expectedDto = readerMapper.toDetailDto(readerToSave);
 
         ReaderDetailDTO actualDto = readerService.create(createReaderDTO);
 
         assertThat(actualDto).isEqualTo(expectedDto);
-        verify(readerRepository).save(argThat(argument ->
+        verify(readerRepository).saveAndFlush(argThat(argument ->
                 argument.getFirstName().equals(createReaderDTO.firstName()) &&
                         argument.getEmail().equals(createReaderDTO.email()) &&
                         argument.getId() == null
@@ -111,9 +120,35 @@ class ReaderServiceImplTest {
 
         assertThat(actualDto).isEqualTo(expectedDto);
         verify(readerRepository).findById(reader.getId());
+        verify(readerRepository).flush();
+        verify(readerRepository, never()).findByEmail(any());
         verify(readerRepository, never()).save(any());
     }
 
+    @Test
+    void whenUpdate_thenEvictProfileCachedUnderPreviousEmail() {
+        Cache profiles = cacheManager.getCache(ReaderServiceImpl.PROFILE_CACHE_NAME);
+        profiles.put(reader.getEmail(), expectedReaderDetailDTO);
+        when(readerRepository.findById(reader.getId())).thenReturn(Optional.of(reader));
+
+        readerService.update(createReaderDTO, reader.getId());
+
+        assertThat(profiles.get("ivan.p@example.com")).isNull();
+    }
+
+    @Test
+    void whenUpdateCurrentUser_thenEvictCachedProfile() {
+        Cache profiles = cacheManager.getCache(ReaderServiceImpl.PROFILE_CACHE_NAME);
+        profiles.put(reader.getEmail(), expectedReaderDetailDTO);
+        when(readerRepository.findByEmail("ivan.p@example.com")).thenReturn(Optional.of(reader));
+
+        ReaderDetailDTO actualDto = readerService.updateCurrentUser(createReaderDTO, "ivan.p@example.com");
+
+        assertThat(actualDto.email()).isEqualTo(createReaderDTO.email());
+        assertThat(profiles.get("ivan.p@example.com")).isNull();
+        verify(readerRepository).flush();
+    }
+
     @Test
     void whenUpdate_withNonExistingId_thenThrowNotFoundException() {
         Long nonExistingId = 99L;
@@ -128,27 +163,29 @@ class ReaderServiceImplTest {
     }
 
     @Test
-    void whenDeleteById_withExistingId_thenCallRepositoryDelete() {
-        when(readerRepository.existsById(reader.getId())).thenReturn(true);
-        doNothing().when(readerRepository).deleteById(reader.getId());
+    void whenDeleteById_withExistingId_thenCallRepositoryDeleteAndEvictProfile() {
+        Cache profiles = cacheManager.getCache(ReaderServiceImpl.PROFILE_CACHE_NAME);
+        profiles.put(reader.getEmail(), expectedReaderDetailDTO);
+        when(readerRepository.findById(reader.getId())).thenReturn(Optional.of(reader));
 
         readerService.deleteById(reader.getId());
 
-        verify(readerRepository).existsById(reader.getId());
-        verify(readerRepository).deleteById(reader.getId());
+        verify(readerRepository).findById(reader.getId());
+        verify(readerRepository).delete(reader);
+        assertThat(profiles.get(reader.getEmail())).isNull();
     }
 
     @Test
     void whenDeleteById_withNonExistingId_thenThrowNotFoundException() {
         Long nonExistingId = 99L;
-        when(readerRepository.existsById(nonExistingId)).thenReturn(false);
+        when(readerRepository.findById(nonExistingId)).thenReturn(Optional.empty());
 
         assertThatThrownBy(() -> readerService.deleteById(nonExistingId))
                 .isInstanceOf(ReaderNotFoundException.class)
                 .hasMessageContaining("Reader not found with id: " + nonExistingId);
 
-        verify(readerRepository).existsById(nonExistingId);
-        verify(readerRepository, never()).deleteById(anyLong());
+        verify(readerRepository).findById(nonExistingId);
+        verify(readerRepository, never()).delete(any());
     }
 
     @Test
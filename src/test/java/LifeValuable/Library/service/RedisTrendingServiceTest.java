@@ -0,0 +1,136 @@
+package LifeValuable.Library.service.impl;
+
+import LifeValuable.Library.cache.FakeRedisServer;
+import LifeValuable.Library.model.Book;
+import LifeValuable.Library.model.Genre;
+import LifeValuable.Library.model.TrendingWindow;
+import LifeValuable.Library.service.TrendingService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
+import org.springframework.data.redis.connection.jedis.JedisConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class RedisTrendingServiceTest {
+    private static final Instant EPOCH = Instant.parse("2025-01-01T00:00:00Z");
+
+    private FakeRedisServer redis;
+    private JedisConnectionFactory connectionFactory;
+    private MutableClock clock;
+    private RedisTrendingService trendingService;
+
+    private Book harryPotter;
+    private Book dune;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        redis = new FakeRedisServer().start();
+        connectionFactory = new JedisConnectionFactory(new RedisStandaloneConfiguration("localhost", redis.getPort()));
+        connectionFactory.afterPropertiesSet();
+        connectionFactory.start();
+        StringRedisTemplate redisTemplate = new StringRedisTemplate(connectionFactory);
+        redisTemplate.afterPropertiesSet();
+
+        clock = new MutableClock(EPOCH.plus(Duration.ofDays(300)));
+        trendingService = new RedisTrendingService(redisTemplate, EPOCH, clock);
+
+        Genre fantasy = new Genre();
+        fantasy.setName("Фэнтези");
+        harryPotter = new Book();
+        harryPotter.setId(1L);
+        harryPotter.setGenres(List.of(fantasy));
+        dune = new Book();
+        dune.setId(2L);
+        dune.setGenres(List.of());
+    }
+
+    @AfterEach
+    void tearDown() {
+        connectionFactory.destroy();
+        redis.stop();
+    }
+
+    @Test
+    void whenLendingsRecorded_thenTopIsDecayedScoreByGenre() {
+        trendingService.recordLending(harryPotter);
+        trendingService.recordLending(harryPotter);
+        trendingService.recordLending(dune);
+        clock.advance(Duration.ofDays(7));
+
+        List<TrendingService.Score> top = trendingService.findTop(TrendingWindow.WEEK, null, 10);
+
+        assertThat(top).extracting(TrendingService.Score::bookId).containsExactly(1L, 2L);
+        assertThat(top.get(0).score()).isCloseTo(2 * Math.exp(-1), within(1e-9));
+        assertThat(trendingService.findTop(TrendingWindow.WEEK, "Фэнтези", 10))
+                .extracting(TrendingService.Score::bookId)
+                .containsExactly(1L);
+    }
+
+    @Test
+    void whenGenerationChanges_thenPreviousScoresCarriedOverAndWeightStaysFinite() {
+        Instant boundary = TrendingService.generationStart(TrendingWindow.WEEK, EPOCH, 1);
+        clock.set(boundary.minus(Duration.ofDays(1)));
+        trendingService.recordLending(harryPotter);
+        trendingService.recordLending(harryPotter);
+        clock.set(boundary.plus(Duration.ofDays(1)));
+        trendingService.recordLending(dune);
+
+        List<TrendingService.Score> top = trendingService.findTop(TrendingWindow.WEEK, null, 10);
+
+        assertThat(top).extracting(TrendingService.Score::bookId).containsExactly(1L, 2L);
+        assertThat(top.get(0).score()).isCloseTo(2 * Math.exp(-2.0 / 7), within(1e-9));
+        assertThat(top.get(1).score()).isCloseTo(1.0, within(1e-9));
+        assertThat(redis.getCommandCount("ZUNIONSTORE")).isEqualTo(1);
+    }
+
+    @Test
+    void whenRedisUnavailable_thenNothingRecordedAndTopIsEmpty() {
+        redis.stop();
+
+        trendingService.recordLending(harryPotter);
+
+        assertThat(trendingService.findTop(TrendingWindow.WEEK, null, 10)).isEmpty();
+    }
+
+    private static class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        void set(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}